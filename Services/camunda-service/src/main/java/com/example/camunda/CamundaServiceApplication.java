@@ -3,9 +3,11 @@ package com.example.camunda;
 import org.camunda.bpm.spring.boot.starter.annotation.EnableProcessApplication;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableProcessApplication
+@EnableScheduling
 public class CamundaServiceApplication {
 
     public static void main(String[] args) {
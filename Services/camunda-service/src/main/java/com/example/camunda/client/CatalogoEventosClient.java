@@ -0,0 +1,99 @@
+package com.example.camunda.client;
+
+import com.example.common.cache.CacheTtl;
+import com.example.common.contracts.CambiosCatalogo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Map;
+
+/**
+ * Lecturas de tipos de entrada y eventos para los delegates de compra, con una
+ * cache L1 en memoria (acotada y con TTL).
+ *
+ * Solo se guardan los campos que usan los delegates; el stock no se guarda.
+ * Las ediciones y cancelaciones se ven antes del TTL siguiendo
+ * GET /api/catalogo/cambios de event-service.
+ */
+@Slf4j
+@Component
+public class CatalogoEventosClient {
+
+    private final RestTemplate restTemplate;
+    private final String eventServiceUrl;
+    private final CacheTtl<Long, TipoEntradaInfo> tiposEntrada;
+    private final CacheTtl<Long, EventoInfo> eventos;
+
+    // Posición en el registro de cambios de event-service
+    private String instanciaCatalogo;
+    private long secuenciaCatalogo;
+
+    public CatalogoEventosClient(RestTemplate restTemplate,
+                                 @Value("${services.event-service.url}") String eventServiceUrl,
+                                 @Value("${catalogo.cache.l1.max-entradas:5000}") int maxEntradas,
+                                 @Value("${catalogo.cache.l1.ttl-ms:30000}") long ttlMs) {
+        this.restTemplate = restTemplate;
+        this.eventServiceUrl = eventServiceUrl;
+        this.tiposEntrada = new CacheTtl<>(maxEntradas, ttlMs);
+        this.eventos = new CacheTtl<>(maxEntradas, ttlMs);
+    }
+
+    public TipoEntradaInfo getTipoEntrada(Long tipoEntradaId) {
+        return tiposEntrada.obtener(tipoEntradaId, id -> {
+            Map<?, ?> tipo = restTemplate.getForObject(eventServiceUrl + "/api/tipos-entrada/" + id, Map.class);
+            return new TipoEntradaInfo(
+                    ((Number) tipo.get("precio")).doubleValue(),
+                    (String) tipo.get("nombre"),
+                    ((Number) tipo.get("eventoId")).longValue());
+        });
+    }
+
+    public EventoInfo getEvento(Long eventoId) {
+        return eventos.obtener(eventoId, id -> {
+            Map<?, ?> evento = restTemplate.getForObject(eventServiceUrl + "/api/eventos/" + id, Map.class);
+            return new EventoInfo(
+                    (String) evento.get("nombre"),
+                    (String) evento.get("descripcion"),
+                    (String) evento.get("estado"));
+        });
+    }
+
+    /**
+     * Saca de la cache lo editado o eliminado en event-service. Si event-service
+     * no responde no se hace nada: el TTL sigue acotando la antigüedad.
+     */
+    @Scheduled(fixedDelayString = "${catalogo.cache.l1.intervalo-cambios-ms:1000}")
+    public void seguirCambiosCatalogo() {
+        String url = eventServiceUrl + "/api/catalogo/cambios?desde=" + secuenciaCatalogo
+                + (instanciaCatalogo != null ? "&instancia=" + instanciaCatalogo : "");
+        CambiosCatalogo cambios;
+        try {
+            cambios = restTemplate.getForObject(url, CambiosCatalogo.class);
+        } catch (RestClientException e) {
+            log.debug("No se pudieron leer los cambios del catálogo: {}", e.getMessage());
+            return;
+        }
+        if (cambios == null) {
+            return;
+        }
+        if (cambios.completo()) {
+            tiposEntrada.invalidarTodo();
+            eventos.invalidarTodo();
+        } else {
+            cambios.tiposEntrada().forEach(tiposEntrada::invalidar);
+            cambios.eventos().forEach(eventos::invalidar);
+        }
+        instanciaCatalogo = cambios.instancia();
+        secuenciaCatalogo = cambios.secuencia();
+    }
+
+    public record TipoEntradaInfo(double precio, String nombre, Long eventoId) {
+    }
+
+    public record EventoInfo(String nombre, String descripcion, String estado) {
+    }
+}
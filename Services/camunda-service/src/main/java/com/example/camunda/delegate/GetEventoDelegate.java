@@ -1,28 +1,18 @@
 package com.example.camunda.delegate;
 
+import com.example.camunda.client.CatalogoEventosClient;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestTemplate;
-
-import java.util.Map;
 
 @Slf4j
 @Component("getEventoDelegate")
 @RequiredArgsConstructor
 public class GetEventoDelegate implements JavaDelegate {
 
-    private final RestTemplate restTemplate;
-    
-    @Value("${services.event-service.url}")
-    private String eventServiceUrl;
-    
-    @Value("${gateway.secret}")
-    private String gatewaySecret;
+    private final CatalogoEventosClient catalogoEventosClient;
 
     @Override
     public void execute(DelegateExecution execution) throws Exception {
@@ -30,18 +20,11 @@ public class GetEventoDelegate implements JavaDelegate {
         
         Long eventoId = ((Number) execution.getVariable("eventoId")).longValue();
         
-        HttpHeaders headers = new HttpHeaders();
-        headers.set("X-Gateway-Secret", gatewaySecret);
-        
-        HttpEntity<Void> request = new HttpEntity<>(headers);
-        
-        String url = eventServiceUrl + "/api/eventos/" + eventoId;
-        ResponseEntity<Map> response = restTemplate.exchange(url, HttpMethod.GET, request, Map.class);
-        Map<String, Object> evento = response.getBody();
+        CatalogoEventosClient.EventoInfo evento = catalogoEventosClient.getEvento(eventoId);
         
-        String eventoNombre = (String) evento.get("nombre");
-        String descripcion = (String) evento.get("descripcion");
-        String estadoEvento = (String) evento.get("estado");
+        String eventoNombre = evento.nombre();
+        String descripcion = evento.descripcion();
+        String estadoEvento = evento.estado();
         
         // Validar que el evento esté ACTIVO
         if (!"ACTIVO".equals(estadoEvento)) {
@@ -1,28 +1,18 @@
 package com.example.camunda.delegate;
 
+import com.example.camunda.client.CatalogoEventosClient;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.delegate.JavaDelegate;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestTemplate;
-
-import java.util.Map;
 
 @Slf4j
 @Component("getTipoEntradaDelegate")
 @RequiredArgsConstructor
 public class GetTipoEntradaDelegate implements JavaDelegate {
 
-    private final RestTemplate restTemplate;
-    
-    @Value("${services.event-service.url}")
-    private String eventServiceUrl;
-    
-    @Value("${gateway.secret}")
-    private String gatewaySecret;
+    private final CatalogoEventosClient catalogoEventosClient;
 
     @Override
     public void execute(DelegateExecution execution) throws Exception {
@@ -30,18 +20,12 @@ public class GetTipoEntradaDelegate implements JavaDelegate {
         
         Long tipoEntradaId = ((Number) execution.getVariable("tipoEntradaId")).longValue();
         
-        HttpHeaders headers = new HttpHeaders();
-        headers.set("X-Gateway-Secret", gatewaySecret);
-        
-        HttpEntity<Void> request = new HttpEntity<>(headers);
-        
-        String url = eventServiceUrl + "/api/tipos-entrada/" + tipoEntradaId;
-        ResponseEntity<Map> response = restTemplate.exchange(url, HttpMethod.GET, request, Map.class);
-        Map<String, Object> tipoEntrada = response.getBody();
+        // Precio y nombre desde la cache L1 (el stock lo valida la reserva)
+        CatalogoEventosClient.TipoEntradaInfo tipoEntrada = catalogoEventosClient.getTipoEntrada(tipoEntradaId);
         
-        Double precio = ((Number) tipoEntrada.get("precio")).doubleValue();
-        String tipoEntradaNombre = (String) tipoEntrada.get("nombre");
-        Long eventoId = ((Number) tipoEntrada.get("eventoId")).longValue();
+        Double precio = tipoEntrada.precio();
+        String tipoEntradaNombre = tipoEntrada.nombre();
+        Long eventoId = tipoEntrada.eventoId();
         Integer cantidad = ((Number) execution.getVariable("cantidad")).intValue();
         
         Double montoTotal = precio * cantidad;
@@ -0,0 +1,93 @@
+package com.example.common.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Cache en memoria acotada por tamaño (LRU) y por tiempo de vida.
+ *
+ * Pensada para lecturas de catálogo que casi nunca cambian y que se piden en
+ * cada compra: pocas entradas, muchas lecturas. La carga se hace fuera del
+ * lock; si hubo una invalidación mientras se cargaba, el valor cargado se
+ * devuelve pero no se guarda (puede ser la versión anterior).
+ *
+ * Los valores {@code null} no se guardan.
+ */
+public final class CacheTtl<K, V> {
+
+    private final long ttlMs;
+    private final Map<K, Entrada<V>> entradas;
+    private final AtomicLong generacion = new AtomicLong();
+    private final AtomicLong aciertos = new AtomicLong();
+    private final AtomicLong fallos = new AtomicLong();
+
+    public CacheTtl(int maxEntradas, long ttlMs) {
+        this.ttlMs = ttlMs;
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entrada<V>> mayor) {
+                return size() > maxEntradas;
+            }
+        };
+    }
+
+    /**
+     * Valor vigente de la clave, o el que devuelva {@code cargar} (que se guarda).
+     */
+    public V obtener(K clave, Function<K, V> cargar) {
+        long ahora = System.currentTimeMillis();
+        long vista;
+        synchronized (entradas) {
+            Entrada<V> entrada = entradas.get(clave);
+            if (entrada != null && entrada.vigenteHasta > ahora) {
+                aciertos.incrementAndGet();
+                return entrada.valor;
+            }
+            vista = generacion.get();
+        }
+        fallos.incrementAndGet();
+
+        V valor = cargar.apply(clave);
+        if (valor != null) {
+            synchronized (entradas) {
+                if (generacion.get() == vista) {
+                    entradas.put(clave, new Entrada<>(valor, System.currentTimeMillis() + ttlMs));
+                }
+            }
+        }
+        return valor;
+    }
+
+    public void invalidar(K clave) {
+        synchronized (entradas) {
+            generacion.incrementAndGet();
+            entradas.remove(clave);
+        }
+    }
+
+    public void invalidarTodo() {
+        synchronized (entradas) {
+            generacion.incrementAndGet();
+            entradas.clear();
+        }
+    }
+
+    public int tamanio() {
+        synchronized (entradas) {
+            return entradas.size();
+        }
+    }
+
+    public long getAciertos() {
+        return aciertos.get();
+    }
+
+    public long getFallos() {
+        return fallos.get();
+    }
+
+    private record Entrada<V>(V valor, long vigenteHasta) {
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.common.contracts;
+
+import java.util.List;
+
+/**
+ * Contrato de GET /api/catalogo/cambios (event-service): eventos y tipos de
+ * entrada editados o eliminados después de {@code secuencia} anterior.
+ *
+ * {@code completo = true} significa que no se pueden listar los cambios (la
+ * instancia se reinició o el pedido es demasiado viejo) y hay que vaciar la
+ * cache entera. Los ids repetidos vienen una sola vez.
+ */
+public record CambiosCatalogo(String instancia, long secuencia, boolean completo,
+                              List<Long> eventos, List<Long> tiposEntrada) {
+}
@@ -0,0 +1,38 @@
+package com.example.common.contracts;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+
+/**
+ * Contrato de GET /api/users/{id}/email (user-service): solo el email del usuario.
+ */
+@JsonDeserialize(using = EmailUsuario.Lector.class)
+public record EmailUsuario(String email) {
+
+    public static final class Lector extends StdDeserializer<EmailUsuario> {
+
+        public Lector() {
+            super(EmailUsuario.class);
+        }
+
+        @Override
+        public EmailUsuario deserialize(JsonParser p, DeserializationContext ctx) throws IOException {
+            String email = null;
+            for (JsonToken t = LectorJson.primerCampo(p); t == JsonToken.FIELD_NAME; t = p.nextToken()) {
+                String campo = p.currentName();
+                p.nextToken();
+                if ("email".equals(campo)) {
+                    email = LectorJson.texto(p);
+                } else {
+                    p.skipChildren();
+                }
+            }
+            return new EmailUsuario(email);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.common.contracts;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+
+/**
+ * Contrato de GET /api/eventos/{id} (event-service). La lista tiposEntrada del
+ * evento se salta sin materializarse.
+ *
+ * @param organizadorId usuario que creó el evento (destinatario de las ventas), o null
+ * @param activo        false si el evento está cancelado o finalizado (sin el campo se asume activo)
+ */
+@JsonDeserialize(using = EventoResumen.Lector.class)
+public record EventoResumen(Long id, String nombre, String fechaEvento, Long organizadorId, boolean activo) {
+
+    public static final class Lector extends StdDeserializer<EventoResumen> {
+
+        public Lector() {
+            super(EventoResumen.class);
+        }
+
+        @Override
+        public EventoResumen deserialize(JsonParser p, DeserializationContext ctx) throws IOException {
+            Long id = null;
+            String nombre = null;
+            String fechaEvento = null;
+            Long organizadorId = null;
+            boolean activo = true;
+            for (JsonToken t = LectorJson.primerCampo(p); t == JsonToken.FIELD_NAME; t = p.nextToken()) {
+                String campo = p.currentName();
+                p.nextToken();
+                switch (campo) {
+                    case "id" -> id = LectorJson.entero(p);
+                    case "nombre" -> nombre = LectorJson.texto(p);
+                    case "fechaEvento" -> fechaEvento = LectorJson.texto(p);
+                    case "organizadorId" -> organizadorId = LectorJson.entero(p);
+                    case "activo" -> activo = p.currentToken() != JsonToken.VALUE_FALSE;
+                    default -> p.skipChildren();
+                }
+            }
+            return new EventoResumen(id, nombre, fechaEvento, organizadorId, activo);
+        }
+    }
+}
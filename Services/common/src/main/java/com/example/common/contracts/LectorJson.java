@@ -0,0 +1,43 @@
+package com.example.common.contracts;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * Utilidades de los deserializadores streaming de los contratos.
+ *
+ * Cada contrato recorre el JSON token a token, toma solo los campos que usa y
+ * salta el resto con {@code skipChildren()}: no se construyen Map intermedios
+ * ni se materializan subárboles que nadie lee (p. ej. tiposEntrada de un evento).
+ */
+final class LectorJson {
+
+    private LectorJson() {
+    }
+
+    /**
+     * Deja el parser en el primer FIELD_NAME del objeto (Jackson puede entregar
+     * el objeto en START_OBJECT o ya en su primer campo).
+     */
+    static JsonToken primerCampo(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        return token == JsonToken.START_OBJECT ? parser.nextToken() : token;
+    }
+
+    /**
+     * Valor escalar como texto; los objetos y arrays se saltan y devuelven null.
+     */
+    static String texto(JsonParser parser) throws IOException {
+        if (parser.currentToken().isStructStart()) {
+            parser.skipChildren();
+            return null;
+        }
+        return parser.getValueAsString();
+    }
+
+    static Long entero(JsonParser parser) throws IOException {
+        return parser.currentToken() == JsonToken.VALUE_NULL ? null : parser.getValueAsLong();
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.common.contracts;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+
+/**
+ * Contrato de las respuestas de /api/reservas (ticket-service): crear, confirmar y liberar.
+ */
+@JsonDeserialize(using = ReservaResumen.Lector.class)
+public record ReservaResumen(Long id, String estado, long segundosRestantes) {
+
+    public static final class Lector extends StdDeserializer<ReservaResumen> {
+
+        public Lector() {
+            super(ReservaResumen.class);
+        }
+
+        @Override
+        public ReservaResumen deserialize(JsonParser p, DeserializationContext ctx) throws IOException {
+            Long id = null;
+            String estado = null;
+            long segundosRestantes = 0;
+            for (JsonToken t = LectorJson.primerCampo(p); t == JsonToken.FIELD_NAME; t = p.nextToken()) {
+                String campo = p.currentName();
+                p.nextToken();
+                switch (campo) {
+                    case "id" -> id = LectorJson.entero(p);
+                    case "estado" -> estado = LectorJson.texto(p);
+                    case "segundosRestantes" -> segundosRestantes = p.getValueAsLong();
+                    default -> p.skipChildren();
+                }
+            }
+            return new ReservaResumen(id, estado, segundosRestantes);
+        }
+    }
+}
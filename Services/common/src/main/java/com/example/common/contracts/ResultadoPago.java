@@ -0,0 +1,50 @@
+package com.example.common.contracts;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+
+/**
+ * Contrato de POST /api/payments/authorize (payment-service), tanto aprobado
+ * (200) como rechazado (402).
+ */
+@JsonDeserialize(using = ResultadoPago.Lector.class)
+public record ResultadoPago(String paymentId, String status, String mensaje) {
+
+    public static final String APROBADO = "APPROVED";
+
+    @JsonIgnore
+    public boolean isAprobado() {
+        return APROBADO.equals(status);
+    }
+
+    public static final class Lector extends StdDeserializer<ResultadoPago> {
+
+        public Lector() {
+            super(ResultadoPago.class);
+        }
+
+        @Override
+        public ResultadoPago deserialize(JsonParser p, DeserializationContext ctx) throws IOException {
+            String paymentId = null;
+            String status = null;
+            String mensaje = null;
+            for (JsonToken t = LectorJson.primerCampo(p); t == JsonToken.FIELD_NAME; t = p.nextToken()) {
+                String campo = p.currentName();
+                p.nextToken();
+                switch (campo) {
+                    case "paymentId" -> paymentId = LectorJson.texto(p);
+                    case "status" -> status = LectorJson.texto(p);
+                    case "mensaje" -> mensaje = LectorJson.texto(p);
+                    default -> p.skipChildren();
+                }
+            }
+            return new ResultadoPago(paymentId, status, mensaje);
+        }
+    }
+}
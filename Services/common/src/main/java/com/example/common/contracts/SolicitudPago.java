@@ -0,0 +1,8 @@
+package com.example.common.contracts;
+
+/**
+ * Cuerpo de POST /api/payments/authorize (payment-service).
+ */
+public record SolicitudPago(String idempotencyKey, Double monto, String cardNumber, String cvv,
+                            String expiryDate, String cardHolder) {
+}
@@ -0,0 +1,7 @@
+package com.example.common.contracts;
+
+/**
+ * Cuerpo de POST /api/reservas/crear (ticket-service).
+ */
+public record SolicitudReserva(Long tipoEntradaId, Long usuarioId, Integer cantidad) {
+}
@@ -0,0 +1,8 @@
+package com.example.common.contracts;
+
+/**
+ * Cuerpo de POST /api/tickets (ticket-service).
+ */
+public record SolicitudTicket(Long usuarioId, Long tipoEntradaId, String eventoNombre, String tipoEntradaNombre,
+                              Integer cantidad, Double precioUnitario, String paymentId) {
+}
@@ -0,0 +1,57 @@
+package com.example.common.contracts;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+
+/**
+ * Contrato de POST /api/tickets (ticket-service). Es también la respuesta de la
+ * compra orquestada, por eso conserva todos los campos de TicketResponse.
+ */
+@JsonDeserialize(using = TicketEmitido.Lector.class)
+public record TicketEmitido(String ticketId, String eventoNombre, String tipoEntrada, int cantidad,
+                            double precioUnitario, double total, String paymentId, String estado,
+                            String fechaCompra) {
+
+    public static final class Lector extends StdDeserializer<TicketEmitido> {
+
+        public Lector() {
+            super(TicketEmitido.class);
+        }
+
+        @Override
+        public TicketEmitido deserialize(JsonParser p, DeserializationContext ctx) throws IOException {
+            String ticketId = null;
+            String eventoNombre = null;
+            String tipoEntrada = null;
+            int cantidad = 0;
+            double precioUnitario = 0;
+            double total = 0;
+            String paymentId = null;
+            String estado = null;
+            String fechaCompra = null;
+            for (JsonToken t = LectorJson.primerCampo(p); t == JsonToken.FIELD_NAME; t = p.nextToken()) {
+                String campo = p.currentName();
+                p.nextToken();
+                switch (campo) {
+                    case "ticketId" -> ticketId = LectorJson.texto(p);
+                    case "eventoNombre" -> eventoNombre = LectorJson.texto(p);
+                    case "tipoEntrada" -> tipoEntrada = LectorJson.texto(p);
+                    case "cantidad" -> cantidad = p.getValueAsInt();
+                    case "precioUnitario" -> precioUnitario = p.getValueAsDouble();
+                    case "total" -> total = p.getValueAsDouble();
+                    case "paymentId" -> paymentId = LectorJson.texto(p);
+                    case "estado" -> estado = LectorJson.texto(p);
+                    case "fechaCompra" -> fechaCompra = LectorJson.texto(p);
+                    default -> p.skipChildren();
+                }
+            }
+            return new TicketEmitido(ticketId, eventoNombre, tipoEntrada, cantidad, precioUnitario, total,
+                    paymentId, estado, fechaCompra);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.common.contracts;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+
+/**
+ * Contrato de GET /api/tipos-entrada/{id} (event-service): solo los campos que
+ * necesita una compra.
+ *
+ * @param activo false si el tipo está desactivado (sin el campo se asume activo)
+ */
+@JsonDeserialize(using = TipoEntradaResumen.Lector.class)
+public record TipoEntradaResumen(Long id, Long eventoId, String nombre, double precio, int cantidadDisponible,
+                                 boolean activo) {
+
+    public static final class Lector extends StdDeserializer<TipoEntradaResumen> {
+
+        public Lector() {
+            super(TipoEntradaResumen.class);
+        }
+
+        @Override
+        public TipoEntradaResumen deserialize(JsonParser p, DeserializationContext ctx) throws IOException {
+            Long id = null;
+            Long eventoId = null;
+            String nombre = null;
+            double precio = 0;
+            int cantidadDisponible = 0;
+            boolean activo = true;
+            for (JsonToken t = LectorJson.primerCampo(p); t == JsonToken.FIELD_NAME; t = p.nextToken()) {
+                String campo = p.currentName();
+                p.nextToken();
+                switch (campo) {
+                    case "id" -> id = LectorJson.entero(p);
+                    case "eventoId" -> eventoId = LectorJson.entero(p);
+                    case "nombre" -> nombre = LectorJson.texto(p);
+                    case "precio" -> precio = p.getValueAsDouble();
+                    case "cantidadDisponible" -> cantidadDisponible = p.getValueAsInt();
+                    case "activo" -> activo = p.currentToken() != JsonToken.VALUE_FALSE;
+                    default -> p.skipChildren();
+                }
+            }
+            return new TipoEntradaResumen(id, eventoId, nombre, precio, cantidadDisponible, activo);
+        }
+    }
+}
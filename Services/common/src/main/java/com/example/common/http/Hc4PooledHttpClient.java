@@ -0,0 +1,78 @@
+package com.example.common.http;
+
+import org.apache.http.HttpHost;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pool HTTP/1.1 keep-alive sobre Apache HttpClient 4 para Spring Framework 5
+ * (camunda-service, Spring Boot 2.7), cuyo RestTemplate no soporta HttpClient 5.
+ *
+ * El constructor de HttpComponentsClientHttpRequestFactory que recibe un
+ * HttpClient 4 solo existe en Spring 5, por eso se invoca por reflexión.
+ */
+class Hc4PooledHttpClient implements PooledHttpClient {
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+    private final ClientHttpRequestFactory requestFactory;
+
+    Hc4PooledHttpClient(HttpClientPoolProperties properties) {
+        this.connectionManager = new PoolingHttpClientConnectionManager(
+                properties.getTimeToLive().toMillis(), TimeUnit.MILLISECONDS);
+        connectionManager.setMaxTotal(properties.getMaxTotal());
+        connectionManager.setDefaultMaxPerRoute(properties.getMaxPerHost());
+        connectionManager.setValidateAfterInactivity((int) properties.getValidateAfterInactivity().toMillis());
+        properties.getPerHost().forEach((host, max) ->
+                connectionManager.setMaxPerRoute(new HttpRoute(HttpHost.create(host)), max));
+
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout((int) properties.getConnectTimeout().toMillis())
+                        .setSocketTimeout((int) properties.getReadTimeout().toMillis())
+                        .setConnectionRequestTimeout((int) properties.getPendingTimeout().toMillis())
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(properties.getIdleEviction().toMillis(), TimeUnit.MILLISECONDS)
+                .build();
+
+        try {
+            this.requestFactory = HttpComponentsClientHttpRequestFactory.class
+                    .getConstructor(HttpClient.class)
+                    .newInstance(httpClient);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Spring Framework 5 requerido para el pool con HttpClient 4", e);
+        }
+    }
+
+    @Override
+    public ClientHttpRequestFactory requestFactory() {
+        return requestFactory;
+    }
+
+    @Override
+    public PoolSnapshot snapshot() {
+        PoolStats stats = connectionManager.getTotalStats();
+        return new PoolSnapshot(stats.getLeased(), stats.getPending(), stats.getAvailable(), stats.getMax());
+    }
+
+    @Override
+    public void close() {
+        try {
+            httpClient.close();
+        } catch (IOException e) {
+            // Apagando: no hay nada más que hacer con el pool
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.common.http;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.function.ToIntFunction;
+
+/**
+ * Gauges del pool de conexiones salientes:
+ * http.client.pool.leased / pending / available / max, con tag pool=&lt;servicio&gt;.
+ *
+ * pending &gt; 0 sostenido indica que max-per-host o max-total se quedaron cortos.
+ */
+public class HttpClientPoolMetrics implements MeterBinder {
+
+    private final PooledHttpClient client;
+    private final String pool;
+
+    public HttpClientPoolMetrics(PooledHttpClient client, String pool) {
+        this.client = client;
+        this.pool = pool;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (client.snapshot() == null) {
+            return;
+        }
+        gauge(registry, "leased", "Conexiones en uso", PooledHttpClient.PoolSnapshot::leased);
+        gauge(registry, "pending", "Peticiones esperando una conexión libre", PooledHttpClient.PoolSnapshot::pending);
+        gauge(registry, "available", "Conexiones keep-alive libres", PooledHttpClient.PoolSnapshot::available);
+        gauge(registry, "max", "Conexiones máximas del pool", PooledHttpClient.PoolSnapshot::max);
+    }
+
+    private void gauge(MeterRegistry registry, String nombre, String descripcion,
+                       ToIntFunction<PooledHttpClient.PoolSnapshot> valor) {
+        Gauge.builder("http.client.pool." + nombre, client, c -> valor.applyAsInt(c.snapshot()))
+                .description(descripcion)
+                .tag("pool", pool)
+                .register(registry);
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.common.http;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Configuración del cliente HTTP compartido entre servicios (prefijo {@code http.client}).
+ *
+ * Ejemplo:
+ * <pre>
+ * http.client.max-total=200
+ * http.client.max-per-host=50
+ * http.client.per-host[localhost:8086]=100
+ * http.client.read-timeout=30s
+ * </pre>
+ */
+@ConfigurationProperties(prefix = "http.client")
+public class HttpClientPoolProperties {
+
+    /** Con false se vuelve al RestTemplate sin pool (útil para comparar). */
+    private boolean poolEnabled = true;
+
+    /** Conexiones máximas del pool entre todos los hosts. */
+    private int maxTotal = 200;
+
+    /** Conexiones máximas por host (host:puerto) si no hay un límite específico. */
+    private int maxPerHost = 50;
+
+    /** Límites específicos por host, clave "host:puerto". */
+    private Map<String, Integer> perHost = new LinkedHashMap<>();
+
+    private Duration connectTimeout = Duration.ofSeconds(5);
+
+    private Duration readTimeout = Duration.ofSeconds(30);
+
+    /** Espera máxima por una conexión libre del pool antes de fallar. */
+    private Duration pendingTimeout = Duration.ofSeconds(5);
+
+    /** Las conexiones ociosas más de este tiempo se cierran en segundo plano. */
+    private Duration idleEviction = Duration.ofSeconds(30);
+
+    /** Vida máxima de una conexión (fuerza a redescubrir réplicas detrás de DNS). */
+    private Duration timeToLive = Duration.ofMinutes(5);
+
+    /** Revalidar la conexión antes de reusarla si estuvo inactiva más de esto. */
+    private Duration validateAfterInactivity = Duration.ofSeconds(2);
+
+    /** HTTP/2 (h2c) con el cliente del JDK; requiere Spring Framework 6.1+. */
+    private boolean http2 = false;
+
+    public boolean isPoolEnabled() {
+        return poolEnabled;
+    }
+
+    public void setPoolEnabled(boolean poolEnabled) {
+        this.poolEnabled = poolEnabled;
+    }
+
+    public int getMaxTotal() {
+        return maxTotal;
+    }
+
+    public void setMaxTotal(int maxTotal) {
+        this.maxTotal = maxTotal;
+    }
+
+    public int getMaxPerHost() {
+        return maxPerHost;
+    }
+
+    public void setMaxPerHost(int maxPerHost) {
+        this.maxPerHost = maxPerHost;
+    }
+
+    public Map<String, Integer> getPerHost() {
+        return perHost;
+    }
+
+    public void setPerHost(Map<String, Integer> perHost) {
+        this.perHost = perHost;
+    }
+
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(Duration connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public Duration getReadTimeout() {
+        return readTimeout;
+    }
+
+    public void setReadTimeout(Duration readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+
+    public Duration getPendingTimeout() {
+        return pendingTimeout;
+    }
+
+    public void setPendingTimeout(Duration pendingTimeout) {
+        this.pendingTimeout = pendingTimeout;
+    }
+
+    public Duration getIdleEviction() {
+        return idleEviction;
+    }
+
+    public void setIdleEviction(Duration idleEviction) {
+        this.idleEviction = idleEviction;
+    }
+
+    public Duration getTimeToLive() {
+        return timeToLive;
+    }
+
+    public void setTimeToLive(Duration timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+
+    public Duration getValidateAfterInactivity() {
+        return validateAfterInactivity;
+    }
+
+    public void setValidateAfterInactivity(Duration validateAfterInactivity) {
+        this.validateAfterInactivity = validateAfterInactivity;
+    }
+
+    public boolean isHttp2() {
+        return http2;
+    }
+
+    public void setHttp2(boolean http2) {
+        this.http2 = http2;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.common.http;
+
+import org.springframework.http.client.ClientHttpRequestFactory;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * HTTP/2 con el cliente del JDK: una conexión multiplexada por host (h2c por
+ * upgrade sobre http://, con vuelta a HTTP/1.1 si el servidor no lo acepta).
+ *
+ * El JDK administra sus conexiones internamente, así que no hay límites por host
+ * ni estadísticas de pool. JdkClientHttpRequestFactory llegó en Spring 6.1 y se
+ * crea por reflexión para que common siga compilando contra 6.0.
+ */
+class JdkHttp2PooledHttpClient implements PooledHttpClient {
+
+    static final String FACTORY_CLASS = "org.springframework.http.client.JdkClientHttpRequestFactory";
+
+    private final ClientHttpRequestFactory requestFactory;
+
+    JdkHttp2PooledHttpClient(HttpClientPoolProperties properties) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(properties.getConnectTimeout())
+                .build();
+        try {
+            Class<?> factoryClass = Class.forName(FACTORY_CLASS);
+            Object factory = factoryClass.getConstructor(HttpClient.class).newInstance(httpClient);
+            factoryClass.getMethod("setReadTimeout", Duration.class).invoke(factory, properties.getReadTimeout());
+            this.requestFactory = (ClientHttpRequestFactory) factory;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("http.client.http2=true requiere Spring Framework 6.1+", e);
+        }
+    }
+
+    static boolean soportado() {
+        try {
+            Class.forName(FACTORY_CLASS);
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public ClientHttpRequestFactory requestFactory() {
+        return requestFactory;
+    }
+
+    @Override
+    public PoolSnapshot snapshot() {
+        return null;
+    }
+
+    @Override
+    public void close() {
+        // HttpClient del JDK 17 no es AutoCloseable; sus hilos son daemon
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.common.http;
+
+import org.springframework.http.client.ClientHttpRequestFactory;
+
+/**
+ * Cliente HTTP con pool de conexiones listo para un RestTemplate.
+ *
+ * Hay una implementación por pila: HttpClient 5 (Spring 6), HttpClient 4
+ * (Spring 5, camunda-service) y el cliente del JDK para HTTP/2.
+ */
+public interface PooledHttpClient extends AutoCloseable {
+
+    ClientHttpRequestFactory requestFactory();
+
+    /**
+     * Estado del pool en este instante; {@code null} si la implementación no lo expone.
+     */
+    PoolSnapshot snapshot();
+
+    @Override
+    void close();
+
+    /**
+     * Conexiones prestadas, peticiones esperando conexión, conexiones libres y máximo.
+     */
+    record PoolSnapshot(int leased, int pending, int available, int max) {
+    }
+}
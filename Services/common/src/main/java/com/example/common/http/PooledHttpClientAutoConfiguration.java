@@ -0,0 +1,117 @@
+package com.example.common.http;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+
+/**
+ * Cliente HTTP compartido para los RestTemplate entre servicios.
+ *
+ * Expone un {@link ClientHttpRequestFactory} con pool keep-alive (límites por
+ * host, desalojo de conexiones ociosas, métricas). Cada RestTemplateConfig lo
+ * recibe por inyección: {@code new RestTemplate(clientHttpRequestFactory)}.
+ *
+ * La implementación se elige según la pila del servicio, en este orden: HTTP/2
+ * del JDK si se pide y hay Spring 6.1+, HttpClient 5 en Spring 6 y HttpClient 4
+ * en Spring 5. Cada una está en su propia configuración condicionada a que sus
+ * clases estén en el classpath (httpclient5 y httpclient son opcionales en
+ * common). Si no aplica ninguna, o con http.client.pool-enabled=false, se usa
+ * el factory simple del JDK sin pool.
+ */
+@AutoConfiguration
+@EnableConfigurationProperties(HttpClientPoolProperties.class)
+@Import({PooledHttpClientAutoConfiguration.JdkHttp2.class,
+        PooledHttpClientAutoConfiguration.HttpClient5.class,
+        PooledHttpClientAutoConfiguration.HttpClient4.class})
+public class PooledHttpClientAutoConfiguration {
+
+    private static final Logger log = LoggerFactory.getLogger(PooledHttpClientAutoConfiguration.class);
+
+    @Bean
+    @ConditionalOnMissingBean(ClientHttpRequestFactory.class)
+    public ClientHttpRequestFactory clientHttpRequestFactory(ObjectProvider<PooledHttpClient> pooledHttpClient,
+                                                             HttpClientPoolProperties properties) {
+        PooledHttpClient client = pooledHttpClient.getIfAvailable();
+        if (client != null) {
+            return client.requestFactory();
+        }
+        log.info("Cliente HTTP entre servicios: sin pool (http.client.pool-enabled=false o sin HttpClient en el classpath)");
+        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+        factory.setConnectTimeout((int) properties.getConnectTimeout().toMillis());
+        factory.setReadTimeout((int) properties.getReadTimeout().toMillis());
+        return factory;
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(name = "http.client.http2", havingValue = "true")
+    @ConditionalOnClass(name = JdkHttp2PooledHttpClient.FACTORY_CLASS)
+    static class JdkHttp2 {
+
+        @Bean(destroyMethod = "close")
+        @ConditionalOnMissingBean
+        @ConditionalOnProperty(name = "http.client.pool-enabled", havingValue = "true", matchIfMissing = true)
+        public PooledHttpClient pooledHttpClient(HttpClientPoolProperties properties) {
+            log.info("Cliente HTTP entre servicios: HTTP/2 (JDK HttpClient)");
+            return new JdkHttp2PooledHttpClient(properties);
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = {"org.apache.hc.client5.http.impl.classic.CloseableHttpClient",
+            "org.springframework.http.HttpStatusCode"})
+    static class HttpClient5 {
+
+        @Bean(destroyMethod = "close")
+        @ConditionalOnMissingBean
+        @ConditionalOnProperty(name = "http.client.pool-enabled", havingValue = "true", matchIfMissing = true)
+        public PooledHttpClient pooledHttpClient(HttpClientPoolProperties properties) {
+            if (properties.isHttp2()) {
+                log.warn("http.client.http2=true requiere Spring Framework 6.1+, se usa el pool HTTP/1.1");
+            }
+            log.info("Cliente HTTP entre servicios: pool HTTP/1.1 keep-alive (HttpClient 5), max {} / {} por host",
+                    properties.getMaxTotal(), properties.getMaxPerHost());
+            return new Hc5PooledHttpClient(properties);
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "org.apache.http.impl.client.CloseableHttpClient")
+    @ConditionalOnMissingClass("org.springframework.http.HttpStatusCode")
+    static class HttpClient4 {
+
+        @Bean(destroyMethod = "close")
+        @ConditionalOnMissingBean
+        @ConditionalOnProperty(name = "http.client.pool-enabled", havingValue = "true", matchIfMissing = true)
+        public PooledHttpClient pooledHttpClient(HttpClientPoolProperties properties) {
+            log.info("Cliente HTTP entre servicios: pool HTTP/1.1 keep-alive (HttpClient 4), max {} / {} por host",
+                    properties.getMaxTotal(), properties.getMaxPerHost());
+            return new Hc4PooledHttpClient(properties);
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+    static class Metrics {
+
+        // Sin pool (factory simple) no hay nada que medir
+        @Bean
+        public MeterBinder httpClientPoolMetrics(ObjectProvider<PooledHttpClient> pooledHttpClient,
+                                                 @Value("${spring.application.name:app}") String pool) {
+            return registry -> pooledHttpClient.ifAvailable(
+                    client -> new HttpClientPoolMetrics(client, pool).bindTo(registry));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.common.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Outbox de notificaciones (outbox.enabled=true).
+ *
+ * Necesita un DataSource (JdbcTemplate) con la tabla notificaciones_outbox,
+ * creada por la migración Flyway de cada servicio, y el RestTemplate del
+ * servicio (con el interceptor del X-Gateway-Secret) para el relay. Sin base
+ * de datos (p. ej. el perfil stub del orquestador) no se crea nada y el
+ * servicio sigue enviando directo.
+ */
+@AutoConfiguration(afterName = {
+        "org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration",
+        "org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration",
+        "org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration"})
+@ConditionalOnClass(JdbcTemplate.class)
+@ConditionalOnProperty(name = "outbox.enabled", havingValue = "true")
+@EnableConfigurationProperties(OutboxProperties.class)
+public class OutboxAutoConfiguration {
+
+    @Bean
+    @ConditionalOnBean(JdbcTemplate.class)
+    public OutboxNotificaciones outboxNotificaciones(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        return new OutboxNotificaciones(jdbcTemplate, objectMapper);
+    }
+
+    @Bean
+    @ConditionalOnBean({JdbcTemplate.class, PlatformTransactionManager.class, RestTemplate.class})
+    public OutboxRelay outboxRelay(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                   RestTemplate restTemplate, ObjectMapper objectMapper, OutboxProperties properties,
+                                   Environment environment) {
+        return new OutboxRelay(jdbcTemplate, new TransactionTemplate(transactionManager), restTemplate,
+                objectMapper, properties, environment.getProperty("spring.application.name", "app"));
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+    static class Metrics {
+
+        @Bean
+        @ConditionalOnBean(OutboxRelay.class)
+        public OutboxMetrics outboxMetrics(OutboxRelay relay, ObjectProvider<OutboxNotificaciones> outbox) {
+            return new OutboxMetrics(relay, outbox.getIfAvailable());
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.common.outbox;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Métricas del outbox de notificaciones:
+ * - outbox.pendientes: filas por entregar (profundidad).
+ * - outbox.atraso.segundos: antigüedad de la pendiente más vieja.
+ * - outbox.demora.segundos: demora creación → entrega del último lote.
+ * - outbox.entregadas / outbox.reintentos / outbox.muertas: contadores.
+ * - outbox.encolado.fallidas: inserciones en el outbox que fallaron; toda
+ *   subida es una notificación que nunca se va a entregar.
+ *
+ * atraso creciendo con pendientes &gt; 0 indica que notification-service no
+ * responde o que el relay no alcanza (subir outbox.lote).
+ */
+public class OutboxMetrics implements MeterBinder {
+
+    private final OutboxRelay relay;
+    private final OutboxNotificaciones outbox;
+
+    public OutboxMetrics(OutboxRelay relay, OutboxNotificaciones outbox) {
+        this.relay = relay;
+        this.outbox = outbox;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("outbox.pendientes", relay, OutboxRelay::getPendientes)
+                .description("Notificaciones pendientes en el outbox")
+                .register(registry);
+        Gauge.builder("outbox.atraso.segundos", relay, r -> r.getAtrasoMs() / 1000.0)
+                .description("Antigüedad de la notificación pendiente más vieja")
+                .register(registry);
+        Gauge.builder("outbox.demora.segundos", relay, r -> r.getDemoraUltimoLoteMs() / 1000.0)
+                .description("Mayor demora entre encolar y entregar en el último lote")
+                .register(registry);
+        FunctionCounter.builder("outbox.entregadas", relay, OutboxRelay::getEntregadas)
+                .description("Notificaciones entregadas a notification-service")
+                .register(registry);
+        FunctionCounter.builder("outbox.reintentos", relay, OutboxRelay::getReintentos)
+                .description("Entregas fallidas reprogramadas con backoff")
+                .register(registry);
+        FunctionCounter.builder("outbox.muertas", relay, OutboxRelay::getMuertas)
+                .description("Notificaciones pasadas a MUERTO (dead-letter)")
+                .register(registry);
+        if (outbox != null) {
+            FunctionCounter.builder("outbox.encolado.fallidas", outbox, OutboxNotificaciones::getFallidas)
+                    .description("Notificaciones que no se pudieron insertar en el outbox")
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.common.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Outbox de notificaciones: en vez de llamar a notification-service en el
+ * camino de la petición, se inserta una fila en notificaciones_outbox que
+ * {@link OutboxRelay} entrega después, en lote y con reintentos.
+ *
+ * La inserción usa la conexión de la transacción en curso (JdbcTemplate se
+ * une a la transacción JPA): si el cambio de negocio hace rollback, la
+ * notificación tampoco existe; si hace commit, la notificación no se pierde
+ * aunque notification-service esté caído.
+ *
+ * Si la inserción falla la excepción se propaga (quien encola decide si su
+ * operación sigue sin la notificación) y se cuenta en outbox.encolado.fallidas.
+ */
+public class OutboxNotificaciones {
+
+    static final String TABLA = "notificaciones_outbox";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final AtomicLong fallidas = new AtomicLong();
+
+    public OutboxNotificaciones(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Encola una notificación con el formato de POST /api/notifications/send.
+     */
+    public void encolar(String tipo, String destinatario, Map<String, ?> datos) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(datos != null ? datos : Map.of());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Datos de notificación no serializables: " + e.getMessage(), e);
+        }
+        Timestamp ahora = Timestamp.from(Instant.now());
+        try {
+            jdbcTemplate.update("INSERT INTO " + TABLA
+                            + " (tipo, destinatario, datos, estado, intentos, proximo_intento, creado)"
+                            + " VALUES (?, ?, ?, 'PENDIENTE', 0, ?, ?)",
+                    tipo, destinatario, json, ahora, ahora);
+        } catch (DataAccessException e) {
+            fallidas.incrementAndGet();
+            throw e;
+        }
+    }
+
+    /** Inserciones en el outbox que fallaron (notificaciones perdidas si quien encola sigue). */
+    public long getFallidas() {
+        return fallidas.get();
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.common.outbox;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Propiedades outbox.* del outbox de notificaciones.
+ */
+@ConfigurationProperties(prefix = "outbox")
+public class OutboxProperties {
+
+    /** Activa el outbox y su relay (requiere DataSource y la tabla notificaciones_outbox). */
+    private boolean enabled = false;
+
+    /** URL base de notification-service; el relay llama a /api/notifications/send-batch. */
+    private String notificationUrl = "http://localhost:8085";
+
+    /** Máximo de notificaciones por llamada a send-batch. */
+    private int lote = 100;
+
+    /** Espera entre rondas cuando el outbox quedó vacío. */
+    private Duration intervalo = Duration.ofMillis(500);
+
+    /**
+     * Lease de un lote reclamado: si la instancia no anota el resultado antes
+     * de que venza (caída en pleno envío), otra ronda lo vuelve a reclamar.
+     * Debe superar el timeout de la llamada a send-batch.
+     */
+    private Duration lease = Duration.ofMinutes(2);
+
+    /** Intentos antes de pasar la notificación a MUERTO (dead-letter). */
+    private int maxIntentos = 10;
+
+    /** Espera antes del primer reintento; se duplica en cada intento (con jitter). */
+    private Duration backoffInicial = Duration.ofSeconds(1);
+
+    /** Tope de la espera entre reintentos. */
+    private Duration backoffMaximo = Duration.ofMinutes(5);
+
+    /** Las filas ENVIADO más viejas que esto se borran. */
+    private Duration retencionEnviadas = Duration.ofDays(7);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getNotificationUrl() {
+        return notificationUrl;
+    }
+
+    public void setNotificationUrl(String notificationUrl) {
+        this.notificationUrl = notificationUrl;
+    }
+
+    public int getLote() {
+        return lote;
+    }
+
+    public void setLote(int lote) {
+        this.lote = lote;
+    }
+
+    public Duration getIntervalo() {
+        return intervalo;
+    }
+
+    public void setIntervalo(Duration intervalo) {
+        this.intervalo = intervalo;
+    }
+
+    public Duration getLease() {
+        return lease;
+    }
+
+    public void setLease(Duration lease) {
+        this.lease = lease;
+    }
+
+    public int getMaxIntentos() {
+        return maxIntentos;
+    }
+
+    public void setMaxIntentos(int maxIntentos) {
+        this.maxIntentos = maxIntentos;
+    }
+
+    public Duration getBackoffInicial() {
+        return backoffInicial;
+    }
+
+    public void setBackoffInicial(Duration backoffInicial) {
+        this.backoffInicial = backoffInicial;
+    }
+
+    public Duration getBackoffMaximo() {
+        return backoffMaximo;
+    }
+
+    public void setBackoffMaximo(Duration backoffMaximo) {
+        this.backoffMaximo = backoffMaximo;
+    }
+
+    public Duration getRetencionEnviadas() {
+        return retencionEnviadas;
+    }
+
+    public void setRetencionEnviadas(Duration retencionEnviadas) {
+        this.retencionEnviadas = retencionEnviadas;
+    }
+}
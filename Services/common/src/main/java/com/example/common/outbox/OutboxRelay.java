@@ -0,0 +1,350 @@
+package com.example.common.outbox;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestTemplate;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Entrega en segundo plano las notificaciones del outbox.
+ *
+ * Cada ronda reclama hasta outbox.lote filas PENDIENTE vencidas: en una
+ * transacción corta las toma con SELECT ... FOR UPDATE SKIP LOCKED (varias
+ * instancias del servicio se reparten el outbox sin pisarse), les pone un
+ * lease (reclamo + reclamado_hasta = ahora + outbox.lease) y hace commit.
+ * Recién entonces, sin locks ni conexión tomados, las manda en UNA llamada a
+ * POST /api/notifications/send-batch, y en otra transacción corta anota el
+ * resultado solo en las filas cuyo lease sigue siendo el suyo. Si la instancia
+ * se cae con el lote en vuelo, al vencer el lease otra ronda lo vuelve a
+ * reclamar. Según la respuesta de cada ítem:
+ * - SENT, QUEUED (aceptada por la cola de envío de notification-service) o
+ *   SIMULATED (notification-service sin SMTP): ENVIADO.
+ * - FAILED (tipo no soportado, no tiene arreglo): MUERTO.
+ * - otro, o error de la llamada completa: reintento con backoff exponencial
+ *   y jitter; al agotar outbox.max-intentos pasa a MUERTO.
+ *
+ * Las filas MUERTO quedan en la tabla para revisarlas (dead-letter); las
+ * ENVIADO se borran al cumplir outbox.retencion-enviadas. Cada notificación
+ * viaja con idempotencyKey = {servicio}-outbox-{id}: si una respuesta se
+ * pierde y el lote se reintenta, notification-service no la envía dos veces. Si la ronda llenó
+ * el lote se sigue sin esperar, así un atraso se drena a ritmo de lotes.
+ */
+public class OutboxRelay implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+    private static final String TABLA = OutboxNotificaciones.TABLA;
+    private static final long INTERVALO_ESTADISTICAS_MS = 5_000;
+    private static final long INTERVALO_LIMPIEZA_MS = 600_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+    private final OutboxProperties properties;
+    private final String origen;
+
+    private final AtomicLong entregadas = new AtomicLong();
+    private final AtomicLong reintentos = new AtomicLong();
+    private final AtomicLong muertas = new AtomicLong();
+    private volatile long pendientes;
+    private volatile long atrasoMs;
+    private volatile long demoraUltimoLoteMs;
+    private long proximaEstadistica;
+    private long proximaLimpieza;
+
+    private ScheduledExecutorService programador;
+
+    public OutboxRelay(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, RestTemplate restTemplate,
+                       ObjectMapper objectMapper, OutboxProperties properties, String origen) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.origen = origen;
+    }
+
+    @Override
+    public void start() {
+        programador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "outbox-relay");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        programador.scheduleWithFixedDelay(this::ronda, properties.getIntervalo().toMillis(),
+                properties.getIntervalo().toMillis(), TimeUnit.MILLISECONDS);
+        log.info("Relay del outbox activo: lote {}, hasta {} intentos, destino {}",
+                properties.getLote(), properties.getMaxIntentos(), properties.getNotificationUrl());
+    }
+
+    @Override
+    public void stop() {
+        if (programador != null) {
+            programador.shutdown();
+            try {
+                programador.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            programador = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return programador != null;
+    }
+
+    void ronda() {
+        try {
+            // Mientras se llenen lotes completos hay atraso: seguir sin esperar
+            while (entregarLote() == properties.getLote()) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+            }
+            long ahora = System.currentTimeMillis();
+            if (ahora >= proximaEstadistica) {
+                actualizarEstadisticas();
+                proximaEstadistica = ahora + INTERVALO_ESTADISTICAS_MS;
+            }
+            if (ahora >= proximaLimpieza) {
+                limpiarEnviadas();
+                proximaLimpieza = ahora + INTERVALO_LIMPIEZA_MS;
+            }
+        } catch (RuntimeException e) {
+            // Base de datos caída u otro error transitorio: se reintenta en la próxima ronda
+            log.warn("Ronda del outbox fallida: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Entrega un lote y devuelve cuántas filas tomó.
+     */
+    int entregarLote() {
+        String reclamo = UUID.randomUUID().toString();
+        List<Fila> filas = reclamar(reclamo);
+        if (filas.isEmpty()) {
+            return 0;
+        }
+
+        List<String> estados;
+        try {
+            estados = enviar(filas);
+        } catch (RuntimeException e) {
+            String error = recortar(e.getMessage());
+            log.warn("send-batch falló para {} notificaciones: {}", filas.size(), error);
+            transactionTemplate.executeWithoutResult(status -> filas.forEach(fila -> reintentar(fila, reclamo, error)));
+            return filas.size();
+        }
+        transactionTemplate.executeWithoutResult(status -> registrar(filas, reclamo, estados));
+        return filas.size();
+    }
+
+    /**
+     * Toma el lote y le pone el lease en una transacción propia: los locks
+     * de FOR UPDATE duran lo que tarda el UPDATE, no lo que tarda el envío.
+     */
+    private List<Fila> reclamar(String reclamo) {
+        List<Fila> filas = transactionTemplate.execute(status -> {
+            Instant ahora = Instant.now();
+            List<Fila> tomadas = jdbcTemplate.query(
+                    "SELECT id, tipo, destinatario, datos, intentos, creado FROM " + TABLA
+                            + " WHERE estado = 'PENDIENTE' AND proximo_intento <= ?"
+                            + " AND (reclamado_hasta IS NULL OR reclamado_hasta <= ?)"
+                            + " ORDER BY proximo_intento, id LIMIT ? FOR UPDATE SKIP LOCKED",
+                    (rs, i) -> new Fila(rs.getLong("id"), rs.getString("tipo"), rs.getString("destinatario"),
+                            rs.getString("datos"), rs.getInt("intentos"), rs.getTimestamp("creado").toInstant()),
+                    Timestamp.from(ahora), Timestamp.from(ahora), properties.getLote());
+            if (!tomadas.isEmpty()) {
+                Timestamp hasta = Timestamp.from(ahora.plus(properties.getLease()));
+                List<Object[]> leases = new ArrayList<>(tomadas.size());
+                tomadas.forEach(fila -> leases.add(new Object[]{reclamo, hasta, fila.id()}));
+                jdbcTemplate.batchUpdate("UPDATE " + TABLA
+                        + " SET reclamo = ?, reclamado_hasta = ? WHERE id = ?", leases);
+            }
+            return tomadas;
+        });
+        return filas != null ? filas : List.of();
+    }
+
+    private void registrar(List<Fila> filas, String reclamo, List<String> estados) {
+        Instant ahora = Instant.now();
+        List<Object[]> enviadas = new ArrayList<>();
+        long demoraMax = 0;
+        for (int i = 0; i < filas.size(); i++) {
+            Fila fila = filas.get(i);
+            String estado = i < estados.size() ? estados.get(i) : null;
+            if ("SENT".equals(estado) || "QUEUED".equals(estado) || "SIMULATED".equals(estado)) {
+                enviadas.add(new Object[]{Timestamp.from(ahora), fila.id(), reclamo});
+                demoraMax = Math.max(demoraMax, Duration.between(fila.creado(), ahora).toMillis());
+            } else if ("FAILED".equals(estado)) {
+                morir(fila, reclamo, "notification-service rechazó la notificación (tipo " + fila.tipo() + ")");
+            } else {
+                reintentar(fila, reclamo, "Estado de entrega: " + estado);
+            }
+        }
+        if (!enviadas.isEmpty()) {
+            int[] actualizadas = jdbcTemplate.batchUpdate("UPDATE " + TABLA
+                    + " SET estado = 'ENVIADO', enviado = ?, intentos = intentos + 1, ultimo_error = NULL,"
+                    + " reclamo = NULL, reclamado_hasta = NULL"
+                    + " WHERE id = ? AND reclamo = ?", enviadas);
+            entregadas.addAndGet(contar(actualizadas));
+            demoraUltimoLoteMs = demoraMax;
+        }
+    }
+
+    private List<String> enviar(List<Fila> filas) {
+        ArrayNode cuerpo = objectMapper.createArrayNode();
+        for (Fila fila : filas) {
+            ObjectNode notificacion = cuerpo.addObject();
+            notificacion.put("idempotencyKey", origen + "-outbox-" + fila.id());
+            notificacion.put("tipo", fila.tipo());
+            notificacion.put("destinatario", fila.destinatario());
+            try {
+                notificacion.set("datos", objectMapper.readTree(fila.datos()));
+            } catch (Exception e) {
+                notificacion.set("datos", objectMapper.createObjectNode());
+            }
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        JsonNode respuesta = restTemplate.postForObject(
+                properties.getNotificationUrl() + "/api/notifications/send-batch",
+                new HttpEntity<>(cuerpo, headers), JsonNode.class);
+
+        List<String> estados = new ArrayList<>();
+        if (respuesta != null && respuesta.isArray()) {
+            respuesta.forEach(item -> estados.add(item.path("status").asText(null)));
+        }
+        return estados;
+    }
+
+    // Los UPDATE de resultado exigen el reclamo propio: si el lease venció y
+    // otra ronda tomó la fila, el resultado viejo no pisa el nuevo
+    private void reintentar(Fila fila, String reclamo, String error) {
+        int intentos = fila.intentos() + 1;
+        if (intentos >= properties.getMaxIntentos()) {
+            morir(fila, reclamo, error);
+            return;
+        }
+        int actualizadas = jdbcTemplate.update("UPDATE " + TABLA
+                        + " SET intentos = ?, proximo_intento = ?, ultimo_error = ?, reclamo = NULL, reclamado_hasta = NULL"
+                        + " WHERE id = ? AND reclamo = ?",
+                intentos, Timestamp.from(Instant.now().plus(backoff(intentos))), recortar(error), fila.id(), reclamo);
+        reintentos.addAndGet(actualizadas);
+    }
+
+    private void morir(Fila fila, String reclamo, String error) {
+        int actualizadas = jdbcTemplate.update("UPDATE " + TABLA
+                        + " SET estado = 'MUERTO', intentos = intentos + 1, ultimo_error = ?, reclamo = NULL, reclamado_hasta = NULL"
+                        + " WHERE id = ? AND reclamo = ?",
+                recortar(error), fila.id(), reclamo);
+        if (actualizadas == 0) {
+            return;
+        }
+        muertas.incrementAndGet();
+        log.error("Notificación {} ({} a {}) pasada a MUERTO: {}", fila.id(), fila.tipo(), fila.destinatario(), error);
+    }
+
+    /**
+     * backoff-inicial * 2^(intentos-1), con tope y jitter de ±20% para no
+     * reintentar en bloque después de una caída.
+     */
+    Duration backoff(int intentos) {
+        long base = properties.getBackoffInicial().toMillis();
+        long tope = properties.getBackoffMaximo().toMillis();
+        long espera = base << Math.min(intentos - 1, 30);
+        if (espera <= 0 || espera > tope) {
+            espera = tope;
+        }
+        double jitter = 0.8 + ThreadLocalRandom.current().nextDouble() * 0.4;
+        return Duration.ofMillis((long) (espera * jitter));
+    }
+
+    private void actualizarEstadisticas() {
+        jdbcTemplate.query("SELECT COUNT(*), MIN(creado) FROM " + TABLA + " WHERE estado = 'PENDIENTE'", (RowCallbackHandler) rs -> {
+            pendientes = rs.getLong(1);
+            Timestamp masViejo = rs.getTimestamp(2);
+            atrasoMs = masViejo == null ? 0 : Math.max(0, System.currentTimeMillis() - masViejo.getTime());
+        });
+    }
+
+    private void limpiarEnviadas() {
+        Timestamp limite = Timestamp.from(Instant.now().minus(properties.getRetencionEnviadas()));
+        int borradas = jdbcTemplate.update("DELETE FROM " + TABLA
+                + " WHERE estado = 'ENVIADO' AND enviado < ? LIMIT 10000", limite);
+        if (borradas > 0) {
+            log.info("Outbox: {} notificaciones enviadas borradas", borradas);
+        }
+    }
+
+    private static int contar(int[] actualizadas) {
+        int total = 0;
+        for (int n : actualizadas) {
+            // SUCCESS_NO_INFO (-2): el driver no informa filas; se asume aplicada
+            total += n == Statement.SUCCESS_NO_INFO ? 1 : Math.max(n, 0);
+        }
+        return total;
+    }
+
+    private static String recortar(String texto) {
+        if (texto == null) {
+            return null;
+        }
+        return texto.length() > 500 ? texto.substring(0, 500) : texto;
+    }
+
+    public long getEntregadas() {
+        return entregadas.get();
+    }
+
+    public long getReintentos() {
+        return reintentos.get();
+    }
+
+    public long getMuertas() {
+        return muertas.get();
+    }
+
+    /** Filas PENDIENTE (medido cada pocos segundos). */
+    public long getPendientes() {
+        return pendientes;
+    }
+
+    /** Antigüedad de la notificación pendiente más vieja. */
+    public long getAtrasoMs() {
+        return atrasoMs;
+    }
+
+    /** Mayor demora creación → entrega del último lote entregado. */
+    public long getDemoraUltimoLoteMs() {
+        return demoraUltimoLoteMs;
+    }
+
+    private record Fila(long id, String tipo, String destinatario, String datos, int intentos, Instant creado) {
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.common.threads;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Detecta hilos virtuales "pinned": bloqueados dentro de un bloque
+ * {@code synchronized} (o de código nativo) sin poder liberar su carrier.
+ *
+ * Escucha el evento JFR {@code jdk.VirtualThreadPinned} en streaming y registra
+ * cada caso que supere el umbral con las primeras frames del stack, para ubicar
+ * el {@code synchronized} responsable (propio o de una librería, p. ej. el
+ * driver JDBC) y reemplazarlo por un {@code ReentrantLock}.
+ */
+public class VirtualThreadPinningMonitor implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private static final String EVENTO = "jdk.VirtualThreadPinned";
+    private static final int FRAMES = 8;
+
+    private final RecordingStream stream;
+    private final AtomicLong detectados = new AtomicLong();
+
+    public VirtualThreadPinningMonitor(Duration umbral) {
+        this.stream = new RecordingStream();
+        stream.enable(EVENTO).withThreshold(umbral).withStackTrace();
+        stream.onEvent(EVENTO, this::registrar);
+    }
+
+    public void start() {
+        stream.startAsync();
+        log.info("Monitor de pinning de hilos virtuales activo");
+    }
+
+    public long getDetectados() {
+        return detectados.get();
+    }
+
+    @Override
+    public void close() {
+        stream.close();
+    }
+
+    private void registrar(RecordedEvent evento) {
+        detectados.incrementAndGet();
+        StringBuilder stack = new StringBuilder();
+        if (evento.getStackTrace() != null) {
+            List<RecordedFrame> frames = evento.getStackTrace().getFrames();
+            for (int i = 0; i < Math.min(FRAMES, frames.size()); i++) {
+                RecordedFrame frame = frames.get(i);
+                stack.append("\n    at ")
+                        .append(frame.getMethod().getType().getName())
+                        .append('.')
+                        .append(frame.getMethod().getName())
+                        .append(':')
+                        .append(frame.getLineNumber());
+            }
+        }
+        log.warn("⚠️ Hilo virtual pinned durante {} ms en {}{}",
+                evento.getDuration().toMillis(), evento.getThread() != null ? evento.getThread().getJavaName() : "?", stack);
+    }
+}
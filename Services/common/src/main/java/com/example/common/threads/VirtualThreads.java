@@ -0,0 +1,59 @@
+package com.example.common.threads;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Acceso a los hilos virtuales (Java 21) desde código que se compila con Java 17.
+ *
+ * Los servicios se siguen compilando con release 17 por defecto; las APIs de
+ * Loom se resuelven por reflexión para que el mismo JAR funcione en ambos
+ * runtimes. Activar el modo virtual sobre un JRE 17 falla al arrancar con un
+ * mensaje claro en lugar de degradar en silencio.
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    public static boolean soportados() {
+        return Runtime.version().feature() >= 21;
+    }
+
+    /**
+     * ThreadFactory de hilos virtuales con nombres {@code prefijo0, prefijo1, ...}.
+     */
+    public static ThreadFactory factory(String prefijo) {
+        verificarSoporte();
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> ofVirtual = Class.forName("java.lang.Thread$Builder$OfVirtual");
+            builder = ofVirtual.getMethod("name", String.class, long.class).invoke(builder, prefijo, 0L);
+            return (ThreadFactory) ofVirtual.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("No se pudo crear la fábrica de hilos virtuales", e);
+        }
+    }
+
+    /**
+     * Executor que lanza un hilo virtual nuevo por tarea (sin pool).
+     */
+    public static ExecutorService newPerTaskExecutor(String prefijo) {
+        ThreadFactory factory = factory(prefijo);
+        try {
+            Method method = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) method.invoke(null, factory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("No se pudo crear el executor de hilos virtuales", e);
+        }
+    }
+
+    private static void verificarSoporte() {
+        if (!soportados()) {
+            throw new IllegalStateException("spring.threads.virtual.enabled=true requiere Java 21+ (runtime actual: "
+                    + Runtime.version() + "). Compilar con -Pjava21 y usar una imagen JRE 21.");
+        }
+    }
+}
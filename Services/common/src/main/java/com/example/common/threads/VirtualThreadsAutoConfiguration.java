@@ -0,0 +1,75 @@
+package com.example.common.threads;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.autoconfigure.task.TaskSchedulingAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Modo de hilos virtuales para los servicios servlet, activado con
+ * {@code spring.threads.virtual.enabled=true} (requiere Java 21, perfil -Pjava21).
+ *
+ * Spring Boot 3.2+ ya implementa la propiedad (Tomcat, @Async y @Scheduled);
+ * para los servicios en 3.1 y 2.7 se aplica el equivalente de
+ * {@link Backport}. En ambos casos se arranca el monitor de pinning.
+ *
+ * Los RestTemplate no necesitan cambios: corren en el hilo del request o de la
+ * tarea y su I/O bloqueante libera el carrier mientras espera.
+ */
+@AutoConfiguration(before = {TaskExecutionAutoConfiguration.class, TaskSchedulingAutoConfiguration.class})
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadsAutoConfiguration {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "app.threads.pinning-monitor.enabled", havingValue = "true", matchIfMissing = true)
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(
+            @Value("${app.threads.pinning-monitor.threshold-ms:20}") long umbralMs) {
+        VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(Duration.ofMillis(umbralMs));
+        monitor.start();
+        return monitor;
+    }
+
+    /**
+     * Equivalente de spring.threads.virtual.enabled para Spring Boot anterior a 3.2
+     * (la clase Threading aparece en 3.2 junto con el soporte nativo).
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnMissingClass("org.springframework.boot.autoconfigure.thread.Threading")
+    static class Backport {
+
+        @Bean
+        @ConditionalOnClass(name = "org.apache.catalina.startup.Tomcat")
+        public TomcatProtocolHandlerCustomizer<?> virtualThreadsProtocolHandlerCustomizer() {
+            ExecutorService executor = VirtualThreads.newPerTaskExecutor("tomcat-handler-");
+            return protocolHandler -> protocolHandler.setExecutor(executor);
+        }
+
+        // Nombre "taskExecutor": es el que @Async elige cuando hay más de un executor
+        @Bean(name = {"taskExecutor", "applicationTaskExecutor"})
+        @ConditionalOnMissingBean(name = "taskExecutor")
+        public SimpleAsyncTaskExecutor taskExecutor() {
+            return new SimpleAsyncTaskExecutor(VirtualThreads.factory("task-"));
+        }
+
+        @Bean
+        @ConditionalOnMissingBean(name = "taskScheduler")
+        public ThreadPoolTaskScheduler taskScheduler(@Value("${spring.task.scheduling.pool.size:1}") int poolSize) {
+            ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+            scheduler.setPoolSize(poolSize);
+            scheduler.setThreadFactory(VirtualThreads.factory("scheduling-"));
+            return scheduler;
+        }
+    }
+}
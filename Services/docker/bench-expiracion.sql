@@ -0,0 +1,167 @@
+-- ===============================================
+-- Script: bench-expiracion.sql
+-- Descripcion: Compara la devolucion de stock de reservas vencidas con 100k
+-- reservas vivas: barrido paginado cada 5 minutos (reclamarReservasExpiradas)
+-- vs. timing wheel (reclamarReservasVencidas por id cada segundo).
+--
+-- Uso (MySQL 8.0+):
+--   docker exec -i mysql mysql -uroot -proot < docker/bench-expiracion.sql
+--
+-- Reloj virtual: las 100k reservas ACTIVA vencen repartidas en los 10 minutos
+-- siguientes a @t0 y cada estrategia "corre" esos 10 minutos sin esperar.
+-- Cada reclamo es un UPDATE con el mismo predicado y el mismo camino de
+-- acceso que el SELECT ... FOR UPDATE SKIP LOCKED + UPDATE del servicio.
+-- Por estrategia se informa:
+--   sentencias, filas leidas (Handler_read_*), tiempo real de BD y el retraso
+--   entre el vencimiento y la devolucion (promedio, p99, maximo).
+-- La tabla vencen es lo que el wheel tiene en memoria (id -> segundo); el
+-- costo de mantenerla lo mide TimingWheelBenchmark (ticket-service, src/test).
+-- No toca ticket_db.
+-- ===============================================
+
+DROP DATABASE IF EXISTS expiracion_bench;
+CREATE DATABASE expiracion_bench;
+USE expiracion_bench;
+
+SET SESSION cte_max_recursion_depth = 10000;
+
+-- Mismo esquema que V1-V3 (PK con fecha_creacion por el particionado) e indices de V2;
+-- liberada_en solo existe aca para medir el retraso
+CREATE TABLE reservas (
+    id BIGINT AUTO_INCREMENT,
+    tipo_entrada_id BIGINT NOT NULL,
+    usuario_id BIGINT NOT NULL,
+    cantidad INT NOT NULL,
+    fecha_creacion DATETIME(6) NOT NULL,
+    fecha_expiracion DATETIME(6) NOT NULL,
+    estado VARCHAR(20) NOT NULL,
+    liberada_en DATETIME(6) NULL,
+    PRIMARY KEY (id, fecha_creacion)
+) ENGINE=InnoDB;
+
+CREATE TABLE seq (n INT PRIMARY KEY);
+INSERT INTO seq
+WITH RECURSIVE s (n) AS (SELECT 0 UNION ALL SELECT n + 1 FROM s WHERE n < 9999)
+SELECT n FROM s;
+
+SET @t0 = TIMESTAMP('2030-01-01 00:00:00');
+
+-- Historico: 1M reservas terminadas antes de @t0
+INSERT INTO reservas (tipo_entrada_id, usuario_id, cantidad, fecha_creacion, fecha_expiracion, estado)
+SELECT 1 + (x.n * 7919 + y.n) % 5000,
+       1 + (x.n * 104729 + y.n * 31) % 200000,
+       1 + (x.n + y.n) % 4,
+       @t0 - INTERVAL 90 DAY + INTERVAL ((x.n * 100 + y.n) * 7.7) SECOND,
+       @t0 - INTERVAL 90 DAY + INTERVAL ((x.n * 100 + y.n) * 7.7 + 600) SECOND,
+       CASE WHEN (x.n + y.n) % 3 = 0 THEN 'LIBERADA' ELSE 'CONFIRMADA' END
+FROM seq x JOIN seq y ON y.n < 100;
+
+-- 100k reservas vivas: vencen cada 6 ms entre @t0 y @t0 + 10 min
+INSERT INTO reservas (tipo_entrada_id, usuario_id, cantidad, fecha_creacion, fecha_expiracion, estado)
+SELECT 1 + (x.n * 7919 + y.n) % 5000,
+       1 + (x.n * 104729 + y.n * 31) % 200000,
+       1 + (x.n + y.n) % 4,
+       @t0 + INTERVAL ((x.n * 1000 + y.n) * 6000) MICROSECOND - INTERVAL 10 MINUTE,
+       @t0 + INTERVAL ((x.n * 1000 + y.n) * 6000) MICROSECOND,
+       'ACTIVA'
+FROM seq x JOIN seq y ON y.n < 1000
+WHERE x.n < 100;
+
+CREATE INDEX idx_reservas_estado_expiracion ON reservas (estado, fecha_expiracion, tipo_entrada_id, cantidad);
+CREATE INDEX idx_reservas_usuario_estado ON reservas (usuario_id, estado);
+CREATE INDEX idx_reservas_tipo_estado ON reservas (tipo_entrada_id, estado);
+
+-- Lo que el wheel tiene en memoria: segundo (tick) en que vence cada id
+CREATE TABLE vencen (segundo INT NOT NULL, id BIGINT NOT NULL, PRIMARY KEY (segundo, id));
+INSERT INTO vencen
+SELECT CEIL(TIMESTAMPDIFF(MICROSECOND, @t0, fecha_expiracion) / 1000000), id
+FROM reservas WHERE estado = 'ACTIVA';
+
+ANALYZE TABLE reservas, vencen;
+
+CREATE TABLE resultados (
+    estrategia VARCHAR(40) PRIMARY KEY,
+    sentencias INT,
+    filas_leidas BIGINT,
+    tiempo_ms DECIMAL(12, 1),
+    devueltas INT,
+    retraso_prom_s DECIMAL(8, 2),
+    retraso_p99_s DECIMAL(8, 2),
+    retraso_max_s DECIMAL(8, 2)
+);
+
+DELIMITER //
+
+CREATE FUNCTION lecturas() RETURNS BIGINT READS SQL DATA
+BEGIN
+    RETURN (SELECT SUM(VARIABLE_VALUE) FROM performance_schema.session_status
+            WHERE VARIABLE_NAME LIKE 'Handler_read%');
+END //
+
+-- Barrido de respaldo: cada intervalo_s reclama paginas de 500 hasta vaciar lo vencido
+CREATE PROCEDURE barrido(IN intervalo_s INT)
+BEGIN
+    DECLARE t INT DEFAULT intervalo_s;
+    DECLARE n INT;
+    DECLARE sentencias INT DEFAULT 0;
+    DECLARE lecturas0 BIGINT DEFAULT lecturas();
+    DECLARE inicio DATETIME(6) DEFAULT NOW(6);
+    WHILE t < 600 + intervalo_s DO
+        SET @ahora = @t0 + INTERVAL t SECOND;
+        REPEAT
+            START TRANSACTION;
+            UPDATE reservas SET estado = 'LIBERANDO', liberada_en = @ahora
+            WHERE estado = 'ACTIVA' AND fecha_expiracion < @ahora
+            ORDER BY fecha_expiracion LIMIT 500;
+            SET n = ROW_COUNT();
+            COMMIT;
+            SET sentencias = sentencias + 1;
+        UNTIL n < 500 END REPEAT;
+        SET t = t + intervalo_s;
+    END WHILE;
+    CALL registrar(CONCAT('barrido cada ', intervalo_s, ' s'), sentencias,
+                   lecturas() - lecturas0, TIMESTAMPDIFF(MICROSECOND, inicio, NOW(6)) / 1000);
+END //
+
+-- Timing wheel: cada segundo reclama por id solo lo que vencio en ese tick
+CREATE PROCEDURE wheel()
+BEGIN
+    DECLARE s INT DEFAULT 0;
+    DECLARE sentencias INT DEFAULT 0;
+    DECLARE lecturas0 BIGINT DEFAULT lecturas();
+    DECLARE inicio DATETIME(6) DEFAULT NOW(6);
+    WHILE s <= 600 DO
+        SET @ahora = @t0 + INTERVAL s SECOND;
+        START TRANSACTION;
+        UPDATE reservas r JOIN vencen v ON v.id = r.id
+        SET r.estado = 'LIBERANDO', r.liberada_en = @ahora
+        WHERE v.segundo = s AND r.estado = 'ACTIVA' AND r.fecha_expiracion <= @ahora;
+        COMMIT;
+        SET sentencias = sentencias + 1;
+        SET s = s + 1;
+    END WHILE;
+    CALL registrar('timing wheel (1 s)', sentencias,
+                   lecturas() - lecturas0, TIMESTAMPDIFF(MICROSECOND, inicio, NOW(6)) / 1000);
+END //
+
+CREATE PROCEDURE registrar(IN estrategia VARCHAR(40), IN sentencias INT, IN filas BIGINT, IN ms DECIMAL(12, 1))
+BEGIN
+    INSERT INTO resultados
+    SELECT estrategia, sentencias, filas, ms, COUNT(*),
+           AVG(retraso), MAX(CASE WHEN pr <= 0.99 THEN retraso END), MAX(retraso)
+    FROM (SELECT TIMESTAMPDIFF(MICROSECOND, fecha_expiracion, liberada_en) / 1000000 AS retraso,
+                 PERCENT_RANK() OVER (ORDER BY TIMESTAMPDIFF(MICROSECOND, fecha_expiracion, liberada_en)) AS pr
+          FROM reservas WHERE liberada_en IS NOT NULL) d;
+    -- Deja las reservas como estaban para la siguiente estrategia
+    UPDATE reservas SET estado = 'ACTIVA', liberada_en = NULL WHERE liberada_en IS NOT NULL;
+END //
+
+DELIMITER ;
+
+CALL barrido(300);
+CALL barrido(60);
+CALL wheel();
+
+SELECT * FROM resultados ORDER BY retraso_prom_s DESC;
+
+DROP DATABASE expiracion_bench;
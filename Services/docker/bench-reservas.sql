@@ -0,0 +1,148 @@
+-- ===============================================
+-- Script: bench-reservas.sql
+-- Descripcion: Genera 10M de reservas y 2M de tickets sinteticos en una BD
+-- aparte y mide las consultas de ReservaRepository / TicketRepository con
+-- EXPLAIN ANALYZE, antes y despues de los indices de V2.
+--
+-- Uso (MySQL 8.0.18+):
+--   docker exec -i mysql mysql -uroot -proot < docker/bench-reservas.sql
+--
+-- Comparar en la salida "rows examined" y el tiempo real de cada bloque
+-- SIN INDICES vs CON INDICES. No toca ticket_db.
+-- ===============================================
+
+DROP DATABASE IF EXISTS ticket_bench;
+CREATE DATABASE ticket_bench;
+USE ticket_bench;
+
+SET SESSION cte_max_recursion_depth = 10000;
+
+CREATE TABLE reservas (
+    id BIGINT AUTO_INCREMENT,
+    tipo_entrada_id BIGINT NOT NULL,
+    usuario_id BIGINT NOT NULL,
+    cantidad INT NOT NULL,
+    fecha_creacion DATETIME(6) NOT NULL,
+    fecha_expiracion DATETIME(6) NOT NULL,
+    estado VARCHAR(20) NOT NULL,
+    PRIMARY KEY (id, fecha_creacion)
+) ENGINE=InnoDB;
+
+CREATE TABLE tickets (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    ticket_id VARCHAR(50) NOT NULL,
+    usuario_id BIGINT NOT NULL,
+    tipo_entrada_id BIGINT NOT NULL,
+    evento_nombre VARCHAR(200) NOT NULL,
+    tipo_entrada_nombre VARCHAR(100) NOT NULL,
+    cantidad INT NOT NULL,
+    precio_unitario DOUBLE NOT NULL,
+    total_pagado DOUBLE NOT NULL,
+    payment_id VARCHAR(50) NOT NULL,
+    estado VARCHAR(20) NOT NULL,
+    fecha_compra DATETIME(6) NOT NULL,
+    UNIQUE KEY uk_ticket_id (ticket_id)
+) ENGINE=InnoDB;
+
+-- Tabla auxiliar de 10.000 filas para multiplicar (10.000 x 1.000 = 10M)
+CREATE TABLE seq (n INT PRIMARY KEY);
+INSERT INTO seq
+WITH RECURSIVE s (n) AS (SELECT 0 UNION ALL SELECT n + 1 FROM s WHERE n < 9999)
+SELECT n FROM s;
+
+-- Distribucion realista: ~95% terminadas (CONFIRMADA/EXPIRADA), ~5% ACTIVA,
+-- 200k usuarios, 5k tipos de entrada, creadas a lo largo de 6 meses
+SET @inicio = UTC_TIMESTAMP(6) - INTERVAL 180 DAY;
+INSERT INTO reservas (tipo_entrada_id, usuario_id, cantidad, fecha_creacion, fecha_expiracion, estado)
+SELECT 1 + (x.n * 7919 + y.n) % 5000,
+       1 + (x.n * 104729 + y.n * 31) % 200000,
+       1 + (x.n + y.n) % 4,
+       @inicio + INTERVAL ((x.n * 1000 + y.n) * 1.5552) SECOND,
+       @inicio + INTERVAL ((x.n * 1000 + y.n) * 1.5552 + 600) SECOND,
+       CASE WHEN (x.n * 1000 + y.n) % 20 = 0 THEN 'ACTIVA'
+            WHEN (x.n * 1000 + y.n) % 3 = 0 THEN 'EXPIRADA'
+            ELSE 'CONFIRMADA' END
+FROM seq x JOIN seq y ON y.n < 1000;
+
+INSERT INTO tickets (ticket_id, usuario_id, tipo_entrada_id, evento_nombre, tipo_entrada_nombre,
+                     cantidad, precio_unitario, total_pagado, payment_id, estado, fecha_compra)
+SELECT CONCAT('TKT-', x.n, '-', y.n),
+       1 + (x.n * 104729 + y.n * 31) % 200000,
+       1 + (x.n * 7919 + y.n) % 5000,
+       'Evento bench', 'General', 1, 10.0, 10.0, CONCAT('PAY-', x.n, '-', y.n),
+       CASE WHEN (x.n + y.n) % 10 = 0 THEN 'CANCELADO' ELSE 'ACTIVO' END,
+       @inicio + INTERVAL ((x.n * 200 + y.n) * 7.776) SECOND
+FROM seq x JOIN seq y ON y.n < 200;
+
+ANALYZE TABLE reservas, tickets;
+
+-- ---------- SIN INDICES ----------
+SELECT 'SIN INDICES' AS fase;
+
+-- Barrido de expiracion (reclamarReservasExpiradas)
+EXPLAIN ANALYZE
+SELECT id, tipo_entrada_id, cantidad FROM reservas
+WHERE estado = 'ACTIVA' AND fecha_expiracion < UTC_TIMESTAMP(6)
+ORDER BY fecha_expiracion LIMIT 500;
+
+-- Reservas activas de un usuario (findByUsuarioIdAndEstado)
+EXPLAIN ANALYZE
+SELECT * FROM reservas WHERE usuario_id = 4242 AND estado = 'ACTIVA';
+
+-- Reservas por tipo y estado
+EXPLAIN ANALYZE
+SELECT COUNT(*) FROM reservas WHERE tipo_entrada_id = 77 AND estado = 'ACTIVA';
+
+-- Tickets de un usuario (findByUsuarioId / findByUsuarioIdAndEstado)
+EXPLAIN ANALYZE
+SELECT * FROM tickets WHERE usuario_id = 4242;
+EXPLAIN ANALYZE
+SELECT * FROM tickets WHERE usuario_id = 4242 AND estado = 'ACTIVO';
+
+-- ---------- CON INDICES (mismos que V2__Add_reservas_tickets_indexes.sql) ----------
+CREATE INDEX idx_reservas_estado_expiracion ON reservas (estado, fecha_expiracion, tipo_entrada_id, cantidad);
+CREATE INDEX idx_reservas_usuario_estado ON reservas (usuario_id, estado);
+CREATE INDEX idx_reservas_tipo_estado ON reservas (tipo_entrada_id, estado);
+CREATE INDEX idx_tickets_usuario_estado ON tickets (usuario_id, estado);
+ANALYZE TABLE reservas, tickets;
+
+SELECT 'CON INDICES' AS fase;
+
+EXPLAIN ANALYZE
+SELECT id, tipo_entrada_id, cantidad FROM reservas
+WHERE estado = 'ACTIVA' AND fecha_expiracion < UTC_TIMESTAMP(6)
+ORDER BY fecha_expiracion LIMIT 500;
+
+EXPLAIN ANALYZE
+SELECT * FROM reservas WHERE usuario_id = 4242 AND estado = 'ACTIVA';
+
+EXPLAIN ANALYZE
+SELECT COUNT(*) FROM reservas WHERE tipo_entrada_id = 77 AND estado = 'ACTIVA';
+
+EXPLAIN ANALYZE
+SELECT * FROM tickets WHERE usuario_id = 4242;
+EXPLAIN ANALYZE
+SELECT * FROM tickets WHERE usuario_id = 4242 AND estado = 'ACTIVO';
+
+-- ---------- PARTICIONADO (V3) ----------
+-- Borrar el primer mes con DROP PARTITION (en lugar de un DELETE por rango)
+SELECT 'PARTICIONADO' AS fase;
+
+-- RANGE COLUMNS solo admite literales: se arma la sentencia con la fecha calculada
+SET @ddl = CONCAT('ALTER TABLE reservas PARTITION BY RANGE COLUMNS (fecha_creacion) (',
+    'PARTITION p_viejo VALUES LESS THAN (''', DATE(@inicio + INTERVAL 30 DAY), '''), ',
+    'PARTITION p_max VALUES LESS THAN (MAXVALUE))');
+PREPARE particionar FROM @ddl;
+EXECUTE particionar;
+DEALLOCATE PREPARE particionar;
+
+SET @t0 = NOW(6);
+ALTER TABLE reservas DROP PARTITION p_viejo;
+SELECT TIMESTAMPDIFF(MICROSECOND, @t0, NOW(6)) / 1000 AS drop_partition_ms;
+
+-- Consulta de usuario con poda de particiones sobre el rango reciente
+EXPLAIN ANALYZE
+SELECT * FROM reservas WHERE usuario_id = 4242 AND estado = 'ACTIVA'
+  AND fecha_creacion >= UTC_TIMESTAMP(6) - INTERVAL 7 DAY;
+
+DROP DATABASE ticket_bench;
@@ -0,0 +1,55 @@
+package com.example.eventservice.busqueda;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tokenizador estándar, minúsculas y sin tildes: "Música" y "musica" indexan
+ * el mismo término. Se usa igual al indexar y al consultar.
+ */
+final class AnalizadorEventos extends Analyzer {
+
+    @Override
+    protected TokenStreamComponents createComponents(String campo) {
+        Tokenizer tokenizer = new StandardTokenizer();
+        TokenStream flujo = new ASCIIFoldingFilter(new LowerCaseFilter(tokenizer));
+        return new TokenStreamComponents(tokenizer, flujo);
+    }
+
+    @Override
+    protected TokenStream normalize(String campo, TokenStream entrada) {
+        return new ASCIIFoldingFilter(new LowerCaseFilter(entrada));
+    }
+
+    /**
+     * Términos del texto de búsqueda tal como quedaron en el índice.
+     */
+    List<String> terminos(String campo, String texto) {
+        List<String> terminos = new ArrayList<>();
+        if (texto == null || texto.isBlank()) {
+            return terminos;
+        }
+        try (TokenStream flujo = tokenStream(campo, texto)) {
+            CharTermAttribute termino = flujo.addAttribute(CharTermAttribute.class);
+            flujo.reset();
+            while (flujo.incrementToken()) {
+                terminos.add(termino.toString());
+            }
+            flujo.end();
+        } catch (IOException e) {
+            // El texto está en memoria: no hay E/S real
+            throw new UncheckedIOException(e);
+        }
+        return terminos;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.eventservice.busqueda;
+
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.search.DoubleValues;
+import org.apache.lucene.search.DoubleValuesSource;
+import org.apache.lucene.search.IndexSearcher;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Factor de ranking por fecha: un evento de mañana pesa casi el doble que uno
+ * dentro de varios meses, y los que ya pasaron pesan la mitad.
+ *
+ * factor = 1 + 1 / (1 + díasHastaElEvento / 30), o 0.5 si la fecha ya pasó.
+ */
+final class CercaniaFecha extends DoubleValuesSource {
+
+    private static final double DIA_MS = 86_400_000d;
+
+    private final String campo;
+    private final long ahora;
+
+    CercaniaFecha(String campo, long ahora) {
+        this.campo = campo;
+        this.ahora = ahora;
+    }
+
+    @Override
+    public DoubleValues getValues(LeafReaderContext ctx, DoubleValues scores) throws IOException {
+        NumericDocValues fechas = DocValues.getNumeric(ctx.reader(), campo);
+        return new DoubleValues() {
+            private double valor;
+
+            @Override
+            public double doubleValue() {
+                return valor;
+            }
+
+            @Override
+            public boolean advanceExact(int doc) throws IOException {
+                valor = fechas.advanceExact(doc) ? factor(fechas.longValue()) : 1d;
+                return true;
+            }
+        };
+    }
+
+    private double factor(long fecha) {
+        if (fecha < ahora) {
+            return 0.5d;
+        }
+        double dias = (fecha - ahora) / DIA_MS;
+        return 1d + 1d / (1d + dias / 30d);
+    }
+
+    @Override
+    public boolean needsScores() {
+        return false;
+    }
+
+    @Override
+    public DoubleValuesSource rewrite(IndexSearcher searcher) {
+        return this;
+    }
+
+    @Override
+    public boolean isCacheable(LeafReaderContext ctx) {
+        return DocValues.isCacheable(ctx, campo);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof CercaniaFecha otro && otro.campo.equals(campo) && otro.ahora == ahora;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(campo, ahora);
+    }
+
+    @Override
+    public String toString() {
+        return "cercaniaFecha(" + campo + ")";
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.eventservice.busqueda;
+
+import java.time.LocalDateTime;
+
+/**
+ * Consulta al índice. {@code texto} vacío devuelve todo lo que pase los filtros;
+ * los filtros nulos no se aplican.
+ *
+ * @param porFecha true ordena por fecha del evento; false por relevancia
+ *                 (BM25 ponderado por la cercanía de la fecha)
+ * @param desde    desplazamiento del primer resultado
+ * @param cantidad resultados a devolver
+ */
+public record ConsultaEventos(String texto,
+                              String categoria,
+                              String estado,
+                              LocalDateTime fechaDesde,
+                              LocalDateTime fechaHasta,
+                              boolean porFecha,
+                              int desde,
+                              int cantidad) {
+}
@@ -0,0 +1,29 @@
+package com.example.eventservice.busqueda;
+
+import com.example.eventservice.model.Event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Copia de los campos buscables de un evento. Se toma dentro de la transacción
+ * y se indexa después del commit, cuando la entidad ya puede estar separada.
+ */
+public record DocumentoEvento(long id,
+                              String nombre,
+                              String descripcion,
+                              String ubicacion,
+                              String categoria,
+                              LocalDateTime fechaEvento,
+                              String estado) {
+
+    public static DocumentoEvento desde(Event event) {
+        return new DocumentoEvento(
+                event.getId(),
+                event.getNombre(),
+                event.getDescripcion(),
+                event.getUbicacion(),
+                event.getCategoria(),
+                event.getFechaEvento(),
+                event.getEstado() != null ? event.getEstado().name() : Event.EstadoEvento.ACTIVO.name());
+    }
+}
@@ -0,0 +1,297 @@
+package com.example.eventservice.busqueda;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.SortedSetDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.facet.FacetResult;
+import org.apache.lucene.facet.FacetsCollector;
+import org.apache.lucene.facet.LabelAndValue;
+import org.apache.lucene.facet.StringDocValuesReaderState;
+import org.apache.lucene.facet.StringValueFacetCounts;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queries.function.FunctionScoreQuery;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.DisjunctionMaxQuery;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.BytesRef;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Índice de texto completo del catálogo sobre Lucene.
+ *
+ * Un documento por evento (clave: id). Campos de texto con su peso:
+ * nombre 3, categoría 2, ubicación 1.5, descripción 1. Cada palabra buscada
+ * debe aparecer en algún campo, como término exacto, como prefijo (búsqueda
+ * mientras se escribe) o con 1-2 errores de tipeo. Prefijo y errores no se
+ * aplican a la descripción: es el campo con más términos y el que menos aporta.
+ *
+ * Las escrituras se ven en las búsquedas tras {@link #refrescar()} (near
+ * real-time, sin commit); {@link #commit()} solo hace falta con índice en disco.
+ */
+public class IndiceEventos implements Closeable {
+
+    static final String ID = "id";
+    static final String NOMBRE = "nombre";
+    static final String DESCRIPCION = "descripcion";
+    static final String UBICACION = "ubicacion";
+    static final String CATEGORIA = "categoria";
+    static final String CATEGORIA_FILTRO = "categoria_filtro";
+    static final String CATEGORIA_FACETA = "categoria_faceta";
+    static final String ESTADO = "estado";
+    static final String FECHA = "fecha";
+
+    private static final Map<String, Float> PESOS = Map.of(
+            NOMBRE, 3f,
+            CATEGORIA, 2f,
+            UBICACION, 1.5f,
+            DESCRIPCION, 1f);
+
+    private static final int MAX_FACETAS = 50;
+
+    private final Directory directorio;
+    private final AnalizadorEventos analizador = new AnalizadorEventos();
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+
+    private volatile EstadoFacetas estadoFacetas;
+
+    public IndiceEventos(Directory directorio) throws IOException {
+        this.directorio = directorio;
+        IndexWriterConfig config = new IndexWriterConfig(analizador)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND)
+                .setRAMBufferSizeMB(64);
+        this.writer = new IndexWriter(directorio, config);
+        this.searcherManager = new SearcherManager(writer, null);
+    }
+
+    /**
+     * Agrega o reemplaza el documento del evento.
+     */
+    public void indexar(DocumentoEvento evento) throws IOException {
+        writer.updateDocument(new Term(ID, String.valueOf(evento.id())), documento(evento));
+    }
+
+    public void eliminar(long eventoId) throws IOException {
+        writer.deleteDocuments(new Term(ID, String.valueOf(eventoId)));
+    }
+
+    /**
+     * Hace visibles a las búsquedas las escrituras pendientes.
+     */
+    public void refrescar() throws IOException {
+        searcherManager.maybeRefresh();
+    }
+
+    public void commit() throws IOException {
+        if (writer.hasUncommittedChanges()) {
+            writer.commit();
+        }
+    }
+
+    public int cantidad() {
+        return writer.getDocStats().numDocs;
+    }
+
+    public ResultadoBusqueda buscar(ConsultaEventos consulta) throws IOException {
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            long ahora = epochMillis(LocalDateTime.now());
+            Query sinCategoria = query(consulta, false, ahora);
+            Query conFiltros = consulta.categoria() == null ? sinCategoria : query(consulta, true, ahora);
+            int n = Math.max(1, consulta.desde() + consulta.cantidad());
+            Sort orden = consulta.porFecha()
+                    ? new Sort(new SortField(FECHA, SortField.Type.LONG), SortField.FIELD_SCORE)
+                    : null;
+
+            // Las facetas se cuentan sin el filtro de categoría; sin ese filtro
+            // alcanza con una sola pasada para facetas, total y página
+            FacetsCollector facetas = new FacetsCollector();
+            TopDocs top;
+            long total;
+            if (consulta.categoria() == null) {
+                top = orden == null
+                        ? FacetsCollector.search(searcher, conFiltros, n, facetas)
+                        : FacetsCollector.search(searcher, conFiltros, n, orden, facetas);
+                total = facetas.getMatchingDocs().stream().mapToLong(m -> m.totalHits).sum();
+            } else {
+                FacetsCollector.search(searcher, sinCategoria, 1, facetas);
+                top = orden == null ? searcher.search(conFiltros, n) : searcher.search(conFiltros, n, orden);
+                total = searcher.count(conFiltros);
+            }
+
+            List<Long> ids = new ArrayList<>();
+            StoredFields campos = searcher.storedFields();
+            ScoreDoc[] docs = top.scoreDocs;
+            for (int i = consulta.desde(); i < docs.length; i++) {
+                ids.add(Long.parseLong(campos.document(docs[i].doc, Set.of(ID)).get(ID)));
+            }
+            return new ResultadoBusqueda(ids, total, contarCategorias(searcher.getIndexReader(), facetas));
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        searcherManager.close();
+        writer.close();
+        directorio.close();
+    }
+
+    private Document documento(DocumentoEvento evento) {
+        Document doc = new Document();
+        doc.add(new StringField(ID, String.valueOf(evento.id()), Field.Store.YES));
+        agregarTexto(doc, NOMBRE, evento.nombre());
+        agregarTexto(doc, DESCRIPCION, evento.descripcion());
+        agregarTexto(doc, UBICACION, evento.ubicacion());
+        if (evento.categoria() != null && !evento.categoria().isBlank()) {
+            agregarTexto(doc, CATEGORIA, evento.categoria());
+            doc.add(new StringField(CATEGORIA_FILTRO, normalizar(evento.categoria()), Field.Store.NO));
+            doc.add(new SortedSetDocValuesField(CATEGORIA_FACETA, new BytesRef(evento.categoria())));
+        }
+        doc.add(new StringField(ESTADO, evento.estado(), Field.Store.NO));
+        if (evento.fechaEvento() != null) {
+            long fecha = epochMillis(evento.fechaEvento());
+            doc.add(new LongPoint(FECHA, fecha));
+            doc.add(new NumericDocValuesField(FECHA, fecha));
+        }
+        return doc;
+    }
+
+    private static void agregarTexto(Document doc, String campo, String valor) {
+        if (valor != null && !valor.isBlank()) {
+            doc.add(new TextField(campo, valor, Field.Store.NO));
+        }
+    }
+
+    private Query query(ConsultaEventos consulta, boolean filtrarCategoria, long ahora) {
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+
+        List<String> terminos = analizador.terminos(NOMBRE, consulta.texto());
+        if (terminos.isEmpty()) {
+            builder.add(new MatchAllDocsQuery(), BooleanClause.Occur.MUST);
+        }
+        for (int i = 0; i < terminos.size(); i++) {
+            builder.add(termino(terminos.get(i), i == terminos.size() - 1), BooleanClause.Occur.MUST);
+        }
+
+        if (consulta.estado() != null) {
+            builder.add(new TermQuery(new Term(ESTADO, consulta.estado())), BooleanClause.Occur.FILTER);
+        }
+        if (filtrarCategoria) {
+            builder.add(new TermQuery(new Term(CATEGORIA_FILTRO, normalizar(consulta.categoria()))),
+                    BooleanClause.Occur.FILTER);
+        }
+        if (consulta.fechaDesde() != null || consulta.fechaHasta() != null) {
+            builder.add(LongPoint.newRangeQuery(FECHA,
+                    consulta.fechaDesde() != null ? epochMillis(consulta.fechaDesde()) : Long.MIN_VALUE,
+                    consulta.fechaHasta() != null ? epochMillis(consulta.fechaHasta()) : Long.MAX_VALUE),
+                    BooleanClause.Occur.FILTER);
+        }
+
+        Query query = builder.build();
+        if (consulta.porFecha() || terminos.isEmpty()) {
+            return query;
+        }
+        // Minuto exacto: el mismo "ahora" produce la misma query (y el mismo ranking) durante un minuto
+        return FunctionScoreQuery.boostByValue(query, new CercaniaFecha(FECHA, ahora / 60_000 * 60_000));
+    }
+
+    /**
+     * Una palabra buscada: el mejor de término exacto, prefijo o con errores,
+     * en cualquiera de los campos de texto.
+     */
+    private static Query termino(String termino, boolean ultimo) {
+        boolean prefijo = termino.length() >= 3 || (ultimo && termino.length() >= 2);
+        int ediciones = termino.length() >= 8 ? 2 : termino.length() >= 4 ? 1 : 0;
+
+        List<Query> variantes = new ArrayList<>();
+        PESOS.forEach((campo, peso) -> {
+            Term term = new Term(campo, termino);
+            variantes.add(new BoostQuery(new TermQuery(term), peso));
+            if (DESCRIPCION.equals(campo)) {
+                return;
+            }
+            if (prefijo) {
+                variantes.add(new BoostQuery(new PrefixQuery(term), peso * 0.6f));
+            }
+            if (ediciones > 0) {
+                // prefixLength 1: la primera letra debe coincidir, acota el autómata
+                variantes.add(new BoostQuery(new FuzzyQuery(term, ediciones, 1), peso * 0.4f));
+            }
+        });
+        return new DisjunctionMaxQuery(variantes, 0.1f);
+    }
+
+    private Map<String, Long> contarCategorias(IndexReader lector, FacetsCollector facetas) throws IOException {
+        Map<String, Long> conteo = new LinkedHashMap<>();
+        if (lector.numDocs() == 0) {
+            return conteo;
+        }
+        FacetResult resultado = new StringValueFacetCounts(estadoFacetas(lector), facetas)
+                .getTopChildren(MAX_FACETAS, CATEGORIA_FACETA);
+        if (resultado != null) {
+            for (LabelAndValue valor : resultado.labelValues) {
+                conteo.put(valor.label, valor.value.longValue());
+            }
+        }
+        return conteo;
+    }
+
+    /**
+     * El mapa de ordinales de la faceta se arma una vez por lector, no por consulta.
+     */
+    private StringDocValuesReaderState estadoFacetas(IndexReader lector) throws IOException {
+        EstadoFacetas actual = estadoFacetas;
+        if (actual == null || actual.lector() != lector) {
+            actual = new EstadoFacetas(lector, new StringDocValuesReaderState(lector, CATEGORIA_FACETA));
+            estadoFacetas = actual;
+        }
+        return actual.estado();
+    }
+
+    static String normalizar(String valor) {
+        return Normalizer.normalize(valor.trim(), Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+    }
+
+    private static long epochMillis(LocalDateTime fecha) {
+        return fecha.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private record EstadoFacetas(IndexReader lector, StringDocValuesReaderState estado) {
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.eventservice.busqueda;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * IDs de la página pedida en orden de ranking, total exacto de coincidencias y
+ * conteo por categoría (calculado sin el filtro de categoría, para poder
+ * mostrar las demás opciones).
+ */
+public record ResultadoBusqueda(List<Long> ids, long total, Map<String, Long> facetasCategoria) {
+}
@@ -0,0 +1,69 @@
+package com.example.eventservice.config;
+
+import com.example.eventservice.repository.TipoEntradaRepository;
+import com.example.eventservice.service.HotInventoryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.LocalDateTime;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Configuración de tareas programadas de event-service.
+ */
+@Configuration
+@EnableScheduling
+@RequiredArgsConstructor
+@Slf4j
+public class ScheduledTasksConfig {
+
+    private final HotInventoryService hotInventoryService;
+    private final TipoEntradaRepository tipoEntradaRepository;
+
+    @Value("${stock.compensaciones.retencion-dias:7}")
+    private int retencionCompensacionesDias;
+
+    @Value("${stock.compensaciones.lote-purga:1000}")
+    private int lotePurgaCompensaciones;
+
+    /**
+     * Devuelve a tipos_entrada el inventario caliente de los tipos sin ventas
+     * desde hace inventory.hot.idle-ms.
+     */
+    @Scheduled(fixedDelayString = "${inventory.hot.reconcile-interval-ms:1000}")
+    public void reconciliarInventarioCaliente() {
+        hotInventoryService.reconciliar();
+    }
+
+    /**
+     * Borra las claves de compensación (compensaciones_stock) y de descuentos de
+     * carrito (descuentos_stock) más viejas que stock.compensaciones.retencion-dias,
+     * por lotes de una transacción cada uno para no bloquear las tablas. La
+     * retención tiene que superar de sobra el tiempo en que ticket-service puede
+     * reintentar una devolución o anular un carrito.
+     */
+    @Scheduled(cron = "${stock.compensaciones.purga-cron:0 30 3 * * *}")
+    public void purgarCompensaciones() {
+        LocalDateTime limite = LocalDateTime.now().minusDays(retencionCompensacionesDias);
+        long compensaciones = purgarPorLotes(lote -> tipoEntradaRepository.purgarCompensaciones(limite, lote));
+        long descuentos = purgarPorLotes(lote -> tipoEntradaRepository.purgarDescuentos(limite, lote));
+        if (compensaciones + descuentos > 0) {
+            log.info("Claves de stock anteriores a {} borradas: {} de compensación, {} de descuento",
+                    limite, compensaciones, descuentos);
+        }
+    }
+
+    private long purgarPorLotes(IntUnaryOperator borrarLote) {
+        long total = 0;
+        int borradas;
+        do {
+            borradas = borrarLote.applyAsInt(lotePurgaCompensaciones);
+            total += borradas;
+        } while (borradas == lotePurgaCompensaciones);
+        return total;
+    }
+}
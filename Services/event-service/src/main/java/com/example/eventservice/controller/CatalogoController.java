@@ -0,0 +1,30 @@
+package com.example.eventservice.controller;
+
+import com.example.common.contracts.CambiosCatalogo;
+import com.example.eventservice.service.CacheCatalogoService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/catalogo")
+@RequiredArgsConstructor
+@Tag(name = "Catálogo", description = "Invalidación de caches del catálogo (uso interno)")
+public class CatalogoController {
+
+    private final CacheCatalogoService cacheCatalogoService;
+
+    @GetMapping("/cambios")
+    @Operation(summary = "Cambios del catálogo",
+            description = "Eventos y tipos de entrada editados o eliminados después de la secuencia 'desde' (uso interno)")
+    public ResponseEntity<CambiosCatalogo> getCambios(
+            @RequestParam(required = false) String instancia,
+            @RequestParam(defaultValue = "0") long desde) {
+        return ResponseEntity.ok(cacheCatalogoService.cambiosDesde(instancia, desde));
+    }
+}
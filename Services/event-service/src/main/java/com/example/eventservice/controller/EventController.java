@@ -1,9 +1,18 @@
 package com.example.eventservice.controller;
 
+import com.example.eventservice.busqueda.ConsultaEventos;
+import com.example.eventservice.busqueda.ResultadoBusqueda;
 import com.example.eventservice.dto.CreateEventRequest;
 import com.example.eventservice.dto.EventDto;
+import com.example.eventservice.dto.FiltroEventos;
+import com.example.eventservice.dto.PaginaEventosDto;
+import com.example.eventservice.dto.ResultadoBusquedaTextoDto;
 import com.example.eventservice.dto.UpdateEventRequest;
+import com.example.eventservice.exception.BadRequestException;
+import com.example.eventservice.model.Event;
+import com.example.eventservice.service.BusquedaEventosService;
 import com.example.eventservice.service.EventService;
+import com.example.eventservice.service.VersionCatalogoService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -11,11 +20,18 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 @RestController
@@ -24,7 +40,15 @@ import java.util.Map;
 @Tag(name = "Eventos", description = "API para gestión de eventos")
 public class EventController {
 
+    /** Ventana máxima de la búsqueda por texto (pagina x tamanio). */
+    private static final int MAX_RESULTADOS_TEXTO = 1000;
+
     private final EventService eventService;
+    private final VersionCatalogoService versionCatalogoService;
+    private final BusquedaEventosService busquedaEventosService;
+
+    @Value("${catalogo.cache.max-age-segundos:5}")
+    private long maxAgeSegundos;
 
     @PostMapping
     @Operation(summary = "Crear evento", description = "Crea un nuevo evento en el sistema")
@@ -48,7 +72,18 @@ public class EventController {
             @Parameter(description = "Filtrar solo eventos próximos")
             @RequestParam(required = false, defaultValue = "false") boolean upcoming,
             @Parameter(description = "Filtrar solo eventos con disponibilidad")
-            @RequestParam(required = false, defaultValue = "false") boolean withAvailability) {
+            @RequestParam(required = false, defaultValue = "false") boolean withAvailability,
+            @RequestHeader HttpHeaders headers) {
+
+        // Cada filtro es una representación distinta; "próximos" además cambia con el reloj
+        VersionCatalogoService.Validador validador = versionCatalogoService.catalogo().variante(
+                upcoming ? "p" + System.currentTimeMillis() / 60_000
+                        : withAvailability ? "d" : onlyActive ? "a" : "t");
+        ResponseEntity<List<EventDto>> noModificado =
+                RespuestaCondicional.siNoModificado(validador, headers, cacheControl());
+        if (noModificado != null) {
+            return noModificado;
+        }
         
         List<EventDto> events;
         
@@ -62,20 +97,140 @@ public class EventController {
             events = eventService.getAllEvents();
         }
         
-        return ResponseEntity.ok(events);
+        return RespuestaCondicional.ok(validador, cacheControl(), events);
+    }
+
+    @GetMapping("/buscar")
+    @Operation(summary = "Buscar eventos",
+            description = "Búsqueda paginada por categoría, rango de fechas, disponibilidad, organizador y estado. " +
+                    "Para recorrer muchas páginas conviene enviar el siguienteCursor de la respuesta anterior.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Página de eventos"),
+            @ApiResponse(responseCode = "304", description = "Sin cambios desde el ETag enviado en If-None-Match"),
+            @ApiResponse(responseCode = "400", description = "Filtro, cursor o tamaño de página inválido")
+    })
+    public ResponseEntity<PaginaEventosDto> buscarEventos(
+            @Parameter(description = "Categoría exacta (sin distinguir mayúsculas)")
+            @RequestParam(required = false) String categoria,
+            @Parameter(description = "Eventos desde esta fecha (ISO, inclusive)", example = "2025-12-01T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fechaDesde,
+            @Parameter(description = "Eventos hasta esta fecha (ISO, inclusive)", example = "2025-12-31T23:59:59")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fechaHasta,
+            @Parameter(description = "Solo eventos con entradas disponibles")
+            @RequestParam(required = false, defaultValue = "false") boolean conDisponibilidad,
+            @Parameter(description = "ID del organizador")
+            @RequestParam(required = false) Long organizadorId,
+            @Parameter(description = "Estado del evento (por defecto ACTIVO; TODOS para no filtrar)")
+            @RequestParam(required = false, defaultValue = "ACTIVO") String estado,
+            @Parameter(description = "Cursor de la página anterior (tiene prioridad sobre pagina)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Número de página, desde 0")
+            @RequestParam(required = false, defaultValue = "0") int pagina,
+            @Parameter(description = "Eventos por página")
+            @RequestParam(required = false, defaultValue = "20") int tamanio,
+            @RequestHeader HttpHeaders headers) {
+
+        FiltroEventos filtro = FiltroEventos.builder()
+                .categoria(categoria != null && !categoria.isBlank() ? categoria.trim() : null)
+                .fechaDesde(fechaDesde)
+                .fechaHasta(fechaHasta)
+                .conDisponibilidad(conDisponibilidad)
+                .organizadorId(organizadorId)
+                .estado(estado(estado))
+                .build();
+
+        // Cada combinación de filtros y página tiene su propio ETag sobre la versión del catálogo
+        VersionCatalogoService.Validador validador = versionCatalogoService.catalogo()
+                .varianteDeConsulta("b", consultaCanonica(filtro, cursor, pagina, tamanio));
+        ResponseEntity<PaginaEventosDto> noModificado =
+                RespuestaCondicional.siNoModificado(validador, headers, cacheControl());
+        if (noModificado != null) {
+            return noModificado;
+        }
+
+        PaginaEventosDto resultado = eventService.buscarEventos(filtro, cursor, pagina, tamanio);
+        return RespuestaCondicional.ok(validador, cacheControl(), resultado);
+    }
+
+    @GetMapping("/buscar/texto")
+    @Operation(summary = "Buscar eventos por texto",
+            description = "Busca en nombre, descripción, ubicación y categoría. Admite prefijos y errores de tipeo; " +
+                    "devuelve conteos por categoría. Orden por relevancia (ponderada por cercanía de la fecha) o por fecha.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Resultados de la búsqueda"),
+            @ApiResponse(responseCode = "400", description = "Parámetros inválidos")
+    })
+    public ResponseEntity<ResultadoBusquedaTextoDto> buscarEventosPorTexto(
+            @Parameter(description = "Texto a buscar", example = "concierto rock")
+            @RequestParam(required = false, defaultValue = "") String q,
+            @Parameter(description = "Categoría (sin distinguir mayúsculas ni tildes)")
+            @RequestParam(required = false) String categoria,
+            @Parameter(description = "Eventos desde esta fecha (ISO, inclusive)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fechaDesde,
+            @Parameter(description = "Eventos hasta esta fecha (ISO, inclusive)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fechaHasta,
+            @Parameter(description = "Estado del evento (por defecto ACTIVO; TODOS para no filtrar)")
+            @RequestParam(required = false, defaultValue = "ACTIVO") String estado,
+            @Parameter(description = "relevancia o fecha")
+            @RequestParam(required = false, defaultValue = "relevancia") String orden,
+            @Parameter(description = "Número de página, desde 0")
+            @RequestParam(required = false, defaultValue = "0") int pagina,
+            @Parameter(description = "Eventos por página")
+            @RequestParam(required = false, defaultValue = "20") int tamanio) {
+
+        if (tamanio < 1 || tamanio > 100) {
+            throw new BadRequestException("El tamaño de página debe estar entre 1 y 100");
+        }
+        // En long para que una página enorme no desborde y pase el control
+        if (pagina < 0 || (pagina + 1L) * tamanio > MAX_RESULTADOS_TEXTO) {
+            throw new BadRequestException("Solo se pueden recorrer los primeros " + MAX_RESULTADOS_TEXTO + " resultados");
+        }
+        if (!"relevancia".equalsIgnoreCase(orden) && !"fecha".equalsIgnoreCase(orden)) {
+            throw new BadRequestException("Orden inválido: " + orden);
+        }
+
+        Event.EstadoEvento filtroEstado = estado(estado);
+        ResultadoBusqueda resultado = busquedaEventosService.buscar(new ConsultaEventos(
+                q,
+                categoria != null && !categoria.isBlank() ? categoria : null,
+                filtroEstado != null ? filtroEstado.name() : null,
+                fechaDesde,
+                fechaHasta,
+                "fecha".equalsIgnoreCase(orden),
+                pagina * tamanio,
+                tamanio));
+
+        ResultadoBusquedaTextoDto respuesta = ResultadoBusquedaTextoDto.builder()
+                .eventos(eventService.getEventsByIds(resultado.ids()))
+                .total(resultado.total())
+                .pagina(pagina)
+                .tamanio(tamanio)
+                .categorias(resultado.facetasCategoria())
+                .indiceCompleto(busquedaEventosService.isCompleto())
+                .build();
+        return ResponseEntity.ok().cacheControl(cacheControl()).body(respuesta);
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Obtener evento por ID", description = "Obtiene los detalles de un evento específico")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Evento encontrado"),
+            @ApiResponse(responseCode = "304", description = "Sin cambios desde el ETag enviado en If-None-Match"),
             @ApiResponse(responseCode = "404", description = "Evento no encontrado")
     })
     public ResponseEntity<EventDto> getEventById(
             @Parameter(description = "ID del evento")
-            @PathVariable Long id) {
+            @PathVariable Long id,
+            @RequestHeader HttpHeaders headers) {
+        VersionCatalogoService.Validador validador = versionCatalogoService.evento(id);
+        ResponseEntity<EventDto> noModificado =
+                RespuestaCondicional.siNoModificado(validador, headers, cacheControl());
+        if (noModificado != null) {
+            return noModificado;
+        }
+
         EventDto event = eventService.getEventById(id);
-        return ResponseEntity.ok(event);
+        return RespuestaCondicional.ok(validador, cacheControl(), event);
     }
 
     @PutMapping("/{id}")
@@ -127,6 +282,37 @@ public class EventController {
         return ResponseEntity.noContent().build();
     }
 
+    private static Event.EstadoEvento estado(String estado) {
+        if (estado == null || estado.isBlank() || "TODOS".equalsIgnoreCase(estado)) {
+            return null;
+        }
+        try {
+            return Event.EstadoEvento.valueOf(estado.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Estado inválido: " + estado);
+        }
+    }
+
+    /**
+     * Forma canónica de una búsqueda: mismos resultados, mismo texto. La
+     * categoría no distingue mayúsculas y con cursor la página no cuenta.
+     */
+    private static String consultaCanonica(FiltroEventos filtro, String cursor, int pagina, int tamanio) {
+        return "categoria=" + (filtro.getCategoria() != null ? filtro.getCategoria().toLowerCase(Locale.ROOT) : "")
+                + "&fechaDesde=" + (filtro.getFechaDesde() != null ? filtro.getFechaDesde() : "")
+                + "&fechaHasta=" + (filtro.getFechaHasta() != null ? filtro.getFechaHasta() : "")
+                + "&conDisponibilidad=" + filtro.isConDisponibilidad()
+                + "&organizadorId=" + (filtro.getOrganizadorId() != null ? filtro.getOrganizadorId() : "")
+                + "&estado=" + (filtro.getEstado() != null ? filtro.getEstado() : "TODOS")
+                + (cursor != null && !cursor.isBlank() ? "&cursor=" + cursor : "&pagina=" + pagina)
+                + "&tamanio=" + tamanio;
+    }
+
+    private CacheControl cacheControl() {
+        // public: el gateway puede compartir la respuesta entre clientes anónimos
+        return CacheControl.maxAge(Duration.ofSeconds(maxAgeSegundos)).cachePublic();
+    }
+
     @GetMapping("/health")
     @Operation(summary = "Health check", description = "Verifica el estado del servicio")
     public ResponseEntity<Map<String, String>> health() {
@@ -0,0 +1,47 @@
+package com.example.eventservice.controller;
+
+import com.example.eventservice.service.VersionCatalogoService.Validador;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+/**
+ * Respuestas GET del catálogo con ETag, Last-Modified y Cache-Control.
+ */
+final class RespuestaCondicional {
+
+    private RespuestaCondicional() {
+    }
+
+    /**
+     * 304 si el cliente ya tiene esta versión; {@code null} si hay que generar el cuerpo.
+     */
+    static <T> ResponseEntity<T> siNoModificado(Validador validador, HttpHeaders peticion, CacheControl cacheControl) {
+        List<String> ifNoneMatch = peticion.getOrEmpty(HttpHeaders.IF_NONE_MATCH);
+        if (validador == null || !validador.noModificado(
+                ifNoneMatch.isEmpty() ? null : String.join(",", ifNoneMatch),
+                peticion.getIfModifiedSince())) {
+            return null;
+        }
+        return validadores(ResponseEntity.status(HttpStatus.NOT_MODIFIED), validador, cacheControl).build();
+    }
+
+    static <T> ResponseEntity<T> ok(Validador validador, CacheControl cacheControl, T cuerpo) {
+        if (validador == null) {
+            return ResponseEntity.ok(cuerpo);
+        }
+        return validadores(ResponseEntity.ok(), validador, cacheControl).body(cuerpo);
+    }
+
+    private static ResponseEntity.BodyBuilder validadores(ResponseEntity.BodyBuilder builder, Validador validador,
+                                                         CacheControl cacheControl) {
+        builder.eTag(validador.etag()).cacheControl(cacheControl);
+        if (validador.ultimaModificacion() >= 0) {
+            builder.lastModified(validador.ultimaModificacion());
+        }
+        return builder;
+    }
+}
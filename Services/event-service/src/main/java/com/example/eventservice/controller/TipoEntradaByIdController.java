@@ -1,5 +1,6 @@
 package com.example.eventservice.controller;
 
+import com.example.eventservice.dto.AjusteStockLoteRequest;
 import com.example.eventservice.dto.TipoEntradaDto;
 import com.example.eventservice.dto.UpdateTipoEntradaRequest;
 import com.example.eventservice.service.TipoEntradaService;
@@ -56,6 +57,22 @@ public class TipoEntradaByIdController {
         return ResponseEntity.ok().build();
     }
 
+    @PutMapping("/disminuir-lote")
+    @Operation(summary = "Disminuir cantidad en lote", description = "Disminuye el stock de varios tipos de entrada en una sola transacción, todo o nada (uso interno)")
+    public ResponseEntity<Void> decreaseCantidadLote(@Valid @RequestBody AjusteStockLoteRequest request) {
+        log.info("PUT /api/tipos-entrada/disminuir-lote - {} líneas", request.getLineas().size());
+        tipoEntradaService.decreaseCantidadLote(request.getLineas());
+        return ResponseEntity.ok().build();
+    }
+
+    @PutMapping("/incrementar-lote")
+    @Operation(summary = "Incrementar cantidad en lote", description = "Devuelve stock de varios tipos de entrada en una sola transacción; las líneas con una clave ya aplicada se ignoran (uso interno)")
+    public ResponseEntity<Void> increaseCantidadLote(@Valid @RequestBody AjusteStockLoteRequest request) {
+        log.info("PUT /api/tipos-entrada/incrementar-lote - {} líneas", request.getLineas().size());
+        tipoEntradaService.increaseCantidadLote(request.getLineas());
+        return ResponseEntity.ok().build();
+    }
+
     @PutMapping("/{id}/incrementar")
     @Operation(summary = "Incrementar cantidad", description = "Incrementa la cantidad disponible - Compensación/Rollback")
     public ResponseEntity<Void> increaseCantidad(
@@ -3,16 +3,24 @@ package com.example.eventservice.controller;
 import com.example.eventservice.dto.CreateTipoEntradaRequest;
 import com.example.eventservice.dto.TipoEntradaDto;
 import com.example.eventservice.dto.UpdateTipoEntradaRequest;
+import com.example.eventservice.service.DisponibilidadStreamService;
 import com.example.eventservice.service.TipoEntradaService;
+import com.example.eventservice.service.VersionCatalogoService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.Duration;
 import java.util.List;
 
 @RestController
@@ -23,6 +31,11 @@ import java.util.List;
 public class TipoEntradaController {
 
     private final TipoEntradaService tipoEntradaService;
+    private final VersionCatalogoService versionCatalogoService;
+    private final DisponibilidadStreamService disponibilidadStreamService;
+
+    @Value("${catalogo.cache.max-age-segundos:5}")
+    private long maxAgeSegundos;
 
     @PostMapping
     @Operation(summary = "Crear tipo de entrada", description = "Crea un nuevo tipo de entrada para un evento")
@@ -38,10 +51,41 @@ public class TipoEntradaController {
     @Operation(summary = "Listar tipos de entrada", description = "Obtiene todos los tipos de entrada de un evento")
     public ResponseEntity<List<TipoEntradaDto>> getTiposEntrada(
             @PathVariable Long eventoId,
-            @RequestParam(defaultValue = "true") boolean soloActivos) {
+            @RequestParam(defaultValue = "true") boolean soloActivos,
+            @RequestHeader HttpHeaders headers) {
         log.info("GET /api/eventos/{}/tipos-entrada - soloActivos: {}", eventoId, soloActivos);
+
+        // El validador del evento cubre también sus tipos de entrada
+        VersionCatalogoService.Validador validador = versionCatalogoService.evento(eventoId);
+        if (validador != null) {
+            validador = validador.variante(soloActivos ? "ta" : "tt");
+        }
+        ResponseEntity<List<TipoEntradaDto>> noModificado =
+                RespuestaCondicional.siNoModificado(validador, headers, cacheControl());
+        if (noModificado != null) {
+            return noModificado;
+        }
+
         List<TipoEntradaDto> tiposEntrada = tipoEntradaService.getTiposEntradaByEvento(eventoId, soloActivos);
-        return ResponseEntity.ok(tiposEntrada);
+        return RespuestaCondicional.ok(validador, cacheControl(), tiposEntrada);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream de disponibilidad",
+            description = "SSE con eventos 'disponibilidad': foto de cantidadDisponible de todos los tipos del evento, " +
+                    "agrupando los cambios de stock de una ventana corta")
+    public ResponseEntity<SseEmitter> streamDisponibilidad(@PathVariable Long eventoId) {
+        SseEmitter emitter = disponibilidadStreamService.suscribir(eventoId);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                // Evita que un proxy intermedio acumule el stream
+                .header("X-Accel-Buffering", "no")
+                .body(emitter);
     }
 
     @PutMapping("/{id}")
@@ -64,4 +108,8 @@ public class TipoEntradaController {
         tipoEntradaService.deleteTipoEntrada(id);
         return ResponseEntity.noContent().build();
     }
+
+    private CacheControl cacheControl() {
+        return CacheControl.maxAge(Duration.ofSeconds(maxAgeSegundos)).cachePublic();
+    }
 }
@@ -0,0 +1,24 @@
+package com.example.eventservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Ajuste de stock de varios tipos de entrada en una sola transacción")
+public class AjusteStockLoteRequest {
+
+    @NotEmpty(message = "Debe incluir al menos una línea")
+    @Valid
+    @Schema(description = "Líneas del ajuste", required = true)
+    private List<LineaStockRequest> lineas;
+}
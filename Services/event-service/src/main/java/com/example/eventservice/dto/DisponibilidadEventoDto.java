@@ -0,0 +1,26 @@
+package com.example.eventservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Foto completa de la disponibilidad de un evento, enviada por SSE al cambiar el stock")
+public class DisponibilidadEventoDto {
+
+    @Schema(description = "ID del evento", example = "1")
+    private Long eventoId;
+
+    @Schema(description = "Todos los tipos de entrada del evento")
+    private List<DisponibilidadTipoDto> tiposEntrada;
+
+    @Schema(description = "Momento de la foto (epoch millis)")
+    private Long timestamp;
+}
@@ -0,0 +1,27 @@
+package com.example.eventservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Disponibilidad de un tipo de entrada en el stream")
+public class DisponibilidadTipoDto {
+
+    @Schema(description = "ID del tipo de entrada", example = "1")
+    private Long tipoEntradaId;
+
+    @Schema(description = "Entradas disponibles al cierre de la ventana", example = "87")
+    private Integer cantidadDisponible;
+
+    @Schema(description = "Cambio acumulado en la ventana (informativo; usar cantidadDisponible)", example = "-3")
+    private Integer delta;
+
+    @Schema(description = "Si el tipo de entrada está a la venta", example = "true")
+    private Boolean activo;
+}
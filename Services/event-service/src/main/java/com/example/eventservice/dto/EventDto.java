@@ -1,6 +1,7 @@
 package com.example.eventservice.dto;
 
 import com.example.eventservice.model.Event;
+import com.example.eventservice.model.TipoEntrada;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -14,7 +15,7 @@ import java.util.stream.Collectors;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 @Schema(description = "Información del evento")
 public class EventDto {
 
@@ -36,7 +37,7 @@ public class EventDto {
     @Schema(description = "Capacidad total", example = "5000")
     private Integer capacidadTotal;
 
-    @Schema(description = "Entradas disponibles", example = "4500")
+    @Schema(description = "Entradas disponibles (en listados y búsquedas, sin el stock en memoria del inventario caliente: cota inferior)", example = "4500")
     private Integer entradasDisponibles;
 
     @Schema(description = "Tipos de entrada del evento")
@@ -67,6 +68,14 @@ public class EventDto {
     private LocalDateTime fechaActualizacion;
 
     public static EventDto fromEntity(Event event) {
+        return fromEntity(event, event.getTiposEntrada());
+    }
+
+    /**
+     * Variante para listados: los tipos de entrada llegan ya cargados en lote
+     * y no se inicializa la colección perezosa del evento.
+     */
+    public static EventDto fromEntity(Event event, List<TipoEntrada> tiposEntrada) {
         return EventDto.builder()
                 .id(event.getId())
                 .nombre(event.getNombre())
@@ -75,8 +84,8 @@ public class EventDto {
                 .fechaEvento(event.getFechaEvento())
                 .capacidadTotal(event.getCapacidadTotal())
                 .entradasDisponibles(event.getEntradasDisponibles())
-                .tiposEntrada(event.getTiposEntrada() != null ?
-                        event.getTiposEntrada().stream()
+                .tiposEntrada(tiposEntrada != null ?
+                        tiposEntrada.stream()
                                 .map(TipoEntradaDto::fromEntity)
                                 .collect(Collectors.toList()) :
                         List.of())
@@ -0,0 +1,36 @@
+package com.example.eventservice.dto;
+
+import com.example.eventservice.model.Event;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Criterios de búsqueda del catálogo. Los campos nulos no filtran.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FiltroEventos {
+
+    private String categoria;
+
+    private LocalDateTime fechaDesde;
+
+    private LocalDateTime fechaHasta;
+
+    /**
+     * Solo eventos con algún tipo de entrada activo y con stock en tipos_entrada.
+     * Para tipos en inventario caliente es una cota inferior: un tipo cuya fila
+     * quedó en 0 pero con stock arrendado en memoria no cuenta.
+     */
+    private boolean conDisponibilidad;
+
+    private Long organizadorId;
+
+    private Event.EstadoEvento estado;
+}
@@ -0,0 +1,36 @@
+package com.example.eventservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Línea de un ajuste de stock en lote")
+public class LineaStockRequest {
+
+    @NotNull(message = "El tipo de entrada es requerido")
+    @Schema(description = "ID del tipo de entrada", example = "1", required = true)
+    private Long tipoEntradaId;
+
+    @NotNull(message = "La cantidad es requerida")
+    @Min(value = 1, message = "La cantidad debe ser al menos 1")
+    @Schema(description = "Cantidad de entradas", example = "2", required = true)
+    private Integer cantidad;
+
+    @Size(max = 100, message = "La clave no puede superar los 100 caracteres")
+    @Schema(description = "Clave de idempotencia de la línea: una línea con una clave ya aplicada se ignora. " +
+            "En un descuento en lote identifica la línea del carrito para poder anularla", example = "reserva-42")
+    private String clave;
+
+    @Schema(description = "Solo incrementos: la línea anula el descuento en lote con la misma clave. " +
+            "Devuelve stock solo si ese descuento se aplicó; si todavía no llegó, lo deja rechazado", example = "false")
+    private Boolean anulaDescuento;
+}
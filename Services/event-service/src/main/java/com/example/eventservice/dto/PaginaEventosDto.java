@@ -0,0 +1,35 @@
+package com.example.eventservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Página de resultados de la búsqueda de eventos, ordenada por fecha e ID")
+public class PaginaEventosDto {
+
+    @Schema(description = "Eventos de la página")
+    private List<EventDto> eventos;
+
+    @Schema(description = "Tamaño de página solicitado", example = "20")
+    private Integer tamanio;
+
+    @Schema(description = "Número de página (solo paginación por desplazamiento)", example = "0")
+    private Integer pagina;
+
+    @Schema(description = "Total de eventos que cumplen el filtro (solo paginación por desplazamiento)", example = "137")
+    private Long total;
+
+    @Schema(description = "Hay más resultados después de esta página")
+    private Boolean hayMas;
+
+    @Schema(description = "Cursor opaco para pedir la página siguiente; nulo en la última")
+    private String siguienteCursor;
+}
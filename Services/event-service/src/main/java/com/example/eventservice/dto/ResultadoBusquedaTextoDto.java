@@ -0,0 +1,37 @@
+package com.example.eventservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Resultado de la búsqueda de texto completo")
+public class ResultadoBusquedaTextoDto {
+
+    @Schema(description = "Eventos de la página, en orden de ranking")
+    private List<EventDto> eventos;
+
+    @Schema(description = "Total de eventos que coinciden", example = "42")
+    private Long total;
+
+    @Schema(description = "Número de página, desde 0", example = "0")
+    private Integer pagina;
+
+    @Schema(description = "Tamaño de página", example = "20")
+    private Integer tamanio;
+
+    @Schema(description = "Eventos por categoría para la misma búsqueda, sin el filtro de categoría",
+            example = "{\"Música\": 30, \"Teatro\": 12}")
+    private Map<String, Long> categorias;
+
+    @Schema(description = "false mientras el índice se está reconstruyendo al arrancar")
+    private Boolean indiceCompleto;
+}
@@ -37,10 +37,16 @@ public class Event {
     @Column(name = "fecha_evento", nullable = false)
     private LocalDateTime fechaEvento;
 
-    @Column(nullable = false)
+    /**
+     * Resumen de los tipos de entrada (suma de cantidadTotal y de
+     * cantidadDisponible). Se calcula al crear el evento; después lo mantienen
+     * los UPDATE de TipoEntradaRepository y EventRepository.recalcularResumen,
+     * nunca el guardado de la entidad (que pisaría ventas concurrentes).
+     */
+    @Column(nullable = false, updatable = false)
     private Integer capacidadTotal;
 
-    @Column(nullable = false)
+    @Column(nullable = false, updatable = false)
     private Integer entradasDisponibles;
 
     @OneToMany(mappedBy = "evento", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
@@ -67,6 +73,11 @@ public class Event {
     @Column(nullable = false)
     private Boolean activo;
 
+    @Version
+    @Column(nullable = false)
+    @Builder.Default
+    private Long version = 0L;
+
     @CreationTimestamp
     @Column(name = "fecha_creacion", updatable = false)
     private LocalDateTime fechaCreacion;
@@ -87,11 +98,6 @@ public class Event {
         calcularEntradasDisponibles();
     }
 
-    @PreUpdate
-    public void preUpdate() {
-        calcularEntradasDisponibles();
-    }
-
     private void calcularEntradasDisponibles() {
         if (tiposEntrada != null && !tiposEntrada.isEmpty()) {
             this.entradasDisponibles = tiposEntrada.stream()
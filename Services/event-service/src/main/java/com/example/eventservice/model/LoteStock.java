@@ -0,0 +1,45 @@
+package com.example.eventservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Journal del inventario caliente: cuánto stock tiene arrendado cada instancia
+ * de event-service para un tipo de entrada y cuánto de ese stock ya vendió.
+ * La diferencia (asignada - vendida) es lo que quedó en memoria.
+ */
+@Entity
+@Table(name = "lotes_stock",
+        uniqueConstraints = @UniqueConstraint(name = "uk_tipo_instancia", columnNames = {"tipo_entrada_id", "instancia"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LoteStock {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tipo_entrada_id", nullable = false)
+    private Long tipoEntradaId;
+
+    @Column(nullable = false, length = 100)
+    private String instancia;
+
+    @Column(name = "cantidad_asignada", nullable = false)
+    private Long cantidadAsignada;
+
+    @Column(name = "cantidad_vendida", nullable = false)
+    private Long cantidadVendida;
+
+    @UpdateTimestamp
+    @Column(name = "fecha_actualizacion")
+    private LocalDateTime fechaActualizacion;
+}
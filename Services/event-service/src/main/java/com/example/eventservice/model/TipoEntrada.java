@@ -50,6 +50,11 @@ public class TipoEntrada {
     @Column(nullable = false)
     private Boolean activo;
 
+    @Version
+    @Column(nullable = false)
+    @Builder.Default
+    private Long version = 0L;
+
     @CreationTimestamp
     @Column(name = "fecha_creacion", updatable = false)
     private LocalDateTime fechaCreacion;
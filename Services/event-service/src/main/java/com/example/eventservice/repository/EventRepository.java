@@ -1,21 +1,83 @@
 package com.example.eventservice.repository;
 
 import com.example.eventservice.model.Event;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface EventRepository extends JpaRepository<Event, Long> {
+public interface EventRepository extends JpaRepository<Event, Long>, EventRepositoryCustom {
     
     List<Event> findByActivoTrue();
+
+    List<Event> findByEstado(Event.EstadoEvento estado);
+
+    /**
+     * Recorrido de la tabla por id en lotes (reconstrucción del índice de búsqueda).
+     */
+    List<Event> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
     
     @Query("SELECT e FROM Event e WHERE e.fechaEvento >= :fechaDesde AND e.activo = true")
     List<Event> findEventosProximos(LocalDateTime fechaDesde);
     
-    @Query("SELECT e FROM Event e WHERE e.entradasDisponibles > 0 AND e.activo = true")
-    List<Event> findEventosConDisponibilidad();
+    /**
+     * Ids de los eventos activos con entradas: se resuelve solo con
+     * idx_eventos_disponibilidad (activo, entradas_disponibles, id implícito).
+     */
+    @Query("SELECT e.id FROM Event e WHERE e.activo = true AND e.entradasDisponibles > 0 ORDER BY e.id")
+    List<Long> findIdsConDisponibilidad();
+
+    /**
+     * Ajuste del resumen de disponibilidad del evento (descuentos en lote).
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Event e SET e.entradasDisponibles = e.entradasDisponibles + :delta WHERE e.id = :id")
+    int ajustarEntradasDisponibles(@Param("id") Long id, @Param("delta") int delta);
+
+    /**
+     * Recalcula capacidadTotal y entradasDisponibles desde los tipos de
+     * entrada. Para altas, ediciones y bajas de tipos (no en cada venta).
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Event e SET " +
+           "e.capacidadTotal = (SELECT COALESCE(SUM(t.cantidadTotal), 0) FROM TipoEntrada t WHERE t.evento.id = e.id), " +
+           "e.entradasDisponibles = (SELECT COALESCE(SUM(t.cantidadDisponible), 0) FROM TipoEntrada t WHERE t.evento.id = e.id) " +
+           "WHERE e.id = :id")
+    int recalcularResumen(@Param("id") Long id);
+
+    /**
+     * Validador de un evento sin cargar la entidad: versión del evento, suma de
+     * versiones de sus tipos de entrada y la última modificación de ambos.
+     */
+    @Query("SELECT e.version, " +
+           "(SELECT COALESCE(SUM(t.version), 0) FROM TipoEntrada t WHERE t.evento.id = e.id), " +
+           "e.fechaActualizacion, " +
+           "(SELECT MAX(t.fechaActualizacion) FROM TipoEntrada t WHERE t.evento.id = e.id) " +
+           "FROM Event e WHERE e.id = :id")
+    List<Object[]> findValidadorEvento(@Param("id") Long id);
+
+    /**
+     * Stock total del evento sin cargar la entidad.
+     */
+    @Query("SELECT e.entradasDisponibles FROM Event e WHERE e.id = :id")
+    List<Integer> findEntradasDisponibles(@Param("id") Long id);
+
+    /**
+     * Validador de todos los eventos: cantidad, suma de versiones y última modificación.
+     */
+    @Query("SELECT COUNT(e), COALESCE(SUM(e.version), 0), MAX(e.fechaActualizacion) FROM Event e")
+    List<Object[]> findValidadorCatalogo();
+
+    /**
+     * Sube la versión del evento cuando cambia el conjunto de sus tipos de entrada.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Event e SET e.version = e.version + 1, e.fechaActualizacion = CURRENT_TIMESTAMP WHERE e.id = :id")
+    int incrementarVersion(@Param("id") Long id);
 }
@@ -0,0 +1,25 @@
+package com.example.eventservice.repository;
+
+import com.example.eventservice.dto.FiltroEventos;
+import com.example.eventservice.model.Event;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Búsqueda del catálogo con filtros dinámicos, resuelta en SQL.
+ */
+public interface EventRepositoryCustom {
+
+    /**
+     * Eventos que cumplen el filtro ordenados por (fechaEvento, id).
+     *
+     * Con {@code despuesDeFecha}/{@code despuesDeId} se pagina por cursor (keyset):
+     * solo se leen filas posteriores a la última de la página anterior, sin
+     * OFFSET. Si vienen nulos se usa {@code desplazamiento}.
+     */
+    List<Event> buscar(FiltroEventos filtro, LocalDateTime despuesDeFecha, Long despuesDeId,
+                       int desplazamiento, int limite);
+
+    long contar(FiltroEventos filtro);
+}
@@ -0,0 +1,97 @@
+package com.example.eventservice.repository;
+
+import com.example.eventservice.dto.FiltroEventos;
+import com.example.eventservice.model.Event;
+import com.example.eventservice.model.TipoEntrada;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Implementación de {@link EventRepositoryCustom} con Criteria API. Los
+ * filtros se apoyan en los índices de V9 (estado/categoría/organizador +
+ * fecha_evento), que además entregan las filas ya en el orden de la página.
+ */
+class EventRepositoryImpl implements EventRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Event> buscar(FiltroEventos filtro, LocalDateTime despuesDeFecha, Long despuesDeId,
+                              int desplazamiento, int limite) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Event> query = cb.createQuery(Event.class);
+        Root<Event> evento = query.from(Event.class);
+
+        List<Predicate> predicados = predicados(cb, query, evento, filtro);
+        if (despuesDeFecha != null && despuesDeId != null) {
+            predicados.add(cb.or(
+                    cb.greaterThan(evento.get("fechaEvento"), despuesDeFecha),
+                    cb.and(
+                            cb.equal(evento.get("fechaEvento"), despuesDeFecha),
+                            cb.greaterThan(evento.get("id"), despuesDeId))));
+        }
+
+        query.select(evento)
+                .where(predicados.toArray(new Predicate[0]))
+                .orderBy(cb.asc(evento.get("fechaEvento")), cb.asc(evento.get("id")));
+
+        TypedQuery<Event> typed = entityManager.createQuery(query).setMaxResults(limite);
+        if (despuesDeFecha == null && desplazamiento > 0) {
+            typed.setFirstResult(desplazamiento);
+        }
+        return typed.getResultList();
+    }
+
+    @Override
+    public long contar(FiltroEventos filtro) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Event> evento = query.from(Event.class);
+        query.select(cb.count(evento))
+                .where(predicados(cb, query, evento, filtro).toArray(new Predicate[0]));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private static List<Predicate> predicados(CriteriaBuilder cb, CriteriaQuery<?> query, Root<Event> evento,
+                                              FiltroEventos filtro) {
+        List<Predicate> predicados = new ArrayList<>();
+        if (filtro.getEstado() != null) {
+            predicados.add(cb.equal(evento.get("estado"), filtro.getEstado()));
+        }
+        if (filtro.getCategoria() != null) {
+            // La colación utf8mb4_unicode_ci ya compara sin distinguir mayúsculas
+            predicados.add(cb.equal(evento.get("categoria"), filtro.getCategoria()));
+        }
+        if (filtro.getOrganizadorId() != null) {
+            predicados.add(cb.equal(evento.get("organizadorId"), filtro.getOrganizadorId()));
+        }
+        if (filtro.getFechaDesde() != null) {
+            predicados.add(cb.greaterThanOrEqualTo(evento.get("fechaEvento"), filtro.getFechaDesde()));
+        }
+        if (filtro.getFechaHasta() != null) {
+            predicados.add(cb.lessThanOrEqualTo(evento.get("fechaEvento"), filtro.getFechaHasta()));
+        }
+        if (filtro.isConDisponibilidad()) {
+            // EXISTS sobre (evento_id, activo, cantidad_disponible): se resuelve con el índice
+            Subquery<Long> conStock = query.subquery(Long.class);
+            Root<TipoEntrada> tipo = conStock.from(TipoEntrada.class);
+            conStock.select(tipo.get("id")).where(
+                    cb.equal(tipo.get("evento"), evento),
+                    cb.isTrue(tipo.get("activo")),
+                    cb.greaterThan(tipo.get("cantidadDisponible"), 0));
+            predicados.add(cb.exists(conStock));
+        }
+        return predicados;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.eventservice.repository;
+
+import com.example.eventservice.model.LoteStock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface LoteStockRepository extends JpaRepository<LoteStock, Long> {
+
+    Optional<LoteStock> findByTipoEntradaIdAndInstancia(Long tipoEntradaId, String instancia);
+
+    List<LoteStock> findByInstancia(String instancia);
+
+    /**
+     * Stock que las instancias tienen en memoria por tipo (asignada - vendida):
+     * para un tipo en inventario caliente, lo disponible es esto más la fila de tipos_entrada.
+     */
+    @Query("SELECT l.tipoEntradaId, SUM(l.cantidadAsignada - l.cantidadVendida) FROM LoteStock l " +
+           "WHERE l.tipoEntradaId IN :ids GROUP BY l.tipoEntradaId")
+    List<Object[]> sumarRetenidoPorTipo(@Param("ids") Collection<Long> ids);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE LoteStock l SET l.cantidadAsignada = l.cantidadAsignada + :asignada, " +
+           "l.cantidadVendida = l.cantidadVendida + :vendida " +
+           "WHERE l.tipoEntradaId = :tipoEntradaId AND l.instancia = :instancia")
+    int acumular(@Param("tipoEntradaId") Long tipoEntradaId,
+                 @Param("instancia") String instancia,
+                 @Param("asignada") long asignada,
+                 @Param("vendida") long vendida);
+}
@@ -2,9 +2,16 @@ package com.example.eventservice.repository;
 
 import com.example.eventservice.model.TipoEntrada;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface TipoEntradaRepository extends JpaRepository<TipoEntrada, Long> {
@@ -14,4 +21,152 @@ public interface TipoEntradaRepository extends JpaRepository<TipoEntrada, Long>
     List<TipoEntrada> findByEventoIdOrderByOrdenAsc(Long eventoId);
     
     boolean existsByEventoIdAndNombre(Long eventoId, String nombre);
+
+    /**
+     * Tipos de entrada de varios eventos en una sola consulta (evita el N+1 de los listados).
+     */
+    @Query("SELECT t FROM TipoEntrada t WHERE t.evento.id IN :eventoIds ORDER BY t.evento.id, t.orden")
+    List<TipoEntrada> findByEventoIdIn(@Param("eventoIds") Collection<Long> eventoIds);
+
+    /**
+     * Stock de un tipo de entrada sin cargar la entidad: id, cantidadDisponible y fechaActualizacion.
+     */
+    @Query("SELECT t.id, t.cantidadDisponible, t.fechaActualizacion FROM TipoEntrada t WHERE t.id = :id")
+    List<Object[]> findStockById(@Param("id") Long id);
+
+    /**
+     * Stock de los tipos de entrada de un evento: id, cantidadDisponible y fechaActualizacion.
+     */
+    @Query("SELECT t.id, t.cantidadDisponible, t.fechaActualizacion FROM TipoEntrada t WHERE t.evento.id = :eventoId")
+    List<Object[]> findStockByEventoId(@Param("eventoId") Long eventoId);
+
+    /**
+     * Solo la columna activo, sin cargar la entidad (vacío si no existe).
+     */
+    @Query("SELECT t.activo FROM TipoEntrada t WHERE t.id = :id")
+    Optional<Boolean> findActivoById(@Param("id") Long id);
+
+    /**
+     * Decremento atómico y condicional del stock. En la misma sentencia se
+     * descuenta del resumen del evento (eventos.entradas_disponibles).
+     * Devuelve 0 si no existe, está inactivo o no alcanza el stock.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query(value = "UPDATE tipos_entrada t JOIN eventos e ON e.id = t.evento_id " +
+           "SET t.cantidad_disponible = t.cantidad_disponible - :cantidad, " +
+           "t.fecha_actualizacion = CURRENT_TIMESTAMP, t.version = t.version + 1, " +
+           "e.entradas_disponibles = e.entradas_disponibles - :cantidad " +
+           "WHERE t.id = :id AND t.activo = true AND t.cantidad_disponible >= :cantidad",
+           nativeQuery = true)
+    int decrementarDisponible(@Param("id") Long id, @Param("cantidad") int cantidad);
+
+    /**
+     * Como {@link #decrementarDisponible} pero sin tocar el resumen del evento:
+     * para lotes, que lo ajustan al final con EventRepository.ajustarEntradasDisponibles
+     * (todas las filas de tipos se bloquean antes que las de eventos, igual que
+     * en el descuento simple, y no hay deadlocks).
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE TipoEntrada t SET t.cantidadDisponible = t.cantidadDisponible - :cantidad, " +
+           "t.fechaActualizacion = CURRENT_TIMESTAMP, t.version = t.version + 1 " +
+           "WHERE t.id = :id AND t.activo = true AND t.cantidadDisponible >= :cantidad")
+    int decrementarDisponibleSinResumen(@Param("id") Long id, @Param("cantidad") int cantidad);
+
+    /**
+     * Incremento atómico del stock (compensación), junto con el resumen del evento.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query(value = "UPDATE tipos_entrada t JOIN eventos e ON e.id = t.evento_id " +
+           "SET t.cantidad_disponible = t.cantidad_disponible + :cantidad, " +
+           "t.fecha_actualizacion = CURRENT_TIMESTAMP, t.version = t.version + 1, " +
+           "e.entradas_disponibles = e.entradas_disponibles + :cantidad " +
+           "WHERE t.id = :id",
+           nativeQuery = true)
+    int incrementarDisponible(@Param("id") Long id, @Param("cantidad") int cantidad);
+
+    /**
+     * Anota la clave de una compensación; 0 si ya estaba (la compensación ya se aplicó).
+     * Va en la misma transacción que el incremento.
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO compensaciones_stock (clave, tipo_entrada_id, cantidad) " +
+           "VALUES (:clave, :tipoEntradaId, :cantidad)",
+           nativeQuery = true)
+    int registrarCompensacion(@Param("clave") String clave,
+                              @Param("tipoEntradaId") Long tipoEntradaId,
+                              @Param("cantidad") int cantidad);
+
+    /**
+     * Anota la clave de un descuento de carrito; 0 si ya estaba (reintento del
+     * mismo descuento, o un carrito ya anulado: ver {@link #descuentoAnulado}).
+     * Va en la misma transacción que el descuento.
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO descuentos_stock (clave, tipo_entrada_id, cantidad) " +
+           "VALUES (:clave, :tipoEntradaId, :cantidad)",
+           nativeQuery = true)
+    int registrarDescuento(@Param("clave") String clave,
+                           @Param("tipoEntradaId") Long tipoEntradaId,
+                           @Param("cantidad") int cantidad);
+
+    @Query(value = "SELECT anulado FROM descuentos_stock WHERE clave = :clave", nativeQuery = true)
+    Boolean descuentoAnulado(@Param("clave") String clave);
+
+    /**
+     * Anula un descuento aplicado; 1 si el stock hay que devolverlo, 0 si el
+     * descuento no llegó o ya estaba anulado.
+     */
+    @Modifying
+    @Query(value = "UPDATE descuentos_stock SET anulado = TRUE WHERE clave = :clave AND anulado = FALSE",
+           nativeQuery = true)
+    int anularDescuento(@Param("clave") String clave);
+
+    /**
+     * Deja anulada una clave cuyo descuento todavía no llegó, para rechazarlo si
+     * llega tarde. Si ya existe no cambia nada.
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO descuentos_stock (clave, tipo_entrada_id, cantidad, anulado) " +
+           "VALUES (:clave, :tipoEntradaId, :cantidad, TRUE)",
+           nativeQuery = true)
+    int bloquearDescuento(@Param("clave") String clave,
+                          @Param("tipoEntradaId") Long tipoEntradaId,
+                          @Param("cantidad") int cantidad);
+
+    /**
+     * Borra hasta {@code lote} claves de descuento anteriores a {@code limite},
+     * las más viejas primero (idx_fecha_creacion). Devuelve cuántas borró.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM descuentos_stock WHERE fecha_creacion < :limite " +
+           "ORDER BY fecha_creacion LIMIT :lote",
+           nativeQuery = true)
+    int purgarDescuentos(@Param("limite") LocalDateTime limite, @Param("lote") int lote);
+
+    /**
+     * Borra hasta {@code lote} claves de compensación anteriores a {@code limite},
+     * las más viejas primero (idx_fecha_creacion). Devuelve cuántas borró.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM compensaciones_stock WHERE fecha_creacion < :limite " +
+           "ORDER BY fecha_creacion LIMIT :lote",
+           nativeQuery = true)
+    int purgarCompensaciones(@Param("limite") LocalDateTime limite, @Param("lote") int lote);
+
+    /**
+     * Evento de cada tipo de entrada: filas (tipoEntradaId, eventoId).
+     */
+    @Query("SELECT t.id, t.evento.id FROM TipoEntrada t WHERE t.id IN :ids")
+    List<Object[]> findEventoIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Validador de todos los tipos de entrada: cantidad, suma de versiones y última modificación.
+     */
+    @Query("SELECT COUNT(t), COALESCE(SUM(t.version), 0), MAX(t.fechaActualizacion) FROM TipoEntrada t")
+    List<Object[]> findValidadorCatalogo();
 }
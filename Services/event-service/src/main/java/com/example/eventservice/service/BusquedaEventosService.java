@@ -0,0 +1,180 @@
+package com.example.eventservice.service;
+
+import com.example.eventservice.busqueda.ConsultaEventos;
+import com.example.eventservice.busqueda.DocumentoEvento;
+import com.example.eventservice.busqueda.IndiceEventos;
+import com.example.eventservice.busqueda.ResultadoBusqueda;
+import com.example.eventservice.model.Event;
+import com.example.eventservice.repository.EventRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Búsqueda de texto completo del catálogo con un índice Lucene embebido.
+ *
+ * - Sin busqueda.indice.directorio el índice vive en memoria y se reconstruye
+ *   desde la BD en cada arranque (en segundo plano; mientras tanto las
+ *   búsquedas ven lo indexado hasta el momento).
+ * - Con directorio se persiste en disco y solo se reconstruye si está vacío o
+ *   con busqueda.indice.reconstruir-al-iniciar=true.
+ * - EventService avisa cada alta, edición y cancelación; el documento se
+ *   actualiza después del commit, así una transacción revertida no deja rastro.
+ *
+ * Cada instancia mantiene su propio índice con las escrituras que procesa; los
+ * cambios hechos por otras réplicas llegan con la próxima reconstrucción.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BusquedaEventosService {
+
+    private final EventRepository eventRepository;
+
+    @Value("${busqueda.indice.directorio:}")
+    private String directorio;
+
+    @Value("${busqueda.indice.reconstruir-al-iniciar:false}")
+    private boolean reconstruirAlIniciar;
+
+    @Value("${busqueda.indice.lote-reconstruccion:1000}")
+    private int loteReconstruccion;
+
+    private IndiceEventos indice;
+    private volatile boolean completo;
+
+    @PostConstruct
+    public void abrir() throws IOException {
+        indice = new IndiceEventos(directorio.isBlank()
+                ? new ByteBuffersDirectory()
+                : FSDirectory.open(Path.of(directorio)));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void alIniciar() {
+        if (!directorio.isBlank() && !reconstruirAlIniciar && indice.cantidad() > 0) {
+            log.info("Índice de búsqueda cargado de {} con {} eventos", directorio, indice.cantidad());
+            completo = true;
+            return;
+        }
+        Thread hilo = new Thread(this::reconstruir, "indice-eventos");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    /**
+     * Recorre la tabla eventos por id en lotes y (re)indexa cada fila.
+     */
+    void reconstruir() {
+        long inicio = System.currentTimeMillis();
+        long ultimoId = 0;
+        int total = 0;
+        try {
+            List<Event> lote;
+            do {
+                lote = eventRepository.findByIdGreaterThanOrderByIdAsc(
+                        ultimoId, PageRequest.of(0, loteReconstruccion));
+                for (Event event : lote) {
+                    indice.indexar(DocumentoEvento.desde(event));
+                    ultimoId = event.getId();
+                }
+                total += lote.size();
+                indice.refrescar();
+            } while (lote.size() == loteReconstruccion);
+            indice.commit();
+            completo = true;
+            log.info("Índice de búsqueda reconstruido: {} eventos en {} ms", total, System.currentTimeMillis() - inicio);
+        } catch (Exception e) {
+            log.error("Error reconstruyendo el índice de búsqueda tras {} eventos", total, e);
+        }
+    }
+
+    /**
+     * Programa la actualización del documento del evento para después del commit.
+     */
+    public void indexar(Event event) {
+        DocumentoEvento documento = DocumentoEvento.desde(event);
+        despuesDelCommit(() -> {
+            indice.indexar(documento);
+            indice.refrescar();
+        });
+    }
+
+    public ResultadoBusqueda buscar(ConsultaEventos consulta) {
+        try {
+            return indice.buscar(consulta);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * false mientras la reconstrucción inicial sigue en curso.
+     */
+    public boolean isCompleto() {
+        return completo;
+    }
+
+    @Scheduled(fixedDelayString = "${busqueda.indice.commit-interval-ms:30000}")
+    public void commitPeriodico() {
+        if (directorio.isBlank()) {
+            return;
+        }
+        try {
+            indice.commit();
+        } catch (IOException e) {
+            log.warn("No se pudo persistir el índice de búsqueda: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void cerrar() throws IOException {
+        if (!directorio.isBlank()) {
+            indice.commit();
+        }
+        indice.close();
+    }
+
+    private void despuesDelCommit(Escritura escritura) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            ejecutar(escritura);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                ejecutar(escritura);
+            }
+        });
+    }
+
+    private void ejecutar(Escritura escritura) {
+        try {
+            escritura.ejecutar();
+        } catch (IOException e) {
+            // El índice queda desactualizado para este evento hasta la próxima reconstrucción
+            log.error("No se pudo actualizar el índice de búsqueda", e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Escritura {
+        void ejecutar() throws IOException;
+    }
+}
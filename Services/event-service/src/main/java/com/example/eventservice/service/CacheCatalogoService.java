@@ -0,0 +1,153 @@
+package com.example.eventservice.service;
+
+import com.example.common.cache.CacheTtl;
+import com.example.common.contracts.CambiosCatalogo;
+import com.example.eventservice.dto.EventDto;
+import com.example.eventservice.dto.TipoEntradaDto;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Cache L2 de GET /api/eventos/{id} y GET /api/tipos-entrada/{id}, y registro
+ * de cambios del catálogo para las caches L1 de los clientes (orchestration,
+ * camunda).
+ *
+ * - Se guardan los DTOs tal como salen de la BD. El stock NO se sirve desde
+ *   aquí: EventService y TipoEntradaService pisan cantidadDisponible con una
+ *   lectura escalar en cada pedido, así una venta no invalida la cache.
+ * - Las ediciones y bajas (de eventos y tipos de entrada) invalidan la entrada
+ *   local y quedan anotadas con un número de secuencia. Los clientes piden
+ *   GET /api/catalogo/cambios?instancia=..&desde=N cada poco y vacían sus L1.
+ * - El registro es un buffer circular en memoria: si un cliente se atrasa más
+ *   que catalogo.cache.cambios-retenidos, o la instancia se reinició, la
+ *   respuesta dice "completo" y el cliente vacía toda su cache.
+ *
+ * Con varias instancias de event-service cada una anota solo sus ediciones;
+ * las demás quedan cubiertas por el TTL de las caches.
+ */
+@Service
+public class CacheCatalogoService {
+
+    private static final char EVENTO = 'E';
+    private static final char TIPO_ENTRADA = 'T';
+
+    @Value("${catalogo.cache.l2.max-entradas:10000}")
+    private int maxEntradas;
+
+    @Value("${catalogo.cache.l2.ttl-ms:60000}")
+    private long ttlMs;
+
+    @Value("${catalogo.cache.cambios-retenidos:4096}")
+    private int retenidos;
+
+    private final String instancia = UUID.randomUUID().toString();
+
+    private CacheTtl<Long, EventDto> eventos;
+    private CacheTtl<Long, TipoEntradaDto> tiposEntrada;
+
+    // Buffer circular de cambios; la secuencia N ocupa la posición N % retenidos
+    private long[] ids;
+    private char[] tipos;
+    private long secuencia;
+
+    @PostConstruct
+    public void iniciar() {
+        eventos = new CacheTtl<>(maxEntradas, ttlMs);
+        tiposEntrada = new CacheTtl<>(maxEntradas, ttlMs);
+        ids = new long[retenidos];
+        tipos = new char[retenidos];
+    }
+
+    public EventDto evento(Long eventoId, Function<Long, EventDto> cargar) {
+        return eventos.obtener(eventoId, cargar);
+    }
+
+    public TipoEntradaDto tipoEntrada(Long tipoEntradaId, Function<Long, TipoEntradaDto> cargar) {
+        return tiposEntrada.obtener(tipoEntradaId, cargar);
+    }
+
+    /**
+     * Llamar al crear, editar, cancelar o finalizar un evento.
+     */
+    public void invalidarEvento(Long eventoId) {
+        ahoraYDespuesDelCommit(() -> {
+            eventos.invalidar(eventoId);
+            anotar(EVENTO, eventoId);
+        });
+    }
+
+    /**
+     * Llamar al crear, editar o eliminar un tipo de entrada: el evento lo
+     * incluye en su respuesta, así que también se invalida.
+     */
+    public void invalidarTipoEntrada(Long tipoEntradaId, Long eventoId) {
+        ahoraYDespuesDelCommit(() -> {
+            tiposEntrada.invalidar(tipoEntradaId);
+            eventos.invalidar(eventoId);
+            anotar(TIPO_ENTRADA, tipoEntradaId);
+            anotar(EVENTO, eventoId);
+        });
+    }
+
+    /**
+     * Cambios posteriores a {@code desde}. Con otra instancia o un {@code desde}
+     * que ya salió del buffer, la respuesta es "completo".
+     */
+    public synchronized CambiosCatalogo cambiosDesde(String instanciaCliente, long desde) {
+        boolean completo = !instancia.equals(instanciaCliente)
+                || desde > secuencia
+                || secuencia - desde > retenidos;
+        if (completo) {
+            return new CambiosCatalogo(instancia, secuencia, true, List.of(), List.of());
+        }
+        Set<Long> eventosCambiados = new LinkedHashSet<>();
+        Set<Long> tiposCambiados = new LinkedHashSet<>();
+        for (long n = desde + 1; n <= secuencia; n++) {
+            int i = (int) (n % retenidos);
+            (tipos[i] == EVENTO ? eventosCambiados : tiposCambiados).add(ids[i]);
+        }
+        return new CambiosCatalogo(instancia, secuencia, false,
+                new ArrayList<>(eventosCambiados), new ArrayList<>(tiposCambiados));
+    }
+
+    public long getAciertos() {
+        return eventos.getAciertos() + tiposEntrada.getAciertos();
+    }
+
+    public long getFallos() {
+        return eventos.getFallos() + tiposEntrada.getFallos();
+    }
+
+    private synchronized void anotar(char tipo, Long id) {
+        secuencia++;
+        int i = (int) (secuencia % retenidos);
+        tipos[i] = tipo;
+        ids[i] = id;
+    }
+
+    /**
+     * Se invalida ya y otra vez después del commit: una lectura concurrente
+     * con la transacción pudo volver a guardar la versión anterior.
+     */
+    private static void ahoraYDespuesDelCommit(Runnable accion) {
+        accion.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accion.run();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package com.example.eventservice.service;
+
+import com.example.common.threads.VirtualThreads;
+import com.example.eventservice.dto.DisponibilidadEventoDto;
+import com.example.eventservice.dto.DisponibilidadTipoDto;
+import com.example.eventservice.model.TipoEntrada;
+import com.example.eventservice.repository.TipoEntradaRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Stream SSE de disponibilidad por evento, para que la página del evento no
+ * tenga que hacer polling de GET /api/eventos/{id}/tipos-entrada.
+ *
+ * - TipoEntradaService reporta cada cambio de stock (después del commit).
+ *   Solo se anotan los tipos de eventos con alguien suscrito; sin suscriptores
+ *   el costo en el camino de compra es una búsqueda en un mapa.
+ * - Cada disponibilidad.stream.ventana-ms se juntan los cambios, se leen en una
+ *   sola consulta los tipos de todos los eventos afectados y se serializa UNA
+ *   foto JSON por evento, que se entrega tal cual a todos sus suscriptores.
+ * - Cada suscriptor tiene un buzón de un solo lugar: si todavía está enviando
+ *   la foto anterior, la nueva la reemplaza. Un cliente lento se salta fotos
+ *   intermedias, no acumula memoria ni frena a los demás.
+ *
+ * La foto trae cantidadDisponible absoluta de todos los tipos del evento, así un
+ * cliente que se saltó fotos queda igual al día; delta es solo informativo.
+ * Los tipos en inventario caliente publican sus ventas en memoria igual que los
+ * demás; en la foto su cantidadDisponible suma a la fila lo que las instancias
+ * tienen arrendado según el journal (lotes_stock).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DisponibilidadStreamService {
+
+    private final TipoEntradaRepository tipoEntradaRepository;
+    private final HotInventoryService hotInventoryService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${disponibilidad.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${disponibilidad.stream.max-suscriptores:10000}")
+    private int maxSuscriptores;
+
+    @Value("${disponibilidad.stream.hilos-envio:8}")
+    private int hilosEnvio;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean hilosVirtuales;
+
+    private final Map<Long, Set<Suscriptor>> suscriptores = new ConcurrentHashMap<>();
+    private final Map<Long, Long> eventoPorTipo = new ConcurrentHashMap<>();
+    // eventoId -> (tipoEntradaId -> delta); el HashMap interno solo se toca dentro de compute/remove
+    private final Map<Long, Map<Long, Integer>> pendientes = new ConcurrentHashMap<>();
+    private final AtomicInteger cantidadSuscriptores = new AtomicInteger();
+
+    private ExecutorService envios;
+
+    @PostConstruct
+    public void iniciar() {
+        // Con hilos virtuales un cliente trabado solo estaciona su propio hilo
+        envios = hilosVirtuales
+                ? VirtualThreads.newPerTaskExecutor("sse-disponibilidad-")
+                : Executors.newFixedThreadPool(hilosEnvio, r -> {
+                    Thread hilo = new Thread(r, "sse-disponibilidad");
+                    hilo.setDaemon(true);
+                    return hilo;
+                });
+    }
+
+    @PreDestroy
+    public void detener() {
+        suscriptores.values().forEach(conjunto -> conjunto.forEach(s -> s.emitter.complete()));
+        envios.shutdownNow();
+    }
+
+    /**
+     * Abre el stream de un evento; {@code null} si la instancia ya está en su
+     * máximo de suscriptores. La primera foto llega en la próxima ventana.
+     */
+    public SseEmitter suscribir(Long eventoId) {
+        if (cantidadSuscriptores.incrementAndGet() > maxSuscriptores) {
+            cantidadSuscriptores.decrementAndGet();
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Suscriptor suscriptor = new Suscriptor(eventoId, emitter);
+        emitter.onCompletion(suscriptor::quitar);
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> suscriptor.quitar());
+
+        suscriptores.compute(eventoId, (id, conjunto) -> {
+            Set<Suscriptor> actual = conjunto != null ? conjunto : ConcurrentHashMap.newKeySet();
+            actual.add(suscriptor);
+            return actual;
+        });
+        marcar(eventoId, null, 0);
+        log.debug("Suscriptor de disponibilidad para evento {} ({} en total)", eventoId, cantidadSuscriptores.get());
+        return emitter;
+    }
+
+    /**
+     * Cambio de stock de un tipo de entrada. Dentro de una transacción se
+     * anota al hacer commit (un rollback no se publica).
+     */
+    public void registrarCambio(Long tipoEntradaId, int delta) {
+        Long eventoId = eventoPorTipo.get(tipoEntradaId);
+        if (eventoId == null) {
+            return;
+        }
+        despuesDelCommit(() -> marcar(eventoId, tipoEntradaId, delta));
+    }
+
+    /**
+     * Cambio en los tipos de un evento (alta, edición o baja): se publica una foto nueva.
+     */
+    public void registrarCambioEvento(Long eventoId) {
+        if (!suscriptores.containsKey(eventoId)) {
+            return;
+        }
+        despuesDelCommit(() -> marcar(eventoId, null, 0));
+    }
+
+    public int getCantidadSuscriptores() {
+        return cantidadSuscriptores.get();
+    }
+
+    @Scheduled(fixedDelayString = "${disponibilidad.stream.ventana-ms:250}")
+    public void publicar() {
+        if (pendientes.isEmpty()) {
+            return;
+        }
+        Map<Long, Map<Long, Integer>> lote = new HashMap<>();
+        for (Long eventoId : List.copyOf(pendientes.keySet())) {
+            Map<Long, Integer> deltas = pendientes.remove(eventoId);
+            if (deltas != null && suscriptores.containsKey(eventoId)) {
+                lote.put(eventoId, deltas);
+            }
+        }
+        if (lote.isEmpty()) {
+            return;
+        }
+
+        Map<Long, List<TipoEntrada>> tiposPorEvento;
+        Map<Long, Long> retenidos;
+        try {
+            tiposPorEvento = tipoEntradaRepository.findByEventoIdIn(lote.keySet()).stream()
+                    .collect(Collectors.groupingBy(t -> t.getEvento().getId()));
+            retenidos = hotInventoryService.retenidos(tiposPorEvento.values().stream()
+                    .flatMap(List::stream)
+                    .map(TipoEntrada::getId)
+                    .collect(Collectors.toList()));
+        } catch (RuntimeException e) {
+            // Se reintenta en la próxima ventana
+            log.warn("No se pudo leer la disponibilidad de {} eventos: {}", lote.size(), e.getMessage());
+            lote.keySet().forEach(eventoId -> marcar(eventoId, null, 0));
+            return;
+        }
+
+        long ahora = System.currentTimeMillis();
+        lote.forEach((eventoId, deltas) -> {
+            List<TipoEntrada> tipos = tiposPorEvento.getOrDefault(eventoId, List.of());
+            tipos.forEach(t -> eventoPorTipo.put(t.getId(), eventoId));
+            String foto = serializar(DisponibilidadEventoDto.builder()
+                    .eventoId(eventoId)
+                    .tiposEntrada(tipos.stream()
+                            .map(t -> DisponibilidadTipoDto.builder()
+                                    .tipoEntradaId(t.getId())
+                                    .cantidadDisponible(t.getCantidadDisponible() + retenidos.getOrDefault(t.getId(), 0L).intValue())
+                                    .delta(deltas.getOrDefault(t.getId(), 0))
+                                    .activo(t.getActivo())
+                                    .build())
+                            .collect(Collectors.toList()))
+                    .timestamp(ahora)
+                    .build());
+            Set<Suscriptor> destino = suscriptores.get(eventoId);
+            if (foto != null && destino != null) {
+                destino.forEach(s -> s.entregar(foto));
+            }
+        });
+    }
+
+    /**
+     * Comentario SSE periódico: mantiene viva la conexión en proxies y detecta clientes caídos.
+     */
+    @Scheduled(fixedDelayString = "${disponibilidad.stream.latido-ms:15000}")
+    public void latido() {
+        suscriptores.values().forEach(conjunto -> conjunto.forEach(Suscriptor::latido));
+    }
+
+    private void marcar(Long eventoId, Long tipoEntradaId, int delta) {
+        pendientes.compute(eventoId, (id, deltas) -> {
+            Map<Long, Integer> actual = deltas != null ? deltas : new HashMap<>();
+            if (tipoEntradaId != null) {
+                actual.merge(tipoEntradaId, delta, Integer::sum);
+            }
+            return actual;
+        });
+    }
+
+    private String serializar(DisponibilidadEventoDto foto) {
+        try {
+            return objectMapper.writeValueAsString(foto);
+        } catch (JsonProcessingException e) {
+            log.error("No se pudo serializar la disponibilidad del evento {}", foto.getEventoId(), e);
+            return null;
+        }
+    }
+
+    private static void despuesDelCommit(Runnable accion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            accion.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                accion.run();
+            }
+        });
+    }
+
+    private final class Suscriptor {
+
+        private final Long eventoId;
+        private final SseEmitter emitter;
+        private final AtomicReference<String> buzon = new AtomicReference<>();
+        private final AtomicBoolean latidoPendiente = new AtomicBoolean();
+        private final AtomicBoolean enviando = new AtomicBoolean();
+        private final AtomicBoolean activo = new AtomicBoolean(true);
+
+        Suscriptor(Long eventoId, SseEmitter emitter) {
+            this.eventoId = eventoId;
+            this.emitter = emitter;
+        }
+
+        void entregar(String foto) {
+            buzon.set(foto);
+            programar();
+        }
+
+        void latido() {
+            latidoPendiente.set(true);
+            programar();
+        }
+
+        private void programar() {
+            if (activo.get() && enviando.compareAndSet(false, true)) {
+                try {
+                    envios.execute(this::drenar);
+                } catch (RejectedExecutionException e) {
+                    enviando.set(false);
+                }
+            }
+        }
+
+        private void drenar() {
+            try {
+                while (activo.get()) {
+                    String foto = buzon.getAndSet(null);
+                    if (foto != null) {
+                        emitter.send(SseEmitter.event().name("disponibilidad").data(foto, MediaType.APPLICATION_JSON));
+                    } else if (latidoPendiente.getAndSet(false)) {
+                        emitter.send(SseEmitter.event().comment("ping"));
+                    } else {
+                        break;
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Cliente desconectado o emitter ya cerrado
+                quitar();
+                emitter.completeWithError(e);
+            } finally {
+                enviando.set(false);
+            }
+            // Pudo llegar algo entre la última lectura del buzón y liberar el flag
+            if (buzon.get() != null || latidoPendiente.get()) {
+                programar();
+            }
+        }
+
+        void quitar() {
+            if (!activo.compareAndSet(true, false)) {
+                return;
+            }
+            cantidadSuscriptores.decrementAndGet();
+            suscriptores.computeIfPresent(eventoId, (id, conjunto) -> {
+                conjunto.remove(this);
+                return conjunto.isEmpty() ? null : conjunto;
+            });
+            if (!suscriptores.containsKey(eventoId)) {
+                eventoPorTipo.values().removeIf(eventoId::equals);
+            }
+        }
+    }
+}
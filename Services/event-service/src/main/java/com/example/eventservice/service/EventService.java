@@ -2,19 +2,28 @@ package com.example.eventservice.service;
 
 import com.example.eventservice.dto.CreateEventRequest;
 import com.example.eventservice.dto.EventDto;
+import com.example.eventservice.dto.FiltroEventos;
+import com.example.eventservice.dto.PaginaEventosDto;
 import com.example.eventservice.dto.UpdateEventRequest;
 import com.example.eventservice.exception.BadRequestException;
 import com.example.eventservice.exception.ResourceNotFoundException;
 import com.example.eventservice.model.Event;
 import com.example.eventservice.model.TipoEntrada;
 import com.example.eventservice.repository.EventRepository;
+import com.example.eventservice.repository.TipoEntradaRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,6 +32,17 @@ import java.util.stream.Collectors;
 public class EventService {
 
     private final EventRepository eventRepository;
+    private final TipoEntradaRepository tipoEntradaRepository;
+    private final VersionCatalogoService versionCatalogoService;
+    private final CacheCatalogoService cacheCatalogoService;
+    private final BusquedaEventosService busquedaEventosService;
+    private final HotInventoryService hotInventoryService;
+
+    @Value("${catalogo.busqueda.tamanio-maximo:100}")
+    private int tamanioMaximo;
+
+    @Value("${catalogo.busqueda.desplazamiento-maximo:10000}")
+    private long desplazamientoMaximo;
 
     @Transactional
     public EventDto createEvent(CreateEventRequest request) {
@@ -74,6 +94,9 @@ public class EventService {
         });
 
         Event savedEvent = eventRepository.save(event);
+        versionCatalogoService.invalidarEvento(savedEvent.getId());
+        cacheCatalogoService.invalidarEvento(savedEvent.getId());
+        busquedaEventosService.indexar(savedEvent);
         log.info("Evento creado con ID: {} y {} tipos de entrada", savedEvent.getId(), savedEvent.getTiposEntrada().size());
 
         return EventDto.fromEntity(savedEvent);
@@ -82,46 +105,155 @@ public class EventService {
     @Transactional(readOnly = true)
     public List<EventDto> getAllEvents() {
         log.info("Obteniendo todos los eventos");
-        return eventRepository.findAll()
-                .stream()
-                .map(EventDto::fromEntity)
-                .collect(Collectors.toList());
+        return conTiposEntrada(eventRepository.findAll());
     }
 
     @Transactional(readOnly = true)
     public List<EventDto> getActiveEvents() {
         log.info("Obteniendo eventos activos");
-        return eventRepository.findAll()
-                .stream()
-                .filter(e -> e.getEstado() == Event.EstadoEvento.ACTIVO)
-                .map(EventDto::fromEntity)
-                .collect(Collectors.toList());
+        return conTiposEntrada(eventRepository.findByEstado(Event.EstadoEvento.ACTIVO));
     }
 
     @Transactional(readOnly = true)
     public List<EventDto> getUpcomingEvents() {
         log.info("Obteniendo eventos próximos");
-        return eventRepository.findEventosProximos(LocalDateTime.now())
-                .stream()
-                .map(EventDto::fromEntity)
-                .collect(Collectors.toList());
+        return conTiposEntrada(eventRepository.findEventosProximos(LocalDateTime.now()));
     }
 
     @Transactional(readOnly = true)
     public List<EventDto> getEventsWithAvailability() {
         log.info("Obteniendo eventos con disponibilidad");
-        return eventRepository.findEventosConDisponibilidad()
+        // El filtro sale del índice; después se cargan solo los eventos que pasan
+        return getEventsByIds(eventRepository.findIdsConDisponibilidad());
+    }
+
+    /**
+     * Búsqueda paginada del catálogo ordenada por fecha del evento.
+     *
+     * Con {@code cursor} (el {@code siguienteCursor} de la página anterior) la
+     * consulta arranca justo después de la última fila devuelta y no cuenta el
+     * total; sin cursor se pagina por desplazamiento y se informa el total.
+     */
+    @Transactional(readOnly = true)
+    public PaginaEventosDto buscarEventos(FiltroEventos filtro, String cursor, int pagina, int tamanio) {
+        if (tamanio < 1 || tamanio > tamanioMaximo) {
+            throw new BadRequestException("El tamaño de página debe estar entre 1 y " + tamanioMaximo);
+        }
+        if (pagina < 0) {
+            throw new BadRequestException("La página no puede ser negativa");
+        }
+        // En long: pagina * tamanio no desborda; más allá del máximo se pagina con el cursor
+        long desplazamiento = (long) pagina * tamanio;
+        if (desplazamiento > desplazamientoMaximo) {
+            throw new BadRequestException("Solo se puede paginar por número hasta el resultado "
+                    + desplazamientoMaximo + "; para seguir use siguienteCursor");
+        }
+        log.info("Buscando eventos: {} (cursor={}, pagina={}, tamanio={})", filtro, cursor != null, pagina, tamanio);
+
+        Cursor desde = cursor != null && !cursor.isBlank() ? Cursor.decodificar(cursor) : null;
+        LocalDateTime despuesDeFecha = desde != null ? desde.fechaEvento() : null;
+        Long despuesDeId = desde != null ? desde.id() : null;
+
+        // Una fila de más indica si hay página siguiente sin contar el total
+        List<Event> filas = eventRepository.buscar(
+                filtro, despuesDeFecha, despuesDeId, (int) desplazamiento, tamanio + 1);
+        boolean hayMas = filas.size() > tamanio;
+        List<Event> eventos = hayMas ? filas.subList(0, tamanio) : filas;
+
+        Event ultimo = eventos.isEmpty() ? null : eventos.get(eventos.size() - 1);
+        boolean porCursor = despuesDeFecha != null;
+        return PaginaEventosDto.builder()
+                .eventos(conTiposEntrada(eventos))
+                .tamanio(tamanio)
+                .pagina(porCursor ? null : pagina)
+                .total(porCursor ? null : eventRepository.contar(filtro))
+                .hayMas(hayMas)
+                .siguienteCursor(hayMas ? new Cursor(ultimo.getFechaEvento(), ultimo.getId()).codificar() : null)
+                .build();
+    }
+
+    /**
+     * Eventos por ID en el orden recibido (resultados del índice de búsqueda).
+     * Los IDs que ya no existen en la BD se omiten.
+     */
+    @Transactional(readOnly = true)
+    public List<EventDto> getEventsByIds(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Event> porId = eventRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Event::getId, e -> e));
+        return conTiposEntrada(ids.stream()
+                .map(porId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Convierte eventos a DTO trayendo los tipos de entrada de todos en una sola consulta.
+     */
+    private List<EventDto> conTiposEntrada(List<Event> eventos) {
+        if (eventos.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, List<TipoEntrada>> tiposPorEvento = tipoEntradaRepository
+                .findByEventoIdIn(eventos.stream().map(Event::getId).collect(Collectors.toList()))
                 .stream()
-                .map(EventDto::fromEntity)
+                .collect(Collectors.groupingBy(t -> t.getEvento().getId()));
+        return eventos.stream()
+                .map(e -> EventDto.fromEntity(e, tiposPorEvento.getOrDefault(e.getId(), List.of())))
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Posición (fechaEvento, id) de la última fila entregada, en base64url.
+     */
+    private record Cursor(LocalDateTime fechaEvento, Long id) {
+
+        String codificar() {
+            String valor = fechaEvento + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decodificar(String cursor) {
+            try {
+                String[] partes = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+                if (partes.length != 2) {
+                    throw new BadRequestException("Cursor inválido");
+                }
+                return new Cursor(LocalDateTime.parse(partes[0]), Long.parseLong(partes[1]));
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                throw new BadRequestException("Cursor inválido");
+            }
+        }
+    }
+
+    /**
+     * Datos del evento desde la cache L2 (ver {@link CacheCatalogoService}); el
+     * stock del evento y de sus tipos de entrada se lee siempre de la BD, con
+     * lo que el inventario caliente tiene en memoria sumado.
+     */
     @Transactional(readOnly = true)
     public EventDto getEventById(Long id) {
         log.info("Obteniendo evento con ID: {}", id);
-        Event event = eventRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Evento no encontrado con ID: " + id));
-        return EventDto.fromEntity(event);
+        EventDto evento = cacheCatalogoService.evento(id, clave -> EventDto.fromEntity(eventRepository.findById(clave)
+                .orElseThrow(() -> new ResourceNotFoundException("Evento no encontrado con ID: " + clave))));
+
+        List<Integer> entradasDisponibles = eventRepository.findEntradasDisponibles(id);
+        if (entradasDisponibles.isEmpty()) {
+            throw new ResourceNotFoundException("Evento no encontrado con ID: " + id);
+        }
+        Map<Long, Object[]> stock = tipoEntradaRepository.findStockByEventoId(id).stream()
+                .collect(Collectors.toMap(fila -> (Long) fila[0], fila -> fila));
+        Map<Long, Long> retenidos = hotInventoryService.retenidos(stock.keySet());
+        long retenidoEvento = retenidos.values().stream().mapToLong(Long::longValue).sum();
+        return evento.toBuilder()
+                .entradasDisponibles(entradasDisponibles.get(0) + (int) retenidoEvento)
+                .tiposEntrada(evento.getTiposEntrada().stream()
+                        .filter(tipo -> stock.containsKey(tipo.getId()))
+                        .map(tipo -> TipoEntradaService.conStock(tipo, stock.get(tipo.getId()), retenidos))
+                        .collect(Collectors.toList()))
+                .build();
     }
 
     @Transactional
@@ -176,6 +308,9 @@ public class EventService {
         event.setFechaActualizacion(LocalDateTime.now());
 
         Event updatedEvent = eventRepository.save(event);
+        versionCatalogoService.invalidarEvento(id);
+        cacheCatalogoService.invalidarEvento(id);
+        busquedaEventosService.indexar(updatedEvent);
         log.info("Evento actualizado: {}", updatedEvent.getId());
 
         return EventDto.fromEntity(updatedEvent);
@@ -195,6 +330,9 @@ public class EventService {
             event.setActivo(false);
             event.setFechaActualizacion(LocalDateTime.now());
             eventRepository.save(event);
+            versionCatalogoService.invalidarEvento(id);
+            cacheCatalogoService.invalidarEvento(id);
+            busquedaEventosService.indexar(event);
             log.info("Evento cancelado por ADMIN: {}", id);
         } else {
             // Usuarios normales solo pueden cancelar sus propios eventos
@@ -206,6 +344,9 @@ public class EventService {
             event.setActivo(false);
             event.setFechaActualizacion(LocalDateTime.now());
             eventRepository.save(event);
+            versionCatalogoService.invalidarEvento(id);
+            cacheCatalogoService.invalidarEvento(id);
+            busquedaEventosService.indexar(event);
             log.info("Evento cancelado por organizador: {}", id);
         }
     }
@@ -220,6 +361,9 @@ public class EventService {
         event.setActivo(false);
         event.setFechaActualizacion(LocalDateTime.now());
         eventRepository.save(event);
+        versionCatalogoService.invalidarEvento(id);
+        cacheCatalogoService.invalidarEvento(id);
+        busquedaEventosService.indexar(event);
         log.info("Evento finalizado: {}", id);
     }
 }
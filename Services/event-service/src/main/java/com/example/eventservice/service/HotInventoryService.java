@@ -0,0 +1,446 @@
+package com.example.eventservice.service;
+
+import com.example.eventservice.exception.BadRequestException;
+import com.example.eventservice.exception.ResourceNotFoundException;
+import com.example.eventservice.model.LoteStock;
+import com.example.eventservice.model.TipoEntrada;
+import com.example.eventservice.repository.LoteStockRepository;
+import com.example.eventservice.repository.TipoEntradaRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Modo "inventario caliente" para tipos de entrada de alta demanda.
+ *
+ * En lugar de tocar la fila de tipos_entrada en cada venta, cada instancia
+ * arrienda un lote de stock a la BD (con el UPDATE condicional de siempre)
+ * y lo reparte en un {@link StripedStockCounter} en memoria. Las ventas
+ * descuentan de la memoria; la fila del tipo solo se toca al pedir un lote
+ * nuevo (las stripes se quedaron sin stock) o al devolver lo que sobra
+ * (el tipo lleva inventory.hot.idle-ms sin movimiento, o se edita).
+ *
+ * Garantías:
+ * - Nunca hay sobreventa: la memoria solo contiene stock ya descontado en BD.
+ * - La tabla lotes_stock es el journal, una fila por tipo e instancia:
+ *   lo arrendado y lo devuelto se anotan en la misma transacción que el
+ *   UPDATE de tipos_entrada, y cada venta o compensación en memoria se
+ *   confirma recién cuando quedó escrita (group commit: una sola escritura
+ *   cada inventory.hot.journal-flush-ms para todas las ventas pendientes).
+ *   Así asignada - vendida es exactamente lo que hay en memoria.
+ * - Si la instancia cae, al arrancar se reproduce el journal: lo que quedó
+ *   en memoria vuelve a tipos_entrada. Se hace en @PostConstruct, antes de
+ *   que arranque Tomcat: ninguna venta puede arrendar mientras tanto, así que
+ *   la fila del journal no incluye lotes vivos.
+ * - El journal es por inventory.hot.instance-id, que tiene que ser fijo y
+ *   distinto en cada réplica (no el hostname: un contenedor recreado no
+ *   reproduciría el de su antecesor, y dos réplicas con el mismo id se
+ *   devolverían el stock vivo una a la otra). Sin él no arranca.
+ * - activo se vuelve a leer de la BD cada inventory.hot.activo-ttl-ms; al
+ *   editar el tipo se devuelve la memoria y se vuelve a leer enseguida.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class HotInventoryService {
+
+    private final TipoEntradaRepository tipoEntradaRepository;
+    private final LoteStockRepository loteStockRepository;
+    private final VersionCatalogoService versionCatalogoService;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${inventory.hot.enabled:false}")
+    private boolean enabled;
+
+    @Value("${inventory.hot.ticket-types:}")
+    private List<Long> hotTicketTypes;
+
+    @Value("${inventory.hot.stripes:8}")
+    private int stripes;
+
+    @Value("${inventory.hot.lease-size:100}")
+    private int leaseSize;
+
+    @Value("${inventory.hot.idle-ms:30000}")
+    private long idleMs;
+
+    @Value("${inventory.hot.journal-flush-ms:5}")
+    private long journalFlushMs;
+
+    @Value("${inventory.hot.journal-timeout-ms:2000}")
+    private long journalTimeoutMs;
+
+    @Value("${inventory.hot.activo-ttl-ms:1000}")
+    private long activoTtlMs;
+
+    @Value("${inventory.hot.instance-id:}")
+    private String instancia;
+
+    private final Map<Long, Pool> pools = new ConcurrentHashMap<>();
+
+    // Ventas netas por tipo pendientes de escribir en el journal, y el lote que las confirma
+    private Map<Long, Long> pendientesJournal = new HashMap<>();
+    private CompletableFuture<Void> loteJournal = new CompletableFuture<>();
+    private final Object bloqueoJournal = new Object();
+    private ScheduledExecutorService escritorJournal;
+
+    @PostConstruct
+    public void iniciar() {
+        if (!enabled) {
+            return;
+        }
+        if (instancia == null || instancia.isBlank()) {
+            throw new IllegalStateException("inventory.hot.enabled=true requiere inventory.hot.instance-id: "
+                    + "un id fijo y único por réplica, que se conserve al recrear el contenedor");
+        }
+        revisarJournal();
+        escritorJournal = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "inventario-journal"));
+        escritorJournal.scheduleWithFixedDelay(this::escribirJournal, journalFlushMs, journalFlushMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Indica si el tipo de entrada se despacha por el inventario en memoria.
+     */
+    public boolean handles(Long tipoEntradaId) {
+        return enabled && hotTicketTypes.contains(tipoEntradaId);
+    }
+
+    /**
+     * Stock de los tipos en inventario caliente que las instancias tienen en
+     * memoria (asignada - vendida del journal), por tipo. tipos_entrada ya lo
+     * tiene descontado: lo disponible de esos tipos es la fila más esto.
+     * Vacío, sin ir a la BD, si ninguno de los tipos es caliente.
+     */
+    public Map<Long, Long> retenidos(Collection<Long> tipoEntradaIds) {
+        List<Long> calientes = tipoEntradaIds.stream().filter(this::handles).toList();
+        if (calientes.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, Long> retenidos = new HashMap<>();
+        for (Object[] fila : loteStockRepository.sumarRetenidoPorTipo(calientes)) {
+            retenidos.put((Long) fila[0], ((Number) fila[1]).longValue());
+        }
+        return retenidos;
+    }
+
+    public void decreaseCantidad(Long tipoEntradaId, int cantidad) {
+        Pool pool = pools.computeIfAbsent(tipoEntradaId, id -> new Pool(stripes));
+        verificarActivo(tipoEntradaId, pool);
+
+        if (!tomar(tipoEntradaId, pool, cantidad)) {
+            // Sin stock local: un solo hilo por tipo de entrada pide un lote nuevo a la BD
+            pool.refillLock.lock();
+            try {
+                if (!tomar(tipoEntradaId, pool, cantidad)) {
+                    int arrendado = arrendar(tipoEntradaId, Math.max(leaseSize, cantidad));
+                    if (arrendado > 0) {
+                        pool.counter.fill(arrendado);
+                        pool.conLease = true;
+                    }
+                    if (!tomar(tipoEntradaId, pool, cantidad)) {
+                        throw sinStock(tipoEntradaId, pool);
+                    }
+                }
+            } finally {
+                pool.refillLock.unlock();
+            }
+        }
+        confirmarEnJournal(tipoEntradaId, cantidad, () -> pool.counter.add(cantidad));
+    }
+
+    /**
+     * Compensación: si la instancia tiene un lote arrendado del tipo, el stock
+     * vuelve a la stripe local y se devuelve a la BD con el resto del lote.
+     *
+     * @return false si no hay lote en memoria y debe ir por la BD
+     */
+    public boolean increaseCantidad(Long tipoEntradaId, int cantidad) {
+        Pool pool = pools.get(tipoEntradaId);
+        if (pool == null || !pool.conLease) {
+            return false;
+        }
+        pool.counter.add(cantidad);
+        pool.operaciones.increment();
+        // Si el journal falla la unidad queda en memoria contada como vendida:
+        // tras una caída se vendería de menos, nunca de más
+        try {
+            confirmarEnJournal(tipoEntradaId, -cantidad, () -> { });
+        } catch (IllegalStateException e) {
+            log.error("Compensación del tipo {} aplicada en memoria sin journal: {}", tipoEntradaId, e.getMessage());
+        }
+        return true;
+    }
+
+    /**
+     * Devuelve a la BD todo el stock en memoria de un tipo de entrada.
+     * Se usa antes de editar o eliminar el tipo para que la BD sea la fuente
+     * de verdad; si se llama dentro de una transacción, se repite al hacer
+     * commit (una venta concurrente pudo arrendar otra vez) y activo se
+     * vuelve a leer en la próxima venta.
+     */
+    public void liberar(Long tipoEntradaId) {
+        Pool pool = pools.get(tipoEntradaId);
+        if (pool == null) {
+            return;
+        }
+        volcar(tipoEntradaId, pool);
+        pool.activoVerificadoMs = 0;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    volcar(tipoEntradaId, pool);
+                    pool.activoVerificadoMs = 0;
+                }
+            });
+        }
+    }
+
+    /**
+     * Devuelve a tipos_entrada el stock de los tipos sin movimiento desde hace
+     * idle-ms. Los tipos con ventas no se tocan: su fila sigue libre de locks.
+     */
+    public void reconciliar() {
+        long ahora = System.currentTimeMillis();
+        pools.forEach((tipoEntradaId, pool) -> {
+            long operaciones = pool.operaciones.sum();
+            if (operaciones != pool.operacionesVistas) {
+                pool.operacionesVistas = operaciones;
+                pool.ultimoMovimientoMs = ahora;
+                return;
+            }
+            if (ahora - pool.ultimoMovimientoMs >= idleMs && pool.counter.sum() > 0) {
+                volcar(tipoEntradaId, pool);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void onShutdown() {
+        if (!enabled) {
+            return;
+        }
+        escribirJournal();
+        if (!pools.isEmpty()) {
+            log.info("Devolviendo inventario caliente a la BD antes de apagar");
+            pools.forEach(this::volcar);
+        }
+        escritorJournal.shutdown();
+    }
+
+    /**
+     * Reproduce el journal de esta instancia: lo que quedó en memoria al caerse
+     * (asignada - vendida) vuelve a tipos_entrada. Como cada venta se confirma
+     * después de quedar en el journal, la cifra es exacta. Solo desde
+     * {@link #iniciar()}: con tráfico entrando, un lote recién arrendado se
+     * devolvería a la BD sin dejar la memoria.
+     */
+    private void revisarJournal() {
+        for (LoteStock lote : loteStockRepository.findByInstancia(instancia)) {
+            long retenido = lote.getCantidadAsignada() - lote.getCantidadVendida();
+            if (retenido < 0) {
+                log.error("Journal inconsistente para el tipo {} en la instancia {}: asignada {}, vendida {}",
+                        lote.getTipoEntradaId(), instancia, lote.getCantidadAsignada(), lote.getCantidadVendida());
+                continue;
+            }
+            nuevaTransaccion().executeWithoutResult(status -> {
+                if (retenido > 0 && tipoEntradaRepository.incrementarDisponible(lote.getTipoEntradaId(), (int) retenido) == 0) {
+                    log.warn("Inventario caliente: el tipo {} ya no existe, se descartan {} entradas del journal",
+                            lote.getTipoEntradaId(), retenido);
+                } else if (retenido > 0) {
+                    versionCatalogoService.invalidarTipoEntrada(lote.getTipoEntradaId());
+                }
+                loteStockRepository.acumular(lote.getTipoEntradaId(), instancia,
+                        -lote.getCantidadAsignada(), -lote.getCantidadVendida());
+            });
+            if (retenido > 0) {
+                log.info("Inventario caliente: {} entradas del tipo {} devueltas a la BD desde el journal",
+                        retenido, lote.getTipoEntradaId());
+            }
+        }
+    }
+
+    private boolean tomar(Long tipoEntradaId, Pool pool, int cantidad) {
+        if (pool.counter.tryAcquire(cantidad)) {
+            pool.operaciones.increment();
+            return true;
+        }
+        return false;
+    }
+
+    private void verificarActivo(Long tipoEntradaId, Pool pool) {
+        long ahora = System.currentTimeMillis();
+        if (ahora - pool.activoVerificadoMs < activoTtlMs) {
+            return;
+        }
+        Boolean activo = tipoEntradaRepository.findActivoById(tipoEntradaId)
+                .orElseThrow(() -> new ResourceNotFoundException("Tipo de entrada no encontrado con id: " + tipoEntradaId));
+        if (!activo) {
+            volcar(tipoEntradaId, pool);
+            throw new BadRequestException("El tipo de entrada no está activo");
+        }
+        pool.activoVerificadoMs = ahora;
+    }
+
+    private RuntimeException sinStock(Long tipoEntradaId, Pool pool) {
+        TipoEntrada tipoEntrada = tipoEntradaRepository.findById(tipoEntradaId)
+                .orElseThrow(() -> new ResourceNotFoundException("Tipo de entrada no encontrado con id: " + tipoEntradaId));
+        if (!tipoEntrada.getActivo()) {
+            return new BadRequestException("El tipo de entrada no está activo");
+        }
+        return new BadRequestException("No hay suficientes entradas disponibles. Disponibles: "
+                + (tipoEntrada.getCantidadDisponible() + pool.counter.sum()));
+    }
+
+    /**
+     * Anota la venta (o compensación, con cantidad negativa) y espera a que el
+     * escritor del journal la confirme. Si no se pudo escribir se ejecuta
+     * {@code deshacer} y la operación falla.
+     */
+    private void confirmarEnJournal(Long tipoEntradaId, long cantidad, Runnable deshacer) {
+        CompletableFuture<Void> lote;
+        synchronized (bloqueoJournal) {
+            pendientesJournal.merge(tipoEntradaId, cantidad, Long::sum);
+            lote = loteJournal;
+        }
+        try {
+            lote.get(journalTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            deshacer.run();
+            throw new IllegalStateException("Interrumpido esperando el journal de inventario");
+        } catch (ExecutionException | TimeoutException e) {
+            deshacer.run();
+            throw new IllegalStateException("No se pudo registrar la operación en el journal de inventario", e);
+        }
+    }
+
+    /**
+     * Group commit: una transacción con las ventas netas de todos los tipos
+     * acumuladas desde la pasada anterior. Solo escribe las filas de esta
+     * instancia en lotes_stock, nunca tipos_entrada.
+     */
+    private void escribirJournal() {
+        Map<Long, Long> pendientes;
+        CompletableFuture<Void> lote;
+        synchronized (bloqueoJournal) {
+            if (pendientesJournal.isEmpty()) {
+                return;
+            }
+            pendientes = pendientesJournal;
+            lote = loteJournal;
+            pendientesJournal = new HashMap<>();
+            loteJournal = new CompletableFuture<>();
+        }
+        try {
+            nuevaTransaccion().executeWithoutResult(status ->
+                    pendientes.forEach((tipoEntradaId, vendidas) ->
+                            loteStockRepository.acumular(tipoEntradaId, instancia, 0, vendidas)));
+            lote.complete(null);
+        } catch (RuntimeException e) {
+            log.error("Error escribiendo el journal de inventario caliente: {}", e.getMessage());
+            lote.completeExceptionally(e);
+        }
+    }
+
+    private int arrendar(Long tipoEntradaId, int solicitado) {
+        Integer arrendado = nuevaTransaccion().execute(status -> {
+            int cantidad = solicitado;
+            if (tipoEntradaRepository.decrementarDisponible(tipoEntradaId, cantidad) == 0) {
+                // No alcanza el lote completo: tomar lo que quede
+                cantidad = tipoEntradaRepository.findById(tipoEntradaId)
+                        .filter(TipoEntrada::getActivo)
+                        .map(TipoEntrada::getCantidadDisponible)
+                        .orElse(0);
+                if (cantidad <= 0 || tipoEntradaRepository.decrementarDisponible(tipoEntradaId, cantidad) == 0) {
+                    return 0;
+                }
+            }
+            versionCatalogoService.invalidarTipoEntrada(tipoEntradaId);
+
+            if (loteStockRepository.acumular(tipoEntradaId, instancia, cantidad, 0) == 0) {
+                loteStockRepository.save(LoteStock.builder()
+                        .tipoEntradaId(tipoEntradaId)
+                        .instancia(instancia)
+                        .cantidadAsignada((long) cantidad)
+                        .cantidadVendida(0L)
+                        .build());
+            }
+            return cantidad;
+        });
+
+        log.debug("Inventario caliente: arrendadas {} entradas del tipo {}", arrendado, tipoEntradaId);
+        return arrendado != null ? arrendado : 0;
+    }
+
+    private void volcar(Long tipoEntradaId, Pool pool) {
+        pool.refillLock.lock();
+        try {
+            pool.conLease = false;
+            int restante = pool.counter.drain();
+            if (restante == 0) {
+                return;
+            }
+            try {
+                nuevaTransaccion().executeWithoutResult(status -> {
+                    tipoEntradaRepository.incrementarDisponible(tipoEntradaId, restante);
+                    loteStockRepository.acumular(tipoEntradaId, instancia, -restante, 0);
+                    versionCatalogoService.invalidarTipoEntrada(tipoEntradaId);
+                });
+                log.debug("Inventario caliente: tipo {} devolvió {} entradas", tipoEntradaId, restante);
+            } catch (RuntimeException e) {
+                // Si la BD falla, el stock vuelve a memoria y se reintenta en la próxima pasada
+                pool.counter.add(restante);
+                pool.conLease = true;
+                log.error("Error devolviendo inventario caliente del tipo {}: {}", tipoEntradaId, e.getMessage());
+            }
+        } finally {
+            pool.refillLock.unlock();
+        }
+    }
+
+    private TransactionTemplate nuevaTransaccion() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return template;
+    }
+
+    private static final class Pool {
+        final StripedStockCounter counter;
+        final ReentrantLock refillLock = new ReentrantLock();
+        // Ventas y compensaciones en memoria; el reconciliador lo compara entre pasadas para ver si está inactivo
+        final LongAdder operaciones = new LongAdder();
+        // true mientras la instancia tiene stock arrendado del tipo sin devolver
+        volatile boolean conLease;
+        volatile long activoVerificadoMs;
+        // Solo los toca el hilo de reconciliación
+        long operacionesVistas;
+        long ultimoMovimientoMs = System.currentTimeMillis();
+
+        Pool(int stripes) {
+            this.counter = new StripedStockCounter(stripes);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.eventservice.service;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Contador de stock repartido en N sub-contadores (stripes).
+ *
+ * Cada hilo descuenta primero de "su" stripe y, si no alcanza, pide prestado
+ * a las stripes vecinas. Todas las operaciones son CAS sobre un único
+ * AtomicIntegerArray, sin crear objetos en el camino caliente.
+ * Cada stripe ocupa su propia línea de caché para evitar false sharing.
+ */
+public final class StripedStockCounter {
+
+    // 16 ints = 64 bytes: una línea de caché por stripe
+    private static final int PADDING = 16;
+
+    private final AtomicIntegerArray cells;
+    private final int mask;
+
+    public StripedStockCounter(int stripes) {
+        int n = 1;
+        while (n < stripes) {
+            n <<= 1;
+        }
+        this.mask = n - 1;
+        this.cells = new AtomicIntegerArray(n * PADDING);
+    }
+
+    public int stripes() {
+        return mask + 1;
+    }
+
+    /**
+     * Intenta descontar {@code cantidad}. Es todo o nada: si entre todas las
+     * stripes no alcanza, lo que se tomó prestado se devuelve y retorna false.
+     */
+    public boolean tryAcquire(int cantidad) {
+        int home = home();
+
+        // Camino rápido: una sola stripe cubre toda la cantidad
+        for (int i = 0; i <= mask; i++) {
+            if (tryTake(slot(home + i), cantidad)) {
+                return true;
+            }
+        }
+
+        // Ninguna stripe alcanza sola: juntar desde varias
+        int tomado = 0;
+        for (int i = 0; i <= mask && tomado < cantidad; i++) {
+            tomado += takeUpTo(slot(home + i), cantidad - tomado);
+        }
+        if (tomado == cantidad) {
+            return true;
+        }
+        if (tomado > 0) {
+            cells.getAndAdd(slot(home), tomado);
+        }
+        return false;
+    }
+
+    /**
+     * Suma stock a la stripe local (compensaciones).
+     */
+    public void add(int cantidad) {
+        cells.getAndAdd(slot(home()), cantidad);
+    }
+
+    /**
+     * Reparte un lote nuevo entre todas las stripes.
+     */
+    public void fill(int cantidad) {
+        int stripes = stripes();
+        int porStripe = cantidad / stripes;
+        int resto = cantidad - porStripe * stripes;
+        for (int i = 0; i < stripes; i++) {
+            int extra = i == 0 ? resto : 0;
+            if (porStripe + extra > 0) {
+                cells.getAndAdd(slot(i), porStripe + extra);
+            }
+        }
+    }
+
+    /**
+     * Vacía todas las stripes y devuelve lo que contenían.
+     */
+    public int drain() {
+        int total = 0;
+        for (int i = 0; i <= mask; i++) {
+            total += cells.getAndSet(slot(i), 0);
+        }
+        return total;
+    }
+
+    /**
+     * Suma aproximada (no atómica entre stripes), solo para monitoreo.
+     */
+    public int sum() {
+        int total = 0;
+        for (int i = 0; i <= mask; i++) {
+            total += cells.get(slot(i));
+        }
+        return total;
+    }
+
+    private boolean tryTake(int idx, int cantidad) {
+        while (true) {
+            int actual = cells.get(idx);
+            if (actual < cantidad) {
+                return false;
+            }
+            if (cells.compareAndSet(idx, actual, actual - cantidad)) {
+                return true;
+            }
+        }
+    }
+
+    private int takeUpTo(int idx, int maximo) {
+        while (true) {
+            int actual = cells.get(idx);
+            if (actual <= 0) {
+                return 0;
+            }
+            int tomar = Math.min(actual, maximo);
+            if (cells.compareAndSet(idx, actual, actual - tomar)) {
+                return tomar;
+            }
+        }
+    }
+
+    private int home() {
+        int h = (int) Thread.currentThread().getId() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private int slot(int stripe) {
+        return (stripe & mask) * PADDING;
+    }
+}
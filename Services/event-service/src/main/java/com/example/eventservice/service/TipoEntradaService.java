@@ -1,6 +1,7 @@
 package com.example.eventservice.service;
 
 import com.example.eventservice.dto.CreateTipoEntradaRequest;
+import com.example.eventservice.dto.LineaStockRequest;
 import com.example.eventservice.dto.TipoEntradaDto;
 import com.example.eventservice.dto.UpdateTipoEntradaRequest;
 import com.example.eventservice.exception.BadRequestException;
@@ -13,8 +14,14 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,6 +31,10 @@ public class TipoEntradaService {
 
     private final TipoEntradaRepository tipoEntradaRepository;
     private final EventRepository eventRepository;
+    private final HotInventoryService hotInventoryService;
+    private final VersionCatalogoService versionCatalogoService;
+    private final CacheCatalogoService cacheCatalogoService;
+    private final DisponibilidadStreamService disponibilidadStreamService;
 
     @Transactional
     public TipoEntradaDto createTipoEntrada(Long eventoId, CreateTipoEntradaRequest request) {
@@ -51,6 +62,13 @@ public class TipoEntradaService {
                 .build();
 
         tipoEntrada = tipoEntradaRepository.save(tipoEntrada);
+
+        // Subir la versión del evento: su ETag cambia aunque la suma de versiones de tipos no
+        eventRepository.incrementarVersion(eventoId);
+        eventRepository.recalcularResumen(eventoId);
+        versionCatalogoService.invalidarEvento(eventoId);
+        cacheCatalogoService.invalidarTipoEntrada(tipoEntrada.getId(), eventoId);
+        disponibilidadStreamService.registrarCambioEvento(eventoId);
         log.info("Tipo de entrada creado exitosamente con id: {}", tipoEntrada.getId());
 
         return TipoEntradaDto.fromEntity(tipoEntrada);
@@ -72,8 +90,11 @@ public class TipoEntradaService {
             tiposEntrada = tipoEntradaRepository.findByEventoIdOrderByOrdenAsc(eventoId);
         }
 
+        Map<Long, Long> retenidos = hotInventoryService.retenidos(
+                tiposEntrada.stream().map(TipoEntrada::getId).collect(Collectors.toList()));
         return tiposEntrada.stream()
                 .map(TipoEntradaDto::fromEntity)
+                .map(tipo -> conRetenido(tipo, retenidos))
                 .collect(Collectors.toList());
     }
 
@@ -81,16 +102,47 @@ public class TipoEntradaService {
     public TipoEntradaDto getTipoEntradaById(Long tipoEntradaId) {
         log.info("Obteniendo tipo de entrada con id: {}", tipoEntradaId);
 
-        TipoEntrada tipoEntrada = tipoEntradaRepository.findById(tipoEntradaId)
-                .orElseThrow(() -> new ResourceNotFoundException("Tipo de entrada no encontrado con id: " + tipoEntradaId));
+        TipoEntradaDto tipoEntrada = cacheCatalogoService.tipoEntrada(tipoEntradaId, id ->
+                TipoEntradaDto.fromEntity(tipoEntradaRepository.findById(id)
+                        .orElseThrow(() -> new ResourceNotFoundException("Tipo de entrada no encontrado con id: " + id))));
 
-        return TipoEntradaDto.fromEntity(tipoEntrada);
+        // El stock no se cachea: una venta no invalida la entrada de la cache
+        List<Object[]> stock = tipoEntradaRepository.findStockById(tipoEntradaId);
+        if (stock.isEmpty()) {
+            throw new ResourceNotFoundException("Tipo de entrada no encontrado con id: " + tipoEntradaId);
+        }
+        return conStock(tipoEntrada, stock.get(0), hotInventoryService.retenidos(List.of(tipoEntradaId)));
+    }
+
+    /**
+     * Copia del DTO (posiblemente cacheado) con el stock de una fila de
+     * {@link TipoEntradaRepository#findStockById}, más lo que el inventario
+     * caliente tiene en memoria ({@link HotInventoryService#retenidos}).
+     */
+    static TipoEntradaDto conStock(TipoEntradaDto tipoEntrada, Object[] stock, Map<Long, Long> retenidos) {
+        return tipoEntrada.toBuilder()
+                .cantidadDisponible((Integer) stock[1] + retenidos.getOrDefault(tipoEntrada.getId(), 0L).intValue())
+                .fechaActualizacion((LocalDateTime) stock[2])
+                .build();
+    }
+
+    private static TipoEntradaDto conRetenido(TipoEntradaDto tipoEntrada, Map<Long, Long> retenidos) {
+        Long retenido = retenidos.get(tipoEntrada.getId());
+        if (retenido == null) {
+            return tipoEntrada;
+        }
+        return tipoEntrada.toBuilder()
+                .cantidadDisponible(tipoEntrada.getCantidadDisponible() + retenido.intValue())
+                .build();
     }
 
     @Transactional
     public TipoEntradaDto updateTipoEntrada(Long tipoEntradaId, UpdateTipoEntradaRequest request) {
         log.info("Actualizando tipo de entrada con id: {}", tipoEntradaId);
 
+        // Devolver a la BD el stock en memoria antes de editar la fila
+        hotInventoryService.liberar(tipoEntradaId);
+
         TipoEntrada tipoEntrada = tipoEntradaRepository.findById(tipoEntradaId)
                 .orElseThrow(() -> new ResourceNotFoundException("Tipo de entrada no encontrado con id: " + tipoEntradaId));
 
@@ -141,6 +193,10 @@ public class TipoEntradaService {
         }
 
         tipoEntrada = tipoEntradaRepository.save(tipoEntrada);
+        eventRepository.recalcularResumen(tipoEntrada.getEvento().getId());
+        versionCatalogoService.invalidarEvento(tipoEntrada.getEvento().getId());
+        cacheCatalogoService.invalidarTipoEntrada(tipoEntradaId, tipoEntrada.getEvento().getId());
+        disponibilidadStreamService.registrarCambioEvento(tipoEntrada.getEvento().getId());
         log.info("Tipo de entrada actualizado exitosamente");
 
         return TipoEntradaDto.fromEntity(tipoEntrada);
@@ -150,6 +206,8 @@ public class TipoEntradaService {
     public void deleteTipoEntrada(Long tipoEntradaId) {
         log.info("Eliminando tipo de entrada con id: {}", tipoEntradaId);
 
+        hotInventoryService.liberar(tipoEntradaId);
+
         TipoEntrada tipoEntrada = tipoEntradaRepository.findById(tipoEntradaId)
                 .orElseThrow(() -> new ResourceNotFoundException("Tipo de entrada no encontrado con id: " + tipoEntradaId));
 
@@ -159,7 +217,13 @@ public class TipoEntradaService {
             throw new BadRequestException("No se puede eliminar un tipo de entrada que ya tiene ventas. Considere desactivarlo en su lugar.");
         }
 
+        Long eventoId = tipoEntrada.getEvento().getId();
         tipoEntradaRepository.delete(tipoEntrada);
+        eventRepository.incrementarVersion(eventoId);
+        eventRepository.recalcularResumen(eventoId);
+        versionCatalogoService.invalidarEvento(eventoId);
+        cacheCatalogoService.invalidarTipoEntrada(tipoEntradaId, eventoId);
+        disponibilidadStreamService.registrarCambioEvento(eventoId);
         log.info("Tipo de entrada eliminado exitosamente");
     }
 
@@ -171,27 +235,122 @@ public class TipoEntradaService {
      * - Reserva temporalmente las entradas
      * - Puede ser REVERTIDA si el pago falla (ver increaseCantidad)
      * 
-     * Es transaccional para garantizar consistencia en la BD.
+     * El descuento se hace con un único UPDATE condicional: la BD valida
+     * activo y stock suficiente en la misma sentencia, así dos compras
+     * concurrentes no pueden sobrevender el mismo tipo de entrada.
+     * Los tipos configurados como "inventario caliente" se despachan en
+     * memoria (ver HotInventoryService), por eso el método no abre una
+     * transacción propia: cada UPDATE del repositorio es transaccional.
      */
-    @Transactional
     public void decreaseCantidad(Long tipoEntradaId, int cantidad) {
         log.info("Disminuyendo {} entradas del tipo de entrada con id: {}", cantidad, tipoEntradaId);
 
-        TipoEntrada tipoEntrada = tipoEntradaRepository.findById(tipoEntradaId)
-                .orElseThrow(() -> new ResourceNotFoundException("Tipo de entrada no encontrado con id: " + tipoEntradaId));
+        if (cantidad <= 0) {
+            throw new BadRequestException("La cantidad debe ser mayor a 0");
+        }
 
-        if (!tipoEntrada.getActivo()) {
-            throw new BadRequestException("El tipo de entrada no está activo");
+        if (hotInventoryService.handles(tipoEntradaId)) {
+            hotInventoryService.decreaseCantidad(tipoEntradaId, cantidad);
+            cambioDeStock(tipoEntradaId, -cantidad);
+            log.info("Cantidad disminuida en memoria en {} para el tipo de entrada {}", cantidad, tipoEntradaId);
+            return;
         }
 
-        if (tipoEntrada.getCantidadDisponible() < cantidad) {
-            throw new BadRequestException("No hay suficientes entradas disponibles. Disponibles: " + tipoEntrada.getCantidadDisponible());
+        int actualizados = tipoEntradaRepository.decrementarDisponible(tipoEntradaId, cantidad);
+
+        if (actualizados == 0) {
+            throw sinStock(tipoEntradaId);
         }
+        cambioDeStock(tipoEntradaId, -cantidad);
+
+        log.info("Cantidad disminuida exitosamente en {} para el tipo de entrada {}", cantidad, tipoEntradaId);
+    }
 
-        tipoEntrada.setCantidadDisponible(tipoEntrada.getCantidadDisponible() - cantidad);
-        tipoEntradaRepository.save(tipoEntrada);
+    /**
+     * Decrementa el stock de varios tipos de entrada de forma todo-o-nada (carritos).
+     * 
+     * Las líneas se agrupan por tipo y se aplican en orden de id: cada UPDATE
+     * condicional bloquea su fila hasta el commit, así dos carritos con los mismos
+     * tipos toman los locks siempre en el mismo orden y no hay deadlocks.
+     * El resumen de cada evento se ajusta al final, también en orden de id:
+     * primero todas las filas de tipos y después las de eventos, el mismo orden
+     * que el descuento simple.
+     * Si una línea no alcanza, toda la transacción hace rollback.
+     *
+     * Las líneas con clave se anotan en descuentos_stock en la misma transacción:
+     * un reintento del mismo carrito no descuenta dos veces y un carrito que
+     * ticket-service ya anuló (increaseCantidadLote con anulaDescuento) se rechaza.
+     */
+    @Transactional
+    public void decreaseCantidadLote(List<LineaStockRequest> lineas) {
+        Map<Long, Integer> porTipo = new TreeMap<>();
+        int repetidas = 0;
+        for (LineaStockRequest linea : lineas) {
+            if (linea.getClave() != null && tipoEntradaRepository.registrarDescuento(
+                    linea.getClave(), linea.getTipoEntradaId(), linea.getCantidad()) == 0) {
+                if (Boolean.TRUE.equals(tipoEntradaRepository.descuentoAnulado(linea.getClave()))) {
+                    throw new BadRequestException("El carrito ya fue anulado (clave " + linea.getClave() + ")");
+                }
+                repetidas++;
+                continue;
+            }
+            porTipo.merge(linea.getTipoEntradaId(), linea.getCantidad(), Integer::sum);
+        }
+        if (porTipo.isEmpty()) {
+            log.info("Descuento en lote ya aplicado ({} líneas repetidas)", repetidas);
+            return;
+        }
+        log.info("Disminuyendo stock en lote: {}", porTipo);
+
+        Map<Long, Integer> enMemoria = new LinkedHashMap<>();
+        Map<Long, Integer> enBd = new LinkedHashMap<>();
+        porTipo.forEach((tipoEntradaId, cantidad) -> {
+            if (hotInventoryService.handles(tipoEntradaId)) {
+                enMemoria.put(tipoEntradaId, cantidad);
+            } else if (tipoEntradaRepository.decrementarDisponibleSinResumen(tipoEntradaId, cantidad) == 0) {
+                throw sinStock(tipoEntradaId);
+            } else {
+                enBd.put(tipoEntradaId, cantidad);
+                // Se publica al hacer commit; si otra línea falla no sale nada
+                cambioDeStock(tipoEntradaId, -cantidad);
+            }
+        });
 
-        log.info("Cantidad disminuida exitosamente. Disponibles ahora: {}", tipoEntrada.getCantidadDisponible());
+        if (!enBd.isEmpty()) {
+            Map<Long, Integer> porEvento = new TreeMap<>();
+            for (Object[] fila : tipoEntradaRepository.findEventoIdsByIdIn(enBd.keySet())) {
+                porEvento.merge((Long) fila[1], enBd.get((Long) fila[0]), Integer::sum);
+            }
+            porEvento.forEach((eventoId, cantidad) -> eventRepository.ajustarEntradasDisponibles(eventoId, -cantidad));
+        }
+
+        // Los tipos en memoria van al final: no participan del rollback de la BD,
+        // así que si alguno falla se devuelve a mano lo ya tomado
+        Map<Long, Integer> tomados = new LinkedHashMap<>();
+        try {
+            enMemoria.forEach((tipoEntradaId, cantidad) -> {
+                hotInventoryService.decreaseCantidad(tipoEntradaId, cantidad);
+                tomados.put(tipoEntradaId, cantidad);
+            });
+        } catch (RuntimeException e) {
+            tomados.forEach(hotInventoryService::increaseCantidad);
+            throw e;
+        }
+
+        if (!tomados.isEmpty()) {
+            // Igual que las líneas en BD: se publica solo si la transacción hace commit
+            tomados.forEach((tipoEntradaId, cantidad) -> cambioDeStock(tipoEntradaId, -cantidad));
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        tomados.forEach(hotInventoryService::increaseCantidad);
+                    }
+                }
+            });
+        }
+
+        log.info("Stock en lote disminuido exitosamente para {} tipos de entrada", porTipo.size());
     }
 
     /**
@@ -209,16 +368,99 @@ public class TipoEntradaService {
      * - Evita pérdida de stock por fallos
      * - Es la clave del patrón SAGA en microservicios
      */
-    @Transactional
     public void increaseCantidad(Long tipoEntradaId, int cantidad) {
         log.warn("⚠️ COMPENSACIÓN: Incrementando {} entradas al tipo de entrada con id: {} (ROLLBACK)", cantidad, tipoEntradaId);
 
+        if (cantidad <= 0) {
+            throw new BadRequestException("La cantidad debe ser mayor a 0");
+        }
+
+        if (hotInventoryService.handles(tipoEntradaId) && hotInventoryService.increaseCantidad(tipoEntradaId, cantidad)) {
+            cambioDeStock(tipoEntradaId, cantidad);
+            log.warn("✓ Compensación completada en memoria para el tipo de entrada {}", tipoEntradaId);
+            return;
+        }
+
+        int actualizados = tipoEntradaRepository.incrementarDisponible(tipoEntradaId, cantidad);
+
+        if (actualizados == 0) {
+            throw new ResourceNotFoundException("Tipo de entrada no encontrado con id: " + tipoEntradaId);
+        }
+        cambioDeStock(tipoEntradaId, cantidad);
+
+        log.warn("✓ Compensación completada. Restauradas {} entradas al tipo de entrada {}", cantidad, tipoEntradaId);
+    }
+
+    /**
+     * Compensación en lote e idempotente (devolución de reservas liberadas).
+     *
+     * Cada línea con clave se anota en compensaciones_stock en la misma
+     * transacción que el incremento: si quien llama reintenta porque perdió la
+     * respuesta, las líneas ya aplicadas se ignoran y el stock no se devuelve
+     * dos veces. Las cantidades se agrupan por tipo y se aplican en orden de id,
+     * los tipos en memoria al final (no participan del rollback de la BD).
+     *
+     * Las líneas con anulaDescuento revierten un descuento en lote con la misma
+     * clave: devuelven stock solo si ese descuento se aplicó, y si no llegó (el
+     * carrito se anula por un timeout) dejan la clave anulada para rechazarlo.
+     */
+    @Transactional
+    public void increaseCantidadLote(List<LineaStockRequest> lineas) {
+        Map<Long, Integer> porTipo = new TreeMap<>();
+        int repetidas = 0;
+        for (LineaStockRequest linea : lineas) {
+            if (Boolean.TRUE.equals(linea.getAnulaDescuento())) {
+                if (linea.getClave() == null) {
+                    throw new BadRequestException("anulaDescuento requiere la clave del descuento");
+                }
+                if (tipoEntradaRepository.anularDescuento(linea.getClave()) == 0) {
+                    tipoEntradaRepository.bloquearDescuento(
+                            linea.getClave(), linea.getTipoEntradaId(), linea.getCantidad());
+                    repetidas++;
+                    continue;
+                }
+            } else if (linea.getClave() != null && tipoEntradaRepository.registrarCompensacion(
+                    linea.getClave(), linea.getTipoEntradaId(), linea.getCantidad()) == 0) {
+                repetidas++;
+                continue;
+            }
+            porTipo.merge(linea.getTipoEntradaId(), linea.getCantidad(), Integer::sum);
+        }
+        log.warn("⚠️ COMPENSACIÓN EN LOTE: {} ({} líneas ya aplicadas o sin descuento que anular)", porTipo, repetidas);
+
+        Map<Long, Integer> enMemoria = new LinkedHashMap<>();
+        porTipo.forEach((tipoEntradaId, cantidad) -> {
+            if (hotInventoryService.handles(tipoEntradaId)) {
+                enMemoria.put(tipoEntradaId, cantidad);
+            } else {
+                increaseCantidad(tipoEntradaId, cantidad);
+            }
+        });
+        enMemoria.forEach(this::increaseCantidad);
+    }
+
+    /**
+     * Avisa un cambio de stock al stream de disponibilidad y al validador HTTP
+     * del catálogo (ambos actúan al hacer commit si hay transacción).
+     */
+    private void cambioDeStock(Long tipoEntradaId, int delta) {
+        disponibilidadStreamService.registrarCambio(tipoEntradaId, delta);
+        versionCatalogoService.invalidarTipoEntrada(tipoEntradaId);
+    }
+
+    /**
+     * Construye el error de un descuento rechazado. Solo en este camino se lee
+     * la fila, para devolver el motivo exacto.
+     */
+    private RuntimeException sinStock(Long tipoEntradaId) {
         TipoEntrada tipoEntrada = tipoEntradaRepository.findById(tipoEntradaId)
                 .orElseThrow(() -> new ResourceNotFoundException("Tipo de entrada no encontrado con id: " + tipoEntradaId));
 
-        tipoEntrada.setCantidadDisponible(tipoEntrada.getCantidadDisponible() + cantidad);
-        tipoEntradaRepository.save(tipoEntrada);
+        if (!tipoEntrada.getActivo()) {
+            return new BadRequestException("El tipo de entrada no está activo");
+        }
 
-        log.warn("✓ Compensación completada. Disponibles restaurados a: {}", tipoEntrada.getCantidadDisponible());
+        return new BadRequestException("No hay suficientes entradas disponibles para el tipo de entrada "
+                + tipoEntradaId + ". Disponibles: " + tipoEntrada.getCantidadDisponible());
     }
 }
@@ -0,0 +1,185 @@
+package com.example.eventservice.service;
+
+import com.example.eventservice.repository.EventRepository;
+import com.example.eventservice.repository.TipoEntradaRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Validadores HTTP (ETag fuerte + Last-Modified) del catálogo de eventos.
+ *
+ * Se calculan a partir de las columnas version (JPA @Version) de eventos y
+ * tipos_entrada con una consulta liviana que no carga entidades, y se guardan
+ * en memoria durante catalogo.etag.ttl-ms. Mientras el validador esté vigente,
+ * un If-None-Match que coincide se responde 304 sin tocar la base de datos.
+ *
+ * Toda escritura en esta instancia invalida el validador al instante: las
+ * ediciones del catálogo (crear/editar/cancelar eventos, crear/editar/eliminar
+ * tipos de entrada) con invalidarEvento y los cambios de stock (compras,
+ * compensaciones, lotes del inventario caliente) con invalidarTipoEntrada.
+ * Por eso el TTL es largo: solo acota lo que tardan en verse los cambios
+ * hechos por otras instancias.
+ */
+@Service
+@RequiredArgsConstructor
+public class VersionCatalogoService {
+
+    private final EventRepository eventRepository;
+    private final TipoEntradaRepository tipoEntradaRepository;
+
+    @Value("${catalogo.etag.ttl-ms:300000}")
+    private long ttlMs;
+
+    private final Map<Long, Entrada> eventos = new ConcurrentHashMap<>();
+    // La relación tipoEntrada → evento no cambia
+    private final Map<Long, Long> eventoPorTipo = new ConcurrentHashMap<>();
+    private volatile Entrada catalogo;
+
+    /**
+     * Validador del evento (y de sus tipos de entrada), o {@code null} si no existe.
+     */
+    public Validador evento(Long eventoId) {
+        long ahora = System.currentTimeMillis();
+        Entrada entrada = eventos.get(eventoId);
+        if (entrada != null && entrada.vigenteHasta > ahora) {
+            return entrada.validador;
+        }
+
+        List<Object[]> filas = eventRepository.findValidadorEvento(eventoId);
+        if (filas.isEmpty()) {
+            eventos.remove(eventoId);
+            return null;
+        }
+        Object[] fila = filas.get(0);
+        Validador validador = new Validador(
+                "\"ev" + eventoId + "-" + fila[0] + "-" + fila[1] + "\"",
+                masReciente((LocalDateTime) fila[2], (LocalDateTime) fila[3]));
+        eventos.put(eventoId, new Entrada(validador, ahora + ttlMs));
+        return validador;
+    }
+
+    /**
+     * Validador de los listados completos del catálogo.
+     */
+    public Validador catalogo() {
+        long ahora = System.currentTimeMillis();
+        Entrada entrada = catalogo;
+        if (entrada != null && entrada.vigenteHasta > ahora) {
+            return entrada.validador;
+        }
+
+        Object[] ev = eventRepository.findValidadorCatalogo().get(0);
+        Object[] te = tipoEntradaRepository.findValidadorCatalogo().get(0);
+        Validador validador = new Validador(
+                "\"cat-" + ev[0] + "-" + ev[1] + "-" + te[0] + "-" + te[1] + "\"",
+                masReciente((LocalDateTime) ev[2], (LocalDateTime) te[2]));
+        catalogo = new Entrada(validador, ahora + ttlMs);
+        return validador;
+    }
+
+    /**
+     * Llamar tras editar un evento o sus tipos de entrada. Dentro de una
+     * transacción se vuelve a invalidar después del commit, para que una
+     * lectura concurrente no deje en memoria la versión anterior.
+     */
+    public void invalidarEvento(Long eventoId) {
+        eventos.remove(eventoId);
+        catalogo = null;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eventos.remove(eventoId);
+                    catalogo = null;
+                }
+            });
+        }
+    }
+
+    /**
+     * Llamar tras cambiar el stock de un tipo de entrada. Invalida su evento
+     * y los listados, igual que {@link #invalidarEvento}.
+     */
+    public void invalidarTipoEntrada(Long tipoEntradaId) {
+        Long eventoId = eventoPorTipo.get(tipoEntradaId);
+        if (eventoId == null) {
+            for (Object[] fila : tipoEntradaRepository.findEventoIdsByIdIn(List.of(tipoEntradaId))) {
+                eventoId = (Long) fila[1];
+                eventoPorTipo.put(tipoEntradaId, eventoId);
+            }
+            if (eventoId == null) {
+                return;
+            }
+        }
+        invalidarEvento(eventoId);
+    }
+
+    private static long masReciente(LocalDateTime a, LocalDateTime b) {
+        LocalDateTime max = a == null ? b : (b == null || a.isAfter(b) ? a : b);
+        return max == null ? -1 : max.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * ETag fuerte y Last-Modified (epoch millis, -1 si no se conoce) de un recurso.
+     */
+    public record Validador(String etag, long ultimaModificacion) {
+
+        /** Variante del recurso (p. ej. un filtro de listado) con su propio ETag. */
+        public Validador variante(String sufijo) {
+            return new Validador(etag.substring(0, etag.length() - 1) + "-" + sufijo + "\"", ultimaModificacion);
+        }
+
+        /**
+         * Variante de una consulta con parámetros libres: el sufijo es el SHA-256
+         * de su forma canónica truncado a 64 bits, así dos consultas distintas no
+         * comparten ETag por una colisión de hashCode.
+         */
+        public Validador varianteDeConsulta(String prefijo, String consultaCanonica) {
+            try {
+                byte[] hash = MessageDigest.getInstance("SHA-256")
+                        .digest(consultaCanonica.getBytes(StandardCharsets.UTF_8));
+                return variante(prefijo + HexFormat.of().formatHex(hash, 0, 8));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 no disponible", e);
+            }
+        }
+
+        /**
+         * Evalúa If-None-Match (comparación débil, admite lista y "*") y, si no
+         * viene, If-Modified-Since.
+         */
+        public boolean noModificado(String ifNoneMatch, long ifModifiedSince) {
+            if (ifNoneMatch != null) {
+                for (String candidato : ifNoneMatch.split(",")) {
+                    String tag = candidato.trim();
+                    if (tag.startsWith("W/")) {
+                        tag = tag.substring(2);
+                    }
+                    if (tag.equals("*") || tag.equals(etag)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            // Last-Modified tiene resolución de segundos
+            return ifModifiedSince >= 0 && ultimaModificacion >= 0
+                    && ultimaModificacion / 1000 <= ifModifiedSince / 1000;
+        }
+    }
+
+    private record Entrada(Validador validador, long vigenteHasta) {
+    }
+}
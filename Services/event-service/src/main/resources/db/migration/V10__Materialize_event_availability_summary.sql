@@ -0,0 +1,12 @@
+-- Resumen de disponibilidad del evento mantenido por los UPDATE de stock
+-- (misma sentencia que el descuento del tipo de entrada). Hasta ahora solo se
+-- recalculaba al guardar la entidad Event, así que las ventas lo dejaban atrasado:
+-- se recalcula una vez desde tipos_entrada.
+UPDATE eventos e
+SET e.capacidad_total = (SELECT COALESCE(SUM(t.cantidad_total), 0) FROM tipos_entrada t WHERE t.evento_id = e.id),
+    e.entradas_disponibles = (SELECT COALESCE(SUM(t.cantidad_disponible), 0) FROM tipos_entrada t WHERE t.evento_id = e.id)
+WHERE EXISTS (SELECT 1 FROM tipos_entrada t WHERE t.evento_id = e.id);
+
+-- GET /api/eventos/disponibles: activo = true AND entradas_disponibles > 0 se
+-- resuelve solo con este índice (InnoDB agrega id al final)
+CREATE INDEX idx_eventos_disponibilidad ON eventos (activo, entradas_disponibles);
@@ -0,0 +1,10 @@
+-- Claves de las compensaciones de stock ya aplicadas (PUT /api/tipos-entrada/incrementar-lote):
+-- quien reintenta una devolución (ticket-service, con la clave reserva-{id}) no la aplica dos veces
+CREATE TABLE IF NOT EXISTS compensaciones_stock (
+    clave VARCHAR(100) PRIMARY KEY,
+    tipo_entrada_id BIGINT NOT NULL,
+    cantidad INT NOT NULL,
+    fecha_creacion DATETIME DEFAULT CURRENT_TIMESTAMP,
+
+    INDEX idx_fecha_creacion (fecha_creacion)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
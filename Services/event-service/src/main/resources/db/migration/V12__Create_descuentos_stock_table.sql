@@ -0,0 +1,13 @@
+-- Claves de los descuentos en lote de carritos (PUT /api/tipos-entrada/disminuir-lote):
+-- ticket-service anula un carrito cuyo descuento no sabe si se aplicó (timeout) con la
+-- misma clave; solo se devuelve el stock si el descuento está acá y, si todavía no
+-- llegó, queda la marca anulado para rechazarlo cuando llegue
+CREATE TABLE IF NOT EXISTS descuentos_stock (
+    clave VARCHAR(100) PRIMARY KEY,
+    tipo_entrada_id BIGINT NOT NULL,
+    cantidad INT NOT NULL,
+    anulado BOOLEAN NOT NULL DEFAULT FALSE,
+    fecha_creacion DATETIME DEFAULT CURRENT_TIMESTAMP,
+
+    INDEX idx_fecha_creacion (fecha_creacion)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
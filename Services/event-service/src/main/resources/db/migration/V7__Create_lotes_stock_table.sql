@@ -0,0 +1,13 @@
+-- Journal del modo "inventario caliente": stock arrendado a la memoria de cada instancia
+CREATE TABLE IF NOT EXISTS lotes_stock (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    tipo_entrada_id BIGINT NOT NULL,
+    instancia VARCHAR(100) NOT NULL,
+    cantidad_asignada BIGINT NOT NULL DEFAULT 0,
+    cantidad_vendida BIGINT NOT NULL DEFAULT 0,
+    fecha_actualizacion DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+
+    FOREIGN KEY (tipo_entrada_id) REFERENCES tipos_entrada(id) ON DELETE CASCADE,
+    UNIQUE KEY uk_tipo_instancia (tipo_entrada_id, instancia),
+    INDEX idx_instancia (instancia)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,3 @@
+-- Versión de cada fila (JPA @Version): base de los ETag del catálogo
+ALTER TABLE eventos ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE tipos_entrada ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,10 @@
+-- Índices de la búsqueda paginada del catálogo (GET /api/eventos/buscar).
+-- Cada filtro de igualdad va seguido de fecha_evento, el orden de la página;
+-- InnoDB agrega id (PK) al final de todo índice secundario, así que el
+-- cursor (fecha_evento, id) se recorre sobre el índice sin ordenar en memoria.
+CREATE INDEX idx_eventos_estado_fecha ON eventos (estado, fecha_evento);
+CREATE INDEX idx_eventos_categoria_fecha ON eventos (categoria, fecha_evento);
+CREATE INDEX idx_eventos_organizador_fecha ON eventos (organizador_id, fecha_evento);
+
+-- Filtro de disponibilidad (EXISTS de un tipo activo con stock) y carga en lote de tipos por evento
+CREATE INDEX idx_tipos_entrada_disponible ON tipos_entrada (evento_id, activo, cantidad_disponible);
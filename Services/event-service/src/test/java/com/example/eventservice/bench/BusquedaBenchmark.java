@@ -0,0 +1,184 @@
+package com.example.eventservice.bench;
+
+import com.example.eventservice.busqueda.ConsultaEventos;
+import com.example.eventservice.busqueda.DocumentoEvento;
+import com.example.eventservice.busqueda.IndiceEventos;
+import org.apache.lucene.store.FSDirectory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark JMH de la búsqueda de texto completo sobre un catálogo sintético.
+ *
+ *   mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *       "-Dexec.args=-cp %classpath org.openjdk.jmh.Main BusquedaBenchmark -p eventos=1000000"
+ *
+ * Arma un índice en un directorio temporal (fuera del heap) con eventos
+ * generados al azar y mide la latencia de cada tipo de consulta, incluyendo
+ * el conteo de facetas por categoría (SampleTime da p50/p95/p99/máx):
+ * - exacta:    palabras completas
+ * - prefijo:   la última palabra a medio escribir
+ * - tipeo:     una letra cambiada
+ * - filtrada:  texto + categoría + rango de fechas
+ * - porFecha:  texto ordenado por fecha en vez de relevancia
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BusquedaBenchmark {
+
+    private static final String[] PALABRAS = {
+            "concierto", "festival", "rock", "jazz", "sinfonica", "orquesta", "teatro", "comedia",
+            "stand", "danza", "ballet", "opera", "electronica", "reggaeton", "cumbia", "salsa",
+            "tango", "folklore", "acustico", "gira", "noche", "verano", "invierno", "primavera",
+            "clasico", "tributo", "leyendas", "estrellas", "gran", "final", "campeonato", "futbol",
+            "basquet", "tenis", "maraton", "feria", "gastronomica", "vino", "cerveza", "arte",
+            "exposicion", "cine", "estreno", "infantil", "familiar", "magia", "circo", "conferencia",
+            "tecnologia", "startup", "taller", "fotografia", "literatura", "poesia", "musical"};
+
+    private static final String[] CIUDADES = {
+            "Santiago", "Valparaíso", "Concepción", "La Serena", "Antofagasta", "Temuco",
+            "Rancagua", "Talca", "Arica", "Iquique", "Puerto Montt", "Punta Arenas"};
+
+    private static final String[] CATEGORIAS = {
+            "Música", "Teatro", "Deportes", "Comedia", "Danza", "Cine", "Gastronomía",
+            "Arte", "Conferencias", "Infantil", "Festivales", "Otros"};
+
+    @Param({"100000"})
+    private int eventos;
+
+    private Path directorio;
+    private IndiceEventos indice;
+    private LocalDateTime base;
+
+    /** Generador de consultas de cada hilo. */
+    @State(Scope.Thread)
+    public static class Consultas {
+        final SplittableRandom random = new SplittableRandom(7);
+    }
+
+    @Setup(Level.Trial)
+    public void indexar() throws IOException {
+        directorio = Files.createTempDirectory("bench-indice-eventos");
+        indice = new IndiceEventos(FSDirectory.open(directorio));
+        SplittableRandom random = new SplittableRandom(42);
+        base = LocalDateTime.now();
+        for (int i = 1; i <= eventos; i++) {
+            indice.indexar(eventoAlAzar(i, random, base));
+        }
+        indice.commit();
+        indice.refrescar();
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() throws IOException {
+        indice.close();
+        borrar(directorio);
+    }
+
+    @Benchmark
+    public long exacta(Consultas consultas) throws IOException {
+        return buscar("exacta", consultas);
+    }
+
+    @Benchmark
+    public long prefijo(Consultas consultas) throws IOException {
+        return buscar("prefijo", consultas);
+    }
+
+    @Benchmark
+    public long tipeo(Consultas consultas) throws IOException {
+        return buscar("tipeo", consultas);
+    }
+
+    @Benchmark
+    public long filtrada(Consultas consultas) throws IOException {
+        return buscar("filtrada", consultas);
+    }
+
+    @Benchmark
+    public long porFecha(Consultas consultas) throws IOException {
+        return buscar("porFecha", consultas);
+    }
+
+    private long buscar(String tipo, Consultas consultas) throws IOException {
+        return indice.buscar(consulta(tipo, consultas.random, base)).total();
+    }
+
+    private static ConsultaEventos consulta(String tipo, SplittableRandom random, LocalDateTime base) {
+        String a = PALABRAS[random.nextInt(PALABRAS.length)];
+        String b = PALABRAS[random.nextInt(PALABRAS.length)];
+        return switch (tipo) {
+            case "prefijo" -> new ConsultaEventos(a + " " + b.substring(0, Math.min(3, b.length())),
+                    null, "ACTIVO", null, null, false, 0, 20);
+            case "tipeo" -> new ConsultaEventos(conErrorDeTipeo(a, random) + " " + b,
+                    null, "ACTIVO", null, null, false, 0, 20);
+            case "filtrada" -> new ConsultaEventos(a, CATEGORIAS[random.nextInt(CATEGORIAS.length)], "ACTIVO",
+                    base, base.plusDays(90), false, 0, 20);
+            case "porFecha" -> new ConsultaEventos(a, null, "ACTIVO", base, null, true, 0, 20);
+            default -> new ConsultaEventos(a + " " + b, null, "ACTIVO", null, null, false, 0, 20);
+        };
+    }
+
+    private static String conErrorDeTipeo(String palabra, SplittableRandom random) {
+        if (palabra.length() < 4) {
+            return palabra;
+        }
+        char[] letras = palabra.toCharArray();
+        // Nunca la primera letra: el índice exige que coincida
+        letras[1 + random.nextInt(letras.length - 1)] = (char) ('a' + random.nextInt(26));
+        return new String(letras);
+    }
+
+    private static DocumentoEvento eventoAlAzar(long id, SplittableRandom random, LocalDateTime base) {
+        String nombre = capitalizar(PALABRAS[random.nextInt(PALABRAS.length)]) + " "
+                + PALABRAS[random.nextInt(PALABRAS.length)] + " " + (2025 + random.nextInt(3));
+        StringBuilder descripcion = new StringBuilder();
+        int largo = 20 + random.nextInt(40);
+        for (int i = 0; i < largo; i++) {
+            descripcion.append(PALABRAS[random.nextInt(PALABRAS.length)]).append(' ');
+        }
+        String estado = random.nextInt(10) == 0 ? "CANCELADO" : "ACTIVO";
+        return new DocumentoEvento(
+                id,
+                nombre,
+                descripcion.toString(),
+                "Recinto " + random.nextInt(500) + ", " + CIUDADES[random.nextInt(CIUDADES.length)],
+                CATEGORIAS[random.nextInt(CATEGORIAS.length)],
+                base.plusHours(random.nextInt(24 * 730) - 24 * 30),
+                estado);
+    }
+
+    private static String capitalizar(String palabra) {
+        return Character.toUpperCase(palabra.charAt(0)) + palabra.substring(1);
+    }
+
+    private static void borrar(Path directorio) throws IOException {
+        try (Stream<Path> archivos = Files.walk(directorio)) {
+            archivos.sorted(Comparator.reverseOrder()).forEach(a -> a.toFile().delete());
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.gateway.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache LRU compartido de respuestas GET anónimas (ver ResponseCacheFilter).
+ *
+ * Acotado por cantidad de entradas; el acceso está sincronizado porque cada
+ * operación es O(1) y el cuerpo ya está en memoria.
+ */
+@Component
+public class CacheRespuestas {
+
+    private final Map<String, RespuestaCacheada> entradas;
+
+    public CacheRespuestas(@Value("${gateway.response-cache.max-entradas:2000}") int maxEntradas) {
+        this.entradas = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, RespuestaCacheada> eldest) {
+                return size() > maxEntradas;
+            }
+        };
+    }
+
+    public synchronized RespuestaCacheada obtener(String clave) {
+        return entradas.get(clave);
+    }
+
+    public synchronized void guardar(String clave, RespuestaCacheada respuesta) {
+        entradas.put(clave, respuesta);
+    }
+
+    public synchronized void eliminar(String clave) {
+        entradas.remove(clave);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.gateway.cache;
+
+/**
+ * Respuesta 200 guardada: cuerpo, validadores del servicio de origen y hasta
+ * cuándo puede servirse sin revalidar (según su Cache-Control max-age).
+ */
+public record RespuestaCacheada(byte[] cuerpo, String contentType, String etag, String lastModified,
+                                String cacheControl, long guardadaEn, long frescaHasta) {
+
+    public boolean fresca(long ahoraMillis) {
+        return ahoraMillis < frescaHasta;
+    }
+
+    public RespuestaCacheada revalidada(String cacheControl, long ahoraMillis, long maxAgeMillis) {
+        return new RespuestaCacheada(cuerpo, contentType, etag, lastModified,
+                cacheControl != null ? cacheControl : this.cacheControl, ahoraMillis, ahoraMillis + maxAgeMillis);
+    }
+}
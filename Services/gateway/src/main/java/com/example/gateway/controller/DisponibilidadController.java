@@ -0,0 +1,98 @@
+package com.example.gateway.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Stream de disponibilidad de un evento (SSE), multiplexado en el gateway.
+ *
+ * GET /api/eventos/{eventoId}/tipos-entrada/stream
+ *
+ * Todos los clientes que miran el mismo evento comparten UNA conexión SSE con
+ * event-service: la primera suscripción la abre y la última la cierra (tras
+ * disponibilidad.gracia, para no reconectar en cada recarga de página). Quien
+ * llega tarde recibe al instante la última foto.
+ *
+ * Cada cliente recibe con onBackpressureLatest: si no alcanza a leer, se salta
+ * fotos intermedias y recibe la más reciente, sin frenar al resto. Las fotos
+ * traen la cantidad absoluta de cada tipo, así que saltarse alguna no descuadra.
+ *
+ * Si event-service se reinicia, la conexión compartida se reabre con backoff
+ * sin que los clientes se enteren.
+ */
+@RestController
+public class DisponibilidadController {
+
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> TIPO_SSE =
+            new ParameterizedTypeReference<>() {
+            };
+
+    @Value("${disponibilidad.event-service-url:http://localhost:8082}")
+    private String eventServiceUrl;
+
+    @Value("${disponibilidad.latido:15s}")
+    private Duration latido;
+
+    @Value("${disponibilidad.gracia:10s}")
+    private Duration gracia;
+
+    @Value("${gateway.secret}")
+    private String gatewaySecret;
+
+    private final Map<Long, Flux<ServerSentEvent<String>>> compartidos = new ConcurrentHashMap<>();
+    private WebClient eventService;
+
+    @Autowired
+    void setWebClientBuilder(WebClient.Builder builder) {
+        this.eventService = builder.build();
+    }
+
+    @GetMapping(value = "/api/eventos/{eventoId}/tipos-entrada/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> stream(@PathVariable Long eventoId) {
+        Flux<ServerSentEvent<String>> fotos = compartidos.computeIfAbsent(eventoId, this::conectar)
+                .onBackpressureLatest();
+        Flux<ServerSentEvent<String>> latidos = Flux.interval(latido)
+                .onBackpressureDrop()
+                .map(tick -> ServerSentEvent.<String>builder().comment("ping").build());
+        // prefetch 1: el merge no acumula fotos para un cliente lento
+        return Flux.merge(1, fotos, latidos);
+    }
+
+    /**
+     * Conexión compartida con event-service para un evento.
+     */
+    private Flux<ServerSentEvent<String>> conectar(Long eventoId) {
+        AtomicReference<Flux<ServerSentEvent<String>>> propio = new AtomicReference<>();
+        Flux<ServerSentEvent<String>> compartido = eventService.get()
+                .uri(eventServiceUrl + "/api/eventos/{eventoId}/tipos-entrada/stream", eventoId)
+                .header("X-Gateway-Secret", gatewaySecret)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .retrieve()
+                .bodyToFlux(TIPO_SSE)
+                // Los latidos de event-service no se reenvían: el gateway manda los suyos
+                .filter(evento -> "disponibilidad".equals(evento.event()) && evento.data() != null)
+                .map(evento -> ServerSentEvent.builder(evento.data()).event("disponibilidad").build())
+                // El stream de event-service vence (timeout) o se corta: reabrirlo
+                .repeat()
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(15)))
+                .doFinally(senal -> compartidos.remove(eventoId, propio.get()))
+                .replay(1)
+                .refCount(1, gracia);
+        propio.set(compartido);
+        return compartido;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.gateway.controller;
+
+import com.example.gateway.salaespera.EstadoSalaEspera;
+import com.example.gateway.salaespera.SalaEsperaService;
+import com.example.gateway.service.JwtService;
+import com.example.gateway.service.TokenVerificado;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Endpoints de la sala de espera virtual (atendidos por el propio gateway).
+ *
+ * Flujo del comprador:
+ *   POST /api/sala-espera/{eventoId}/ingresar       → posición y espera estimada
+ *   GET  /api/sala-espera/{eventoId}/estado         → polling liviano
+ *   GET  /api/sala-espera/{eventoId}/stream         → SSE hasta ser admitido
+ * Al quedar ADMITIDO la respuesta trae tokenAdmision, que se envía en el header
+ * X-Admission-Token de POST /api/orchestration/purchase-ticket. Sirve para una
+ * sola compra; para otra hay que volver a hacer la fila.
+ *
+ * Administración (rol ADMIN): abrir/cerrar la sala de un evento y ver colas.
+ */
+@RestController
+@RequestMapping("/api/sala-espera")
+public class SalaEsperaController {
+
+    private static final Duration INTERVALO_SSE = Duration.ofSeconds(2);
+
+    @Autowired
+    private SalaEsperaService salaEsperaService;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @PostMapping("/{eventoId}/ingresar")
+    public Mono<EstadoSalaEspera> ingresar(@PathVariable Long eventoId,
+                                           @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String auth) {
+        TokenVerificado usuario = autenticar(auth);
+        return Mono.just(salaEsperaService.ingresar(eventoId, usuario.userId()));
+    }
+
+    @GetMapping("/{eventoId}/estado")
+    public Mono<EstadoSalaEspera> estado(@PathVariable Long eventoId,
+                                         @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String auth) {
+        TokenVerificado usuario = autenticar(auth);
+        return Mono.just(salaEsperaService.consultar(eventoId, usuario.userId()));
+    }
+
+    @GetMapping(value = "/{eventoId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<EstadoSalaEspera>> stream(@PathVariable Long eventoId,
+                                                          @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String auth) {
+        TokenVerificado usuario = autenticar(auth);
+        return Flux.interval(Duration.ZERO, INTERVALO_SSE)
+                .map(tick -> salaEsperaService.consultar(eventoId, usuario.userId()))
+                .takeUntil(EstadoSalaEspera::terminal)
+                .map(estado -> ServerSentEvent.builder(estado).event("estado").build());
+    }
+
+    @PostMapping("/{eventoId}/abrir")
+    public Mono<Map<String, Object>> abrir(@PathVariable Long eventoId,
+                                           @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String auth) {
+        exigirAdmin(auth);
+        salaEsperaService.abrir(eventoId);
+        return Mono.just(Map.of("eventoId", eventoId, "activa", true));
+    }
+
+    @PostMapping("/{eventoId}/cerrar")
+    public Mono<Map<String, Object>> cerrar(@PathVariable Long eventoId,
+                                            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String auth) {
+        exigirAdmin(auth);
+        salaEsperaService.cerrar(eventoId);
+        return Mono.just(Map.of("eventoId", eventoId, "activa", false));
+    }
+
+    @GetMapping
+    public Mono<Map<Long, Long>> colas(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String auth) {
+        exigirAdmin(auth);
+        return Mono.just(salaEsperaService.enColaPorEvento());
+    }
+
+    // Estos endpoints no pasan por las rutas del gateway, así que validan el JWT aquí
+    private TokenVerificado autenticar(String authHeader) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Token de autorización no encontrado");
+        }
+        TokenVerificado verificado = jwtService.verificar(authHeader.substring(7));
+        if (verificado == null || verificado.userId() == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Token inválido o expirado");
+        }
+        return verificado;
+    }
+
+    private void exigirAdmin(String authHeader) {
+        if (!"ADMIN".equals(autenticar(authHeader).rol())) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Acceso denegado. Rol requerido: [ADMIN]");
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.gateway.filter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Filtro de load shedding por concurrencia para Spring Cloud Gateway.
+ *
+ * RESPONSABILIDADES:
+ * 1. Contar las peticiones en curso hacia la ruta
+ * 2. Rechazar de inmediato (503 o 429 + Retry-After) al superar el máximo,
+ *    antes de que se saturen los pools de hilos y conexiones del servicio destino
+ *
+ * CONFIGURACIÓN:
+ * En application.yml:
+ *   filters:
+ *     - name: ConcurrencyLimitFilter
+ *       args:
+ *         maxConcurrentes: 200
+ *         retryAfterSegundos: 2
+ *         estado: 503             # 503 | 429
+ *         grupo: compras          # opcional: rutas con el mismo grupo comparten contador
+ *
+ * Cada ruta tiene su propio contador, salvo que declare un grupo; la petición
+ * libera su lugar al terminar, fallar o cancelarse el cliente.
+ */
+@Component
+public class ConcurrencyLimitFilter extends AbstractGatewayFilterFactory<ConcurrencyLimitFilter.Config> {
+
+    private static final Logger log = LoggerFactory.getLogger(ConcurrencyLimitFilter.class);
+
+    private final Map<String, AtomicInteger> grupos = new ConcurrentHashMap<>();
+
+    public ConcurrencyLimitFilter() {
+        super(Config.class);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        AtomicInteger enCurso = config.getGrupo() != null
+                ? grupos.computeIfAbsent(config.getGrupo(), g -> new AtomicInteger())
+                : new AtomicInteger();
+        HttpStatus estado = HttpStatus.valueOf(config.getEstado());
+
+        return (exchange, chain) -> {
+            // PASO 1: Reservar un lugar; si no hay, descartar sin tocar el servicio destino
+            if (enCurso.incrementAndGet() > config.getMaxConcurrentes()) {
+                enCurso.decrementAndGet();
+                log.debug("Load shedding en {}: {} peticiones en curso",
+                        exchange.getRequest().getPath(), config.getMaxConcurrentes());
+                exchange.getResponse().getHeaders()
+                        .set(HttpHeaders.RETRY_AFTER, String.valueOf(config.getRetryAfterSegundos()));
+                return onError(exchange, "Servicio saturado. Reintente en " + config.getRetryAfterSegundos() + "s",
+                        estado);
+            }
+
+            // PASO 2: Continuar y liberar el lugar pase lo que pase
+            return chain.filter(exchange).doFinally(senal -> enCurso.decrementAndGet());
+        };
+    }
+
+    private Mono<Void> onError(ServerWebExchange exchange, String message, HttpStatus status) {
+        exchange.getResponse().setStatusCode(status);
+        exchange.getResponse().getHeaders().add("Content-Type", "application/json");
+
+        String errorResponse = String.format("{\"error\":\"%s\",\"status\":%d}", message, status.value());
+        return exchange.getResponse().writeWith(
+            Mono.just(exchange.getResponse().bufferFactory().wrap(errorResponse.getBytes()))
+        );
+    }
+
+    public static class Config {
+        private int maxConcurrentes = 200;
+        private int retryAfterSegundos = 1;
+        private int estado = 503;
+        private String grupo;
+
+        public int getMaxConcurrentes() {
+            return maxConcurrentes;
+        }
+
+        public void setMaxConcurrentes(int maxConcurrentes) {
+            this.maxConcurrentes = maxConcurrentes;
+        }
+
+        public int getRetryAfterSegundos() {
+            return retryAfterSegundos;
+        }
+
+        public void setRetryAfterSegundos(int retryAfterSegundos) {
+            this.retryAfterSegundos = retryAfterSegundos;
+        }
+
+        public int getEstado() {
+            return estado;
+        }
+
+        public void setEstado(int estado) {
+            this.estado = estado;
+        }
+
+        public String getGrupo() {
+            return grupo;
+        }
+
+        public void setGrupo(String grupo) {
+            this.grupo = grupo;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.gateway.filter;
 
 import com.example.gateway.service.JwtService;
+import com.example.gateway.service.TokenVerificado;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
@@ -18,6 +19,7 @@ import reactor.core.publisher.Mono;
  * 1. Extraer y validar el token JWT del header Authorization
  * 2. Enriquecer la petición con datos del usuario (X-User-Email, X-User-ID)
  * 3. Rechazar peticiones con tokens inválidos o expirados
+ * 4. Dejar el token verificado en el atributo {@link JwtService#ATRIBUTO_TOKEN}
  * 
  * FLUJO:
  * Cliente → Gateway (este filtro) → Validación JWT → Servicios internos
@@ -54,16 +56,18 @@ public class JwtAuthenticationFilter extends AbstractGatewayFilterFactory<JwtAut
 
             String token = authHeader.substring(7); // Remover "Bearer "
 
-            // PASO 2: Validar integridad y expiración del token JWT
-            if (!jwtService.isTokenValid(token)) {
+            // PASO 2: Validar integridad y expiración del token JWT (una sola verificación de firma;
+            // los tokens ya vistos salen del cache de JwtService hasta su expiración)
+            TokenVerificado verificado = jwtService.verificar(token);
+            if (verificado == null) {
                 return onError(exchange, "Token inválido o expirado", HttpStatus.UNAUTHORIZED);
             }
 
-            // PASO 3: Extraer datos del token (REQUEST ENRICHMENT PATTERN)
-            // Los servicios internos recibirán estos headers y NO necesitan validar JWT
-            String email = jwtService.extractEmail(token);
-            String userId = jwtService.extractUserId(token);
-            String role = jwtService.extractRole(token);
+            // PASO 3: Guardar los datos del token para los filtros siguientes (RoleAuthorizationFilter)
+            exchange.getAttributes().put(JwtService.ATRIBUTO_TOKEN, verificado);
+            String email = verificado.email();
+            String userId = verificado.userId();
+            String role = verificado.rol();
 
             // PASO 4: Añadir headers enriquecidos para los servicios internos
             // Los servicios pueden confiar en estos headers porque Gateway ya validó el JWT
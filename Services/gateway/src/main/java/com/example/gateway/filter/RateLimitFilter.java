@@ -0,0 +1,190 @@
+package com.example.gateway.filter;
+
+import com.example.gateway.ratelimit.BucketStore;
+import com.example.gateway.ratelimit.ConsumoToken;
+import com.example.gateway.ratelimit.LimiteBucket;
+import com.example.gateway.ratelimit.LocalBucketStore;
+import com.example.gateway.ratelimit.RedisBucketStore;
+import com.example.gateway.service.JwtService;
+import com.example.gateway.service.TokenVerificado;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Filtro de rate limiting (token bucket) para Spring Cloud Gateway.
+ *
+ * RESPONSABILIDADES:
+ * 1. Limitar peticiones por usuario, IP o ruta con un token bucket
+ * 2. Responder 429 con Retry-After cuando se agota el bucket
+ *
+ * CONFIGURACIÓN:
+ * En application.yml:
+ *   filters:
+ *     - name: RateLimitFilter
+ *       args:
+ *         clave: usuario          # usuario | ip | ruta
+ *         capacidad: 5            # ráfaga máxima
+ *         reposicionPorSegundo: 1 # tokens repuestos por segundo
+ *         grupo: compras          # opcional: rutas con el mismo grupo comparten buckets
+ *
+ * IMPORTANTE: con clave=usuario debe ir DESPUÉS de JwtAuthenticationFilter
+ * (sin token verificado se limita por IP).
+ *
+ * El bucket local (franjas con lock propio) decide primero; si hay store
+ * compartido (gateway.rate-limit.store=redis) solo se consulta cuando el
+ * local permite, así una ráfaga se corta sin viajes a Redis.
+ */
+@Component
+public class RateLimitFilter extends AbstractGatewayFilterFactory<RateLimitFilter.Config> {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    @Autowired
+    private LocalBucketStore localStore;
+
+    @Autowired(required = false)
+    private RedisBucketStore sharedStore;
+
+    public RateLimitFilter() {
+        super(Config.class);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        LimiteBucket limite = new LimiteBucket(config.getCapacidad(), config.getReposicionPorSegundo());
+        BucketStore compartido = sharedStore;
+
+        return (exchange, chain) -> {
+            // PASO 1: Clave del bucket según la configuración de la ruta
+            String clave = resolverClave(exchange, config.getClave(), config.getGrupo());
+
+            // PASO 2: Camino rápido en memoria
+            ConsumoToken local = localStore.consumirAhora(clave, limite, config.getTokens());
+            if (!local.permitido()) {
+                return rechazar(exchange, clave, limite, local);
+            }
+
+            // PASO 3: Límite compartido entre réplicas (opcional)
+            if (compartido == null) {
+                return continuar(exchange, chain, limite, local);
+            }
+            return compartido.consumir(clave, limite, config.getTokens())
+                    .flatMap(global -> global.permitido()
+                            ? continuar(exchange, chain, limite, global)
+                            : rechazar(exchange, clave, limite, global));
+        };
+    }
+
+    private Mono<Void> continuar(ServerWebExchange exchange, GatewayFilterChain chain,
+                                 LimiteBucket limite, ConsumoToken consumo) {
+        HttpHeaders headers = exchange.getResponse().getHeaders();
+        headers.set("X-RateLimit-Limit", String.valueOf(limite.capacidad()));
+        if (consumo.restantes() >= 0) {
+            headers.set("X-RateLimit-Remaining", String.valueOf(consumo.restantes()));
+        }
+        return chain.filter(exchange);
+    }
+
+    private Mono<Void> rechazar(ServerWebExchange exchange, String clave, LimiteBucket limite, ConsumoToken consumo) {
+        log.debug("Rate limit excedido: {} | reintentar en {}ms", clave, consumo.esperaMillis());
+        HttpHeaders headers = exchange.getResponse().getHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(consumo.retryAfterSegundos()));
+        headers.set("X-RateLimit-Limit", String.valueOf(limite.capacidad()));
+        headers.set("X-RateLimit-Remaining", "0");
+        return onError(exchange, "Demasiadas peticiones. Reintente en " + consumo.retryAfterSegundos() + "s",
+                HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    private String resolverClave(ServerWebExchange exchange, String tipo, String grupo) {
+        String routeId = grupo;
+        if (routeId == null) {
+            Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+            routeId = route != null ? route.getId() : exchange.getRequest().getPath().value();
+        }
+
+        if ("ruta".equals(tipo)) {
+            return "ruta:" + routeId;
+        }
+        if ("usuario".equals(tipo)) {
+            TokenVerificado verificado = exchange.getAttribute(JwtService.ATRIBUTO_TOKEN);
+            if (verificado != null && verificado.userId() != null) {
+                return "usuario:" + routeId + ":" + verificado.userId();
+            }
+        }
+        InetSocketAddress remoto = exchange.getRequest().getRemoteAddress();
+        String ip = remoto != null && remoto.getAddress() != null
+                ? remoto.getAddress().getHostAddress() : "desconocida";
+        return "ip:" + routeId + ":" + ip;
+    }
+
+    private Mono<Void> onError(ServerWebExchange exchange, String message, HttpStatus status) {
+        exchange.getResponse().setStatusCode(status);
+        exchange.getResponse().getHeaders().add("Content-Type", "application/json");
+
+        String errorResponse = String.format("{\"error\":\"%s\",\"status\":%d}", message, status.value());
+        return exchange.getResponse().writeWith(
+            Mono.just(exchange.getResponse().bufferFactory().wrap(errorResponse.getBytes()))
+        );
+    }
+
+    public static class Config {
+        private String clave = "ip";
+        private long capacidad = 10;
+        private double reposicionPorSegundo = 5;
+        private int tokens = 1;
+        private String grupo;
+
+        public String getClave() {
+            return clave;
+        }
+
+        public void setClave(String clave) {
+            this.clave = clave;
+        }
+
+        public long getCapacidad() {
+            return capacidad;
+        }
+
+        public void setCapacidad(long capacidad) {
+            this.capacidad = capacidad;
+        }
+
+        public double getReposicionPorSegundo() {
+            return reposicionPorSegundo;
+        }
+
+        public void setReposicionPorSegundo(double reposicionPorSegundo) {
+            this.reposicionPorSegundo = reposicionPorSegundo;
+        }
+
+        public int getTokens() {
+            return tokens;
+        }
+
+        public void setTokens(int tokens) {
+            this.tokens = tokens;
+        }
+
+        public String getGrupo() {
+            return grupo;
+        }
+
+        public void setGrupo(String grupo) {
+            this.grupo = grupo;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.gateway.filter;
+
+import com.example.gateway.cache.CacheRespuestas;
+import com.example.gateway.cache.RespuestaCacheada;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Cache compartido de respuestas para GET anónimos del catálogo.
+ *
+ * RESPONSABILIDADES:
+ * 1. Servir desde memoria las respuestas 200 que el servicio marcó como
+ *    Cache-Control public con max-age, mientras sigan frescas (X-Cache: HIT)
+ * 2. Al vencer, revalidar con el ETag guardado: si el servicio responde 304
+ *    se renueva la entrada sin volver a transferir el cuerpo (X-Cache: REVALIDATED)
+ * 3. Responder 304 al cliente cuando su If-None-Match coincide con lo cacheado
+ *
+ * Las peticiones con Authorization nunca se cachean ni se sirven desde cache.
+ *
+ * CONFIGURACIÓN:
+ * En application.yml:
+ *   filters:
+ *     - name: ResponseCacheFilter
+ */
+@Component
+public class ResponseCacheFilter extends AbstractGatewayFilterFactory<ResponseCacheFilter.Config> {
+
+    private static final Pattern MAX_AGE = Pattern.compile("(?:s-maxage|max-age)=(\\d+)");
+
+    @Autowired
+    private CacheRespuestas cache;
+
+    @Value("${gateway.response-cache.enabled:true}")
+    private boolean habilitado;
+
+    @Value("${gateway.response-cache.max-bytes-entrada:1048576}")
+    private int maxBytesEntrada;
+
+    public ResponseCacheFilter() {
+        super(Config.class);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+
+            // PASO 1: Solo GET anónimos
+            if (!habilitado || request.getMethod() != HttpMethod.GET
+                    || request.getHeaders().containsKey(HttpHeaders.AUTHORIZATION)) {
+                return chain.filter(exchange);
+            }
+
+            String clave = request.getURI().getRawPath()
+                    + (request.getURI().getRawQuery() != null ? "?" + request.getURI().getRawQuery() : "");
+            String ifNoneMatchCliente = request.getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH);
+            long ahora = System.currentTimeMillis();
+            RespuestaCacheada cacheada = cache.obtener(clave);
+
+            // PASO 2: Entrada fresca → responder sin ir al servicio
+            if (cacheada != null && cacheada.fresca(ahora) && !sinCache(request)) {
+                exchange.getResponse().getHeaders().set(HttpHeaders.AGE, String.valueOf((ahora - cacheada.guardadaEn()) / 1000));
+                return escribir(exchange.getResponse(), cacheada, ifNoneMatchCliente, "HIT");
+            }
+
+            // PASO 3: Ir al servicio con nuestro validador (o sin condicionales, para obtener el cuerpo)
+            ServerHttpRequest haciaOrigen = request.mutate().headers(h -> {
+                h.remove(HttpHeaders.IF_MODIFIED_SINCE);
+                if (cacheada != null && cacheada.etag() != null) {
+                    h.set(HttpHeaders.IF_NONE_MATCH, cacheada.etag());
+                } else {
+                    h.remove(HttpHeaders.IF_NONE_MATCH);
+                }
+            }).build();
+            CapturaRespuesta captura = new CapturaRespuesta(exchange.getResponse(), clave, cacheada, ifNoneMatchCliente);
+            return chain.filter(exchange.mutate().request(haciaOrigen).response(captura).build());
+        };
+    }
+
+    private Mono<Void> escribir(ServerHttpResponse response, RespuestaCacheada cacheada, String ifNoneMatch, String resultado) {
+        HttpHeaders headers = response.getHeaders();
+        headers.set("X-Cache", resultado);
+        if (cacheada.etag() != null) {
+            headers.setETag(cacheada.etag());
+        }
+        if (cacheada.lastModified() != null) {
+            headers.set(HttpHeaders.LAST_MODIFIED, cacheada.lastModified());
+        }
+        if (cacheada.cacheControl() != null) {
+            headers.setCacheControl(cacheada.cacheControl());
+        }
+
+        if (coincide(ifNoneMatch, cacheada.etag())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            headers.remove(HttpHeaders.CONTENT_LENGTH);
+            return response.setComplete();
+        }
+
+        response.setStatusCode(HttpStatus.OK);
+        if (cacheada.contentType() != null) {
+            headers.set(HttpHeaders.CONTENT_TYPE, cacheada.contentType());
+        }
+        headers.setContentLength(cacheada.cuerpo().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cacheada.cuerpo())));
+    }
+
+    private static boolean sinCache(ServerHttpRequest request) {
+        String cc = request.getHeaders().getCacheControl();
+        return cc != null && (cc.contains("no-cache") || cc.contains("no-store"));
+    }
+
+    private static boolean coincide(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        for (String candidato : ifNoneMatch.split(",")) {
+            String tag = candidato.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** max-age en millis si la respuesta es compartible, o -1. */
+    private static long maxAgeCompartible(HttpHeaders headers) {
+        String cc = headers.getCacheControl();
+        if (cc == null || cc.contains("private") || cc.contains("no-store") || cc.contains("no-cache")
+                || headers.containsKey(HttpHeaders.SET_COOKIE)) {
+            return -1;
+        }
+        Matcher m = MAX_AGE.matcher(cc);
+        return m.find() ? Long.parseLong(m.group(1)) * 1000 : -1;
+    }
+
+    /**
+     * Intercepta la respuesta del servicio para guardarla o, si fue un 304 a
+     * nuestra revalidación, devolver al cliente el cuerpo que ya teníamos.
+     */
+    private class CapturaRespuesta extends ServerHttpResponseDecorator {
+
+        private final String clave;
+        private final RespuestaCacheada cacheada;
+        private final String ifNoneMatchCliente;
+
+        CapturaRespuesta(ServerHttpResponse delegate, String clave, RespuestaCacheada cacheada, String ifNoneMatchCliente) {
+            super(delegate);
+            this.clave = clave;
+            this.cacheada = cacheada;
+            this.ifNoneMatchCliente = ifNoneMatchCliente;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpHeaders headers = getHeaders();
+            long ahora = System.currentTimeMillis();
+
+            if (HttpStatus.NOT_MODIFIED.equals(getStatusCode()) && cacheada != null) {
+                long maxAge = maxAgeCompartible(headers);
+                RespuestaCacheada renovada = cacheada.revalidada(headers.getCacheControl(), ahora, Math.max(0, maxAge));
+                cache.guardar(clave, renovada);
+                return Flux.from(body).doOnNext(DataBufferUtils::release)
+                        .then(escribir(getDelegate(), renovada, ifNoneMatchCliente, "REVALIDATED"));
+            }
+
+            long maxAge = maxAgeCompartible(headers);
+            if (!HttpStatus.OK.equals(getStatusCode()) || maxAge <= 0) {
+                cache.eliminar(clave);
+                return super.writeWith(body);
+            }
+
+            return DataBufferUtils.join(Flux.from(body))
+                    .defaultIfEmpty(bufferFactory().wrap(new byte[0]))
+                    .flatMap(buffer -> {
+                        byte[] cuerpo = new byte[buffer.readableByteCount()];
+                        buffer.read(cuerpo);
+                        DataBufferUtils.release(buffer);
+
+                        RespuestaCacheada nueva = new RespuestaCacheada(cuerpo,
+                                headers.getFirst(HttpHeaders.CONTENT_TYPE), headers.getFirst(HttpHeaders.ETAG),
+                                headers.getFirst(HttpHeaders.LAST_MODIFIED), headers.getCacheControl(),
+                                ahora, ahora + maxAge);
+                        if (cuerpo.length <= maxBytesEntrada) {
+                            cache.guardar(clave, nueva);
+                        }
+                        return escribir(getDelegate(), nueva, ifNoneMatchCliente, "MISS");
+                    });
+        }
+
+        @Override
+        public Mono<Void> setComplete() {
+            // Un 304 sin cuerpo puede cerrarse sin pasar por writeWith
+            if (HttpStatus.NOT_MODIFIED.equals(getStatusCode()) && cacheada != null) {
+                return writeWith(Flux.empty());
+            }
+            return super.setComplete();
+        }
+    }
+
+    public static class Config {
+        // Configuration properties si se necesitan en el futuro
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.gateway.filter;
 
 import com.example.gateway.service.JwtService;
+import com.example.gateway.service.TokenVerificado;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
@@ -40,17 +41,24 @@ public class RoleAuthorizationFilter extends AbstractGatewayFilterFactory<RoleAu
     @Override
     public GatewayFilter apply(Config config) {
         return (exchange, chain) -> {
-            // PASO 1: Extraer token del header (ya validado por JwtAuthenticationFilter)
-            String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
-            
-            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-                return onError(exchange, "No autenticado", HttpStatus.UNAUTHORIZED);
-            }
+            // PASO 1: Tomar el token ya verificado por JwtAuthenticationFilter
+            TokenVerificado verificado = exchange.getAttribute(JwtService.ATRIBUTO_TOKEN);
 
-            String token = authHeader.substring(7);
+            if (verificado == null) {
+                // Ruta configurada sin JwtAuthenticationFilter delante: verificar aquí
+                String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+                if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+                    return onError(exchange, "No autenticado", HttpStatus.UNAUTHORIZED);
+                }
+                verificado = jwtService.verificar(authHeader.substring(7));
+                if (verificado == null) {
+                    return onError(exchange, "Token inválido o expirado", HttpStatus.UNAUTHORIZED);
+                }
+                exchange.getAttributes().put(JwtService.ATRIBUTO_TOKEN, verificado);
+            }
 
-            // PASO 2: Extraer rol del JWT
-            String userRole = jwtService.extractRole(token);
+            // PASO 2: Rol del usuario (sin volver a parsear el JWT)
+            String userRole = verificado.rol();
 
             // PASO 3: Validar que el rol del usuario esté en la lista de roles permitidos
             if (!config.getRoles().contains(userRole)) {
@@ -0,0 +1,307 @@
+package com.example.gateway.filter;
+
+import com.example.gateway.salaespera.SalaEsperaService;
+import com.example.gateway.service.JwtService;
+import com.example.gateway.service.TokenVerificado;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Filtro de admisión de la sala de espera para las rutas de compra y reserva.
+ *
+ * RESPONSABILIDADES:
+ * 1. Averiguar a qué eventos pertenecen los tipos de entrada del cuerpo: el
+ *    tipoEntradaId de la compra o el de cada ítem (items[].tipoEntradaId) del carrito
+ * 2. Si alguno de esos eventos tiene sala de espera activa, exigir un
+ *    X-Admission-Token firmado, vigente y emitido para este usuario y evento
+ *    (un carrito con varios eventos en sala envía un token por evento, separados por coma)
+ * 3. Si no, responder 403 indicando dónde hacer la fila
+ * 4. Marcar los tokens como usados: cada admisión sirve para una sola compra
+ *    (se devuelven si el servicio destino responde 5xx)
+ *
+ * Sin salas activas el filtro no lee el cuerpo y no agrega costo a la compra.
+ * Con alguna abierta falla cerrado: un cuerpo de más de
+ * sala-espera.max-bytes-cuerpo se rechaza con 413 sin terminar de leerlo, uno
+ * sin tipoEntradaId numérico con 400 y, si no se puede averiguar el evento de un tipo (event-service
+ * caído o lento), se responde 503 con Retry-After en lugar de dejar pasar una
+ * compra que podría saltarse la fila. El estado de cada sala es el de
+ * SalaEsperaService, en memoria; la relación tipoEntrada → evento no cambia,
+ * así que se cachea tras la primera consulta a event-service.
+ *
+ * IMPORTANTE: debe aplicarse DESPUÉS de JwtAuthenticationFilter
+ */
+@Component
+public class SalaEsperaFilter extends AbstractGatewayFilterFactory<SalaEsperaFilter.Config> {
+
+    private static final Logger log = LoggerFactory.getLogger(SalaEsperaFilter.class);
+
+    public static final String ADMISSION_HEADER = "X-Admission-Token";
+
+    @Autowired
+    private SalaEsperaService salaEsperaService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${sala-espera.event-service-url:http://localhost:8082}")
+    private String eventServiceUrl;
+
+    @Value("${sala-espera.retry-after-segundos:2}")
+    private int retryAfterSegundos;
+
+    @Value("${sala-espera.max-bytes-cuerpo:65536}")
+    private int maxBytesCuerpo;
+
+    @Value("${gateway.secret}")
+    private String gatewaySecret;
+
+    private final Map<Long, Long> eventoPorTipoEntrada = new ConcurrentHashMap<>();
+    private WebClient eventService;
+
+    public SalaEsperaFilter() {
+        super(Config.class);
+    }
+
+    @Autowired
+    void setWebClientBuilder(WebClient.Builder builder) {
+        this.eventService = builder.build();
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            // PASO 1: Sin salas abiertas no hay nada que verificar
+            if (!salaEsperaService.hayAlgunaActiva()) {
+                return chain.filter(exchange);
+            }
+
+            // PASO 2: Leer el cuerpo una vez (con tope) y reinyectarlo para el servicio destino
+            return DataBufferUtils.join(exchange.getRequest().getBody(), maxBytesCuerpo)
+                    .map(this::leerBytes)
+                    .defaultIfEmpty(new byte[0])
+                    .map(Optional::of)
+                    .onErrorResume(DataBufferLimitException.class, e -> Mono.just(Optional.empty()))
+                    .flatMap(cuerpo -> cuerpo.isPresent()
+                            ? verificar(exchange, chain, cuerpo.get())
+                            : onError(exchange, HttpStatus.PAYLOAD_TOO_LARGE,
+                                    "Cuerpo demasiado grande (máximo " + maxBytesCuerpo + " bytes)", null));
+        };
+    }
+
+    private Mono<Void> verificar(ServerWebExchange exchange, GatewayFilterChain chain, byte[] cuerpo) {
+        Set<Long> tiposEntrada = tiposEntrada(cuerpo);
+        if (tiposEntrada == null) {
+            return onError(exchange, HttpStatus.BAD_REQUEST,
+                    "Cuerpo inválido: se espera tipoEntradaId (o items[].tipoEntradaId) numérico", null);
+        }
+        ServerWebExchange conCuerpo = exchange.mutate().request(reinyectar(exchange.getRequest(), cuerpo)).build();
+
+        // PASO 3: Eventos con sala activa entre los de los tipos de entrada pedidos
+        return Flux.fromIterable(tiposEntrada)
+                .flatMap(this::eventoDe)
+                .filter(salaEsperaService::activa)
+                .collect(Collectors.toSet())
+                .map(Optional::of)
+                .onErrorResume(e -> {
+                    log.warn("No se pudo resolver el evento de los tipos de entrada {}: {}", tiposEntrada, e.getMessage());
+                    return Mono.just(Optional.empty());
+                })
+                .flatMap(enSala -> {
+                    if (enSala.isEmpty()) {
+                        exchange.getResponse().getHeaders()
+                                .set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSegundos));
+                        return onError(exchange, HttpStatus.SERVICE_UNAVAILABLE,
+                                "No se pudo verificar la sala de espera. Reintente en " + retryAfterSegundos + "s", null);
+                    }
+
+                    // PASO 4: Un token de admisión válido por cada evento en sala
+                    TokenVerificado usuario = exchange.getAttribute(JwtService.ATRIBUTO_TOKEN);
+                    List<String> tokens = tokensAdmision(exchange);
+                    Map<Long, String> tokenPorEvento = new HashMap<>();
+                    for (Long eventoId : enSala.get()) {
+                        Optional<String> token = usuario == null ? Optional.empty() : tokens.stream()
+                                .filter(t -> salaEsperaService.admisionValida(t, eventoId, usuario.userId()))
+                                .findFirst();
+                        if (token.isEmpty()) {
+                            return onError(exchange, HttpStatus.FORBIDDEN,
+                                    "Evento con sala de espera. Haga la fila en /api/sala-espera/" + eventoId + "/ingresar",
+                                    eventoId);
+                        }
+                        tokenPorEvento.put(eventoId, token.get());
+                    }
+                    if (tokenPorEvento.isEmpty()) {
+                        return chain.filter(conCuerpo);
+                    }
+
+                    // PASO 5: Usar las admisiones; una compra que falla en el servidor las devuelve
+                    if (!salaEsperaService.usarAdmisiones(tokenPorEvento, usuario.userId())) {
+                        Long eventoId = tokenPorEvento.keySet().iterator().next();
+                        return onError(exchange, HttpStatus.FORBIDDEN,
+                                "Token de admisión ya utilizado. Haga la fila de nuevo en /api/sala-espera/"
+                                        + eventoId + "/ingresar", eventoId);
+                    }
+                    return chain.filter(conCuerpo)
+                            .doOnError(e -> salaEsperaService.devolverAdmisiones(tokenPorEvento, usuario.userId()))
+                            .doOnSuccess(v -> {
+                                HttpStatusCode estado = exchange.getResponse().getStatusCode();
+                                if (estado != null && estado.is5xxServerError()) {
+                                    salaEsperaService.devolverAdmisiones(tokenPorEvento, usuario.userId());
+                                }
+                            });
+                });
+    }
+
+    /**
+     * Evento del tipo de entrada. Vacío si el tipo no existe (la compra fallará
+     * igual en el servicio destino); error si event-service no responde.
+     */
+    private Mono<Long> eventoDe(Long tipoEntradaId) {
+        Long conocido = eventoPorTipoEntrada.get(tipoEntradaId);
+        if (conocido != null) {
+            return Mono.just(conocido);
+        }
+        return eventService.get()
+                .uri(eventServiceUrl + "/api/tipos-entrada/{id}", tipoEntradaId)
+                .header("X-Gateway-Secret", gatewaySecret)
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .timeout(Duration.ofSeconds(2))
+                .mapNotNull(tipo -> tipo.hasNonNull("eventoId") ? tipo.get("eventoId").asLong() : null)
+                .doOnNext(eventoId -> eventoPorTipoEntrada.put(tipoEntradaId, eventoId))
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.empty());
+    }
+
+    /**
+     * tipoEntradaId de la compra o de cada ítem del carrito; acepta números y
+     * textos numéricos ("5"). Null si el cuerpo no es JSON o falta algún id válido.
+     */
+    private Set<Long> tiposEntrada(byte[] cuerpo) {
+        if (cuerpo.length == 0) {
+            return null;
+        }
+        try {
+            JsonNode json = objectMapper.readTree(cuerpo);
+            Set<Long> ids = new HashSet<>();
+            JsonNode items = json.get("items");
+            if (items != null) {
+                if (!items.isArray() || items.isEmpty()) {
+                    return null;
+                }
+                for (JsonNode item : items) {
+                    Long id = id(item.get("tipoEntradaId"));
+                    if (id == null) {
+                        return null;
+                    }
+                    ids.add(id);
+                }
+                return ids;
+            }
+            Long id = id(json.get("tipoEntradaId"));
+            if (id == null) {
+                return null;
+            }
+            ids.add(id);
+            return ids;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static Long id(JsonNode valor) {
+        if (valor == null) {
+            return null;
+        }
+        if (valor.isIntegralNumber() && valor.canConvertToLong()) {
+            return valor.asLong();
+        }
+        if (valor.isTextual()) {
+            try {
+                return Long.valueOf(valor.asText().trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static List<String> tokensAdmision(ServerWebExchange exchange) {
+        List<String> tokens = new ArrayList<>();
+        List<String> valores = exchange.getRequest().getHeaders().get(ADMISSION_HEADER);
+        if (valores != null) {
+            for (String valor : valores) {
+                for (String token : valor.split(",")) {
+                    if (!token.isBlank()) {
+                        tokens.add(token.trim());
+                    }
+                }
+            }
+        }
+        return tokens;
+    }
+
+    private byte[] leerBytes(DataBuffer buffer) {
+        byte[] bytes = new byte[buffer.readableByteCount()];
+        buffer.read(bytes);
+        DataBufferUtils.release(buffer);
+        return bytes;
+    }
+
+    private ServerHttpRequest reinyectar(ServerHttpRequest request, byte[] cuerpo) {
+        return new ServerHttpRequestDecorator(request) {
+            @Override
+            public Flux<DataBuffer> getBody() {
+                return Flux.defer(() -> Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(cuerpo)));
+            }
+        };
+    }
+
+    private Mono<Void> onError(ServerWebExchange exchange, HttpStatus status, String message, Long eventoId) {
+        exchange.getResponse().setStatusCode(status);
+        exchange.getResponse().getHeaders().add("Content-Type", "application/json");
+
+        String errorResponse = eventoId != null
+                ? String.format("{\"error\":\"%s\",\"status\":%d,\"eventoId\":%d}", message, status.value(), eventoId)
+                : String.format("{\"error\":\"%s\",\"status\":%d}", message, status.value());
+        return exchange.getResponse().writeWith(
+            Mono.just(exchange.getResponse().bufferFactory().wrap(errorResponse.getBytes()))
+        );
+    }
+
+    public static class Config {
+        // Configuration properties si se necesitan en el futuro
+    }
+}
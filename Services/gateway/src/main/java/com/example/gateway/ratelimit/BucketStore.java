@@ -0,0 +1,12 @@
+package com.example.gateway.ratelimit;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Almacén de token buckets. La implementación local vive en memoria de cada
+ * instancia del gateway; la compartida (Redis) reparte el límite entre réplicas.
+ */
+public interface BucketStore {
+
+    Mono<ConsumoToken> consumir(String clave, LimiteBucket limite, int tokens);
+}
@@ -0,0 +1,18 @@
+package com.example.gateway.ratelimit;
+
+/**
+ * Resultado de intentar consumir tokens de un bucket.
+ *
+ * @param permitido   si la petición pasa
+ * @param restantes   tokens que quedan en el bucket tras el consumo
+ * @param esperaMillis cuánto falta para tener los tokens pedidos (0 si se permitió)
+ */
+public record ConsumoToken(boolean permitido, long restantes, long esperaMillis) {
+
+    static final ConsumoToken SIN_LIMITE = new ConsumoToken(true, -1, 0);
+
+    /** Segundos para el header Retry-After (mínimo 1). */
+    public long retryAfterSegundos() {
+        return Math.max(1, (esperaMillis + 999) / 1000);
+    }
+}
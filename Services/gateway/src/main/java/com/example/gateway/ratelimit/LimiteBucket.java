@@ -0,0 +1,13 @@
+package com.example.gateway.ratelimit;
+
+/**
+ * Parámetros de un token bucket: capacidad (ráfaga máxima) y tokens repuestos por segundo.
+ */
+public record LimiteBucket(long capacidad, double reposicionPorSegundo) {
+
+    public LimiteBucket {
+        if (capacidad <= 0 || reposicionPorSegundo <= 0) {
+            throw new IllegalArgumentException("capacidad y reposicionPorSegundo deben ser > 0");
+        }
+    }
+}
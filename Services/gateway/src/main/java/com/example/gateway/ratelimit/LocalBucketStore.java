@@ -0,0 +1,125 @@
+package com.example.gateway.ratelimit;
+
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets en memoria, repartidos en franjas (stripes) con su propio lock.
+ *
+ * Cada clave cae siempre en la misma franja por hash, así que peticiones de
+ * claves distintas casi nunca compiten por el mismo lock y la operación es
+ * O(1) sin asignar nada en el camino caliente (salvo el bucket nuevo).
+ *
+ * Los buckets se reponen de forma perezosa al consumir. Cuando una franja
+ * supera su cupo se descartan los buckets que ya estarían llenos: olvidarlos
+ * no cambia el resultado porque un bucket nuevo también empieza lleno. Cada
+ * bucket guarda su propio límite, así que en una franja con claves de rutas
+ * distintas cada uno se repone y se descarta según su capacidad y su ritmo.
+ */
+public class LocalBucketStore implements BucketStore {
+
+    private final Franja[] franjas;
+    private final int mascara;
+    private final int maxPorFranja;
+    private final LongSupplier reloj;
+
+    public LocalBucketStore(int franjas, int maxBuckets) {
+        this(franjas, maxBuckets, System::nanoTime);
+    }
+
+    /** {@code reloj} en nanosegundos, como {@link System#nanoTime()}; los tests lo avanzan a mano. */
+    LocalBucketStore(int franjas, int maxBuckets, LongSupplier reloj) {
+        int n = Integer.highestOneBit(Math.max(1, franjas - 1)) << 1;
+        this.franjas = new Franja[n];
+        for (int i = 0; i < n; i++) {
+            this.franjas[i] = new Franja();
+        }
+        this.mascara = n - 1;
+        this.maxPorFranja = Math.max(1, maxBuckets / n);
+        this.reloj = reloj;
+    }
+
+    @Override
+    public Mono<ConsumoToken> consumir(String clave, LimiteBucket limite, int tokens) {
+        return Mono.just(consumirAhora(clave, limite, tokens));
+    }
+
+    public ConsumoToken consumirAhora(String clave, LimiteBucket limite, int tokens) {
+        int h = clave.hashCode();
+        Franja franja = franjas[(h ^ (h >>> 16)) & mascara];
+        long ahora = reloj.getAsLong();
+
+        franja.lock.lock();
+        try {
+            Bucket bucket = franja.buckets.get(clave);
+            if (bucket == null) {
+                if (franja.buckets.size() >= maxPorFranja) {
+                    franja.descartarLlenos(ahora);
+                }
+                bucket = new Bucket(limite, ahora);
+                franja.buckets.put(clave, bucket);
+            }
+            return bucket.consumir(limite, tokens, ahora);
+        } finally {
+            franja.lock.unlock();
+        }
+    }
+
+    private static final class Franja {
+        final ReentrantLock lock = new ReentrantLock();
+        final Map<String, Bucket> buckets = new HashMap<>();
+
+        void descartarLlenos(long ahora) {
+            Iterator<Bucket> it = buckets.values().iterator();
+            while (it.hasNext()) {
+                Bucket bucket = it.next();
+                bucket.reponer(ahora);
+                if (bucket.tokens >= bucket.limite.capacidad()) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    private static final class Bucket {
+        LimiteBucket limite;
+        double tokens;
+        long ultimaReposicion;
+
+        Bucket(LimiteBucket limite, long ahora) {
+            this.limite = limite;
+            this.tokens = limite.capacidad();
+            this.ultimaReposicion = ahora;
+        }
+
+        void reponer(long ahora) {
+            long transcurrido = ahora - ultimaReposicion;
+            if (transcurrido > 0) {
+                tokens = Math.min(limite.capacidad(),
+                        tokens + transcurrido * limite.reposicionPorSegundo() / 1_000_000_000d);
+                ultimaReposicion = ahora;
+            }
+        }
+
+        ConsumoToken consumir(LimiteBucket nuevo, int pedidos, long ahora) {
+            reponer(ahora);
+            if (!nuevo.equals(limite)) {
+                // El límite de la clave cambió (configuración recargada): lo
+                // repuesto hasta ahora sigue el anterior, lo que viene el nuevo
+                limite = nuevo;
+                tokens = Math.min(tokens, limite.capacidad());
+            }
+            if (tokens >= pedidos) {
+                tokens -= pedidos;
+                return new ConsumoToken(true, (long) tokens, 0);
+            }
+            long espera = (long) Math.ceil((pedidos - tokens) * 1000d / limite.reposicionPorSegundo());
+            return new ConsumoToken(false, 0, espera);
+        }
+    }
+}
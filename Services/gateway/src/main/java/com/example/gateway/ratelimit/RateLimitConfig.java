@@ -0,0 +1,35 @@
+package com.example.gateway.ratelimit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+
+import java.time.Duration;
+
+/**
+ * Almacenes de token buckets para RateLimitFilter.
+ *
+ * gateway.rate-limit.store=local (defecto): solo buckets en memoria por instancia.
+ * gateway.rate-limit.store=redis: además, un bucket compartido en Redis entre réplicas;
+ * el local sigue delante como camino rápido para rechazar ráfagas sin ir a la red.
+ */
+@Configuration
+public class RateLimitConfig {
+
+    @Bean
+    public LocalBucketStore localBucketStore(
+            @Value("${gateway.rate-limit.stripes:64}") int stripes,
+            @Value("${gateway.rate-limit.max-buckets:100000}") int maxBuckets) {
+        return new LocalBucketStore(stripes, maxBuckets);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "gateway.rate-limit.store", havingValue = "redis")
+    public RedisBucketStore redisBucketStore(
+            ReactiveStringRedisTemplate redisTemplate,
+            @Value("${gateway.rate-limit.redis-timeout:50ms}") Duration timeout) {
+        return new RedisBucketStore(redisTemplate, timeout);
+    }
+}
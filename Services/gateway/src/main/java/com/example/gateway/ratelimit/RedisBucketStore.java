@@ -0,0 +1,83 @@
+package com.example.gateway.ratelimit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Token buckets compartidos entre réplicas del gateway en Redis.
+ *
+ * Un script Lua repone y consume en una sola operación atómica del lado del
+ * servidor, con el reloj de Redis (TIME) para que todas las réplicas usen la
+ * misma hora. Cada bucket es un hash {tokens, ts} que expira cuando estaría
+ * lleno de nuevo.
+ *
+ * Si Redis no responde a tiempo se deja pasar la petición: el bucket local ya
+ * filtró la ráfaga en esta instancia y un fallo del limitador no debe tumbar
+ * las compras.
+ */
+public class RedisBucketStore implements BucketStore {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisBucketStore.class);
+
+    private static final String PREFIJO = "gateway:rl:";
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> SCRIPT = RedisScript.of("""
+            local capacidad = tonumber(ARGV[1])
+            local porSegundo = tonumber(ARGV[2])
+            local pedidos = tonumber(ARGV[3])
+            local t = redis.call('TIME')
+            local ahora = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000)
+            local estado = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+            local tokens = tonumber(estado[1]) or capacidad
+            local ts = tonumber(estado[2]) or ahora
+            if ahora > ts then
+              tokens = math.min(capacidad, tokens + (ahora - ts) * porSegundo / 1000)
+            end
+            local permitido = 0
+            local espera = 0
+            if tokens >= pedidos then
+              tokens = tokens - pedidos
+              permitido = 1
+            else
+              espera = math.ceil((pedidos - tokens) * 1000 / porSegundo)
+            end
+            redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', ahora)
+            redis.call('PEXPIRE', KEYS[1], math.ceil(capacidad * 1000 / porSegundo) + 1000)
+            return {permitido, math.floor(tokens), espera}
+            """, List.class);
+
+    private final ReactiveStringRedisTemplate redis;
+    private final Duration timeout;
+
+    public RedisBucketStore(ReactiveStringRedisTemplate redis, Duration timeout) {
+        this.redis = redis;
+        this.timeout = timeout;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Mono<ConsumoToken> consumir(String clave, LimiteBucket limite, int tokens) {
+        return redis.execute(SCRIPT, List.of(PREFIJO + clave),
+                        List.of(String.valueOf(limite.capacidad()),
+                                String.valueOf(limite.reposicionPorSegundo()),
+                                String.valueOf(tokens)))
+                .next()
+                .map(r -> {
+                    List<Long> valores = (List<Long>) r;
+                    return new ConsumoToken(valores.get(0) == 1L, valores.get(1), valores.get(2));
+                })
+                .timeout(timeout)
+                .onErrorResume(e -> {
+                    log.warn("Rate limit compartido no disponible ({}), se permite la petición", e.toString());
+                    return Mono.just(ConsumoToken.SIN_LIMITE);
+                })
+                .defaultIfEmpty(ConsumoToken.SIN_LIMITE);
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.gateway.salaespera;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cola FIFO de un evento basada en turnos numerados.
+ *
+ * Cada usuario recibe un turno creciente al entrar; admitir N personas es solo
+ * mover la frontera {@code admitidosHasta} N turnos hacia adelante, así que no
+ * hay que recorrer ni sacar elementos de ninguna lista. La posición de un
+ * usuario es su turno menos la frontera.
+ *
+ * Al consultar con el turno ya admitido el usuario sale de la fila y recibe una
+ * única admisión (un token) que vale hasta que la usa o expira; después, volver
+ * a consultar lo pone al final. Los turnos admitidos que nadie pasa a buscar se
+ * descartan en {@link #limpiar} un TTL de token después, así que el mapa de
+ * turnos solo guarda a quienes esperan o acaban de pasar.
+ *
+ * Los turnos que se abandonan (el usuario cierra la pestaña) igual consumen su
+ * cupo de admisión: la estimación de espera queda del lado conservador.
+ */
+class ColaEspera {
+
+    /** Admisión entregada a un usuario: el token que puede usar una vez y su vencimiento. */
+    record Admision(String token, long expira) {
+    }
+
+    private final Map<String, Long> turnoPorUsuario = new ConcurrentHashMap<>();
+    private final Map<String, Admision> admisiones = new ConcurrentHashMap<>();
+    private final AtomicLong ultimoTurno = new AtomicLong();
+    private volatile long admitidosHasta;
+    private double cupoAcumulado;
+    // {instante, admitidosHasta} de cada limpieza aún dentro del TTL; solo lo toca limpiar()
+    private final Deque<long[]> fronteras = new ArrayDeque<>();
+
+    /** Turno del usuario; volver a entrar devuelve el mismo turno. */
+    long ingresar(String usuarioId) {
+        return turnoPorUsuario.computeIfAbsent(usuarioId, u -> ultimoTurno.incrementAndGet());
+    }
+
+    long posicion(long turno) {
+        return Math.max(0, turno - admitidosHasta);
+    }
+
+    boolean admitido(long turno) {
+        return turno <= admitidosHasta;
+    }
+
+    /** Admisión sin usar y no vencida del usuario, o {@code null}. */
+    Admision admision(String usuarioId, long ahora) {
+        Admision admision = admisiones.get(usuarioId);
+        return admision != null && admision.expira() > ahora ? admision : null;
+    }
+
+    /**
+     * Saca de la fila a un usuario ya admitido y le asigna su admisión. Si otra
+     * consulta concurrente ya la creó, devuelve esa: un token por admisión.
+     */
+    Admision entregar(String usuarioId, long ahora, Supplier<Admision> emitir) {
+        Admision admision = admisiones.compute(usuarioId,
+                (u, actual) -> actual != null && actual.expira() > ahora ? actual : emitir.get());
+        turnoPorUsuario.remove(usuarioId);
+        return admision;
+    }
+
+    /** La compra usó el token: la próxima consulta del usuario lo vuelve a encolar. */
+    void usada(String usuarioId, String token) {
+        admisiones.computeIfPresent(usuarioId, (u, actual) -> actual.token().equals(token) ? null : actual);
+    }
+
+    /**
+     * Devuelve una admisión usada en una compra que falló del lado del servidor;
+     * si mientras tanto el usuario volvió a la fila, deja ese turno.
+     */
+    void restaurar(String usuarioId, Admision admision) {
+        admisiones.putIfAbsent(usuarioId, admision);
+        turnoPorUsuario.remove(usuarioId);
+    }
+
+    /**
+     * Avanza la frontera según el ritmo permitido. Solo la llama el hilo del
+     * planificador; no acumula cupo mientras la cola está vacía.
+     */
+    void admitir(double cupo) {
+        long pendientes = ultimoTurno.get() - admitidosHasta;
+        if (pendientes <= 0) {
+            cupoAcumulado = 0;
+            return;
+        }
+        cupoAcumulado += cupo;
+        long enteros = (long) cupoAcumulado;
+        if (enteros > 0) {
+            long avance = Math.min(enteros, pendientes);
+            admitidosHasta += avance;
+            cupoAcumulado -= enteros;
+        }
+    }
+
+    /**
+     * Descarta admisiones vencidas y los turnos admitidos hace más de
+     * {@code ttlMillis} que nunca se pasaron a buscar. Solo la llama la tarea de limpieza.
+     */
+    void limpiar(long ahora, long ttlMillis) {
+        admisiones.values().removeIf(admision -> admision.expira() <= ahora);
+
+        fronteras.addLast(new long[]{ahora, admitidosHasta});
+        long vencidosHasta = 0;
+        while (fronteras.peekFirst()[0] <= ahora - ttlMillis) {
+            vencidosHasta = fronteras.pollFirst()[1];
+        }
+        if (vencidosHasta > 0) {
+            long frontera = vencidosHasta;
+            turnoPorUsuario.values().removeIf(turno -> turno <= frontera);
+        }
+    }
+
+    long enCola() {
+        return Math.max(0, ultimoTurno.get() - admitidosHasta);
+    }
+}
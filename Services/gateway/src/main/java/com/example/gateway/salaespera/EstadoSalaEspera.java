@@ -0,0 +1,25 @@
+package com.example.gateway.salaespera;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Respuesta de la sala de espera para un usuario.
+ *
+ * @param estado                 SIN_COLA (el evento no tiene sala activa), EN_COLA o ADMITIDO
+ * @param posicion               personas delante (0 si ya fue admitido)
+ * @param esperaEstimadaSegundos estimación según el ritmo de admisión actual
+ * @param tokenAdmision          solo cuando estado=ADMITIDO; enviarlo en X-Admission-Token al comprar;
+ *                               sirve para una sola compra
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record EstadoSalaEspera(Long eventoId, String estado, long posicion, long esperaEstimadaSegundos,
+                               String tokenAdmision) {
+
+    public static final String SIN_COLA = "SIN_COLA";
+    public static final String EN_COLA = "EN_COLA";
+    public static final String ADMITIDO = "ADMITIDO";
+
+    public boolean terminal() {
+        return !EN_COLA.equals(estado);
+    }
+}
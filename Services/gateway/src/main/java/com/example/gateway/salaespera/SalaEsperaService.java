@@ -0,0 +1,221 @@
+package com.example.gateway.salaespera;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sala de espera virtual para eventos de alta demanda.
+ *
+ * RESPONSABILIDADES:
+ * 1. Encolar en orden FIFO a los compradores de cada evento con sala activa
+ * 2. Admitirlos al ritmo que soporta el backend de compras
+ *    (sala-espera.compras-por-segundo, repartido entre las salas abiertas)
+ * 3. Emitir tokens de admisión firmados que SalaEsperaFilter exige en la compra,
+ *    uno por admisión y de un solo uso: los ya usados se recuerdan hasta que expiran
+ *
+ * Las salas se abren por configuración (sala-espera.eventos) o en caliente
+ * desde SalaEsperaController. El estado vive en memoria de esta instancia del
+ * gateway; con varias réplicas cada una admite su parte del ritmo total.
+ */
+@Service
+public class SalaEsperaService {
+
+    private static final Logger log = LoggerFactory.getLogger(SalaEsperaService.class);
+
+    @Value("${sala-espera.eventos:}")
+    private String eventosConfigurados;
+
+    @Value("${sala-espera.compras-por-segundo:50}")
+    private double comprasPorSegundo;
+
+    @Value("${sala-espera.intervalo-admision:200ms}")
+    private Duration intervaloAdmision;
+
+    @Value("${sala-espera.token-ttl:10m}")
+    private Duration tokenTtl;
+
+    @Value("${sala-espera.intervalo-limpieza:30s}")
+    private Duration intervaloLimpieza;
+
+    @Value("${sala-espera.secret:${gateway.secret}}")
+    private String secreto;
+
+    private final Map<Long, ColaEspera> salas = new ConcurrentHashMap<>();
+    // token usado → su expiración; pasada esa hora el token ya no valida y se olvida
+    private final Map<String, Long> usados = new ConcurrentHashMap<>();
+    private TokenAdmision tokens;
+    private Disposable planificador;
+    private Disposable limpieza;
+
+    @PostConstruct
+    void init() {
+        this.tokens = new TokenAdmision(secreto);
+        Arrays.stream(eventosConfigurados.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .map(Long::valueOf)
+                .forEach(this::abrir);
+
+        double segundosPorTick = intervaloAdmision.toNanos() / 1_000_000_000d;
+        this.planificador = Flux.interval(intervaloAdmision)
+                .onBackpressureDrop()
+                .subscribe(tick -> admitir(segundosPorTick));
+        this.limpieza = Flux.interval(intervaloLimpieza)
+                .onBackpressureDrop()
+                .subscribe(tick -> limpiar());
+    }
+
+    @PreDestroy
+    void detener() {
+        if (planificador != null) {
+            planificador.dispose();
+        }
+        if (limpieza != null) {
+            limpieza.dispose();
+        }
+    }
+
+    public boolean activa(Long eventoId) {
+        return salas.containsKey(eventoId);
+    }
+
+    public boolean hayAlgunaActiva() {
+        return !salas.isEmpty();
+    }
+
+    public void abrir(Long eventoId) {
+        if (salas.putIfAbsent(eventoId, new ColaEspera()) == null) {
+            log.info("Sala de espera abierta para evento {}", eventoId);
+        }
+    }
+
+    public void cerrar(Long eventoId) {
+        if (salas.remove(eventoId) != null) {
+            log.info("Sala de espera cerrada para evento {}", eventoId);
+        }
+    }
+
+    /** Pone al usuario en la cola (idempotente) y devuelve su estado. */
+    public EstadoSalaEspera ingresar(Long eventoId, String usuarioId) {
+        ColaEspera cola = salas.get(eventoId);
+        if (cola == null) {
+            return sinCola(eventoId);
+        }
+        return estado(eventoId, cola, usuarioId);
+    }
+
+    /**
+     * Estado actual; un usuario que no está en la fila (nunca entró, o ya usó
+     * o dejó vencer su admisión) se encola al final.
+     */
+    public EstadoSalaEspera consultar(Long eventoId, String usuarioId) {
+        ColaEspera cola = salas.get(eventoId);
+        if (cola == null) {
+            return sinCola(eventoId);
+        }
+        return estado(eventoId, cola, usuarioId);
+    }
+
+    /** Firma, vigencia, evento y usuario; no dice si el token ya se usó. */
+    public boolean admisionValida(String token, Long eventoId, String usuarioId) {
+        return tokens.valido(token, eventoId, usuarioId, System.currentTimeMillis());
+    }
+
+    /**
+     * Marca como usados los tokens de una compra (uno por evento en sala). Todo
+     * o nada: si alguno es inválido o ya se usó, no se marca ninguno.
+     *
+     * @return false si algún token no es válido o ya se usó
+     */
+    public boolean usarAdmisiones(Map<Long, String> tokenPorEvento, String usuarioId) {
+        long ahora = System.currentTimeMillis();
+        List<String> marcados = new ArrayList<>();
+        for (Map.Entry<Long, String> admision : tokenPorEvento.entrySet()) {
+            long expira = tokens.expiracion(admision.getValue(), admision.getKey(), usuarioId, ahora);
+            if (expira == 0 || usados.putIfAbsent(admision.getValue(), expira) != null) {
+                marcados.forEach(usados::remove);
+                return false;
+            }
+            marcados.add(admision.getValue());
+        }
+        tokenPorEvento.forEach((eventoId, token) -> {
+            ColaEspera cola = salas.get(eventoId);
+            if (cola != null) {
+                cola.usada(usuarioId, token);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Devuelve los tokens de una compra que falló por un error del servidor: el
+     * comprador no pierde su lugar por algo que no hizo.
+     */
+    public void devolverAdmisiones(Map<Long, String> tokenPorEvento, String usuarioId) {
+        tokenPorEvento.forEach((eventoId, token) -> {
+            Long expira = usados.remove(token);
+            ColaEspera cola = salas.get(eventoId);
+            if (expira != null && cola != null) {
+                cola.restaurar(usuarioId, new ColaEspera.Admision(token, expira));
+            }
+        });
+    }
+
+    public Map<Long, Long> enColaPorEvento() {
+        Map<Long, Long> resumen = new ConcurrentHashMap<>();
+        salas.forEach((eventoId, cola) -> resumen.put(eventoId, cola.enCola()));
+        return resumen;
+    }
+
+    private EstadoSalaEspera estado(Long eventoId, ColaEspera cola, String usuarioId) {
+        long ahora = System.currentTimeMillis();
+        ColaEspera.Admision admision = cola.admision(usuarioId, ahora);
+        if (admision == null) {
+            long turno = cola.ingresar(usuarioId);
+            if (!cola.admitido(turno)) {
+                long posicion = cola.posicion(turno);
+                long espera = (long) Math.ceil(posicion / ritmoPorSala());
+                return new EstadoSalaEspera(eventoId, EstadoSalaEspera.EN_COLA, posicion, espera, null);
+            }
+            long expira = ahora + tokenTtl.toMillis();
+            admision = cola.entregar(usuarioId, ahora,
+                    () -> new ColaEspera.Admision(tokens.emitir(eventoId, usuarioId, expira), expira));
+        }
+        return new EstadoSalaEspera(eventoId, EstadoSalaEspera.ADMITIDO, 0, 0, admision.token());
+    }
+
+    private EstadoSalaEspera sinCola(Long eventoId) {
+        return new EstadoSalaEspera(eventoId, EstadoSalaEspera.SIN_COLA, 0, 0, null);
+    }
+
+    private double ritmoPorSala() {
+        return comprasPorSegundo / Math.max(1, salas.size());
+    }
+
+    private void admitir(double segundosPorTick) {
+        if (salas.isEmpty()) {
+            return;
+        }
+        double cupo = ritmoPorSala() * segundosPorTick;
+        salas.values().forEach(cola -> cola.admitir(cupo));
+    }
+
+    private void limpiar() {
+        long ahora = System.currentTimeMillis();
+        usados.values().removeIf(expira -> expira <= ahora);
+        salas.values().forEach(cola -> cola.limpiar(ahora, tokenTtl.toMillis()));
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.gateway.salaespera;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * Token de admisión firmado con HMAC-SHA256: {@code base64url(eventoId:usuarioId:expira).base64url(firma)}.
+ *
+ * Es opaco para el cliente y lo valida el propio gateway en la ruta de compra,
+ * sin estado compartido: cualquier réplica con el mismo secreto lo acepta. Que
+ * sirva para una sola compra lo controla SalaEsperaService, que recuerda los
+ * tokens ya usados hasta que expiran (por instancia: con varias réplicas sin
+ * afinidad, un token podría usarse una vez en cada una).
+ */
+class TokenAdmision {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec clave;
+
+    TokenAdmision(String secreto) {
+        this.clave = new SecretKeySpec(secreto.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+    }
+
+    String emitir(Long eventoId, String usuarioId, long expiraEnMillis) {
+        byte[] datos = (eventoId + ":" + usuarioId + ":" + expiraEnMillis).getBytes(StandardCharsets.UTF_8);
+        return ENCODER.encodeToString(datos) + "." + ENCODER.encodeToString(firmar(datos));
+    }
+
+    /**
+     * @return true si la firma es válida, no expiró y corresponde al evento y usuario
+     */
+    boolean valido(String token, Long eventoId, String usuarioId, long ahoraMillis) {
+        return expiracion(token, eventoId, usuarioId, ahoraMillis) > 0;
+    }
+
+    /**
+     * @return instante de expiración (epoch millis) si el token es válido para el
+     *         evento y usuario, 0 si no
+     */
+    long expiracion(String token, Long eventoId, String usuarioId, long ahoraMillis) {
+        if (token == null) {
+            return 0;
+        }
+        int punto = token.indexOf('.');
+        if (punto <= 0) {
+            return 0;
+        }
+        try {
+            byte[] datos = DECODER.decode(token.substring(0, punto));
+            byte[] firma = DECODER.decode(token.substring(punto + 1));
+            if (!MessageDigest.isEqual(firma, firmar(datos))) {
+                return 0;
+            }
+            String[] partes = new String(datos, StandardCharsets.UTF_8).split(":", 3);
+            if (partes.length != 3
+                    || !partes[0].equals(String.valueOf(eventoId))
+                    || !partes[1].equals(usuarioId)) {
+                return 0;
+            }
+            long expira = Long.parseLong(partes[2]);
+            return expira > ahoraMillis ? expira : 0;
+        } catch (IllegalArgumentException e) {
+            return 0;
+        }
+    }
+
+    private byte[] firmar(byte[] datos) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(clave);
+            return mac.doFinal(datos);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 no disponible", e);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.gateway.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache acotado de tokens ya verificados, indexado por hash SHA-256 del token.
+ *
+ * - No guarda el token en claro: la clave son los primeros 128 bits del hash.
+ * - Cada entrada vence con el "exp" del propio JWT; una entrada vencida nunca se devuelve.
+ * - Acotado como LRU (LinkedHashMap en orden de acceso, igual que CacheTtl): al
+ *   llegar al máximo, guardar un token nuevo desaloja el menos usado en O(1).
+ * - El LRU se reparte en franjas con su propio lock, como LocalBucketStore, para
+ *   que las lecturas de cada petición no compitan todas por el mismo.
+ * - Las vencidas que nadie vuelve a pedir las quita {@link #purgarExpirados},
+ *   que JwtService corre con un temporizador, fuera del camino de la petición.
+ */
+class CacheTokensVerificados {
+
+    private static final int FRANJAS = 16;
+
+    private final Franja[] franjas = new Franja[FRANJAS];
+
+    CacheTokensVerificados(int maxEntradas) {
+        int maxPorFranja = Math.max(1, maxEntradas / FRANJAS);
+        for (int i = 0; i < FRANJAS; i++) {
+            franjas[i] = new Franja(maxPorFranja);
+        }
+    }
+
+    TokenVerificado obtener(String token, long ahoraMillis) {
+        Clave clave = clave(token);
+        Franja franja = franja(clave);
+        synchronized (franja) {
+            TokenVerificado verificado = franja.get(clave);
+            if (verificado == null) {
+                return null;
+            }
+            if (verificado.expirado(ahoraMillis)) {
+                franja.remove(clave);
+                return null;
+            }
+            return verificado;
+        }
+    }
+
+    void guardar(String token, TokenVerificado verificado) {
+        Clave clave = clave(token);
+        Franja franja = franja(clave);
+        synchronized (franja) {
+            franja.put(clave, verificado);
+        }
+    }
+
+    void purgarExpirados(long ahoraMillis) {
+        for (Franja franja : franjas) {
+            synchronized (franja) {
+                franja.values().removeIf(verificado -> verificado.expirado(ahoraMillis));
+            }
+        }
+    }
+
+    private Franja franja(Clave clave) {
+        // Los bits del hash ya están bien repartidos
+        return franjas[(int) clave.bajo() & (FRANJAS - 1)];
+    }
+
+    private static Clave clave(String token) {
+        byte[] hash = sha256().digest(token.getBytes(StandardCharsets.US_ASCII));
+        ByteBuffer buffer = ByteBuffer.wrap(hash);
+        return new Clave(buffer.getLong(), buffer.getLong());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible en esta JVM", e);
+        }
+    }
+
+    private record Clave(long alto, long bajo) {
+    }
+
+    private static final class Franja extends LinkedHashMap<Clave, TokenVerificado> {
+
+        private final int maxEntradas;
+
+        Franja(int maxEntradas) {
+            super(16, 0.75f, true);
+            this.maxEntradas = maxEntradas;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Clave, TokenVerificado> mayor) {
+            return size() > maxEntradas;
+        }
+    }
+}
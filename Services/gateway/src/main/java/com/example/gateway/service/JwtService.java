@@ -1,27 +1,107 @@
 package com.example.gateway.service;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
 
 import javax.crypto.SecretKey;
+import java.time.Duration;
 import java.util.Date;
 
 @Service
 public class JwtService {
 
+    /** Atributo del exchange con el {@link TokenVerificado} de la petición actual. */
+    public static final String ATRIBUTO_TOKEN = JwtService.class.getName() + ".token";
+
     @Value("${jwt.secret}")
     private String secret;
 
     @Value("${jwt.expiration}")
     private Long expiration;
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secret);
-        return Keys.hmacShaKeyFor(keyBytes);
+    @Value("${jwt.cache.enabled:true}")
+    private boolean cacheEnabled;
+
+    @Value("${jwt.cache.max-entries:10000}")
+    private int cacheMaxEntries;
+
+    @Value("${jwt.cache.intervalo-purga:1m}")
+    private Duration cacheIntervaloPurga;
+
+    // Clave y parser se construyen una sola vez: el parser de jjwt es inmutable y thread-safe
+    private JwtParser parser;
+    private CacheTokensVerificados cache;
+    private Disposable purga;
+
+    @PostConstruct
+    void init() {
+        SecretKey signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+        if (cacheEnabled) {
+            CacheTokensVerificados nuevo = new CacheTokensVerificados(cacheMaxEntries);
+            this.cache = nuevo;
+            this.purga = Flux.interval(cacheIntervaloPurga)
+                    .onBackpressureDrop()
+                    .subscribe(tick -> nuevo.purgarExpirados(System.currentTimeMillis()));
+        }
+    }
+
+    @PreDestroy
+    void detener() {
+        if (purga != null) {
+            purga.dispose();
+        }
+    }
+
+    /**
+     * Verifica firma y expiración una única vez y devuelve los datos del usuario.
+     * Los tokens ya verificados se sirven desde el cache hasta su "exp".
+     *
+     * @return el token verificado, o {@code null} si es inválido o expiró
+     */
+    public TokenVerificado verificar(String token) {
+        long ahora = System.currentTimeMillis();
+        if (cache != null) {
+            TokenVerificado enCache = cache.obtener(token, ahora);
+            if (enCache != null) {
+                return enCache;
+            }
+        }
+
+        Claims claims;
+        try {
+            claims = extractAllClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+        // jjwt ya rechaza tokens con "exp" pasado; sin "exp" el token no se acepta
+        Date exp = claims.getExpiration();
+        if (exp == null || exp.getTime() <= ahora) {
+            return null;
+        }
+
+        Object userId = claims.get("userId");
+        Object rol = claims.get("rol");
+        TokenVerificado verificado = new TokenVerificado(
+                claims.getSubject(),
+                userId != null ? userId.toString() : null,
+                rol != null ? rol.toString() : "USUARIO",
+                exp.getTime());
+
+        if (cache != null) {
+            cache.guardar(token, verificado);
+        }
+        return verificado;
     }
 
     public String extractEmail(String token) {
@@ -41,23 +121,10 @@ public class JwtService {
     }
 
     public Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     public boolean isTokenValid(String token) {
-        try {
-            Claims claims = extractAllClaims(token);
-            return !isTokenExpired(claims);
-        } catch (Exception e) {
-            return false;
-        }
-    }
-
-    private boolean isTokenExpired(Claims claims) {
-        return claims.getExpiration().before(new Date());
+        return verificar(token) != null;
     }
 }
@@ -0,0 +1,15 @@
+package com.example.gateway.service;
+
+/**
+ * Datos de un JWT cuya firma y expiración ya se verificaron.
+ *
+ * El filtro de autenticación lo deja en los atributos del exchange
+ * ({@link JwtService#ATRIBUTO_TOKEN}) para que los filtros siguientes no
+ * vuelvan a parsear el token.
+ */
+public record TokenVerificado(String email, String userId, String rol, long expiraEnMillis) {
+
+    public boolean expirado(long ahoraMillis) {
+        return ahoraMillis >= expiraEnMillis;
+    }
+}
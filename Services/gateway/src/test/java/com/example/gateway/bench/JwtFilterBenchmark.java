@@ -0,0 +1,134 @@
+package com.example.gateway.bench;
+
+import com.example.gateway.service.JwtService;
+import com.example.gateway.service.TokenVerificado;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.SecretKey;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark JMH del costo de JWT por petición en la cadena
+ * JwtAuthenticationFilter + RoleAuthorizationFilter.
+ *
+ *   mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *       "-Dexec.args=-cp %classpath org.openjdk.jmh.Main JwtFilterBenchmark"
+ *
+ * - anterior:   lo que hacían los filtros antes (clave nueva y parseo completo
+ *               en isTokenValid, extractEmail, extractUserId, extractRole x2)
+ * - sinCache:   una verificación de firma por petición
+ * - conCache:   JwtService.verificar con el cache de tokens verificados
+ *
+ * Los tokens se rotan entre "tokensDistintos" usuarios para que el cache no
+ * sea un único acierto caliente.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class JwtFilterBenchmark {
+
+    // Al menos 256 bits en base64, como jwt.secret
+    private static final String SECRETO = "YmVuY2gtand0LXNlY3JldG8tZGUtMzItYnl0ZXMtbWluaW1v";
+
+    @Param({"1000"})
+    private int tokensDistintos;
+
+    private JwtService jwtService;
+    private String[] tokens;
+    private int siguiente;
+
+    @Setup
+    public void preparar() throws ReflectiveOperationException {
+        jwtService = new JwtService();
+        asignar("secret", SECRETO);
+        asignar("expiration", 3_600_000L);
+        asignar("cacheEnabled", true);
+        asignar("cacheMaxEntries", 10_000);
+        asignar("cacheIntervaloPurga", Duration.ofMinutes(1));
+        Method init = JwtService.class.getDeclaredMethod("init");
+        init.setAccessible(true);
+        init.invoke(jwtService);
+        tokens = generarTokens(tokensDistintos);
+    }
+
+    @Benchmark
+    public long anterior() {
+        String token = token();
+        long suma = 0;
+        suma += claimsConClaveNueva(token).getExpiration().getTime() > 0 ? 1 : 0;   // isTokenValid
+        suma += claimsConClaveNueva(token).getSubject().length();                 // extractEmail
+        suma += String.valueOf(claimsConClaveNueva(token).get("userId")).length(); // extractUserId
+        suma += String.valueOf(claimsConClaveNueva(token).get("rol")).length();    // extractRole
+        suma += String.valueOf(claimsConClaveNueva(token).get("rol")).length();    // RoleAuthorizationFilter
+        return suma;
+    }
+
+    @Benchmark
+    public long sinCache() {
+        Claims claims = jwtService.extractAllClaims(token());
+        return claims.getSubject().length() + String.valueOf(claims.get("rol")).length();
+    }
+
+    @Benchmark
+    public long conCache() {
+        TokenVerificado verificado = jwtService.verificar(token());
+        return verificado.email().length() + verificado.rol().length();
+    }
+
+    private String token() {
+        String token = tokens[siguiente];
+        siguiente = siguiente + 1 == tokens.length ? 0 : siguiente + 1;
+        return token;
+    }
+
+    private Claims claimsConClaveNueva(String token) {
+        SecretKey key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRETO));
+        return Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+    }
+
+    private static String[] generarTokens(int cantidad) {
+        SecretKey key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRETO));
+        Date ahora = new Date();
+        Date expira = new Date(ahora.getTime() + 3_600_000L);
+        String[] tokens = new String[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            tokens[i] = Jwts.builder()
+                    .subject("usuario" + i + "@bench.local")
+                    .claim("userId", i)
+                    .claim("rol", i % 10 == 0 ? "ADMIN" : "USUARIO")
+                    .issuedAt(ahora)
+                    .expiration(expira)
+                    .signWith(key)
+                    .compact();
+        }
+        return tokens;
+    }
+
+    // Los campos @Value de JwtService, sin levantar el contexto de Spring
+    private void asignar(String campo, Object valor) throws ReflectiveOperationException {
+        Field field = JwtService.class.getDeclaredField(campo);
+        field.setAccessible(true);
+        field.set(jwtService, valor);
+    }
+}
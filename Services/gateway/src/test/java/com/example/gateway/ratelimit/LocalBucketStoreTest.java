@@ -0,0 +1,104 @@
+package com.example.gateway.ratelimit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocalBucketStoreTest {
+
+    // Como las compras por usuario: ráfaga de 3 y luego 1 cada 2s
+    private static final LimiteBucket COMPRAS = new LimiteBucket(3, 0.5);
+
+    private long ahora;
+    private LocalBucketStore store;
+
+    @BeforeEach
+    void preparar() {
+        ahora = 0;
+        store = new LocalBucketStore(4, 1000, () -> ahora);
+    }
+
+    private void avanzar(long millis) {
+        ahora += TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    @Test
+    void permiteLaRafagaYLuegoRechaza() {
+        assertEquals(new ConsumoToken(true, 2, 0), store.consumirAhora("u1", COMPRAS, 1));
+        assertEquals(new ConsumoToken(true, 1, 0), store.consumirAhora("u1", COMPRAS, 1));
+        assertEquals(new ConsumoToken(true, 0, 0), store.consumirAhora("u1", COMPRAS, 1));
+
+        ConsumoToken rechazo = store.consumirAhora("u1", COMPRAS, 1);
+        assertFalse(rechazo.permitido());
+        assertEquals(2000, rechazo.esperaMillis());
+        assertEquals(2, rechazo.retryAfterSegundos());
+    }
+
+    @Test
+    void reponeSegunElRitmo() {
+        for (int i = 0; i < 3; i++) {
+            store.consumirAhora("u1", COMPRAS, 1);
+        }
+
+        avanzar(1000);
+        ConsumoToken aMitad = store.consumirAhora("u1", COMPRAS, 1);
+        assertFalse(aMitad.permitido());
+        assertEquals(1000, aMitad.esperaMillis());
+
+        avanzar(1000);
+        assertTrue(store.consumirAhora("u1", COMPRAS, 1).permitido());
+        assertFalse(store.consumirAhora("u1", COMPRAS, 1).permitido());
+    }
+
+    @Test
+    void noReponeMasAllaDeLaCapacidad() {
+        store.consumirAhora("u1", COMPRAS, 3);
+
+        avanzar(TimeUnit.HOURS.toMillis(1));
+        assertEquals(new ConsumoToken(true, 0, 0), store.consumirAhora("u1", COMPRAS, 3));
+        assertFalse(store.consumirAhora("u1", COMPRAS, 1).permitido());
+    }
+
+    @Test
+    void cadaClaveTieneSuBucket() {
+        store.consumirAhora("u1", COMPRAS, 3);
+
+        assertFalse(store.consumirAhora("u1", COMPRAS, 1).permitido());
+        assertTrue(store.consumirAhora("u2", COMPRAS, 1).permitido());
+    }
+
+    @Test
+    void pedirMasQueLaCapacidadNuncaPasa() {
+        ConsumoToken rechazo = store.consumirAhora("u1", COMPRAS, 4);
+
+        assertFalse(rechazo.permitido());
+        assertEquals(2000, rechazo.esperaMillis());
+    }
+
+    @Test
+    void unLimiteMasChicoRecortaLosTokensGuardados() {
+        store.consumirAhora("u1", COMPRAS, 1);
+
+        ConsumoToken consumo = store.consumirAhora("u1", new LimiteBucket(1, 0.5), 1);
+        assertEquals(new ConsumoToken(true, 0, 0), consumo);
+        assertFalse(store.consumirAhora("u1", new LimiteBucket(1, 0.5), 1).permitido());
+    }
+
+    @Test
+    void descartarBucketsLlenosNoDevuelveTokensAUnBucketVacio() {
+        // Un bucket por franja: cada clave nueva que comparte franja fuerza el descarte
+        store = new LocalBucketStore(2, 2, () -> ahora);
+        store.consumirAhora("vacio", COMPRAS, 3);
+        store.consumirAhora("lleno", COMPRAS, 0);
+
+        // Solo se descarta el bucket que ya estaba lleno, que vuelve igual de lleno
+        store.consumirAhora("nuevo", COMPRAS, 1);
+        assertFalse(store.consumirAhora("vacio", COMPRAS, 1).permitido());
+        assertTrue(store.consumirAhora("lleno", COMPRAS, 3).permitido());
+    }
+}
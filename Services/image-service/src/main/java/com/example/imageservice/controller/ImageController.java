@@ -4,6 +4,7 @@ import com.example.imageservice.dto.ImageUploadResponse;
 import com.example.imageservice.service.ImageService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -41,6 +42,28 @@ public class ImageController {
         }
     }
 
+    @PostMapping(value = "/stream", consumes = {"image/jpeg", "image/png", "image/gif", "image/webp",
+            MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    @Operation(summary = "Subir imagen (streaming)",
+            description = "El cuerpo son los bytes de la imagen, sin multipart: se escriben a disco mientras llegan. "
+                    + "El formato se reconoce por el contenido; una imagen idéntica a otra ya subida no se guarda dos veces")
+    public ResponseEntity<?> uploadImageStream(HttpServletRequest request) {
+        try {
+            log.info("📤 Recibiendo imagen por streaming ({} bytes declarados)", request.getContentLengthLong());
+            ImageUploadResponse response = imageService.uploadImageStream(request.getInputStream(),
+                    request.getContentLengthLong());
+            log.info("✅ Imagen subida exitosamente: {}", response.getFileUrl());
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            log.error("❌ Error de validación: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("❌ Error al subir imagen", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Error al subir la imagen: " + e.getMessage()));
+        }
+    }
+
     @DeleteMapping("/{fileName}")
     @Operation(summary = "Eliminar imagen", description = "Elimina una imagen del servidor")
     public ResponseEntity<?> deleteImage(@PathVariable String fileName) {
@@ -14,4 +14,7 @@ public class ImageUploadResponse {
     private String fileUrl;
     private Long fileSize;
     private String contentType;
+    // SHA-256 del contenido; duplicada = ya había una imagen con el mismo contenido
+    private String hash;
+    private Boolean duplicada;
 }
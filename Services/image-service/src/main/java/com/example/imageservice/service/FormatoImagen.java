@@ -0,0 +1,72 @@
+package com.example.imageservice.service;
+
+/**
+ * Formatos de imagen aceptados, reconocidos por sus primeros bytes (firma) y
+ * no por la extensión o el Content-Type que declara el cliente.
+ */
+public enum FormatoImagen {
+
+    JPEG("jpg", "image/jpeg"),
+    PNG("png", "image/png"),
+    GIF("gif", "image/gif"),
+    WEBP("webp", "image/webp");
+
+    /** Bytes que hacen falta para reconocer cualquiera de los formatos. */
+    public static final int BYTES_FIRMA = 12;
+
+    private static final byte[] FIRMA_JPEG = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF};
+    private static final byte[] FIRMA_PNG = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final byte[] FIRMA_GIF87 = {'G', 'I', 'F', '8', '7', 'a'};
+    private static final byte[] FIRMA_GIF89 = {'G', 'I', 'F', '8', '9', 'a'};
+    private static final byte[] FIRMA_RIFF = {'R', 'I', 'F', 'F'};
+    private static final byte[] FIRMA_WEBP = {'W', 'E', 'B', 'P'};
+
+    private final String extension;
+    private final String contentType;
+
+    FormatoImagen(String extension, String contentType) {
+        this.extension = extension;
+        this.contentType = contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * Formato según los primeros {@code largo} bytes, o null si no es una
+     * imagen aceptada.
+     */
+    public static FormatoImagen detectar(byte[] cabecera, int largo) {
+        if (empieza(cabecera, largo, 0, FIRMA_JPEG)) {
+            return JPEG;
+        }
+        if (empieza(cabecera, largo, 0, FIRMA_PNG)) {
+            return PNG;
+        }
+        if (empieza(cabecera, largo, 0, FIRMA_GIF87) || empieza(cabecera, largo, 0, FIRMA_GIF89)) {
+            return GIF;
+        }
+        // RIFF <tamaño de 4 bytes> WEBP
+        if (empieza(cabecera, largo, 0, FIRMA_RIFF) && empieza(cabecera, largo, 8, FIRMA_WEBP)) {
+            return WEBP;
+        }
+        return null;
+    }
+
+    private static boolean empieza(byte[] datos, int largo, int desde, byte[] firma) {
+        if (largo < desde + firma.length) {
+            return false;
+        }
+        for (int i = 0; i < firma.length; i++) {
+            if (datos[desde + i] != firma[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
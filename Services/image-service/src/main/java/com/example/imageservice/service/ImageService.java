@@ -7,26 +7,70 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystemException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+/**
+ * Guardado de imágenes.
+ *
+ * Los bytes se leen una sola vez del stream y van a un archivo temporal por
+ * un FileChannel; mientras pasan se reconoce el formato por la firma
+ * (FormatoImagen), se corta si superan upload.max-bytes y se calcula el
+ * SHA-256. Con /stream el stream es el cuerpo del request, sin multipart ni
+ * archivo intermedio de Tomcat.
+ *
+ * Deduplicación: cada contenido distinto se guarda una vez en
+ * {upload.dir}/contenido/{sha256}.{ext}. Cada subida recibe su propio nombre
+ * ({sha256}-{sufijo}.{ext}), un hard link a ese archivo: no ocupa espacio y
+ * borrar una imagen no afecta a otras subidas con el mismo contenido. Si el
+ * sistema de archivos no admite hard links (o el link falla, p. ej. con
+ * uploads en otro volumen) se guarda una copia.
+ *
+ * Cuántos nombres usan cada contenido se lleva en {sha256}.{ext}.refs, junto
+ * al contenido, siempre bajo el mismo lock: cada subida suma uno y cada
+ * borrado resta uno; en cero se borran el contenido y su .refs. No depende
+ * de que el sistema de archivos cuente links. Un contenido sin .refs (de
+ * antes del conteo) no se borra nunca; como cada nombre es un link o una
+ * copia, borrar el contenido no deja a ninguna imagen sin bytes.
+ */
 @Service
 @Slf4j
 public class ImageService {
 
+    private static final String CARPETA_CONTENIDO = "contenido";
+    private static final Pattern NOMBRE_DEDUPLICADO = Pattern.compile("([0-9a-f]{64})-[0-9a-f]+\\.(\\w+)");
+
     @Value("${upload.dir}")
     private String uploadDir;
 
     @Value("${upload.base-url}")
     private String baseUrl;
 
+    @Value("${upload.max-bytes:10485760}")
+    private long maxBytes;
+
+    @Value("${upload.buffer-bytes:65536}")
+    private int bufferBytes;
+
     private static final List<String> ALLOWED_EXTENSIONS = Arrays.asList("jpg", "jpeg", "png", "gif", "webp");
-    private static final long MAX_FILE_SIZE = 10 * 1024 * 1024; // 10MB
+
+    // Alta de un nombre y borrado del contenido sin nombres no deben cruzarse
+    private final Object bloqueoContenido = new Object();
 
     public ImageUploadResponse uploadImage(MultipartFile file) throws IOException {
         // Validar archivo
@@ -35,8 +79,8 @@ public class ImageService {
         }
 
         // Validar tamaño
-        if (file.getSize() > MAX_FILE_SIZE) {
-            throw new IllegalArgumentException("El archivo excede el tamaño máximo permitido (10MB)");
+        if (file.getSize() > maxBytes) {
+            throw new IllegalArgumentException("El archivo excede el tamaño máximo permitido (" + tamanioMaximo() + ")");
         }
 
         // Validar tipo de archivo
@@ -50,40 +94,205 @@ public class ImageService {
             throw new IllegalArgumentException("Tipo de archivo no permitido. Permitidos: " + ALLOWED_EXTENSIONS);
         }
 
-        // Crear directorio si no existe
-        Path uploadPath = Paths.get(uploadDir);
-        if (!Files.exists(uploadPath)) {
-            Files.createDirectories(uploadPath);
-            log.info("Directorio de uploads creado: {}", uploadPath);
+        try (InputStream contenido = file.getInputStream()) {
+            return guardar(contenido);
+        }
+    }
+
+    /**
+     * Guarda la imagen leyendo directamente del stream (el cuerpo del request).
+     *
+     * @param largoDeclarado Content-Length, o -1 si no se conoce; si ya supera
+     *                       el máximo se rechaza sin leer nada
+     */
+    public ImageUploadResponse uploadImageStream(InputStream contenido, long largoDeclarado) throws IOException {
+        if (largoDeclarado > maxBytes) {
+            throw new IllegalArgumentException("El archivo excede el tamaño máximo permitido (" + tamanioMaximo() + ")");
+        }
+        return guardar(contenido);
+    }
+
+    public void deleteImage(String fileName) throws IOException {
+        Path filePath = Paths.get(uploadDir).resolve(fileName);
+        synchronized (bloqueoContenido) {
+            if (Files.exists(filePath)) {
+                Files.delete(filePath);
+                log.info("Imagen eliminada: {}", fileName);
+            } else {
+                throw new IllegalArgumentException("Archivo no encontrado: " + fileName);
+            }
+            Matcher deduplicado = NOMBRE_DEDUPLICADO.matcher(fileName);
+            if (deduplicado.matches()) {
+                liberarContenido(carpetaContenido().resolve(deduplicado.group(1) + "." + deduplicado.group(2)));
+            }
         }
+    }
 
-        // Generar nombre único
-        String uniqueFileName = UUID.randomUUID().toString() + "." + extension;
-        Path filePath = uploadPath.resolve(uniqueFileName);
+    private ImageUploadResponse guardar(InputStream contenido) throws IOException {
+        Path carpetaContenido = carpetaContenido();
+        Path temporal = carpetaContenido.resolve(UUID.randomUUID() + ".tmp");
+        MessageDigest sha256 = sha256();
+        byte[] bytes = new byte[Math.max(bufferBytes, FormatoImagen.BYTES_FIRMA)];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        FormatoImagen formato = null;
+        long total = 0;
+        boolean completo = false;
 
-        // Guardar archivo
-        Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-        log.info("Imagen guardada: {}", uniqueFileName);
+        try (FileChannel destino = FileChannel.open(temporal, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            int enBuffer = 0;
+            while (true) {
+                int leidos = contenido.read(bytes, enBuffer, bytes.length - enBuffer);
+                if (leidos < 0) {
+                    break;
+                }
+                total += leidos;
+                if (total > maxBytes) {
+                    throw new IllegalArgumentException("El archivo excede el tamaño máximo permitido (" + tamanioMaximo() + ")");
+                }
+                enBuffer += leidos;
+                if (formato == null) {
+                    // Nada se escribe hasta haber visto la firma
+                    if (enBuffer < FormatoImagen.BYTES_FIRMA) {
+                        continue;
+                    }
+                    formato = formatoValido(bytes, enBuffer);
+                }
+                escribir(destino, sha256, buffer, enBuffer);
+                enBuffer = 0;
+            }
+            if (total == 0) {
+                throw new IllegalArgumentException("El archivo está vacío");
+            }
+            if (formato == null) {
+                formato = formatoValido(bytes, enBuffer);
+            }
+            escribir(destino, sha256, buffer, enBuffer);
+            completo = true;
+        } finally {
+            if (!completo) {
+                Files.deleteIfExists(temporal);
+            }
+        }
 
-        // Construir URL pública
-        String fileUrl = baseUrl + "/uploads/" + uniqueFileName;
+        String hash = HexFormat.of().formatHex(sha256.digest());
+        Path archivoContenido = carpetaContenido.resolve(hash + "." + formato.getExtension());
+        String nombre = hash + "-" + UUID.randomUUID().toString().substring(0, 8) + "." + formato.getExtension();
+        Path archivo = Paths.get(uploadDir).resolve(nombre);
+        boolean duplicada;
+        synchronized (bloqueoContenido) {
+            duplicada = Files.exists(archivoContenido);
+            if (duplicada) {
+                Files.delete(temporal);
+            } else {
+                Files.move(temporal, archivoContenido, StandardCopyOption.ATOMIC_MOVE);
+            }
+            enlazar(archivo, archivoContenido);
+            sumarReferencias(archivoContenido, 1);
+        }
+        log.info("Imagen guardada: {} ({} bytes, {}{})", nombre, total, formato, duplicada ? ", contenido ya existente" : "");
 
         return ImageUploadResponse.builder()
-                .fileName(uniqueFileName)
-                .fileUrl(fileUrl)
-                .fileSize(file.getSize())
-                .contentType(file.getContentType())
+                .fileName(nombre)
+                .fileUrl(baseUrl + "/uploads/" + nombre)
+                .fileSize(total)
+                .contentType(formato.getContentType())
+                .hash(hash)
+                .duplicada(duplicada)
                 .build();
     }
 
-    public void deleteImage(String fileName) throws IOException {
-        Path filePath = Paths.get(uploadDir).resolve(fileName);
-        if (Files.exists(filePath)) {
-            Files.delete(filePath);
-            log.info("Imagen eliminada: {}", fileName);
-        } else {
-            throw new IllegalArgumentException("Archivo no encontrado: " + fileName);
+    private static FormatoImagen formatoValido(byte[] cabecera, int largo) {
+        FormatoImagen formato = FormatoImagen.detectar(cabecera, largo);
+        if (formato == null) {
+            throw new IllegalArgumentException("El contenido no es una imagen permitida (jpg, png, gif, webp)");
+        }
+        return formato;
+    }
+
+    private static void escribir(FileChannel destino, MessageDigest sha256, ByteBuffer buffer, int largo) throws IOException {
+        sha256.update(buffer.array(), 0, largo);
+        buffer.clear().limit(largo);
+        while (buffer.hasRemaining()) {
+            destino.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static void enlazar(Path archivo, Path archivoContenido) throws IOException {
+        try {
+            Files.createLink(archivo, archivoContenido);
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            log.debug("Sin hard link para {} ({}), se copia", archivo.getFileName(), e.toString());
+            Files.copy(archivoContenido, archivo);
+        }
+    }
+
+    /** Resta un nombre al contenido y lo borra, con su .refs, si ya no le queda ninguno. */
+    private static void liberarContenido(Path archivoContenido) throws IOException {
+        if (!Files.exists(archivoContenido)) {
+            return;
+        }
+        Integer restantes = sumarReferencias(archivoContenido, -1);
+        if (restantes != null && restantes <= 0) {
+            Files.deleteIfExists(archivoContenido);
+            Files.deleteIfExists(archivoReferencias(archivoContenido));
+            log.info("Contenido sin imágenes eliminado: {}", archivoContenido.getFileName());
+        }
+    }
+
+    /**
+     * Suma {@code delta} al conteo de nombres del contenido y devuelve el
+     * nuevo valor; null si al restar no hay .refs (contenido sin conteo).
+     * Se llama con bloqueoContenido tomado.
+     */
+    private static Integer sumarReferencias(Path archivoContenido, int delta) throws IOException {
+        Path refs = archivoReferencias(archivoContenido);
+        Integer actual = leerReferencias(refs);
+        if (actual == null && delta < 0) {
+            return null;
+        }
+        int nuevo = (actual != null ? actual : 0) + delta;
+        Path temporal = refs.resolveSibling(refs.getFileName() + ".tmp");
+        Files.writeString(temporal, Integer.toString(nuevo));
+        Files.move(temporal, refs, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return nuevo;
+    }
+
+    private static Integer leerReferencias(Path refs) throws IOException {
+        if (!Files.exists(refs)) {
+            return null;
         }
+        try {
+            return Integer.parseInt(Files.readString(refs).trim());
+        } catch (NumberFormatException e) {
+            log.warn("Conteo ilegible en {}, el contenido se conserva", refs.getFileName());
+            return null;
+        }
+    }
+
+    private static Path archivoReferencias(Path archivoContenido) {
+        return archivoContenido.resolveSibling(archivoContenido.getFileName() + ".refs");
+    }
+
+    private Path carpetaContenido() throws IOException {
+        Path carpeta = Paths.get(uploadDir).resolve(CARPETA_CONTENIDO);
+        if (!Files.exists(carpeta)) {
+            Files.createDirectories(carpeta);
+            log.info("Directorio de uploads creado: {}", carpeta);
+        }
+        return carpeta;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    private String tamanioMaximo() {
+        return maxBytes / (1024 * 1024) + "MB";
     }
 
     private String getFileExtension(String filename) {
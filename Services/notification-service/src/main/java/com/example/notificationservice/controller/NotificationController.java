@@ -2,12 +2,22 @@ package com.example.notificationservice.controller;
 
 import com.example.notificationservice.dto.NotificationRequest;
 import com.example.notificationservice.dto.NotificationResponse;
+import com.example.notificationservice.plantillas.MotorPlantillas;
+import com.example.notificationservice.registro.EstadoNotificacion;
+import com.example.notificationservice.registro.NotificacionRegistrada;
 import com.example.notificationservice.service.NotificationService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/notifications")
@@ -16,12 +26,83 @@ public class NotificationController {
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private MotorPlantillas plantillas;
+
     @PostMapping("/send")
-    public ResponseEntity<NotificationResponse> enviarNotificacion(@RequestBody NotificationRequest request) {
+    public ResponseEntity<NotificationResponse> enviarNotificacion(
+            @RequestBody NotificationRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        if (idempotencyKey != null) {
+            request.setIdempotencyKey(idempotencyKey);
+        }
         NotificationResponse response = notificationService.enviarNotificacion(request);
+        if ("ERROR".equals(response.getStatus())) {
+            // Cola de envío llena: backpressure hacia quien llama
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(response);
+        }
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Envío en lote (relay del outbox de los demás servicios). Responde una
+     * entrada por notificación, en el mismo orden: QUEUED (aceptada por la
+     * cola de envío; SIMULATED sin SMTP), FAILED (tipo no soportado, no se
+     * reintenta) o ERROR (cola llena o falla puntual, se puede reintentar).
+     * Con idempotencyKey, un reintento de algo ya aceptado devuelve el mismo
+     * notificationId y su estado (SENT, QUEUED...) sin enviarlo de nuevo.
+     */
+    @PostMapping("/send-batch")
+    public ResponseEntity<List<NotificationResponse>> enviarLote(@RequestBody List<NotificationRequest> requests) {
+        return ResponseEntity.ok(notificationService.enviarLote(requests));
+    }
+
+    /**
+     * Estado de una notificación registrada (RECIBIDA, ENCOLADA, ENVIADA,
+     * FALLIDA, RECHAZADA o SIMULADA) con su último error.
+     */
+    @GetMapping("/{notificationId}")
+    public ResponseEntity<NotificacionRegistrada> consultar(@PathVariable String notificationId) {
+        return notificationService.consultar(notificationId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Reenvía notificaciones del registro: las de {@code ids}, o si no se
+     * pasan, las que están en {@code estados} creadas en [desde, hasta).
+     * Ej. después de una caída del SMTP:
+     * POST /api/notifications/replay?estados=FALLIDA&desde=2025-01-01T10:00:00Z
+     */
+    @PostMapping("/replay")
+    public ResponseEntity<List<NotificationResponse>> reenviar(
+            @RequestParam(required = false) List<String> ids,
+            @RequestParam(defaultValue = "FALLIDA,RECHAZADA") Set<EstadoNotificacion> estados,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant hasta,
+            @RequestParam(defaultValue = "1000") int limite) {
+        if (ids != null && !ids.isEmpty()) {
+            return ResponseEntity.ok(notificationService.reenviarPorId(ids));
+        }
+        return ResponseEntity.ok(notificationService.reenviar(estados, desde, hasta, limite));
+    }
+
+    /**
+     * Vuelve a compilar las plantillas (útil con notificaciones.plantillas.ubicacion
+     * apuntando a un directorio). Si alguna falla se mantienen las anteriores.
+     */
+    @PostMapping("/plantillas/recargar")
+    public ResponseEntity<Map<String, Object>> recargarPlantillas() throws IOException {
+        try {
+            int cargadas = plantillas.recargar();
+            return ResponseEntity.ok(Map.of("success", true, "plantillas", cargadas, "tipos", plantillas.getTipos()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "error", e.getMessage()));
+        }
+    }
+
     @GetMapping("/health")
     public ResponseEntity<Map<String, Object>> health() {
         return ResponseEntity.ok(Map.of(
@@ -6,6 +6,8 @@ public class NotificationRequest {
     private String tipo; // BIENVENIDA, EVENTO_CREADO, TICKET_COMPRADO, PAGO_RECHAZADO
     private String destinatario; // email
     private Map<String, Object> datos;
+    private String idioma; // opcional (es, en); sin plantilla en ese idioma se usa el por defecto
+    private String idempotencyKey; // opcional; también por el header Idempotency-Key en /send
 
     public NotificationRequest() {
     }
@@ -39,4 +41,20 @@ public class NotificationRequest {
     public void setDatos(Map<String, Object> datos) {
         this.datos = datos;
     }
+
+    public String getIdioma() {
+        return idioma;
+    }
+
+    public void setIdioma(String idioma) {
+        this.idioma = idioma;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
 }
@@ -0,0 +1,134 @@
+package com.example.notificationservice.plantillas;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Plantillas de notificación compiladas una sola vez, por tipo e idioma.
+ *
+ * Archivos en {ubicacion}/{idioma}/:
+ * - TIPO.asunto.txt  (obligatorio)
+ * - TIPO.txt         (obligatorio, cuerpo en texto plano)
+ * - TIPO.html        (opcional; si existe el email sale multipart texto + HTML)
+ *
+ * Los tipos soportados son los que tienen plantilla en el idioma por defecto;
+ * agregar uno es agregar sus archivos. Con notificaciones.plantillas.ubicacion
+ * apuntando a un directorio (file:/...) se pueden editar y aplicar con
+ * {@link #recargar()} sin reiniciar: se compila todo de nuevo y, si algo
+ * falla, siguen las plantillas anteriores.
+ */
+@Service
+public class MotorPlantillas {
+
+    private static final Logger log = LoggerFactory.getLogger(MotorPlantillas.class);
+    private static final String SUFIJO_ASUNTO = ".asunto.txt";
+
+    @Value("${notificaciones.plantillas.ubicacion:classpath:plantillas}")
+    private String ubicacion;
+
+    @Value("${notificaciones.plantillas.idioma-por-defecto:es}")
+    private String idiomaPorDefecto;
+
+    private final PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+
+    // Clave "TIPO|idioma"; se reemplaza entero al recargar
+    private volatile Map<String, Plantilla> plantillas = Map.of();
+    private volatile Set<String> tipos = Set.of();
+
+    @PostConstruct
+    public void iniciar() throws IOException {
+        recargar();
+    }
+
+    /**
+     * Vuelve a leer y compilar todas las plantillas.
+     *
+     * @return cantidad de plantillas (tipo + idioma) cargadas
+     * @throws IllegalStateException si alguna no compila o falta la del idioma por defecto
+     */
+    public synchronized int recargar() throws IOException {
+        Map<String, Plantilla> nuevas = new HashMap<>();
+        Set<String> nuevosTipos = new TreeSet<>();
+        for (Resource recurso : resolver.getResources(ubicacion + "/*/*" + SUFIJO_ASUNTO)) {
+            String archivo = recurso.getFilename();
+            String tipo = archivo.substring(0, archivo.length() - SUFIJO_ASUNTO.length());
+            String idioma = idiomaDe(recurso);
+            try {
+                Plantilla plantilla = new Plantilla(tipo, idioma,
+                        PlantillaCompilada.compilar(leer(recurso).strip(), false),
+                        PlantillaCompilada.compilar(leer(recurso.createRelative(tipo + ".txt")), false),
+                        cargarHtml(recurso.createRelative(tipo + ".html")));
+                nuevas.put(clave(tipo, idioma), plantilla);
+                if (idioma.equals(idiomaPorDefecto)) {
+                    nuevosTipos.add(tipo);
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                throw new IllegalStateException("Plantilla " + tipo + " (" + idioma + ") inválida: " + e.getMessage(), e);
+            }
+        }
+        for (Plantilla plantilla : nuevas.values()) {
+            if (!nuevosTipos.contains(plantilla.getTipo())) {
+                throw new IllegalStateException("Plantilla " + plantilla.getTipo() + " sin versión en el idioma por defecto ("
+                        + idiomaPorDefecto + ")");
+            }
+        }
+        plantillas = Map.copyOf(nuevas);
+        tipos = Set.copyOf(nuevosTipos);
+        log.info("Plantillas cargadas desde {}: {} ({} combinaciones tipo/idioma)", ubicacion, nuevosTipos, nuevas.size());
+        return nuevas.size();
+    }
+
+    /**
+     * Plantilla del tipo en el idioma pedido, o en el idioma por defecto si
+     * no existe. null si el tipo no está soportado.
+     */
+    public Plantilla buscar(String tipo, String idioma) {
+        Map<String, Plantilla> actuales = plantillas;
+        if (idioma != null) {
+            Plantilla plantilla = actuales.get(clave(tipo, idioma.toLowerCase(Locale.ROOT)));
+            if (plantilla != null) {
+                return plantilla;
+            }
+        }
+        return actuales.get(clave(tipo, idiomaPorDefecto));
+    }
+
+    public Set<String> getTipos() {
+        return tipos;
+    }
+
+    private static PlantillaCompilada cargarHtml(Resource recurso) throws IOException {
+        return recurso.exists() ? PlantillaCompilada.compilar(leer(recurso), true) : null;
+    }
+
+    private static String idiomaDe(Resource recurso) throws IOException {
+        // .../{idioma}/TIPO.asunto.txt
+        String ruta = recurso.getURL().getPath();
+        int fin = ruta.lastIndexOf('/');
+        return ruta.substring(ruta.lastIndexOf('/', fin - 1) + 1, fin);
+    }
+
+    private static String leer(Resource recurso) throws IOException {
+        try (InputStream entrada = recurso.getInputStream()) {
+            return new String(entrada.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static String clave(String tipo, String idioma) {
+        return tipo + "|" + idioma;
+    }
+}
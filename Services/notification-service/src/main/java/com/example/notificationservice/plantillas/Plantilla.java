@@ -0,0 +1,65 @@
+package com.example.notificationservice.plantillas;
+
+import java.util.function.Function;
+
+/**
+ * Asunto, texto plano y (opcional) HTML de un tipo de notificación en un
+ * idioma. Si el asunto no tiene variables se guarda ya renderizado.
+ */
+public final class Plantilla {
+
+    // Buffer por hilo reutilizado entre mensajes; se descarta si creció de más
+    private static final int CAPACIDAD_MAXIMA_BUFFER = 64 * 1024;
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(4096));
+
+    private final String tipo;
+    private final String idioma;
+    private final PlantillaCompilada asunto;
+    private final String asuntoFijo;
+    private final PlantillaCompilada texto;
+    private final PlantillaCompilada html;
+
+    public Plantilla(String tipo, String idioma, PlantillaCompilada asunto, PlantillaCompilada texto, PlantillaCompilada html) {
+        this.tipo = tipo;
+        this.idioma = idioma;
+        this.asunto = asunto;
+        this.asuntoFijo = asunto.tieneVariables() ? null : renderizar(asunto, nombre -> null);
+        this.texto = texto;
+        this.html = html;
+    }
+
+    public String getTipo() {
+        return tipo;
+    }
+
+    public String getIdioma() {
+        return idioma;
+    }
+
+    public boolean tieneHtml() {
+        return html != null;
+    }
+
+    public Mensaje renderizar(Function<String, ?> valores) {
+        return new Mensaje(
+                asuntoFijo != null ? asuntoFijo : renderizar(asunto, valores),
+                renderizar(texto, valores),
+                html != null ? renderizar(html, valores) : null);
+    }
+
+    private static String renderizar(PlantillaCompilada plantilla, Function<String, ?> valores) {
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        buffer.ensureCapacity(plantilla.getLongitudEstimada());
+        plantilla.renderizar(valores, buffer);
+        String resultado = buffer.toString();
+        if (buffer.capacity() > CAPACIDAD_MAXIMA_BUFFER) {
+            BUFFER.remove();
+        }
+        return resultado;
+    }
+
+    /** html es null si el tipo no tiene versión HTML en ese idioma. */
+    public record Mensaje(String asunto, String texto, String html) {
+    }
+}
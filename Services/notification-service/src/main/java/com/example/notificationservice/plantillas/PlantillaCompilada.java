@@ -0,0 +1,112 @@
+package com.example.notificationservice.plantillas;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Texto con variables {{nombre}} ya separado en partes: literales y nombres
+ * de variable. Renderizar es recorrer las partes y escribir en el buffer,
+ * sin volver a buscar llaves ni armar strings intermedios.
+ *
+ * {{{nombre}}} inserta el valor sin escapar: solo para fragmentos que ya
+ * vienen escapados (por ejemplo las filas armadas con {@link #escaparHtml}).
+ */
+public final class PlantillaCompilada {
+
+    private final String[] literales;
+    // variables[i] va después de literales[i]; literales tiene una parte más
+    private final String[] variables;
+    private final boolean[] sinEscapar;
+    private final boolean html;
+    private final int longitudEstimada;
+
+    private PlantillaCompilada(String[] literales, String[] variables, boolean[] sinEscapar, boolean html) {
+        this.literales = literales;
+        this.variables = variables;
+        this.sinEscapar = sinEscapar;
+        this.html = html;
+        int longitud = 0;
+        for (String literal : literales) {
+            longitud += literal.length();
+        }
+        this.longitudEstimada = longitud + variables.length * 16;
+    }
+
+    /**
+     * @param html si es true los valores se escapan para HTML
+     * @throws IllegalArgumentException si hay una llave sin cerrar o una variable vacía
+     */
+    public static PlantillaCompilada compilar(String fuente, boolean html) {
+        List<String> literales = new ArrayList<>();
+        List<String> variables = new ArrayList<>();
+        List<Boolean> crudas = new ArrayList<>();
+        int desde = 0;
+        while (true) {
+            int abre = fuente.indexOf("{{", desde);
+            if (abre < 0) {
+                break;
+            }
+            boolean cruda = fuente.startsWith("{{{", abre);
+            String cierre = cruda ? "}}}" : "}}";
+            int inicio = abre + (cruda ? 3 : 2);
+            int cierra = fuente.indexOf(cierre, inicio);
+            if (cierra < 0) {
+                throw new IllegalArgumentException("Variable sin cerrar en la posición " + abre);
+            }
+            String nombre = fuente.substring(inicio, cierra).trim();
+            if (nombre.isEmpty()) {
+                throw new IllegalArgumentException("Variable vacía en la posición " + abre);
+            }
+            literales.add(fuente.substring(desde, abre));
+            variables.add(nombre);
+            crudas.add(cruda);
+            desde = cierra + cierre.length();
+        }
+        literales.add(fuente.substring(desde));
+        boolean[] sinEscapar = new boolean[crudas.size()];
+        for (int i = 0; i < sinEscapar.length; i++) {
+            sinEscapar[i] = crudas.get(i);
+        }
+        return new PlantillaCompilada(literales.toArray(String[]::new), variables.toArray(String[]::new),
+                sinEscapar, html);
+    }
+
+    public boolean tieneVariables() {
+        return variables.length > 0;
+    }
+
+    public int getLongitudEstimada() {
+        return longitudEstimada;
+    }
+
+    public void renderizar(Function<String, ?> valores, StringBuilder destino) {
+        for (int i = 0; i < variables.length; i++) {
+            destino.append(literales[i]);
+            Object valor = valores.apply(variables[i]);
+            if (valor == null) {
+                continue;
+            }
+            if (html && !sinEscapar[i]) {
+                escaparHtml(valor.toString(), destino);
+            } else {
+                destino.append(valor);
+            }
+        }
+        destino.append(literales[variables.length]);
+    }
+
+    public static void escaparHtml(String valor, StringBuilder destino) {
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            switch (c) {
+                case '&' -> destino.append("&amp;");
+                case '<' -> destino.append("&lt;");
+                case '>' -> destino.append("&gt;");
+                case '"' -> destino.append("&quot;");
+                case '\'' -> destino.append("&#39;");
+                default -> destino.append(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.notificationservice.registro;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Estados de una notificación en el registro.
+ *
+ * RECIBIDA → ENCOLADA → ENVIADA | FALLIDA
+ *          ↘ SIMULADA (sin SMTP) | FALLIDA (tipo no soportado)
+ * ENCOLADA → RECHAZADA (cola de envío llena)
+ * ENCOLADA → SIMULADA (venta agrupada en un resumen que se simuló)
+ * Cualquier estado final vuelve a ENCOLADA al reenviarla (replay).
+ */
+public enum EstadoNotificacion {
+
+    RECIBIDA(0, "RECEIVED"),
+    ENCOLADA(1, "QUEUED"),
+    ENVIADA(2, "SENT"),
+    FALLIDA(3, "FAILED"),
+    RECHAZADA(4, "ERROR"),
+    SIMULADA(5, "SIMULATED");
+
+    private static final EstadoNotificacion[] POR_CODIGO = values();
+
+    private final int codigo;
+    private final String status;
+
+    EstadoNotificacion(int codigo, String status) {
+        this.codigo = codigo;
+        this.status = status;
+    }
+
+    public int getCodigo() {
+        return codigo;
+    }
+
+    /** Valor de NotificationResponse.status. */
+    public String getStatus() {
+        return status;
+    }
+
+    public static EstadoNotificacion deCodigo(int codigo) {
+        return POR_CODIGO[codigo];
+    }
+
+    /**
+     * Un duplicado (misma clave de idempotencia) en este estado se vuelve a
+     * intentar en vez de devolver el resultado anterior: el intento previo
+     * no llegó a encolarse o terminó mal.
+     */
+    public boolean admiteReintento() {
+        return this == RECIBIDA || this == FALLIDA || this == RECHAZADA;
+    }
+
+    public boolean puedePasarA(EstadoNotificacion siguiente) {
+        return transiciones().contains(siguiente);
+    }
+
+    private Set<EstadoNotificacion> transiciones() {
+        return switch (this) {
+            case RECIBIDA -> EnumSet.of(ENCOLADA, SIMULADA, FALLIDA);
+            case ENCOLADA -> EnumSet.of(ENVIADA, FALLIDA, RECHAZADA, ENCOLADA, SIMULADA);
+            case ENVIADA, FALLIDA, RECHAZADA, SIMULADA -> EnumSet.of(ENCOLADA, SIMULADA, FALLIDA);
+        };
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.notificationservice.registro;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Una notificación del registro con su estado actual.
+ *
+ * @param ultimoError motivo del último FALLIDA/RECHAZADA, o null
+ */
+public record NotificacionRegistrada(
+        String notificationId,
+        String idempotencyKey,
+        String tipo,
+        String destinatario,
+        String idioma,
+        Map<String, Object> datos,
+        EstadoNotificacion estado,
+        Instant creada,
+        Instant actualizada,
+        String ultimoError) {
+}
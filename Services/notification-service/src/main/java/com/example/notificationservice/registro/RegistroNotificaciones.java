@@ -0,0 +1,624 @@
+package com.example.notificationservice.registro;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Registro durable de notificaciones: log de solo agregado en segmentos
+ * mapeados en memoria (notificaciones.registro.directorio).
+ *
+ * - ALTA: la notificación tal como llegó (clave de idempotencia, tipo,
+ *   destinatario, idioma, datos en JSON). Su número de secuencia es el
+ *   notificationId (NOT-0000002A).
+ * - ESTADO: cada transición (ENCOLADA, ENVIADA, FALLIDA...) con su momento y
+ *   el error si lo hubo. El estado actual es el último ESTADO.
+ *
+ * Los índices (secuencia → posición y estado actual; clave de idempotencia →
+ * secuencia) son tablas en archivos mapeados que se reconstruyen leyendo el
+ * log al arrancar. Ni el log ni los índices ocupan heap, así que millones de
+ * notificaciones no hacen crecer la JVM; el heap solo ve la notificación que
+ * se está leyendo.
+ *
+ * Los segmentos más viejos que notificaciones.registro.retencion-dias se
+ * borran enteros al abrir uno nuevo; sus notificaciones dejan de existir
+ * para búsquedas, reenvíos y deduplicación. La primera secuencia pasa a ser
+ * la del segmento más viejo que queda y los índices se rehacen sin las
+ * borradas, así que no crecen con notificaciones que ya no existen.
+ *
+ * El directorio por defecto es ./data/registro, relativo al directorio de
+ * trabajo; en contenedores tiene que ir a un volumen (NOTIFICATION_LOG_DIR).
+ */
+@Service
+public class RegistroNotificaciones {
+
+    private static final Logger log = LoggerFactory.getLogger(RegistroNotificaciones.class);
+
+    private static final byte ALTA = 1;
+    private static final byte ESTADO = 2;
+
+    // Slot por secuencia: posición ALTA, posición último ESTADO, creado (ms), estado, libre
+    private static final int SLOT = 32;
+    // Slot de clave: hash (0 = libre), secuencia
+    private static final int SLOT_CLAVE = 16;
+    private static final long SIN_POSICION = -1;
+    private static final TypeReference<Map<String, Object>> TIPO_DATOS = new TypeReference<>() {
+    };
+
+    @Value("${notificaciones.registro.directorio:./data/registro}")
+    private String directorio;
+
+    @Value("${notificaciones.registro.tamanio-segmento-mb:64}")
+    private int tamanioSegmentoMb;
+
+    @Value("${notificaciones.registro.retencion-dias:30}")
+    private int retencionDias;
+
+    @Value("${notificaciones.registro.sincronizar-ms:200}")
+    private long sincronizarMs;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Path carpeta;
+    private Path carpetaIndices;
+    private int tamanioSegmento;
+    private final NavigableMap<Integer, SegmentoRegistro> segmentos = new ConcurrentSkipListMap<>();
+    private volatile SegmentoRegistro actual;
+
+    // Tabla de slots y primera secuencia van juntas: las lecturas sin lock toman las dos a la vez
+    private volatile Indice indice;
+    private TablaMapeada claves;
+    private long capacidadClaves;
+    private long clavesOcupadas;
+    private int generacionIndices;
+
+    private volatile long ultimaSeq;
+    private boolean vacio = true;
+
+    private ScheduledExecutorService sincronizador;
+
+    @PostConstruct
+    public void iniciar() throws IOException {
+        tamanioSegmento = tamanioSegmentoMb * 1024 * 1024;
+        if (directorio == null || directorio.isBlank()) {
+            throw new IllegalStateException("notificaciones.registro.directorio vacío: el registro necesita una carpeta persistente");
+        }
+        carpeta = Path.of(directorio).toAbsolutePath();
+        Files.createDirectories(carpeta);
+        carpetaIndices = carpeta.resolve("indices");
+        Files.createDirectories(carpetaIndices);
+        try (Stream<Path> viejos = Files.list(carpetaIndices)) {
+            for (Path viejo : viejos.toList()) {
+                Files.deleteIfExists(viejo);
+            }
+        }
+        indice = new Indice(nuevaTabla("notificaciones", 65_536L * SLOT), 1);
+        capacidadClaves = 65_536;
+        claves = nuevaTabla("claves", capacidadClaves * SLOT_CLAVE);
+
+        List<Path> archivos = listarSegmentos();
+        long inicio = System.nanoTime();
+        for (int i = 0; i < archivos.size(); i++) {
+            Path archivo = archivos.get(i);
+            boolean ultimo = i == archivos.size() - 1;
+            if (!ultimo && vencido(archivo)) {
+                Files.deleteIfExists(archivo);
+                continue;
+            }
+            int numero = numeroDe(archivo);
+            segmentos.put(numero, SegmentoRegistro.abrir(archivo, numero,
+                    (posicion, tipo, payload) -> indexar(posicion(numero, posicion), tipo, payload)));
+        }
+        if (segmentos.isEmpty()) {
+            actual = abrirSegmento(1);
+        } else {
+            actual = segmentos.lastEntry().getValue();
+            if (vacio) {
+                // Solo quedó un segmento sin notificaciones: la numeración sigue desde su cabecera
+                ultimaSeq = actual.getSecuenciaInicial() - 1;
+            }
+        }
+
+        sincronizador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "registro-notificaciones-sync");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        sincronizador.scheduleWithFixedDelay(() -> actual.sincronizar(), sincronizarMs, sincronizarMs, TimeUnit.MILLISECONDS);
+        log.info("Registro de notificaciones en {}: {} notificaciones en {} segmentos, índice reconstruido en {} ms",
+                carpeta, getCantidad(), segmentos.size(), (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    @PreDestroy
+    public synchronized void cerrar() throws IOException {
+        if (sincronizador != null) {
+            sincronizador.shutdown();
+        }
+        for (SegmentoRegistro segmento : segmentos.values()) {
+            segmento.close();
+        }
+        indice.tabla().eliminar();
+        claves.eliminar();
+    }
+
+    public static String notificationId(long secuencia) {
+        return String.format("NOT-%08X", secuencia);
+    }
+
+    /** Secuencia de un notificationId, o -1 si no tiene el formato. */
+    public static long secuenciaDe(String notificationId) {
+        if (notificationId == null || !notificationId.startsWith("NOT-")) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(notificationId.substring(4), 16);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Registra una notificación nueva en estado RECIBIDA. Con una clave de
+     * idempotencia ya registrada no agrega nada y devuelve la existente.
+     *
+     * @throws IllegalArgumentException si no entra en un segmento
+     */
+    public synchronized Alta registrar(String idempotencyKey, String tipo, String destinatario, String idioma,
+                                       Map<String, Object> datos) {
+        long hash = 0;
+        if (idempotencyKey != null) {
+            hash = hash(idempotencyKey);
+            long existente = buscarClave(idempotencyKey, hash);
+            if (existente > 0) {
+                return new Alta(existente, false, estado(existente));
+            }
+        }
+        long secuencia = ultimaSeq + 1;
+        long creado = System.currentTimeMillis();
+        ByteBuffer payload = codificar(secuencia, creado, idempotencyKey, tipo, destinatario, idioma, json(datos));
+        long posicion = agregar(ALTA, payload);
+        if (vacio) {
+            indice = new Indice(indice.tabla(), secuencia);
+            vacio = false;
+        }
+        escribirSlot(secuencia, posicion, creado);
+        if (idempotencyKey != null) {
+            insertarClave(hash, secuencia);
+        }
+        ultimaSeq = secuencia;
+        return new Alta(secuencia, true, EstadoNotificacion.RECIBIDA);
+    }
+
+    /**
+     * Anota una transición de estado. Devuelve false (y no anota nada) si la
+     * notificación no existe o la transición no es válida.
+     */
+    public synchronized boolean cambiarEstado(long secuencia, EstadoNotificacion nuevo, String error) {
+        if (secuencia < indice.primera() || secuencia > ultimaSeq) {
+            return false;
+        }
+        EstadoNotificacion anterior = estado(secuencia);
+        if (!anterior.puedePasarA(nuevo)) {
+            log.warn("Transición inválida de {}: {} → {}", notificationId(secuencia), anterior, nuevo);
+            return false;
+        }
+        long momento = System.currentTimeMillis();
+        long posicion = agregar(ESTADO, codificar(secuencia, momento, nuevo.getCodigo(), recortar(error)));
+        Indice actualIndice = indice;
+        if (secuencia < actualIndice.primera()) {
+            // Abrir el segmento nuevo borró por retención el de la notificación
+            return false;
+        }
+        long slot = actualIndice.slot(secuencia);
+        actualIndice.tabla().putLong(slot + 8, posicion);
+        actualIndice.tabla().putInt(slot + 24, nuevo.getCodigo());
+        return true;
+    }
+
+    public Optional<NotificacionRegistrada> buscar(String notificationId) {
+        return buscar(secuenciaDe(notificationId));
+    }
+
+    public Optional<NotificacionRegistrada> buscar(long secuencia) {
+        Indice actualIndice = indice;
+        if (secuencia < actualIndice.primera() || secuencia > ultimaSeq) {
+            return Optional.empty();
+        }
+        TablaMapeada slots = actualIndice.tabla();
+        long slot = actualIndice.slot(secuencia);
+        ByteBuffer alta = leer(slots.getLong(slot));
+        if (alta == null) {
+            return Optional.empty();
+        }
+        EstadoNotificacion estado = EstadoNotificacion.deCodigo(slots.getInt(slot + 24));
+        alta.getLong();
+        Instant creada = Instant.ofEpochMilli(alta.getLong());
+        String clave = texto(alta);
+        String tipo = texto(alta);
+        String destinatario = texto(alta);
+        String idioma = texto(alta);
+        Map<String, Object> datos = datos(texto(alta));
+
+        Instant actualizada = creada;
+        String error = null;
+        ByteBuffer cambio = leer(slots.getLong(slot + 8));
+        if (cambio != null) {
+            cambio.getLong();
+            actualizada = Instant.ofEpochMilli(cambio.getLong());
+            cambio.get();
+            error = texto(cambio);
+        }
+        return Optional.of(new NotificacionRegistrada(notificationId(secuencia), clave, tipo, destinatario, idioma,
+                datos, estado, creada, actualizada, error));
+    }
+
+    /**
+     * Notificaciones en alguno de los estados, creadas en [desde, hasta)
+     * (null = sin límite), en orden de llegada. Recorre el índice, no el log.
+     */
+    public List<NotificacionRegistrada> buscarPorEstado(Set<EstadoNotificacion> estados, Instant desde, Instant hasta,
+                                                        int limite) {
+        long desdeMs = desde != null ? desde.toEpochMilli() : Long.MIN_VALUE;
+        long hastaMs = hasta != null ? hasta.toEpochMilli() : Long.MAX_VALUE;
+        Indice actualIndice = indice;
+        TablaMapeada slots = actualIndice.tabla();
+        long ultima = ultimaSeq;
+        List<NotificacionRegistrada> resultado = new ArrayList<>();
+        for (long secuencia = actualIndice.primera(); secuencia <= ultima && resultado.size() < limite; secuencia++) {
+            long slot = actualIndice.slot(secuencia);
+            long creado = slots.getLong(slot + 16);
+            if (creado < desdeMs || creado >= hastaMs
+                    || !estados.contains(EstadoNotificacion.deCodigo(slots.getInt(slot + 24)))) {
+                continue;
+            }
+            buscar(secuencia).ifPresent(resultado::add);
+        }
+        return resultado;
+    }
+
+    public long getCantidad() {
+        return vacio ? 0 : ultimaSeq - indice.primera() + 1;
+    }
+
+    public int getSegmentos() {
+        return segmentos.size();
+    }
+
+    private EstadoNotificacion estado(long secuencia) {
+        return EstadoNotificacion.deCodigo(indice.tabla().getInt(indice.slot(secuencia) + 24));
+    }
+
+    // --- Log --------------------------------------------------------------------------------
+
+    private long agregar(byte tipo, ByteBuffer payload) {
+        if (payload.remaining() > SegmentoRegistro.maximoPayload(tamanioSegmento)) {
+            throw new IllegalArgumentException("Notificación de " + payload.remaining() + " bytes, no entra en un segmento");
+        }
+        try {
+            if (!actual.cabe(payload.remaining())) {
+                actual.sincronizar();
+                actual = abrirSegmento(actual.getNumero() + 1);
+                borrarVencidos();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir un segmento nuevo del registro", e);
+        }
+        return posicion(actual.getNumero(), actual.agregar(tipo, payload));
+    }
+
+    private SegmentoRegistro abrirSegmento(int numero) throws IOException {
+        SegmentoRegistro segmento = SegmentoRegistro.crear(carpeta, numero, tamanioSegmento, ultimaSeq + 1);
+        segmentos.put(numero, segmento);
+        return segmento;
+    }
+
+    private void borrarVencidos() throws IOException {
+        boolean borrados = false;
+        for (SegmentoRegistro segmento : new ArrayList<>(segmentos.headMap(actual.getNumero()).values())) {
+            if (!vencido(segmento.getArchivo())) {
+                break;
+            }
+            segmentos.remove(segmento.getNumero());
+            segmento.eliminar();
+            borrados = true;
+            log.info("Segmento {} del registro borrado por retención", segmento.getArchivo().getFileName());
+        }
+        if (borrados && !vacio) {
+            compactarIndices(segmentos.firstEntry().getValue().getSecuenciaInicial());
+        }
+    }
+
+    /**
+     * Deja en los índices solo las secuencias desde {@code nuevaPrimera}: copia
+     * sus slots al principio de una tabla nueva y rehace la de claves sin las
+     * borradas. Las lecturas en curso siguen con el Indice anterior, cuyo
+     * mapeo vale hasta que lo recoja el GC aunque el archivo ya no esté.
+     */
+    private void compactarIndices(long nuevaPrimera) throws IOException {
+        Indice anterior = indice;
+        if (nuevaPrimera <= anterior.primera()) {
+            return;
+        }
+        long vivos = Math.max(0, ultimaSeq - nuevaPrimera + 1);
+        TablaMapeada nueva = nuevaTabla("notificaciones", Math.max(65_536L, vivos) * SLOT);
+        long origen = anterior.slot(nuevaPrimera);
+        for (long i = 0; i < vivos * SLOT; i += 8) {
+            nueva.putLong(i, anterior.tabla().getLong(origen + i));
+        }
+        indice = new Indice(nueva, nuevaPrimera);
+        anterior.tabla().eliminar();
+        rehacerClaves(capacidadClaves);
+        log.info("Índices del registro compactados: primera secuencia {} ({} notificaciones)",
+                notificationId(nuevaPrimera), vivos);
+    }
+
+    private boolean vencido(Path archivo) throws IOException {
+        FileTime modificado = Files.getLastModifiedTime(archivo);
+        return modificado.toInstant().isBefore(Instant.now().minus(Duration.ofDays(retencionDias)));
+    }
+
+    private List<Path> listarSegmentos() throws IOException {
+        try (Stream<Path> archivos = Files.list(carpeta)) {
+            return archivos.filter(p -> p.getFileName().toString().matches("notificaciones-\\d+\\.seg"))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static int numeroDe(Path archivo) {
+        String nombre = archivo.getFileName().toString();
+        return Integer.parseInt(nombre.substring("notificaciones-".length(), nombre.length() - ".seg".length()));
+    }
+
+    private static long posicion(int segmento, int desplazamiento) {
+        return ((long) segmento << 32) | desplazamiento;
+    }
+
+    /** Payload del registro en esa posición, o null si su segmento ya se borró. */
+    private ByteBuffer leer(long posicion) {
+        if (posicion == SIN_POSICION) {
+            return null;
+        }
+        SegmentoRegistro segmento = segmentos.get((int) (posicion >>> 32));
+        return segmento != null ? segmento.payload((int) posicion) : null;
+    }
+
+    // --- Reconstrucción ---------------------------------------------------------------------
+
+    private void indexar(long posicion, byte tipo, ByteBuffer payload) throws IOException {
+        long secuencia = payload.getLong();
+        long momento = payload.getLong();
+        if (tipo == ALTA) {
+            if (vacio) {
+                indice = new Indice(indice.tabla(), secuencia);
+                vacio = false;
+            }
+            escribirSlot(secuencia, posicion, momento);
+            String clave = texto(payload);
+            if (clave != null) {
+                insertarClave(hash(clave), secuencia);
+            }
+            ultimaSeq = secuencia;
+        } else if (tipo == ESTADO && !vacio && secuencia >= indice.primera() && secuencia <= ultimaSeq) {
+            long slot = indice.slot(secuencia);
+            indice.tabla().putLong(slot + 8, posicion);
+            indice.tabla().putInt(slot + 24, payload.get());
+        }
+    }
+
+    private void escribirSlot(long secuencia, long posicionAlta, long creado) {
+        TablaMapeada slots = indice.tabla();
+        long slot = indice.slot(secuencia);
+        try {
+            slots.asegurar(slot + SLOT);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        slots.putLong(slot, posicionAlta);
+        slots.putLong(slot + 8, SIN_POSICION);
+        slots.putLong(slot + 16, creado);
+        slots.putInt(slot + 24, EstadoNotificacion.RECIBIDA.getCodigo());
+    }
+
+    // --- Claves de idempotencia (hash abierto, sondeo lineal) ----------------------------------
+
+    private long buscarClave(String clave, long hash) {
+        long mascara = capacidadClaves - 1;
+        for (long i = hash & mascara; ; i = (i + 1) & mascara) {
+            long guardado = claves.getLong(i * SLOT_CLAVE);
+            if (guardado == 0) {
+                return -1;
+            }
+            if (guardado == hash) {
+                long secuencia = claves.getLong(i * SLOT_CLAVE + 8);
+                // El hash puede chocar: se compara con la clave guardada en el ALTA
+                if (secuencia >= indice.primera() && clave.equals(claveDe(secuencia))) {
+                    return secuencia;
+                }
+            }
+        }
+    }
+
+    private String claveDe(long secuencia) {
+        ByteBuffer alta = leer(indice.tabla().getLong(indice.slot(secuencia)));
+        if (alta == null) {
+            return null;
+        }
+        alta.position(16);
+        return texto(alta);
+    }
+
+    private void insertarClave(long hash, long secuencia) {
+        if ((clavesOcupadas + 1) * 10 > capacidadClaves * 6) {
+            crecerClaves();
+        }
+        ubicarClave(claves, capacidadClaves, hash, secuencia);
+        clavesOcupadas++;
+    }
+
+    private void crecerClaves() {
+        try {
+            rehacerClaves(capacidadClaves * 2);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo ampliar el índice de claves", e);
+        }
+    }
+
+    /** Pasa a una tabla de claves de esa capacidad solo las de secuencias que siguen en el registro. */
+    private void rehacerClaves(long nuevaCapacidad) throws IOException {
+        long primera = indice.primera();
+        TablaMapeada nueva = nuevaTabla("claves", nuevaCapacidad * SLOT_CLAVE);
+        long ocupadas = 0;
+        for (long i = 0; i < capacidadClaves; i++) {
+            long hash = claves.getLong(i * SLOT_CLAVE);
+            long secuencia = claves.getLong(i * SLOT_CLAVE + 8);
+            if (hash != 0 && secuencia >= primera) {
+                ubicarClave(nueva, nuevaCapacidad, hash, secuencia);
+                ocupadas++;
+            }
+        }
+        claves.eliminar();
+        claves = nueva;
+        capacidadClaves = nuevaCapacidad;
+        clavesOcupadas = ocupadas;
+    }
+
+    /** Cada tabla nueva va a un archivo propio: la que reemplaza convive un momento con la anterior. */
+    private TablaMapeada nuevaTabla(String nombre, long bytes) throws IOException {
+        return new TablaMapeada(carpetaIndices.resolve(nombre + "-" + (++generacionIndices) + ".idx"), bytes);
+    }
+
+    private static void ubicarClave(TablaMapeada tabla, long capacidad, long hash, long secuencia) {
+        long mascara = capacidad - 1;
+        long i = hash & mascara;
+        while (tabla.getLong(i * SLOT_CLAVE) != 0) {
+            i = (i + 1) & mascara;
+        }
+        tabla.putLong(i * SLOT_CLAVE + 8, secuencia);
+        tabla.putLong(i * SLOT_CLAVE, hash);
+    }
+
+    /** FNV-1a de 64 bits con mezcla final; nunca 0 (0 marca slot libre). */
+    private static long hash(String clave) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < clave.length(); i++) {
+            h ^= clave.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h == 0 ? 1 : h;
+    }
+
+    // --- Codificación ------------------------------------------------------------------------
+
+    private static ByteBuffer codificar(long secuencia, long momento, String... textos) {
+        byte[][] bytes = new byte[textos.length][];
+        int largo = 16;
+        for (int i = 0; i < textos.length; i++) {
+            bytes[i] = textos[i] != null ? textos[i].getBytes(StandardCharsets.UTF_8) : null;
+            largo += 4 + (bytes[i] != null ? bytes[i].length : 0);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(largo);
+        buffer.putLong(secuencia).putLong(momento);
+        for (byte[] texto : bytes) {
+            if (texto == null) {
+                buffer.putInt(-1);
+            } else {
+                buffer.putInt(texto.length).put(texto);
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static ByteBuffer codificar(long secuencia, long momento, int estado, String error) {
+        byte[] texto = error != null ? error.getBytes(StandardCharsets.UTF_8) : null;
+        ByteBuffer buffer = ByteBuffer.allocate(21 + (texto != null ? texto.length : 0));
+        buffer.putLong(secuencia).putLong(momento).put((byte) estado);
+        if (texto == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(texto.length).put(texto);
+        }
+        return buffer.flip();
+    }
+
+    private static String texto(ByteBuffer buffer) {
+        int largo = buffer.getInt();
+        if (largo < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[largo];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private String json(Map<String, Object> datos) {
+        try {
+            return objectMapper.writeValueAsString(datos != null ? datos : Map.of());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Datos de notificación no serializables: " + e.getMessage(), e);
+        }
+    }
+
+    private Map<String, Object> datos(String json) {
+        try {
+            return json != null ? objectMapper.readValue(json, TIPO_DATOS) : Map.of();
+        } catch (JsonProcessingException e) {
+            return Map.of();
+        }
+    }
+
+    private static String recortar(String texto) {
+        return texto != null && texto.length() > 500 ? texto.substring(0, 500) : texto;
+    }
+
+    /** Tabla de slots y la secuencia de su slot 0. */
+    private record Indice(TablaMapeada tabla, long primera) {
+
+        long slot(long secuencia) {
+            return (secuencia - primera) * SLOT;
+        }
+    }
+
+    /**
+     * Resultado de {@link #registrar}: nueva=false si la clave ya existía, con
+     * el estado en que quedó aquella.
+     */
+    public record Alta(long secuencia, boolean nueva, EstadoNotificacion estado) {
+
+        public String notificationId() {
+            return RegistroNotificaciones.notificationId(secuencia);
+        }
+    }
+}
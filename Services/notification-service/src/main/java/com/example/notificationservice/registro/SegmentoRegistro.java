@@ -0,0 +1,162 @@
+package com.example.notificationservice.registro;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Un archivo del registro, de tamaño fijo y mapeado en memoria. Los datos
+ * viven en el page cache del sistema operativo, no en el heap.
+ *
+ * Formato: MAGIA (int) + VERSION (int) + primera secuencia (long), luego registros
+ *   [int largo][int crc32c][byte tipo][payload]
+ * donde largo cuenta tipo + payload. Un largo 0 marca el final; un crc que
+ * no coincide (escritura cortada por una caída) también, y lo que sigue se
+ * sobrescribe.
+ */
+final class SegmentoRegistro implements Closeable {
+
+    static final int MAGIA = 0x4E4F5449; // "NOTI"
+    static final int VERSION = 1;
+    static final int CABECERA = 16;
+    static final int CABECERA_REGISTRO = 9;
+
+    private final int numero;
+    private final Path archivo;
+    private final FileChannel canal;
+    private final MappedByteBuffer mapa;
+    private final long secuenciaInicial;
+    private int fin;
+
+    private SegmentoRegistro(int numero, Path archivo, FileChannel canal, MappedByteBuffer mapa, int fin) {
+        this.numero = numero;
+        this.archivo = archivo;
+        this.canal = canal;
+        this.mapa = mapa;
+        this.fin = fin;
+        this.secuenciaInicial = mapa.getLong(8);
+    }
+
+    static Path archivo(Path carpeta, int numero) {
+        return carpeta.resolve(String.format("notificaciones-%06d.seg", numero));
+    }
+
+    /**
+     * @param secuenciaInicial secuencia que tendrá la próxima notificación;
+     *                         la conserva aunque se borren los segmentos anteriores
+     */
+    static SegmentoRegistro crear(Path carpeta, int numero, int tamanio, long secuenciaInicial) throws IOException {
+        Path archivo = archivo(carpeta, numero);
+        FileChannel canal = FileChannel.open(archivo, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer mapa = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamanio);
+        mapa.putInt(0, MAGIA);
+        mapa.putInt(4, VERSION);
+        mapa.putLong(8, secuenciaInicial);
+        return new SegmentoRegistro(numero, archivo, canal, mapa, CABECERA);
+    }
+
+    /**
+     * Abre un segmento existente y recorre sus registros válidos.
+     */
+    static SegmentoRegistro abrir(Path archivo, int numero, Visitante visitante) throws IOException {
+        FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer mapa = canal.map(FileChannel.MapMode.READ_WRITE, 0, canal.size());
+        if (mapa.capacity() < CABECERA || mapa.getInt(0) != MAGIA || mapa.getInt(4) != VERSION) {
+            canal.close();
+            throw new IOException("Segmento inválido: " + archivo);
+        }
+        int posicion = CABECERA;
+        while (posicion + CABECERA_REGISTRO <= mapa.capacity()) {
+            int largo = mapa.getInt(posicion);
+            if (largo <= 0 || posicion + 8 + largo > mapa.capacity()) {
+                break;
+            }
+            ByteBuffer contenido = mapa.slice(posicion + 8, largo);
+            if (crc(contenido) != mapa.getInt(posicion + 4)) {
+                break;
+            }
+            visitante.registro(posicion, contenido.get(0), mapa.slice(posicion + CABECERA_REGISTRO, largo - 1));
+            posicion += 8 + largo;
+        }
+        // Limpiar una posible escritura a medias para que no parezca válida más adelante
+        if (posicion + 4 <= mapa.capacity()) {
+            mapa.putInt(posicion, 0);
+        }
+        return new SegmentoRegistro(numero, archivo, canal, mapa, posicion);
+    }
+
+    long getSecuenciaInicial() {
+        return secuenciaInicial;
+    }
+
+    int getNumero() {
+        return numero;
+    }
+
+    Path getArchivo() {
+        return archivo;
+    }
+
+    boolean cabe(int largoPayload) {
+        return fin + CABECERA_REGISTRO + largoPayload + 4 <= mapa.capacity();
+    }
+
+    static int maximoPayload(int tamanioSegmento) {
+        return tamanioSegmento - CABECERA - CABECERA_REGISTRO - 4;
+    }
+
+    /**
+     * Agrega un registro y devuelve su posición. Solo un escritor a la vez
+     * (lo garantiza RegistroNotificaciones).
+     */
+    int agregar(byte tipo, ByteBuffer payload) {
+        int posicion = fin;
+        int largo = 1 + payload.remaining();
+        mapa.put(posicion + 8, tipo);
+        mapa.put(posicion + CABECERA_REGISTRO, payload, payload.position(), payload.remaining());
+        mapa.putInt(posicion + 4, crc(mapa.slice(posicion + 8, largo)));
+        // Marca de fin antes del largo: un lector de arranque nunca ve un registro sin terminador
+        mapa.putInt(posicion + 8 + largo, 0);
+        mapa.putInt(posicion, largo);
+        fin = posicion + 8 + largo;
+        return posicion;
+    }
+
+    /** Payload (sin el byte de tipo) del registro en esa posición. */
+    ByteBuffer payload(int posicion) {
+        int largo = mapa.getInt(posicion);
+        return mapa.slice(posicion + CABECERA_REGISTRO, largo - 1);
+    }
+
+    void sincronizar() {
+        mapa.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        sincronizar();
+        canal.close();
+    }
+
+    void eliminar() throws IOException {
+        canal.close();
+        Files.deleteIfExists(archivo);
+    }
+
+    private static int crc(ByteBuffer contenido) {
+        CRC32C crc = new CRC32C();
+        crc.update(contenido.duplicate());
+        return (int) crc.getValue();
+    }
+
+    interface Visitante {
+        void registro(int posicion, byte tipo, ByteBuffer payload) throws IOException;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.notificationservice.registro;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Arreglo de bytes sobre un archivo mapeado, que crece duplicándose. Sirve
+ * para los índices del registro: se reconstruyen al arrancar, así que no
+ * hace falta sincronizarlos a disco, pero al estar mapeados no ocupan heap
+ * por más notificaciones que haya.
+ *
+ * Límite de un MappedByteBuffer: 2 GB por tabla.
+ */
+final class TablaMapeada implements Closeable {
+
+    private final Path archivo;
+    private final FileChannel canal;
+    private volatile MappedByteBuffer mapa;
+
+    TablaMapeada(Path archivo, long bytesIniciales) throws IOException {
+        this.archivo = archivo;
+        Files.deleteIfExists(archivo);
+        this.canal = FileChannel.open(archivo, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.mapa = canal.map(FileChannel.MapMode.READ_WRITE, 0, bytesIniciales);
+    }
+
+    long capacidad() {
+        return mapa.capacity();
+    }
+
+    /**
+     * Amplía el mapeo si {@code bytes} no entra. Lo ya escrito sigue ahí (es
+     * el mismo archivo) y la parte nueva arranca en cero.
+     */
+    void asegurar(long bytes) throws IOException {
+        long actual = mapa.capacity();
+        if (bytes <= actual) {
+            return;
+        }
+        long nueva = actual;
+        while (nueva < bytes) {
+            nueva *= 2;
+        }
+        if (nueva > Integer.MAX_VALUE) {
+            throw new IOException("Índice " + archivo.getFileName() + " supera 2 GB");
+        }
+        mapa = canal.map(FileChannel.MapMode.READ_WRITE, 0, nueva);
+    }
+
+    long getLong(long posicion) {
+        return mapa.getLong((int) posicion);
+    }
+
+    int getInt(long posicion) {
+        return mapa.getInt((int) posicion);
+    }
+
+    void putLong(long posicion, long valor) {
+        mapa.putLong((int) posicion, valor);
+    }
+
+    void putInt(long posicion, int valor) {
+        mapa.putInt((int) posicion, valor);
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+
+    void eliminar() throws IOException {
+        canal.close();
+        Files.deleteIfExists(archivo);
+    }
+}
@@ -0,0 +1,330 @@
+package com.example.notificationservice.resumen;
+
+import com.example.notificationservice.plantillas.PlantillaCompilada;
+import com.example.notificationservice.registro.RegistroNotificaciones;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Resumen de ventas para organizadores: en vez de un email por venta, las
+ * notificaciones de los tipos de notificaciones.resumen.tipos se juntan por
+ * destinatario y sale un solo email (tipo-resumen, RESUMEN_VENTAS) con las
+ * ventas, entradas y recaudación de cada evento. Con miles de ventas por hora
+ * son unos pocos emails por organizador; los compradores siguen recibiendo
+ * su TICKET_COMPRADO al instante (ese tipo no se agrupa).
+ *
+ * - La ventana de un destinatario se abre con su primera venta y se cierra
+ *   ventana-ms después, o antes si junta max-por-resumen ventas.
+ * - Las ventas quedan ENCOLADA en el registro hasta que se envía el resumen
+ *   y pasan al mismo estado final que él. Lo agrupado en memoria se pierde
+ *   al apagar, pero al arrancar se recuperan las ENCOLADA y se vuelven a
+ *   agrupar.
+ * - El resumen guarda en sus datos los notificationId de sus ventas
+ *   ("notificaciones"): un reenvío del resumen no las agrupa otra vez.
+ *
+ * Con habilitado=false cada venta se envía sola con su propia plantilla.
+ */
+@Service
+public class ResumenVentas {
+
+    private static final Logger log = LoggerFactory.getLogger(ResumenVentas.class);
+
+    private static final DateTimeFormatter FORMATO_FECHA =
+            DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm").withZone(ZoneId.systemDefault());
+    private static final int ANCHO_EVENTO = 32;
+
+    @Value("${notificaciones.resumen.habilitado:true}")
+    private boolean habilitado;
+
+    @Value("${notificaciones.resumen.tipos:VENTA_ENTRADAS}")
+    private Set<String> tipos;
+
+    @Value("${notificaciones.resumen.tipo-resumen:RESUMEN_VENTAS}")
+    private String tipoResumen;
+
+    @Value("${notificaciones.resumen.ventana-ms:300000}")
+    private long ventanaMs;
+
+    @Value("${notificaciones.resumen.max-por-resumen:5000}")
+    private int maxPorResumen;
+
+    // Clave: destinatario en minúsculas
+    private final Map<String, Ventana> abiertas = new HashMap<>();
+    private final AtomicLong agrupadas = new AtomicLong();
+    private final AtomicLong resumenes = new AtomicLong();
+    private ScheduledExecutorService programador;
+    private volatile Consumer<Resumen> alCerrar;
+
+    @PostConstruct
+    public void iniciar() {
+        programador = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "resumen-ventas"));
+        if (habilitado) {
+            log.info("Resumen de ventas activo: {} se agrupan por destinatario cada {} ms en {}",
+                    tipos, ventanaMs, tipoResumen);
+        }
+    }
+
+    /**
+     * Las ventanas abiertas se descartan: sus ventas siguen ENCOLADA en el
+     * registro y se reagrupan al arrancar.
+     */
+    @PreDestroy
+    public void detener() {
+        programador.shutdownNow();
+    }
+
+    /** Quién envía cada resumen cerrado (lo registra NotificationService). */
+    public void alCerrar(Consumer<Resumen> alCerrar) {
+        this.alCerrar = alCerrar;
+    }
+
+    /** true si las notificaciones de este tipo van al resumen en vez de enviarse una por una. */
+    public boolean agrupa(String tipo) {
+        return habilitado && tipos.contains(tipo);
+    }
+
+    public boolean esResumen(String tipo) {
+        return tipoResumen.equals(tipo);
+    }
+
+    public String getTipoResumen() {
+        return tipoResumen;
+    }
+
+    /**
+     * Suma una venta (ya registrada y ENCOLADA) a la ventana de su destinatario.
+     * Usa eventoId, eventoNombre, cantidad y total de los datos.
+     */
+    public void agregar(long secuencia, String destinatario, String idioma, Map<String, Object> datos) {
+        String clave = destinatario.trim().toLowerCase(Locale.ROOT);
+        Resumen lleno = null;
+        synchronized (abiertas) {
+            Ventana ventana = abiertas.get(clave);
+            if (ventana == null) {
+                Ventana nueva = new Ventana(destinatario, idioma);
+                abiertas.put(clave, nueva);
+                programador.schedule(() -> cerrar(clave, nueva), ventanaMs, TimeUnit.MILLISECONDS);
+                ventana = nueva;
+            }
+            ventana.agregar(secuencia, datos != null ? datos : Map.of());
+            if (ventana.secuencias.size() >= maxPorResumen) {
+                abiertas.remove(clave);
+                lleno = ventana.resumen();
+            }
+        }
+        agrupadas.incrementAndGet();
+        if (lleno != null) {
+            entregar(lleno);
+        }
+    }
+
+    private void cerrar(String clave, Ventana ventana) {
+        Resumen resumen;
+        synchronized (abiertas) {
+            // Pudo cerrarse antes por max-por-resumen, y quizá ya hay otra abierta
+            if (!abiertas.remove(clave, ventana)) {
+                return;
+            }
+            resumen = ventana.resumen();
+        }
+        entregar(resumen);
+    }
+
+    private void entregar(Resumen resumen) {
+        resumenes.incrementAndGet();
+        try {
+            alCerrar.accept(resumen);
+        } catch (RuntimeException e) {
+            log.error("No se pudo enviar el resumen de {} ventas a {}: {}", resumen.secuencias().size(),
+                    resumen.destinatario(), e.getMessage());
+        }
+    }
+
+    public int getVentanasAbiertas() {
+        synchronized (abiertas) {
+            return abiertas.size();
+        }
+    }
+
+    public long getAgrupadas() {
+        return agrupadas.get();
+    }
+
+    public long getResumenes() {
+        return resumenes.get();
+    }
+
+    /** Secuencias de las ventas que cubre un resumen, leídas de sus datos. */
+    public static List<Long> agrupadas(Map<String, Object> datos) {
+        Object ids = datos != null ? datos.get("notificaciones") : null;
+        if (!(ids instanceof List<?> lista)) {
+            return List.of();
+        }
+        List<Long> secuencias = new ArrayList<>(lista.size());
+        for (Object id : lista) {
+            long secuencia = RegistroNotificaciones.secuenciaDe(String.valueOf(id));
+            if (secuencia > 0) {
+                secuencias.add(secuencia);
+            }
+        }
+        return secuencias;
+    }
+
+    /**
+     * Datos del resumen más las filas por evento ya armadas: "detalle" (texto
+     * en columnas) y "detalleHtml" (filas de tabla escapadas, para {{{detalleHtml}}}).
+     * Las plantillas no tienen bucles.
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> conDetalle(Map<String, Object> datos) {
+        StringBuilder texto = new StringBuilder();
+        StringBuilder html = new StringBuilder();
+        if (datos.get("eventos") instanceof List<?> eventos) {
+            for (Object elemento : eventos) {
+                if (!(elemento instanceof Map<?, ?> fila)) {
+                    continue;
+                }
+                Map<String, Object> evento = (Map<String, Object>) fila;
+                String nombre = String.valueOf(evento.get("eventoNombre"));
+                if (nombre.length() > ANCHO_EVENTO) {
+                    nombre = nombre.substring(0, ANCHO_EVENTO - 1) + "…";
+                }
+                texto.append(String.format("%-" + ANCHO_EVENTO + "s %7s %9s %13s%n", nombre,
+                        evento.get("ventas"), evento.get("entradas"), "$" + evento.get("total")));
+
+                html.append("<tr><td>");
+                PlantillaCompilada.escaparHtml(String.valueOf(evento.get("eventoNombre")), html);
+                html.append("</td><td align=\"right\">").append(evento.get("ventas"))
+                        .append("</td><td align=\"right\">").append(evento.get("entradas"))
+                        .append("</td><td align=\"right\">$");
+                PlantillaCompilada.escaparHtml(String.valueOf(evento.get("total")), html);
+                html.append("</td></tr>\n");
+            }
+        }
+        Map<String, Object> resultado = new HashMap<>(datos);
+        resultado.put("detalle", texto.toString());
+        resultado.put("detalleHtml", html.toString());
+        return resultado;
+    }
+
+    private static long entero(Object valor) {
+        if (valor instanceof Number numero) {
+            return numero.longValue();
+        }
+        try {
+            return valor != null ? Long.parseLong(valor.toString().trim()) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static BigDecimal decimal(Object valor) {
+        try {
+            return valor != null ? new BigDecimal(valor.toString().trim()) : BigDecimal.ZERO;
+        } catch (NumberFormatException e) {
+            return BigDecimal.ZERO;
+        }
+    }
+
+    private static String importe(BigDecimal valor) {
+        return valor.setScale(2, RoundingMode.HALF_UP).toPlainString();
+    }
+
+    /**
+     * Un resumen listo para registrar y enviar.
+     *
+     * @param secuencias ventas que cubre, para pasarlas al estado final del resumen
+     * @param datos      valores de la plantilla; se guardan tal cual en el registro
+     */
+    public record Resumen(String destinatario, String idioma, List<Long> secuencias, Map<String, Object> datos) {
+    }
+
+    private static final class Ventana {
+
+        private final String destinatario;
+        private final String idioma;
+        private final Instant desde = Instant.now();
+        private final List<Long> secuencias = new ArrayList<>();
+        // Clave: eventoId, o el nombre si la venta no trae id
+        private final Map<String, VentasEvento> eventos = new LinkedHashMap<>();
+
+        Ventana(String destinatario, String idioma) {
+            this.destinatario = destinatario;
+            this.idioma = idioma;
+        }
+
+        void agregar(long secuencia, Map<String, Object> datos) {
+            secuencias.add(secuencia);
+            Object eventoId = datos.get("eventoId");
+            String eventoNombre = datos.get("eventoNombre") != null ? datos.get("eventoNombre").toString() : "-";
+            String clave = eventoId != null ? eventoId.toString() : eventoNombre;
+            VentasEvento evento = eventos.computeIfAbsent(clave, k -> new VentasEvento(eventoId, eventoNombre));
+            evento.ventas++;
+            evento.entradas += entero(datos.get("cantidad"));
+            evento.total = evento.total.add(decimal(datos.get("total")));
+        }
+
+        Resumen resumen() {
+            List<Map<String, Object>> filas = new ArrayList<>(eventos.size());
+            long entradas = 0;
+            BigDecimal total = BigDecimal.ZERO;
+            for (VentasEvento evento : eventos.values()) {
+                Map<String, Object> fila = new LinkedHashMap<>();
+                fila.put("eventoId", evento.eventoId);
+                fila.put("eventoNombre", evento.eventoNombre);
+                fila.put("ventas", evento.ventas);
+                fila.put("entradas", evento.entradas);
+                fila.put("total", importe(evento.total));
+                filas.add(fila);
+                entradas += evento.entradas;
+                total = total.add(evento.total);
+            }
+            Map<String, Object> datos = new LinkedHashMap<>();
+            datos.put("desde", FORMATO_FECHA.format(desde));
+            datos.put("hasta", FORMATO_FECHA.format(Instant.now()));
+            datos.put("ventas", secuencias.size());
+            datos.put("entradas", entradas);
+            datos.put("total", importe(total));
+            datos.put("cantidadEventos", filas.size());
+            datos.put("eventos", filas);
+            datos.put("notificaciones", secuencias.stream().map(RegistroNotificaciones::notificationId).toList());
+            return new Resumen(destinatario, idioma, List.copyOf(secuencias), datos);
+        }
+    }
+
+    private static final class VentasEvento {
+
+        private final Object eventoId;
+        private final String eventoNombre;
+        private int ventas;
+        private long entradas;
+        private BigDecimal total = BigDecimal.ZERO;
+
+        VentasEvento(Object eventoId, String eventoNombre) {
+            this.eventoId = eventoId;
+            this.eventoNombre = eventoNombre;
+        }
+    }
+}
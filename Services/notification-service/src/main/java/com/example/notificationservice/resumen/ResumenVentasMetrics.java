@@ -0,0 +1,36 @@
+package com.example.notificationservice.resumen;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Métricas del resumen de ventas:
+ * - notificaciones.resumen.ventanas: destinatarios con una ventana abierta.
+ * - notificaciones.resumen.agrupadas / enviados: la razón entre ambos es
+ *   cuántos emails por venta se ahorran.
+ */
+@Component
+public class ResumenVentasMetrics implements MeterBinder {
+
+    private final ResumenVentas resumen;
+
+    public ResumenVentasMetrics(ResumenVentas resumen) {
+        this.resumen = resumen;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("notificaciones.resumen.ventanas", resumen, ResumenVentas::getVentanasAbiertas)
+                .description("Destinatarios con un resumen en curso")
+                .register(registry);
+        FunctionCounter.builder("notificaciones.resumen.agrupadas", resumen, ResumenVentas::getAgrupadas)
+                .description("Ventas agregadas a un resumen en vez de enviarse solas")
+                .register(registry);
+        FunctionCounter.builder("notificaciones.resumen.enviados", resumen, ResumenVentas::getResumenes)
+                .description("Resúmenes cerrados y enviados")
+                .register(registry);
+    }
+}
@@ -0,0 +1,378 @@
+package com.example.notificationservice.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.mail.MailException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Envío de emails en segundo plano, fuera del hilo HTTP.
+ *
+ * - Cola acotada (notificaciones.despacho.capacidad): encolar() espera a lo
+ *   sumo espera-cola-ms por un lugar; si sigue llena devuelve false y el
+ *   controller responde 503/ERROR, así el outbox de quien llama reintenta con
+ *   backoff en vez de apilar mensajes en memoria.
+ * - Trabajadores fijos, cada uno con SU conexión SMTP ya autenticada que se
+ *   reutiliza mensaje tras mensaje (antes cada send abría sesión, STARTTLS y
+ *   AUTH). Se cierra cada max-por-conexion mensajes (los servidores limitan
+ *   los mensajes por sesión) o tras conexion-inactiva-ms sin uso; si el
+ *   servidor la cortó se reabre y se reintenta una vez.
+ * - Límite de envíos simultáneos por dominio del destinatario
+ *   (limite-por-dominio, con excepciones en limites-dominio): un dominio
+ *   lento o que aplica rate limiting no ocupa todos los trabajadores. Lo que
+ *   excede el límite espera en una cola del dominio y lo toma el trabajador
+ *   que libera el permiso.
+ */
+@Service
+public class DespachoCorreos {
+
+    private static final Logger log = LoggerFactory.getLogger(DespachoCorreos.class);
+
+    private final JavaMailSender mailSender;
+    private final int capacidad;
+    private final int trabajadores;
+    private final long esperaColaMs;
+    private final int maxPorConexion;
+    private final long conexionInactivaMs;
+    private final int limitePorDominio;
+    // Formato: gmail.com:4,outlook.com:2
+    private final String limitesDominio;
+
+    /**
+     * Sin JavaMailSender (mail no configurado) el despacho queda inactivo. Los
+     * tests y benchmarks lo construyen directamente, sin contexto de Spring.
+     */
+    public DespachoCorreos(@Nullable JavaMailSender mailSender,
+                           @Value("${notificaciones.despacho.capacidad:10000}") int capacidad,
+                           @Value("${notificaciones.despacho.trabajadores:4}") int trabajadores,
+                           @Value("${notificaciones.despacho.espera-cola-ms:200}") long esperaColaMs,
+                           @Value("${notificaciones.despacho.max-por-conexion:100}") int maxPorConexion,
+                           @Value("${notificaciones.despacho.conexion-inactiva-ms:30000}") long conexionInactivaMs,
+                           @Value("${notificaciones.despacho.limite-por-dominio:2}") int limitePorDominio,
+                           @Value("${notificaciones.despacho.limites-dominio:}") String limitesDominio) {
+        this.mailSender = mailSender;
+        this.capacidad = capacidad;
+        this.trabajadores = trabajadores;
+        this.esperaColaMs = esperaColaMs;
+        this.maxPorConexion = maxPorConexion;
+        this.conexionInactivaMs = conexionInactivaMs;
+        this.limitePorDominio = limitePorDominio;
+        this.limitesDominio = limitesDominio;
+    }
+
+    private final BlockingQueue<Envio> cola = new LinkedBlockingQueue<>();
+    private final Map<String, Dominio> dominios = new ConcurrentHashMap<>();
+    private final Map<String, Integer> limites = new HashMap<>();
+    private final List<Thread> hilos = new ArrayList<>();
+    private Semaphore cupos;
+    private volatile boolean activo;
+
+    private final AtomicLong enviados = new AtomicLong();
+    private final AtomicLong fallidos = new AtomicLong();
+    private final AtomicLong rechazados = new AtomicLong();
+    private final AtomicLong conexionesAbiertas = new AtomicLong();
+    private final AtomicInteger conexionesActivas = new AtomicInteger();
+    private final LongAdder nanosEnvio = new LongAdder();
+    private final LongAdder nanosEspera = new LongAdder();
+
+    @PostConstruct
+    public void iniciar() {
+        if (mailSender == null) {
+            return;
+        }
+        cupos = new Semaphore(capacidad);
+        for (String par : limitesDominio.split(",")) {
+            String[] partes = par.trim().split(":");
+            if (partes.length == 2) {
+                limites.put(partes[0].trim().toLowerCase(Locale.ROOT), Integer.parseInt(partes[1].trim()));
+            }
+        }
+        activo = true;
+        for (int i = 1; i <= trabajadores; i++) {
+            Thread hilo = new Thread(this::trabajar, "smtp-despacho-" + i);
+            hilo.start();
+            hilos.add(hilo);
+        }
+        log.info("Despacho de emails activo: {} trabajadores, cola de {}, {} por dominio",
+                trabajadores, capacidad, limitePorDominio);
+    }
+
+    /**
+     * Deja de aceptar mensajes y espera a que los trabajadores vacíen la cola.
+     */
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        activo = false;
+        for (Thread hilo : hilos) {
+            hilo.join(TimeUnit.SECONDS.toMillis(30));
+        }
+    }
+
+    public boolean isActivo() {
+        return activo;
+    }
+
+    /**
+     * Encola un mensaje creado con {@link #crearMensaje()}. Devuelve false si
+     * la cola sigue llena después de espera-cola-ms.
+     *
+     * @param alTerminar se llama desde el trabajador con el resultado del envío (puede ser null)
+     */
+    public boolean encolar(MimeMessage mensaje, String tipo, String destinatario, String notificationId,
+                           AlTerminar alTerminar) {
+        if (!activo) {
+            return false;
+        }
+        try {
+            if (!cupos.tryAcquire(esperaColaMs, TimeUnit.MILLISECONDS)) {
+                rechazados.incrementAndGet();
+                log.warn("Cola de emails llena ({}), rechazado {} a {} [{}]", capacidad, tipo, destinatario, notificationId);
+                return false;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        cola.add(new Envio(mensaje, tipo, destinatario, notificationId, dominio(destinatario), System.nanoTime(),
+                alTerminar));
+        return true;
+    }
+
+    public MimeMessage crearMensaje() {
+        return mailSender.createMimeMessage();
+    }
+
+    private void trabajar() {
+        Conexion conexion = new Conexion();
+        try {
+            while (activo || !cola.isEmpty()) {
+                Envio envio = cola.poll(1, TimeUnit.SECONDS);
+                if (envio == null) {
+                    conexion.cerrarSiInactiva();
+                    continue;
+                }
+                despachar(envio, conexion);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            conexion.cerrar();
+        }
+    }
+
+    /**
+     * El mensaje entra a la cola de su dominio y se envían mensajes del
+     * dominio mientras haya permiso. Si no lo hay, quien tiene el permiso lo
+     * vuelve a intentar después de liberarlo, así ningún mensaje queda
+     * esperando sin dueño.
+     */
+    private void despachar(Envio envio, Conexion conexion) {
+        Dominio dominio = dominios.computeIfAbsent(envio.dominio(),
+                d -> new Dominio(limites.getOrDefault(d, limitePorDominio)));
+        dominio.pendientes.add(envio);
+        while (!dominio.pendientes.isEmpty() && dominio.permisos.tryAcquire()) {
+            try {
+                Envio siguiente = dominio.pendientes.poll();
+                if (siguiente != null) {
+                    enviar(siguiente, conexion);
+                }
+            } finally {
+                dominio.permisos.release();
+            }
+        }
+    }
+
+    private void enviar(Envio envio, Conexion conexion) {
+        long inicio = System.nanoTime();
+        nanosEspera.add(inicio - envio.encolado());
+        String error = null;
+        try {
+            conexion.enviar(envio.mensaje());
+            enviados.incrementAndGet();
+            log.info("Email {} enviado a: {} [{}]", envio.tipo(), envio.destinatario(), envio.notificationId());
+        } catch (MessagingException | MailException e) {
+            error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            fallidos.incrementAndGet();
+            log.error("Error enviando email {} a {}: {}", envio.tipo(), envio.destinatario(), error);
+        } finally {
+            nanosEnvio.add(System.nanoTime() - inicio);
+            cupos.release();
+        }
+        if (envio.alTerminar() != null) {
+            try {
+                envio.alTerminar().terminado(error == null, error);
+            } catch (RuntimeException e) {
+                log.warn("Error registrando el resultado de {}: {}", envio.notificationId(), e.getMessage());
+            }
+        }
+    }
+
+    private static String dominio(String destinatario) {
+        int arroba = destinatario != null ? destinatario.lastIndexOf('@') : -1;
+        return arroba >= 0 ? destinatario.substring(arroba + 1).toLowerCase(Locale.ROOT) : "";
+    }
+
+    /** Mensajes en cola o esperando el permiso de su dominio. */
+    public int getEnCola() {
+        return cupos != null ? capacidad - cupos.availablePermits() : 0;
+    }
+
+    public int getCapacidad() {
+        return capacidad;
+    }
+
+    public long getEnviados() {
+        return enviados.get();
+    }
+
+    public long getFallidos() {
+        return fallidos.get();
+    }
+
+    public long getRechazados() {
+        return rechazados.get();
+    }
+
+    public long getIntentos() {
+        return enviados.get() + fallidos.get();
+    }
+
+    public double getNanosEnvio() {
+        return nanosEnvio.sum();
+    }
+
+    public double getNanosEspera() {
+        return nanosEspera.sum();
+    }
+
+    public long getConexionesAbiertas() {
+        return conexionesAbiertas.get();
+    }
+
+    public int getConexionesActivas() {
+        return conexionesActivas.get();
+    }
+
+    /**
+     * Conexión SMTP de un trabajador. Sin JavaMailSenderImpl (no se conoce la
+     * sesión) cae a mailSender.send, que abre una conexión por mensaje.
+     */
+    private final class Conexion {
+
+        private Transport transporte;
+        private int mensajes;
+        private long ultimoUso;
+
+        void enviar(MimeMessage mensaje) throws MessagingException {
+            if (!(mailSender instanceof JavaMailSenderImpl smtp)) {
+                mailSender.send(mensaje);
+                return;
+            }
+            if (mensaje.getSentDate() == null) {
+                mensaje.setSentDate(new Date());
+            }
+            mensaje.saveChanges();
+            boolean reutilizada = transporte != null;
+            try {
+                abrir(smtp).sendMessage(mensaje, mensaje.getAllRecipients());
+            } catch (SendFailedException e) {
+                // Destinatario rechazado: la conexión sigue sirviendo
+                throw e;
+            } catch (MessagingException e) {
+                cerrar();
+                if (!reutilizada) {
+                    throw e;
+                }
+                // El servidor pudo haber cortado la conexión reutilizada: una vez más con una nueva
+                abrir(smtp).sendMessage(mensaje, mensaje.getAllRecipients());
+            }
+            ultimoUso = System.currentTimeMillis();
+            if (++mensajes >= maxPorConexion) {
+                cerrar();
+            }
+        }
+
+        private Transport abrir(JavaMailSenderImpl smtp) throws MessagingException {
+            if (transporte == null) {
+                Session session = smtp.getSession();
+                Transport nuevo = session.getTransport(smtp.getProtocol() != null ? smtp.getProtocol() : "smtp");
+                String usuario = smtp.getUsername();
+                String clave = smtp.getPassword();
+                nuevo.connect(smtp.getHost(), smtp.getPort(),
+                        usuario == null || usuario.isEmpty() ? null : usuario,
+                        clave == null || clave.isEmpty() ? null : clave);
+                transporte = nuevo;
+                mensajes = 0;
+                conexionesAbiertas.incrementAndGet();
+                conexionesActivas.incrementAndGet();
+            }
+            return transporte;
+        }
+
+        void cerrarSiInactiva() {
+            if (transporte != null && System.currentTimeMillis() - ultimoUso > conexionInactivaMs) {
+                cerrar();
+            }
+        }
+
+        void cerrar() {
+            if (transporte == null) {
+                return;
+            }
+            try {
+                transporte.close();
+            } catch (MessagingException e) {
+                log.debug("Error cerrando conexión SMTP: {}", e.getMessage());
+            }
+            transporte = null;
+            conexionesActivas.decrementAndGet();
+        }
+    }
+
+    private static final class Dominio {
+
+        final Semaphore permisos;
+        final Queue<Envio> pendientes = new ConcurrentLinkedQueue<>();
+
+        Dominio(int limite) {
+            this.permisos = new Semaphore(Math.max(1, limite));
+        }
+    }
+
+    private record Envio(MimeMessage mensaje, String tipo, String destinatario, String notificationId,
+                         String dominio, long encolado, AlTerminar alTerminar) {
+    }
+
+    @FunctionalInterface
+    public interface AlTerminar {
+        void terminado(boolean enviado, String error);
+    }
+}
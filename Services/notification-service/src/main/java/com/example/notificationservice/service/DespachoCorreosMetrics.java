@@ -0,0 +1,62 @@
+package com.example.notificationservice.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Métricas del despacho de emails:
+ * - notificaciones.cola.profundidad / capacidad: mensajes sin enviar.
+ * - notificaciones.cola.espera: tiempo en cola hasta que un trabajador lo toma.
+ * - notificaciones.smtp.envio: latencia del envío por la conexión SMTP.
+ * - notificaciones.smtp.conexiones.activas / abiertas: abiertas muy por encima
+ *   de enviados/max-por-conexion indica que las conexiones no se reutilizan.
+ * - notificaciones.enviados / fallidos / rechazados (cola llena).
+ */
+@Component
+public class DespachoCorreosMetrics implements MeterBinder {
+
+    private final DespachoCorreos despacho;
+
+    public DespachoCorreosMetrics(DespachoCorreos despacho) {
+        this.despacho = despacho;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("notificaciones.cola.profundidad", despacho, DespachoCorreos::getEnCola)
+                .description("Emails encolados sin enviar")
+                .register(registry);
+        Gauge.builder("notificaciones.cola.capacidad", despacho, DespachoCorreos::getCapacidad)
+                .description("Capacidad de la cola de emails")
+                .register(registry);
+        FunctionTimer.builder("notificaciones.cola.espera", despacho,
+                        DespachoCorreos::getIntentos, DespachoCorreos::getNanosEspera, TimeUnit.NANOSECONDS)
+                .description("Espera en cola hasta el envío")
+                .register(registry);
+        FunctionTimer.builder("notificaciones.smtp.envio", despacho,
+                        DespachoCorreos::getIntentos, DespachoCorreos::getNanosEnvio, TimeUnit.NANOSECONDS)
+                .description("Latencia del envío SMTP")
+                .register(registry);
+        Gauge.builder("notificaciones.smtp.conexiones.activas", despacho, DespachoCorreos::getConexionesActivas)
+                .description("Conexiones SMTP abiertas ahora")
+                .register(registry);
+        FunctionCounter.builder("notificaciones.smtp.conexiones.abiertas", despacho, DespachoCorreos::getConexionesAbiertas)
+                .description("Conexiones SMTP abiertas desde el arranque")
+                .register(registry);
+        FunctionCounter.builder("notificaciones.enviados", despacho, DespachoCorreos::getEnviados)
+                .description("Emails entregados al servidor SMTP")
+                .register(registry);
+        FunctionCounter.builder("notificaciones.fallidos", despacho, DespachoCorreos::getFallidos)
+                .description("Emails que el servidor SMTP no aceptó")
+                .register(registry);
+        FunctionCounter.builder("notificaciones.rechazados", despacho, DespachoCorreos::getRechazados)
+                .description("Emails rechazados por cola llena")
+                .register(registry);
+    }
+}
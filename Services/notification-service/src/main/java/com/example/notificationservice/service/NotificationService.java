@@ -2,36 +2,63 @@ package com.example.notificationservice.service;
 
 import com.example.notificationservice.dto.NotificationRequest;
 import com.example.notificationservice.dto.NotificationResponse;
+import com.example.notificationservice.plantillas.MotorPlantillas;
+import com.example.notificationservice.plantillas.Plantilla;
+import com.example.notificationservice.registro.EstadoNotificacion;
+import com.example.notificationservice.registro.NotificacionRegistrada;
+import com.example.notificationservice.registro.RegistroNotificaciones;
+import com.example.notificationservice.resumen.ResumenVentas;
+import jakarta.annotation.PostConstruct;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.mail.SimpleMailMessage;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
-import java.util.UUID;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * Servicio de Notificaciones con Soporte para Email Real y Fallback a Logs.
- * 
+ *
  * MODOS DE OPERACIÓN:
  * 1. MODO PRODUCCIÓN: Si mailSender está configurado → Envía emails reales via Gmail SMTP
  * 2. MODO DESARROLLO: Si mailSender es null → Simula emails en logs (fallback automático)
- * 
- * TIPOS DE NOTIFICACIONES:
+ *
+ * TIPOS DE NOTIFICACIONES (plantillas en resources/plantillas/{idioma}/):
  * - BIENVENIDA: Al registrar usuario
  * - EVENTO_CREADO: Al publicar evento
  * - TICKET_COMPRADO: Al confirmar compra
  * - PAGO_RECHAZADO: Al fallar pago
  * - PASSWORD_RESET: Al solicitar restablecimiento de contraseña
- * 
+ * - VENTA_ENTRADAS: Al organizador por cada venta; se agrupa en un RESUMEN_VENTAS
+ *
  * CARACTERÍSTICAS:
- * - @Async: Procesamiento asíncrono (no bloquea la operación principal)
- * - Graceful degradation: Si falla SMTP, cae a logs (no rompe el flujo)
- * - Notification ID único para tracking
- * 
+ * - Plantillas precompiladas por tipo e idioma ({@link MotorPlantillas}):
+ *   asunto, texto plano y HTML; el email sale multipart si hay HTML.
+ * - Envío asíncrono: el mensaje se arma aquí y lo envía {@link DespachoCorreos}
+ *   (cola acotada, conexiones SMTP reutilizadas, límite por dominio). La
+ *   respuesta es QUEUED; con la cola llena es ERROR y se puede reintentar.
+ * - Registro durable ({@link RegistroNotificaciones}): cada notificación y
+ *   sus cambios de estado quedan en disco. El notificationId sirve para
+ *   consultarla; una idempotencyKey repetida devuelve la notificación ya
+ *   registrada en vez de enviarla otra vez, salvo que haya fallado.
+ * - Resumen por destinatario ({@link ResumenVentas}): las ventas para el
+ *   organizador no se envían al llegar; se juntan en una ventana y sale un
+ *   solo email con las ventas por evento.
+ *
  */
 @Service
 public class NotificationService {
@@ -41,266 +68,234 @@ public class NotificationService {
     @Autowired(required = false) // required=false permite fallback si no está configurado
     private JavaMailSender mailSender;
 
+    @Autowired
+    private DespachoCorreos despacho;
+
+    @Autowired
+    private MotorPlantillas plantillas;
+
+    @Autowired
+    private RegistroNotificaciones registro;
+
+    @Autowired
+    private ResumenVentas resumenes;
+
+    @PostConstruct
+    public void iniciar() {
+        resumenes.alCerrar(this::enviarResumen);
+    }
+
     public NotificationResponse enviarNotificacion(NotificationRequest request) {
-        String notificationId = "NOT-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-        
-        // Simular envío de email/SMS basado en el tipo
-        switch (request.getTipo()) {
-            case "BIENVENIDA":
-                enviarBienvenida(request, notificationId);
-                break;
-            case "EVENTO_CREADO":
-                enviarEventoCreado(request, notificationId);
-                break;
-            case "TICKET_COMPRADO":
-                enviarTicketComprado(request, notificationId);
-                break;
-            case "PAGO_RECHAZADO":
-                enviarPagoRechazado(request, notificationId);
-                break;
-            case "PASSWORD_RESET":
-                enviarPasswordReset(request, notificationId);
-                break;
-            default:
-                log.warn("[{}] Tipo de notificación desconocido: {}", notificationId, request.getTipo());
-                return new NotificationResponse(notificationId, "FAILED", Instant.now(), "Tipo de notificación no soportado");
+        boolean agrupar = resumenes.agrupa(request.getTipo());
+        Plantilla plantilla = agrupar ? null : plantillas.buscar(request.getTipo(), request.getIdioma());
+        if (plantilla == null && !agrupar) {
+            log.warn("Tipo de notificación desconocido: {}", request.getTipo());
+            return new NotificationResponse(null, "FAILED", Instant.now(), "Tipo de notificación no soportado");
         }
 
-        return new NotificationResponse(
-            notificationId,
-            "SENT",
-            Instant.now(),
-            "Notificación enviada exitosamente"
-        );
+        RegistroNotificaciones.Alta alta;
+        try {
+            alta = registro.registrar(request.getIdempotencyKey(), request.getTipo(), request.getDestinatario(),
+                    request.getIdioma(), request.getDatos());
+        } catch (IllegalArgumentException e) {
+            log.warn("Notificación {} a {} no registrable: {}", request.getTipo(), request.getDestinatario(), e.getMessage());
+            return new NotificationResponse(null, "FAILED", Instant.now(), e.getMessage());
+        }
+        if (!alta.nueva() && !alta.estado().admiteReintento()) {
+            log.info("[{}] Notificación repetida (clave {}), ya está {}", alta.notificationId(),
+                    request.getIdempotencyKey(), alta.estado());
+            return new NotificationResponse(alta.notificationId(), alta.estado().getStatus(), Instant.now(),
+                    "Notificación ya registrada");
+        }
+        if (agrupar) {
+            return agrupar(alta.secuencia(), request.getDestinatario(), request.getIdioma(), request.getDatos());
+        }
+        return despachar(alta.secuencia(), plantilla, request.getTipo(), request.getDestinatario(), request.getDatos(),
+                List.of());
     }
 
-    @Async
-    private void enviarBienvenida(NotificationRequest request, String notificationId) {
-        String nombre = (String) request.getDatos().get("nombre");
-        
-        if (mailSender == null) {
-            // Modo simulación - solo logs
-            log.info("╔═══════════════════════════════════════════════════════════╗");
-            log.info("║           📧 SIMULACIÓN EMAIL - BIENVENIDA               ║");
-            log.info("╠═══════════════════════════════════════════════════════════╣");
-            log.info("║ ID: {}", String.format("%-52s", notificationId) + "║");
-            log.info("║ Para: {}", String.format("%-50s", request.getDestinatario()) + "║");
-            log.info("║ Asunto: Bienvenido a SOA Ticketing                       ║");
-            log.info("║ Mensaje: Hola {}, tu cuenta ha sido creada", String.format("%-29s", nombre) + "║");
-            log.info("╚═══════════════════════════════════════════════════════════╝");
-            return;
+    /**
+     * Envía cada notificación del lote; la falla de una no corta las demás.
+     */
+    public List<NotificationResponse> enviarLote(List<NotificationRequest> requests) {
+        List<NotificationResponse> respuestas = new ArrayList<>(requests.size());
+        for (NotificationRequest request : requests) {
+            try {
+                respuestas.add(enviarNotificacion(request));
+            } catch (RuntimeException e) {
+                log.error("Error enviando notificación {} a {}: {}", request.getTipo(), request.getDestinatario(), e.getMessage());
+                respuestas.add(new NotificationResponse(null, "ERROR", Instant.now(), e.getMessage()));
+            }
         }
-        
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(request.getDestinatario());
-            message.setSubject("🎉 Bienvenido a SOA Ticketing");
-            message.setText(
-                "Hola " + nombre + ",\n\n" +
-                "¡Bienvenido a nuestro sistema de venta de entradas!\n" +
-                "Tu cuenta ha sido creada exitosamente.\n\n" +
-                "Ahora puedes comprar entradas para tus eventos favoritos.\n\n" +
-                "Saludos,\n" +
-                "Equipo SOA Ticketing\n\n" +
-                "Notification ID: " + notificationId
-            );
-            
-            mailSender.send(message);
-            log.info("Email BIENVENIDA enviado a: {} [{}]", request.getDestinatario(), notificationId);
-            
-        } catch (Exception e) {
-            log.error("Error enviando email BIENVENIDA a {}: {}", request.getDestinatario(), e.getMessage());
-            throw new RuntimeException("Error enviando email", e);
+        log.info("Lote de {} notificaciones procesado", requests.size());
+        return respuestas;
+    }
+
+    /**
+     * Vuelve a enviar notificaciones del registro (después de una caída del
+     * SMTP, por ejemplo). Se renderizan de nuevo con las plantillas actuales.
+     * Las ventas vuelven a agruparse, salvo las que cubre un resumen de la
+     * misma lista: esas pasan al estado del resumen al reenviarlo.
+     */
+    public List<NotificationResponse> reenviar(List<NotificacionRegistrada> notificaciones) {
+        Set<Long> cubiertas = new HashSet<>();
+        for (NotificacionRegistrada notificacion : notificaciones) {
+            if (resumenes.esResumen(notificacion.tipo())) {
+                cubiertas.addAll(ResumenVentas.agrupadas(notificacion.datos()));
+            }
+        }
+        List<NotificationResponse> respuestas = new ArrayList<>(notificaciones.size());
+        for (NotificacionRegistrada notificacion : notificaciones) {
+            long secuencia = RegistroNotificaciones.secuenciaDe(notificacion.notificationId());
+            if (resumenes.agrupa(notificacion.tipo())) {
+                if (!cubiertas.contains(secuencia)) {
+                    respuestas.add(agrupar(secuencia, notificacion.destinatario(), notificacion.idioma(),
+                            notificacion.datos()));
+                }
+                continue;
+            }
+            Plantilla plantilla = plantillas.buscar(notificacion.tipo(), notificacion.idioma());
+            if (plantilla == null) {
+                registro.cambiarEstado(secuencia, EstadoNotificacion.FALLIDA, "Tipo de notificación no soportado");
+                respuestas.add(new NotificationResponse(notificacion.notificationId(), "FAILED", Instant.now(),
+                        "Tipo de notificación no soportado"));
+                continue;
+            }
+            List<Long> agrupadas = resumenes.esResumen(notificacion.tipo())
+                    ? ResumenVentas.agrupadas(notificacion.datos()) : List.of();
+            respuestas.add(despachar(secuencia, plantilla, notificacion.tipo(), notificacion.destinatario(),
+                    notificacion.datos(), agrupadas));
         }
+        log.info("Reenvío de {} notificaciones", notificaciones.size());
+        return respuestas;
     }
 
-    @Async
-    private void enviarEventoCreado(NotificationRequest request, String notificationId) {
-        String eventoNombre = (String) request.getDatos().get("eventoNombre");
-        Object eventoId = request.getDatos().get("eventoId");
-        String fechaEvento = (String) request.getDatos().get("fechaEvento");
-        
-        if (mailSender == null) {
-            // Modo simulación - solo logs
-            log.info("╔═══════════════════════════════════════════════════════════╗");
-            log.info("║         📧 SIMULACIÓN EMAIL - EVENTO CREADO              ║");
-            log.info("╠═══════════════════════════════════════════════════════════╣");
-            log.info("║ ID: {}", String.format("%-52s", notificationId) + "║");
-            log.info("║ Para: {}", String.format("%-50s", request.getDestinatario()) + "║");
-            log.info("║ Evento: {}", String.format("%-48s", eventoNombre) + "║");
-            log.info("║ Fecha: {}", String.format("%-49s", fechaEvento) + "║");
-            log.info("╚═══════════════════════════════════════════════════════════╝");
-            return;
+    public List<NotificationResponse> reenviar(Set<EstadoNotificacion> estados, Instant desde, Instant hasta, int limite) {
+        return reenviar(registro.buscarPorEstado(estados, desde, hasta, limite));
+    }
+
+    public List<NotificationResponse> reenviarPorId(List<String> notificationIds) {
+        List<NotificacionRegistrada> notificaciones = new ArrayList<>(notificationIds.size());
+        for (String notificationId : notificationIds) {
+            registro.buscar(notificationId).ifPresent(notificaciones::add);
         }
-        
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(request.getDestinatario());
-            message.setSubject("📅 Tu evento ha sido publicado");
-            message.setText(
-                "Tu evento '" + eventoNombre + "' ha sido creado exitosamente.\n\n" +
-                "Detalles del evento:\n" +
-                "━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━\n" +
-                "ID del Evento:  " + eventoId + "\n" +
-                "Fecha:          " + fechaEvento + "\n\n" +
-                "Los usuarios ya pueden comprar entradas para tu evento.\n\n" +
-                "Saludos,\n" +
-                "Equipo SOA Ticketing\n\n" +
-                "Notification ID: " + notificationId
-            );
-            
-            mailSender.send(message);
-            log.info("Email EVENTO_CREADO enviado a: {} [{}]", request.getDestinatario(), notificationId);
-            
-        } catch (Exception e) {
-            log.error("Error enviando email EVENTO_CREADO a {}: {}", request.getDestinatario(), e.getMessage());
-            throw new RuntimeException("Error enviando email", e);
+        return reenviar(notificaciones);
+    }
+
+    public Optional<NotificacionRegistrada> consultar(String notificationId) {
+        return registro.buscar(notificationId);
+    }
+
+    /**
+     * Lo que quedó RECIBIDA o ENCOLADA al apagarse (la cola de envío está en
+     * memoria) se vuelve a encolar al arrancar.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recuperarPendientes() {
+        List<NotificacionRegistrada> pendientes = registro.buscarPorEstado(
+                EnumSet.of(EstadoNotificacion.RECIBIDA, EstadoNotificacion.ENCOLADA), null, null, despacho.getCapacidad());
+        if (!pendientes.isEmpty()) {
+            log.info("Recuperando {} notificaciones pendientes del registro", pendientes.size());
+            reenviar(pendientes);
         }
     }
 
-    @Async
-    private void enviarTicketComprado(NotificationRequest request, String notificationId) {
-        String eventoNombre = (String) request.getDatos().get("eventoNombre");
-        String tipoEntrada = (String) request.getDatos().get("tipoEntrada");
-        Object cantidad = request.getDatos().get("cantidad");
-        Object total = request.getDatos().get("total");
-        String ticketId = (String) request.getDatos().get("ticketId");
-        String fechaEvento = (String) request.getDatos().get("fechaEvento");
-        
-        if (mailSender == null) {
-            // Modo simulación - solo logs
-            log.info("╔═══════════════════════════════════════════════════════════╗");
-            log.info("║         🎫 SIMULACIÓN EMAIL - TICKET COMPRADO            ║");
-            log.info("╠═══════════════════════════════════════════════════════════╣");
-            log.info("║ ID: {}", String.format("%-52s", notificationId) + "║");
-            log.info("║ Para: {}", String.format("%-50s", request.getDestinatario()) + "║");
-            log.info("║ Evento: {}", String.format("%-48s", eventoNombre) + "║");
-            log.info("║ Tipo: {}", String.format("%-50s", tipoEntrada) + "║");
-            log.info("║ Cantidad: {}", String.format("%-46s", cantidad) + "║");
-            log.info("║ Total: ${}", String.format("%-49s", total) + "║");
-            log.info("║ Ticket ID: {}", String.format("%-45s", ticketId) + "║");
-            log.info("╚═══════════════════════════════════════════════════════════╝");
+    private NotificationResponse agrupar(long secuencia, String destinatario, String idioma, Map<String, Object> datos) {
+        registro.cambiarEstado(secuencia, EstadoNotificacion.ENCOLADA, null);
+        resumenes.agregar(secuencia, destinatario, idioma, datos);
+        return new NotificationResponse(RegistroNotificaciones.notificationId(secuencia), "QUEUED", Instant.now(),
+                "Agregada al resumen del destinatario");
+    }
+
+    /**
+     * Registra y envía un resumen cerrado por {@link ResumenVentas}. Las
+     * ventas que cubre siguen su estado.
+     */
+    private void enviarResumen(ResumenVentas.Resumen resumen) {
+        String tipo = resumenes.getTipoResumen();
+        Plantilla plantilla = plantillas.buscar(tipo, resumen.idioma());
+        if (plantilla == null) {
+            log.error("Sin plantilla para {}: {} ventas de {} quedan FALLIDA", tipo, resumen.secuencias().size(),
+                    resumen.destinatario());
+            resumen.secuencias().forEach(secuencia ->
+                    registro.cambiarEstado(secuencia, EstadoNotificacion.FALLIDA, "Tipo de notificación no soportado"));
             return;
         }
-        
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(request.getDestinatario());
-            message.setSubject("🎫 Confirmación de compra de entradas");
-            message.setText(
-                "¡Gracias por tu compra!\n\n" +
-                "Tu ticket ha sido generado exitosamente.\n\n" +
-                "Detalles de tu compra:\n" +
-                "━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━\n" +
-                "Código de ticket: " + ticketId + "\n" +
-                "Evento:           " + eventoNombre + "\n" +
-                "Tipo de entrada:  " + tipoEntrada + "\n" +
-                "Cantidad:         " + cantidad + "\n" +
-                "Total pagado:     $" + total + "\n" +
-                "Fecha del evento: " + fechaEvento + "\n\n" +
-                "⚠️ IMPORTANTE: Presenta este código en la entrada del evento.\n\n" +
-                "Saludos,\n" +
-                "Equipo SOA Ticketing\n\n" +
-                "Notification ID: " + notificationId
-            );
-            
-            mailSender.send(message);
-            log.info("Email TICKET_COMPRADO enviado a: {} [{}]", request.getDestinatario(), notificationId);
-            
-        } catch (Exception e) {
-            log.error("Error enviando email TICKET_COMPRADO a {}: {}", request.getDestinatario(), e.getMessage());
-            throw new RuntimeException("Error enviando email", e);
-        }
+        RegistroNotificaciones.Alta alta = registro.registrar(null, tipo, resumen.destinatario(), resumen.idioma(),
+                resumen.datos());
+        NotificationResponse respuesta = despachar(alta.secuencia(), plantilla, tipo, resumen.destinatario(),
+                resumen.datos(), resumen.secuencias());
+        log.info("[{}] Resumen de {} ventas para {}: {}", respuesta.getNotificationId(), resumen.secuencias().size(),
+                resumen.destinatario(), respuesta.getStatus());
     }
 
-    @Async
-    private void enviarPagoRechazado(NotificationRequest request, String notificationId) {
-        String eventoNombre = (String) request.getDatos().get("eventoNombre");
-        Object monto = request.getDatos().get("monto");
-        String razon = (String) request.getDatos().get("razon");
-        
+    /**
+     * @param agrupadas ventas que cubre un resumen: pasan por los mismos estados
+     */
+    private NotificationResponse despachar(long secuencia, Plantilla plantilla, String tipo, String destinatario,
+                                           Map<String, Object> datosRequest, List<Long> agrupadas) {
+        String notificationId = RegistroNotificaciones.notificationId(secuencia);
+        Map<String, Object> datosBase = datosRequest != null ? datosRequest : Map.of();
+        Map<String, Object> datos = resumenes.esResumen(tipo) ? ResumenVentas.conDetalle(datosBase) : datosBase;
+        Plantilla.Mensaje mensaje = plantilla.renderizar(
+                nombre -> "notificationId".equals(nombre) ? notificationId : datos.get(nombre));
+
         if (mailSender == null) {
-            // Modo simulación - solo logs
-            log.info("╔═══════════════════════════════════════════════════════════╗");
-            log.info("║         ❌ SIMULACIÓN EMAIL - PAGO RECHAZADO             ║");
-            log.info("╠═══════════════════════════════════════════════════════════╣");
-            log.info("║ ID: {}", String.format("%-52s", notificationId) + "║");
-            log.info("║ Para: {}", String.format("%-50s", request.getDestinatario()) + "║");
-            log.info("║ Evento: {}", String.format("%-48s", eventoNombre) + "║");
-            log.info("║ Monto: ${}", String.format("%-48s", monto) + "║");
-            log.info("║ Razón: {}", String.format("%-49s", razon) + "║");
-            log.info("╚═══════════════════════════════════════════════════════════╝");
-            return;
+            simular(tipo, destinatario, notificationId, mensaje);
+            cambiarEstado(secuencia, agrupadas, EstadoNotificacion.SIMULADA, null);
+            return new NotificationResponse(notificationId, EstadoNotificacion.SIMULADA.getStatus(), Instant.now(),
+                    "Notificación simulada (sin SMTP configurado)");
         }
-        
+
+        MimeMessage mime;
         try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(request.getDestinatario());
-            message.setSubject("❌ Pago rechazado");
-            message.setText(
-                "Lo sentimos, no pudimos procesar tu pago.\n\n" +
-                "Detalles del intento:\n" +
-                "━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━\n" +
-                "Evento:  " + eventoNombre + "\n" +
-                "Monto:   $" + monto + "\n" +
-                "Razón:   " + razon + "\n\n" +
-                "Por favor, verifica tu método de pago e intenta nuevamente.\n\n" +
-                "Si el problema persiste, contacta con tu banco.\n\n" +
-                "Saludos,\n" +
-                "Equipo SOA Ticketing\n\n" +
-                "Notification ID: " + notificationId
-            );
-            
-            mailSender.send(message);
-            log.info("Email PAGO_RECHAZADO enviado a: {} [{}]", request.getDestinatario(), notificationId);
-            
-        } catch (Exception e) {
-            log.error("Error enviando email PAGO_RECHAZADO a {}: {}", request.getDestinatario(), e.getMessage());
-            throw new RuntimeException("Error enviando email", e);
+            mime = armar(destinatario, mensaje);
+        } catch (MessagingException e) {
+            log.warn("[{}] No se pudo armar el email {} a {}: {}", notificationId, tipo, destinatario, e.getMessage());
+            cambiarEstado(secuencia, agrupadas, EstadoNotificacion.FALLIDA, "Destinatario inválido: " + e.getMessage());
+            return new NotificationResponse(notificationId, "FAILED", Instant.now(), "Destinatario inválido");
+        }
+        cambiarEstado(secuencia, agrupadas, EstadoNotificacion.ENCOLADA, null);
+        boolean encolada = despacho.encolar(mime, tipo, destinatario, notificationId, (enviado, error) ->
+                cambiarEstado(secuencia, agrupadas, enviado ? EstadoNotificacion.ENVIADA : EstadoNotificacion.FALLIDA, error));
+        if (!encolada) {
+            cambiarEstado(secuencia, agrupadas, EstadoNotificacion.RECHAZADA, "Cola de envío llena");
+            return new NotificationResponse(notificationId, "ERROR", Instant.now(), "Cola de envío llena, reintentar");
         }
+        return new NotificationResponse(notificationId, "QUEUED", Instant.now(), "Notificación encolada para envío");
     }
 
-    @Async
-    private void enviarPasswordReset(NotificationRequest request, String notificationId) {
-        String nombre = (String) request.getDatos().get("nombre");
-        String resetLink = (String) request.getDatos().get("resetLink");
-        
-        if (mailSender == null) {
-            // Modo simulación - solo logs
-            log.info("╔═══════════════════════════════════════════════════════════╗");
-            log.info("║      🔑 SIMULACIÓN EMAIL - RESTABLECER CONTRASEÑA        ║");
-            log.info("╠═══════════════════════════════════════════════════════════╣");
-            log.info("║ ID: {}", String.format("%-52s", notificationId) + "║");
-            log.info("║ Para: {}", String.format("%-50s", request.getDestinatario()) + "║");
-            log.info("║ Nombre: {}", String.format("%-48s", nombre) + "║");
-            log.info("║ Link: {}", String.format("%-49s", resetLink.length() > 49 ? resetLink.substring(0, 46) + "..." : resetLink) + "║");
-            log.info("╚═══════════════════════════════════════════════════════════╝");
-            return;
+    private void cambiarEstado(long secuencia, List<Long> agrupadas, EstadoNotificacion estado, String error) {
+        registro.cambiarEstado(secuencia, estado, error);
+        for (long agrupada : agrupadas) {
+            registro.cambiarEstado(agrupada, estado, error);
         }
-        
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(request.getDestinatario());
-            message.setSubject("🔑 Restablecimiento de Contraseña - SOA Ticketing");
-            message.setText(
-                "Hola " + nombre + ",\n\n" +
-                "Hemos recibido una solicitud para restablecer la contraseña de tu cuenta.\n\n" +
-                "Haz clic en el siguiente enlace para crear una nueva contraseña:\n" +
-                resetLink + "\n\n" +
-                "Este enlace expirará en 1 hora por seguridad.\n\n" +
-                "Si no solicitaste restablecer tu contraseña, ignora este mensaje.\n" +
-                "Tu contraseña actual seguirá siendo válida.\n\n" +
-                "Saludos,\n" +
-                "Equipo SOA Ticketing\n\n" +
-                "Notification ID: " + notificationId
-            );
-            
-            mailSender.send(message);
-            log.info("Email PASSWORD_RESET enviado a: {} [{}]", request.getDestinatario(), notificationId);
-            
-        } catch (Exception e) {
-            log.error("Error enviando email PASSWORD_RESET a {}: {}", request.getDestinatario(), e.getMessage());
-            throw new RuntimeException("Error enviando email", e);
+    }
+
+    /**
+     * Texto plano solo, o multipart/alternative texto + HTML.
+     */
+    private MimeMessage armar(String destinatario, Plantilla.Mensaje mensaje) throws MessagingException {
+        MimeMessage mime = despacho.crearMensaje();
+        MimeMessageHelper helper = new MimeMessageHelper(mime, mensaje.html() != null, StandardCharsets.UTF_8.name());
+        helper.setTo(destinatario);
+        helper.setSubject(mensaje.asunto());
+        if (mensaje.html() != null) {
+            helper.setText(mensaje.texto(), mensaje.html());
+        } else {
+            helper.setText(mensaje.texto());
         }
+        return mime;
+    }
+
+    private void simular(String tipo, String destinatario, String notificationId, Plantilla.Mensaje mensaje) {
+        log.info("╔═══════════════════════════════════════════════════════════╗");
+        log.info("║ 📧 SIMULACIÓN EMAIL - {}", String.format("%-36s", tipo) + "║");
+        log.info("╠═══════════════════════════════════════════════════════════╣");
+        log.info("║ ID: {}", String.format("%-52s", notificationId) + "║");
+        log.info("║ Para: {}", String.format("%-50s", destinatario) + "║");
+        log.info("║ Asunto: {}", String.format("%-48s", mensaje.asunto()) + "║");
+        log.info("╚═══════════════════════════════════════════════════════════╝");
+        log.info("{}", mensaje.texto());
     }
 }
@@ -0,0 +1,129 @@
+package com.example.notificationservice.bench;
+
+import com.example.notificationservice.service.DespachoCorreos;
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark JMH del despacho de emails contra un SMTP local (GreenMail
+ * embebido, sin TLS ni autenticación).
+ *
+ *   mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *       "-Dexec.args=-cp %classpath org.openjdk.jmh.Main DespachoBenchmark"
+ *
+ * Cada invocación encola MENSAJES mensajes repartidos entre N dominios y
+ * espera a que se vacíe la cola; el resultado es el tiempo por mensaje. Los
+ * contadores auxiliares dan las conexiones SMTP abiertas (con reutilización
+ * debería rondar mensajes / max-por-conexion) y los rechazados por cola llena.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DespachoBenchmark {
+
+    private static final int MENSAJES = 1000;
+
+    @Param({"1", "5"})
+    private int dominios;
+
+    @Param({"100"})
+    private int maxPorConexion;
+
+    private GreenMail smtp;
+    private DespachoCorreos despacho;
+
+    /** Contadores por iteración que JMH informa junto al tiempo. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Contadores {
+        public long conexionesAbiertas;
+        public long rechazados;
+        public long fallidos;
+
+        @Setup(Level.Iteration)
+        public void reiniciar() {
+            conexionesAbiertas = 0;
+            rechazados = 0;
+            fallidos = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        smtp = new GreenMail(ServerSetupTest.SMTP.dynamicPort());
+        smtp.start();
+
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(smtp.getSmtp().getPort());
+        mailSender.getJavaMailProperties().put("mail.smtp.auth", "false");
+
+        // Los mismos valores por defecto que los @Value de DespachoCorreos
+        despacho = new DespachoCorreos(mailSender, 10_000, 4, 200, maxPorConexion, 30_000, 2, "");
+        despacho.iniciar();
+    }
+
+    @TearDown(Level.Trial)
+    public void detener() throws InterruptedException {
+        despacho.detener();
+        int recibidos = smtp.getReceivedMessages().length;
+        smtp.stop();
+        // Un número sin los mensajes entregados no mide nada
+        if (recibidos != despacho.getEnviados()) {
+            throw new IllegalStateException("GreenMail recibió " + recibidos + " mensajes y el despacho informa "
+                    + despacho.getEnviados() + " enviados");
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MENSAJES)
+    public long lote(Contadores contadores) throws MessagingException, InterruptedException {
+        long intentosAntes = despacho.getIntentos();
+        long conexionesAntes = despacho.getConexionesAbiertas();
+        long rechazadosAntes = despacho.getRechazados();
+        long fallidosAntes = despacho.getFallidos();
+
+        int encolados = 0;
+        for (int i = 0; i < MENSAJES; i++) {
+            String destinatario = "usuario" + i + "@dominio" + (i % dominios) + ".test";
+            MimeMessage mensaje = despacho.crearMensaje();
+            mensaje.setRecipients(MimeMessage.RecipientType.TO, destinatario);
+            mensaje.setSubject("Bench despacho " + i);
+            mensaje.setText("Mensaje de prueba " + i, "UTF-8");
+            if (despacho.encolar(mensaje, "BENCH", destinatario, "BENCH-" + i, null)) {
+                encolados++;
+            }
+        }
+        while (despacho.getIntentos() - intentosAntes < encolados) {
+            Thread.sleep(1);
+        }
+
+        contadores.conexionesAbiertas += despacho.getConexionesAbiertas() - conexionesAntes;
+        contadores.rechazados += despacho.getRechazados() - rechazadosAntes;
+        contadores.fallidos += despacho.getFallidos() - fallidosAntes;
+        return encolados;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.notificationservice.bench;
+
+import com.example.notificationservice.plantillas.MotorPlantillas;
+import com.example.notificationservice.plantillas.Plantilla;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark JMH del renderizado de TICKET_COMPRADO (asunto + texto + HTML)
+ * con las plantillas compiladas, sin SMTP de por medio.
+ *
+ *   mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *       "-Dexec.args=-cp %classpath org.openjdk.jmh.Main PlantillasBenchmark -t 4"
+ *
+ * El resultado es mensajes/s por hilo (-t define los hilos; el total es la
+ * suma). Objetivo: 50.000 mensajes/s en total.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PlantillasBenchmark {
+
+    @Param({"es"})
+    private String idioma;
+
+    private Plantilla plantilla;
+
+    /** Datos del mensaje de cada hilo; cambian en cada render como en un envío real. */
+    @State(Scope.Thread)
+    public static class Datos {
+        final Map<String, Object> valores = new HashMap<>();
+        int siguiente;
+
+        @Setup
+        public void preparar() {
+            valores.put("eventoNombre", "Festival de Verano 2025 — Escenario Principal");
+            valores.put("tipoEntrada", "VIP <Acceso total>");
+            valores.put("fechaEvento", "2025-12-31T21:00");
+        }
+    }
+
+    @Setup
+    public void cargar() throws IOException, ReflectiveOperationException {
+        // Las plantillas del servicio (classpath:plantillas), sin levantar el contexto de Spring
+        MotorPlantillas motor = new MotorPlantillas();
+        asignar(motor, "ubicacion", "classpath:plantillas");
+        asignar(motor, "idiomaPorDefecto", "es");
+        motor.iniciar();
+        plantilla = motor.buscar("TICKET_COMPRADO", idioma);
+    }
+
+    @Benchmark
+    public long renderizar(Datos datos) {
+        int i = datos.siguiente++;
+        String ticketId = "TKT-" + i;
+        datos.valores.put("ticketId", ticketId);
+        datos.valores.put("cantidad", 1 + i % 4);
+        datos.valores.put("total", 45000 + i % 4 * 45000);
+        Plantilla.Mensaje mensaje = plantilla.renderizar(
+                nombre -> "notificationId".equals(nombre) ? ticketId : datos.valores.get(nombre));
+        return mensaje.asunto().length() + mensaje.texto().length()
+                + (mensaje.html() != null ? mensaje.html().length() : 0);
+    }
+
+    private static void asignar(MotorPlantillas motor, String campo, Object valor) throws ReflectiveOperationException {
+        Field field = MotorPlantillas.class.getDeclaredField(campo);
+        field.setAccessible(true);
+        field.set(motor, valor);
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.notificationservice.service;
+
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessagePreparator;
+
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * DespachoCorreos contra un SMTP embebido (GreenMail, sin TLS ni autenticación).
+ */
+class DespachoCorreosTest {
+
+    private GreenMail smtp;
+    private JavaMailSenderImpl mailSender;
+    private DespachoCorreos despacho;
+
+    @BeforeEach
+    void iniciarSmtp() {
+        smtp = new GreenMail(ServerSetupTest.SMTP.dynamicPort());
+        smtp.start();
+        mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(smtp.getSmtp().getPort());
+        mailSender.getJavaMailProperties().put("mail.smtp.auth", "false");
+    }
+
+    @AfterEach
+    void detener() throws InterruptedException {
+        if (despacho != null) {
+            despacho.detener();
+        }
+        smtp.stop();
+    }
+
+    @Test
+    void entregaTodosLosMensajesReutilizandoConexiones() throws Exception {
+        despacho = new DespachoCorreos(mailSender, 1000, 4, 200, 25, 30_000, 2, "");
+        despacho.iniciar();
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(encolar("usuario" + i + "@dominio" + (i % 4) + ".test"));
+        }
+        esperarIntentos(100);
+
+        MimeMessage[] recibidos = smtp.getReceivedMessages();
+        assertEquals(100, recibidos.length);
+        assertEquals(100, destinatarios(recibidos).size());
+        assertEquals(100, despacho.getEnviados());
+        assertEquals(0, despacho.getFallidos());
+        // Cada trabajador reabre cada 25 mensajes: a lo sumo 4 + 100/25, no una por mensaje
+        assertTrue(despacho.getConexionesAbiertas() <= 8,
+                "conexiones abiertas: " + despacho.getConexionesAbiertas());
+    }
+
+    @Test
+    void respetaElLimiteDeEnviosSimultaneosPorDominio() throws Exception {
+        EnvioLento lento = new EnvioLento(mailSender);
+        despacho = new DespachoCorreos(lento, 1000, 8, 200, 100, 30_000, 2, "rapido.test:3");
+        despacho.iniciar();
+
+        for (int i = 0; i < 30; i++) {
+            assertTrue(encolar("usuario" + i + "@lento.test"));
+            assertTrue(encolar("usuario" + i + "@rapido.test"));
+        }
+        esperarIntentos(60);
+
+        assertEquals(60, smtp.getReceivedMessages().length);
+        assertEquals(0, despacho.getFallidos());
+        // Con 8 trabajadores libres, cada dominio llega a su límite y no lo pasa
+        assertEquals(2, lento.maximoSimultaneos("lento.test"));
+        assertEquals(3, lento.maximoSimultaneos("rapido.test"));
+    }
+
+    @Test
+    void sinMailSenderNoAceptaMensajes() throws Exception {
+        despacho = new DespachoCorreos(null, 1000, 4, 200, 100, 30_000, 2, "");
+        despacho.iniciar();
+
+        assertFalse(despacho.isActivo());
+        assertFalse(despacho.encolar(mailSender.createMimeMessage(), "TEST", "a@b.test", "TEST-0", null));
+    }
+
+    private boolean encolar(String destinatario) throws MessagingException {
+        MimeMessage mensaje = despacho.crearMensaje();
+        mensaje.setFrom("tickets@soa.test");
+        mensaje.setRecipients(MimeMessage.RecipientType.TO, destinatario);
+        mensaje.setSubject("Prueba despacho");
+        mensaje.setText("Mensaje para " + destinatario, "UTF-8");
+        return despacho.encolar(mensaje, "TEST", destinatario, "TEST-" + destinatario, null);
+    }
+
+    private void esperarIntentos(long intentos) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+        while (despacho.getIntentos() < intentos && System.nanoTime() < limite) {
+            Thread.sleep(10);
+        }
+        assertEquals(intentos, despacho.getIntentos());
+    }
+
+    private static Set<String> destinatarios(MimeMessage[] mensajes) throws MessagingException {
+        Set<String> todos = new java.util.HashSet<>();
+        for (MimeMessage mensaje : mensajes) {
+            todos.addAll(Arrays.stream(mensaje.getAllRecipients()).map(Object::toString).collect(Collectors.toSet()));
+        }
+        return todos;
+    }
+
+    /**
+     * Envía por GreenMail con una demora fija y anota cuántos envíos de cada
+     * dominio corren a la vez. No es un JavaMailSenderImpl, así que el despacho
+     * usa send() por mensaje en lugar de su conexión reutilizada.
+     */
+    private static final class EnvioLento implements JavaMailSender {
+
+        private final JavaMailSenderImpl smtp;
+        private final Map<String, AtomicInteger> enCurso = new ConcurrentHashMap<>();
+        private final Map<String, AtomicInteger> maximo = new ConcurrentHashMap<>();
+
+        EnvioLento(JavaMailSenderImpl smtp) {
+            this.smtp = smtp;
+        }
+
+        int maximoSimultaneos(String dominio) {
+            AtomicInteger valor = maximo.get(dominio);
+            return valor != null ? valor.get() : 0;
+        }
+
+        @Override
+        public void send(MimeMessage mensaje) {
+            String dominio;
+            try {
+                String destinatario = mensaje.getAllRecipients()[0].toString();
+                dominio = destinatario.substring(destinatario.lastIndexOf('@') + 1);
+            } catch (MessagingException e) {
+                throw new MailSendException("Destinatario ilegible", e);
+            }
+            AtomicInteger actuales = enCurso.computeIfAbsent(dominio, d -> new AtomicInteger());
+            int ahora = actuales.incrementAndGet();
+            maximo.computeIfAbsent(dominio, d -> new AtomicInteger()).accumulateAndGet(ahora, Math::max);
+            try {
+                Thread.sleep(20);
+                smtp.send(mensaje);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new MailSendException("Interrumpido", e);
+            } finally {
+                actuales.decrementAndGet();
+            }
+        }
+
+        @Override
+        public MimeMessage createMimeMessage() {
+            return smtp.createMimeMessage();
+        }
+
+        @Override
+        public MimeMessage createMimeMessage(InputStream contenido) {
+            return smtp.createMimeMessage(contenido);
+        }
+
+        @Override
+        public void send(MimeMessage... mensajes) {
+            for (MimeMessage mensaje : mensajes) {
+                send(mensaje);
+            }
+        }
+
+        @Override
+        public void send(MimeMessagePreparator preparador) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void send(MimeMessagePreparator... preparadores) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void send(SimpleMailMessage mensaje) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void send(SimpleMailMessage... mensajes) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -1,35 +1,108 @@
 package com.example.ticketservice.client;
 
+import com.example.common.cache.CacheTtl;
+import com.example.common.contracts.CambiosCatalogo;
+import com.example.common.contracts.EventoResumen;
+import com.example.common.contracts.TipoEntradaResumen;
 import com.example.ticketservice.config.ServiceUrlsConfig;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
 import java.util.Map;
 
+/**
+ * Cliente de event-service.
+ *
+ * getTipoEntrada y getEvento pasan por una cache L1 en memoria (acotada y con
+ * TTL): precio, nombre y fecha casi nunca cambian y se piden en cada compra.
+ * Las ediciones se ven antes del TTL siguiendo GET /api/catalogo/cambios.
+ *
+ * cantidadDisponible de un TipoEntradaResumen cacheado puede estar atrasada
+ * hasta catalogo.cache.l1.ttl-ms: es solo informativa, el stock lo valida la
+ * reserva en ticket-service/event-service.
+ */
 @Component
 public class EventServiceClient {
 
+    private static final Logger log = LoggerFactory.getLogger(EventServiceClient.class);
+
     @Autowired
     private RestTemplate restTemplate;
 
     @Autowired
     private ServiceUrlsConfig serviceUrls;
 
-    public Map<String, Object> getTipoEntrada(Long tipoEntradaId) {
-        String url = serviceUrls.getEventService().getUrl() + "/api/tipos-entrada/" + tipoEntradaId;
-        ResponseEntity<Map> response = restTemplate.getForEntity(url, Map.class);
-        return response.getBody();
+    @Value("${catalogo.cache.l1.max-entradas:5000}")
+    private int maxEntradas;
+
+    @Value("${catalogo.cache.l1.ttl-ms:30000}")
+    private long ttlMs;
+
+    private CacheTtl<Long, TipoEntradaResumen> tiposEntrada;
+    private CacheTtl<Long, EventoResumen> eventos;
+
+    // Posición en el registro de cambios de event-service
+    private String instanciaCatalogo;
+    private long secuenciaCatalogo;
+
+    @PostConstruct
+    public void iniciarCache() {
+        tiposEntrada = new CacheTtl<>(maxEntradas, ttlMs);
+        eventos = new CacheTtl<>(maxEntradas, ttlMs);
     }
 
-    public Map<String, Object> getEvento(Long eventoId) {
-        String url = serviceUrls.getEventService().getUrl() + "/api/eventos/" + eventoId;
-        ResponseEntity<Map> response = restTemplate.getForEntity(url, Map.class);
-        return response.getBody();
+    public TipoEntradaResumen getTipoEntrada(Long tipoEntradaId) {
+        return tiposEntrada.obtener(tipoEntradaId, id -> {
+            String url = serviceUrls.getEventService().getUrl() + "/api/tipos-entrada/" + id;
+            return restTemplate.getForObject(url, TipoEntradaResumen.class);
+        });
+    }
+
+    public EventoResumen getEvento(Long eventoId) {
+        return eventos.obtener(eventoId, id -> {
+            String url = serviceUrls.getEventService().getUrl() + "/api/eventos/" + id;
+            return restTemplate.getForObject(url, EventoResumen.class);
+        });
+    }
+
+    /**
+     * Saca de la cache lo editado o eliminado en event-service. Si event-service
+     * no responde no se hace nada: el TTL sigue acotando la antigüedad.
+     */
+    @Scheduled(fixedDelayString = "${catalogo.cache.l1.intervalo-cambios-ms:1000}")
+    public void seguirCambiosCatalogo() {
+        String url = serviceUrls.getEventService().getUrl() + "/api/catalogo/cambios?desde=" + secuenciaCatalogo
+                + (instanciaCatalogo != null ? "&instancia=" + instanciaCatalogo : "");
+        CambiosCatalogo cambios;
+        try {
+            cambios = restTemplate.getForObject(url, CambiosCatalogo.class);
+        } catch (RestClientException e) {
+            log.debug("No se pudieron leer los cambios del catálogo: {}", e.getMessage());
+            return;
+        }
+        if (cambios == null) {
+            return;
+        }
+        if (cambios.completo()) {
+            tiposEntrada.invalidarTodo();
+            eventos.invalidarTodo();
+        } else {
+            cambios.tiposEntrada().forEach(tiposEntrada::invalidar);
+            cambios.eventos().forEach(eventos::invalidar);
+        }
+        instanciaCatalogo = cambios.instancia();
+        secuenciaCatalogo = cambios.secuencia();
     }
 
     public void decreaseCantidad(Long tipoEntradaId, Integer cantidad) {
@@ -1,7 +1,12 @@
 package com.example.ticketservice.client;
 
+import com.example.common.outbox.OutboxNotificaciones;
 import com.example.ticketservice.config.ServiceUrlsConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
@@ -9,16 +14,52 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
+/**
+ * Notificaciones de los orquestadores.
+ *
+ * {@link #encolar} las deja en el outbox (tabla notificaciones_outbox de
+ * orchestration_db) y vuelve enseguida; el relay de common las entrega en
+ * lote a /api/notifications/send-batch con reintentos. Sin base de datos
+ * (perfil stub, outbox.enabled=false) se envían directo en segundo plano,
+ * como antes: sin reintentos y una falla solo queda en el log.
+ */
 @Component
 public class NotificationServiceClient {
 
+    private static final Logger log = LoggerFactory.getLogger(NotificationServiceClient.class);
+
     @Autowired
     private RestTemplate restTemplate;
 
     @Autowired
     private ServiceUrlsConfig serviceUrls;
 
+    @Autowired
+    private ObjectProvider<OutboxNotificaciones> outbox;
+
+    @Autowired
+    @Qualifier("orchestrationExecutor")
+    private Executor executor;
+
+    @SuppressWarnings("unchecked")
+    public void encolar(Map<String, Object> notificationRequest) {
+        OutboxNotificaciones destino = outbox.getIfAvailable();
+        if (destino == null) {
+            CompletableFuture.runAsync(() -> sendNotification(notificationRequest), executor)
+                    .exceptionally(e -> {
+                        log.warn("No se pudo enviar notificación {}: {}", notificationRequest.get("tipo"), e.getMessage());
+                        return null;
+                    });
+            return;
+        }
+        destino.encolar((String) notificationRequest.get("tipo"),
+                (String) notificationRequest.get("destinatario"),
+                (Map<String, Object>) notificationRequest.get("datos"));
+    }
+
     public void sendNotification(Map<String, Object> notificationRequest) {
         String url = serviceUrls.getNotificationService().getUrl() + "/api/notifications/send";
         
@@ -1,5 +1,9 @@
 package com.example.ticketservice.client;
 
+import com.example.common.contracts.ReservaResumen;
+import com.example.common.contracts.SolicitudReserva;
+import com.example.common.contracts.SolicitudTicket;
+import com.example.common.contracts.TicketEmitido;
 import com.example.ticketservice.config.ServiceUrlsConfig;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -8,7 +12,6 @@ import org.springframework.http.*;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -50,35 +53,29 @@ public class TicketServiceClient {
      * Este método NO guarda el ticket localmente, lo envía al servicio responsable.
      * El ticket-service es el dueño del dominio "Ticket" y su base de datos.
      * 
-     * @return Map con los datos del ticket creado (ticketId, total, etc.)
+     * @return Ticket creado (ticketId, total, etc.)
      */
-    public Map<String, Object> crearTicket(Long usuarioId, Long tipoEntradaId, String eventoNombre,
+    public TicketEmitido crearTicket(Long usuarioId, Long tipoEntradaId, String eventoNombre,
                                           String tipoEntradaNombre, Integer cantidad, 
                                           Double precioUnitario, String paymentId) {
         String url = serviceUrls.getTicketService().getUrl() + "/api/tickets";
         
         // Construir request body con todos los datos del ticket
-        Map<String, Object> request = new HashMap<>();
-        request.put("usuarioId", usuarioId);
-        request.put("tipoEntradaId", tipoEntradaId);
-        request.put("eventoNombre", eventoNombre);
-        request.put("tipoEntradaNombre", tipoEntradaNombre);
-        request.put("cantidad", cantidad);
-        request.put("precioUnitario", precioUnitario);
-        request.put("paymentId", paymentId);
+        SolicitudTicket request = new SolicitudTicket(usuarioId, tipoEntradaId, eventoNombre,
+                tipoEntradaNombre, cantidad, precioUnitario, paymentId);
         
         // Añadir header de autenticación entre servicios (X-Gateway-Secret)
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
         headers.set("X-Gateway-Secret", gatewaySecret);
         
-        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(request, headers);
+        HttpEntity<SolicitudTicket> entity = new HttpEntity<>(request, headers);
         
         try {
             // Llamada HTTP POST al ticket-service
-            ResponseEntity<Map> response = restTemplate.postForEntity(url, entity, Map.class);
+            TicketEmitido ticket = restTemplate.postForObject(url, entity, TicketEmitido.class);
             log.info("Ticket creado exitosamente");
-            return response.getBody();
+            return ticket;
         } catch (Exception e) {
             log.error("Error al crear ticket: {}", e.getMessage());
             throw new RuntimeException("Error al crear ticket: " + e.getMessage(), e);
@@ -112,24 +109,21 @@ public class TicketServiceClient {
     /**
      * Crea una reserva temporal de entradas (decrementa stock por 10 minutos)
      */
-    public Map<String, Object> crearReserva(Long tipoEntradaId, Long usuarioId, Integer cantidad) {
+    public ReservaResumen crearReserva(Long tipoEntradaId, Long usuarioId, Integer cantidad) {
         String url = serviceUrls.getTicketService().getUrl() + "/api/reservas/crear";
         
-        Map<String, Object> request = new HashMap<>();
-        request.put("tipoEntradaId", tipoEntradaId);
-        request.put("usuarioId", usuarioId);
-        request.put("cantidad", cantidad);
+        SolicitudReserva request = new SolicitudReserva(tipoEntradaId, usuarioId, cantidad);
         
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
         headers.set("X-Gateway-Secret", gatewaySecret);
         
-        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(request, headers);
+        HttpEntity<SolicitudReserva> entity = new HttpEntity<>(request, headers);
         
         try {
-            ResponseEntity<Map> response = restTemplate.postForEntity(url, entity, Map.class);
-            log.info("Reserva creada exitosamente: {}", response.getBody());
-            return response.getBody();
+            ReservaResumen reserva = restTemplate.postForObject(url, entity, ReservaResumen.class);
+            log.info("Reserva creada exitosamente: {}", reserva);
+            return reserva;
         } catch (Exception e) {
             log.error("Error al crear reserva: {}", e.getMessage());
             throw new RuntimeException("Error al crear reserva: " + e.getMessage(), e);
@@ -139,7 +133,7 @@ public class TicketServiceClient {
     /**
      * Confirma una reserva después de un pago exitoso
      */
-    public Map<String, Object> confirmarReserva(Long reservaId) {
+    public ReservaResumen confirmarReserva(Long reservaId) {
         String url = serviceUrls.getTicketService().getUrl() + "/api/reservas/" + reservaId + "/confirmar";
         
         HttpHeaders headers = new HttpHeaders();
@@ -148,7 +142,7 @@ public class TicketServiceClient {
         HttpEntity<Void> entity = new HttpEntity<>(headers);
         
         try {
-            ResponseEntity<Map> response = restTemplate.exchange(url, HttpMethod.PUT, entity, Map.class);
+            ResponseEntity<ReservaResumen> response = restTemplate.exchange(url, HttpMethod.PUT, entity, ReservaResumen.class);
             log.info("Reserva confirmada exitosamente");
             return response.getBody();
         } catch (Exception e) {
@@ -160,7 +154,7 @@ public class TicketServiceClient {
     /**
      * Libera una reserva y restaura el stock
      */
-    public Map<String, Object> liberarReserva(Long reservaId) {
+    public ReservaResumen liberarReserva(Long reservaId) {
         String url = serviceUrls.getTicketService().getUrl() + "/api/reservas/" + reservaId + "/liberar";
         
         HttpHeaders headers = new HttpHeaders();
@@ -169,7 +163,7 @@ public class TicketServiceClient {
         HttpEntity<Void> entity = new HttpEntity<>(headers);
         
         try {
-            ResponseEntity<Map> response = restTemplate.exchange(url, HttpMethod.PUT, entity, Map.class);
+            ResponseEntity<ReservaResumen> response = restTemplate.exchange(url, HttpMethod.PUT, entity, ReservaResumen.class);
             log.info("Reserva liberada exitosamente");
             return response.getBody();
         } catch (Exception e) {
@@ -1,7 +1,11 @@
 package com.example.ticketservice.client;
 
+import com.example.common.cache.CacheTtl;
+import com.example.common.contracts.EmailUsuario;
 import com.example.ticketservice.config.ServiceUrlsConfig;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
@@ -17,6 +21,20 @@ public class UserServiceClient {
     @Autowired
     private ServiceUrlsConfig serviceUrls;
 
+    @Value("${usuarios.cache.max-entradas:5000}")
+    private int maxEntradas;
+
+    @Value("${usuarios.cache.ttl-ms:600000}")
+    private long ttlMs;
+
+    // Email por id de usuario: el de un organizador se pide en cada venta de sus eventos
+    private CacheTtl<Long, String> emails;
+
+    @PostConstruct
+    public void iniciarCache() {
+        emails = new CacheTtl<>(maxEntradas, ttlMs);
+    }
+
     @SuppressWarnings("unchecked")
     public Map<String, Object> registerUser(Map<String, Object> userData) {
         String url = serviceUrls.getUserService().getUrl() + "/api/users/register";
@@ -30,4 +48,12 @@ public class UserServiceClient {
         ResponseEntity<Map> response = restTemplate.getForEntity(url, Map.class);
         return response.getBody();
     }
+
+    public String getEmail(Long usuarioId) {
+        return emails.obtener(usuarioId, id -> {
+            String url = serviceUrls.getUserService().getUrl() + "/api/users/" + id + "/email";
+            EmailUsuario usuario = restTemplate.getForObject(url, EmailUsuario.class);
+            return usuario != null ? usuario.email() : null;
+        });
+    }
 }
@@ -0,0 +1,57 @@
+package com.example.ticketservice.config;
+
+import com.example.common.threads.VirtualThreads;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Executor para las llamadas en paralelo de los orquestadores.
+ *
+ * Cada compra ocupa hasta 2 hilos a la vez (el de la petición crea la reserva
+ * mientras uno del pool consulta el evento), más la venta al organizador, que
+ * se encola sin esperar. Si el pool y la cola se llenan,
+ * la tarea corre en el hilo que la pidió: la compra se vuelve secuencial pero
+ * nunca se pierde un paso.
+ *
+ * Con spring.threads.virtual.enabled=true cada paso corre en su propio hilo
+ * virtual: no hay pool que agotar y la espera de I/O no retiene hilos del SO.
+ */
+@Configuration
+public class AsyncConfig {
+
+    @Value("${orchestration.executor.core-size:20}")
+    private int coreSize;
+
+    @Value("${orchestration.executor.max-size:200}")
+    private int maxSize;
+
+    @Value("${orchestration.executor.queue-capacity:500}")
+    private int queueCapacity;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Bean(name = "orchestrationExecutor")
+    public Executor orchestrationExecutor() {
+        if (virtualThreads) {
+            return new TaskExecutorAdapter(VirtualThreads.newPerTaskExecutor("orq-"));
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("orq-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+}
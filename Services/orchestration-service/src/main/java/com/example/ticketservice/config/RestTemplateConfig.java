@@ -4,10 +4,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.web.client.RestTemplate;
 
-import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -17,11 +17,11 @@ public class RestTemplateConfig {
     @Autowired
     private GatewaySecretInterceptor gatewaySecretInterceptor;
 
+    // Pool keep-alive compartido (common); timeouts en http.client.* de application.properties
     @Bean
-    public RestTemplate restTemplate(RestTemplateBuilder builder) {
+    public RestTemplate restTemplate(RestTemplateBuilder builder, ClientHttpRequestFactory clientHttpRequestFactory) {
         RestTemplate restTemplate = builder
-                .setConnectTimeout(Duration.ofSeconds(10))  // 10 segundos para conectar
-                .setReadTimeout(Duration.ofSeconds(30))     // 30 segundos para el procesamiento del pago
+                .requestFactory(() -> clientHttpRequestFactory)
                 .build();
         
         // Add interceptor to include X-Gateway-Secret header
@@ -1,5 +1,6 @@
 package com.example.ticketservice.controller;
 
+import com.example.common.contracts.TicketEmitido;
 import com.example.ticketservice.client.TicketServiceClient;
 import com.example.ticketservice.dto.PurchaseTicketRequest;
 import com.example.ticketservice.orchestrator.EventCreationOrchestrator;
@@ -77,7 +78,7 @@ public class OrchestrationController {
         }
 
         try {
-            Map<String, Object> response = purchaseOrchestrator.orchestratePurchase(userId, userEmail, request);
+            TicketEmitido response = purchaseOrchestrator.orchestratePurchase(userId, userEmail, request);
             return ResponseEntity.ok(response);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
@@ -55,9 +55,9 @@ public class EventCreationOrchestrator {
             log.info("  ✓ Evento creado: {} - {}", eventoNombre, fechaEvento);
 
             // PASO 2: Enviar notificación de evento creado
-            log.info("PASO 2: Enviando notificación de evento creado");
+            log.info("PASO 2: Encolando notificación de evento creado");
             sendEventCreatedNotification(userEmail, eventoNombre, fechaEvento, ubicacion);
-            log.info("  ✓ Notificación enviada");
+            log.info("  ✓ Notificación encolada");
 
             log.info("═══════════════════════════════════════════════════════════");
             log.info("✓ ORQUESTACIÓN DE CREACIÓN DE EVENTO COMPLETADA");
@@ -86,9 +86,9 @@ public class EventCreationOrchestrator {
         notification.put("datos", datos);
         
         try {
-            notificationClient.sendNotification(notification);
+            notificationClient.encolar(notification);
         } catch (Exception e) {
-            log.warn("No se pudo enviar notificación de evento creado: {}", e.getMessage());
+            log.error("No se pudo encolar notificación de evento creado (se pierde): {}", e.getMessage());
         }
     }
 }
@@ -1,17 +1,28 @@
 package com.example.ticketservice.orchestrator;
 
+import com.example.common.contracts.EventoResumen;
+import com.example.common.contracts.ReservaResumen;
+import com.example.common.contracts.ResultadoPago;
+import com.example.common.contracts.SolicitudPago;
+import com.example.common.contracts.TicketEmitido;
+import com.example.common.contracts.TipoEntradaResumen;
 import com.example.ticketservice.client.EventServiceClient;
 import com.example.ticketservice.client.NotificationServiceClient;
 import com.example.ticketservice.client.PaymentServiceClient;
 import com.example.ticketservice.client.TicketServiceClient;
+import com.example.ticketservice.client.UserServiceClient;
 import com.example.ticketservice.dto.PurchaseTicketRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 /**
  * Orquestador de Compra de Tickets - Implementa el Patrón SAGA con RESERVAS TEMPORALES.
@@ -23,12 +34,19 @@ import java.util.Map;
  * los pasos previos exitosos.
  * 
  * FLUJO DE COMPRA CON RESERVAS (6 PASOS):
- * 1. Obtener información del tipo de entrada
- * 2. Obtener información del evento
- * 3. CREAR RESERVA temporal (decrementa stock por 10 minutos) ← PUNTO DE BLOQUEO
+ * 1. Obtener información del tipo de entrada (se valida activo antes de reservar)
+ * 2. Obtener información del evento (depende de 1)          ┐ en paralelo
+ * 3. CREAR RESERVA temporal (decrementa stock por 10 minutos) ┘ ← PUNTO DE BLOQUEO
  * 4. Procesar pago ← PUNTO CRÍTICO (puede fallar)
  * 5. CONFIRMAR RESERVA y crear ticket (pago exitoso)
- * 6. Enviar notificación de confirmación
+ * 6. Enviar notificación de confirmación (en segundo plano, no se espera)
+ *    y la venta al organizador del evento (va a su resumen periódico de ventas)
+ *
+ * El evento se consulta en "orchestrationExecutor" mientras el hilo de la petición
+ * crea la reserva: la ruta crítica se ahorra esa ida y vuelta cuando el evento no
+ * está en la cache L1. Si el evento no existe o está inactivo, la reserva ya creada
+ * se libera (compensación). Pago, confirmación y ticket siguen en orden estricto;
+ * la venta al organizador también corre aparte, sin esperarla.
  * 
  * COMPENSACIÓN:
  * Si el pago falla después de crear la reserva:
@@ -58,7 +76,14 @@ public class TicketPurchaseOrchestrator {
     @Autowired
     private TicketServiceClient ticketClient;
 
-    public Map<String, Object> orchestratePurchase(Long userId, String userEmail, PurchaseTicketRequest request) {
+    @Autowired
+    private UserServiceClient userClient;
+
+    @Autowired
+    @Qualifier("orchestrationExecutor")
+    private Executor executor;
+
+    public TicketEmitido orchestratePurchase(Long userId, String userEmail, PurchaseTicketRequest request) {
         log.info("═══════════════════════════════════════════════════════════");
         log.info("INICIANDO ORQUESTACIÓN DE COMPRA CON RESERVA TEMPORAL");
         log.info("Usuario ID: {}, Email: {}", userId, userEmail);
@@ -70,60 +95,82 @@ public class TicketPurchaseOrchestrator {
         Integer cantidad = request.getCantidad();
 
         try {
-            // PASO 1: Obtener información del tipo de entrada
-            log.info("PASO 1: Obteniendo información del tipo de entrada ID={}", request.getTipoEntradaId());
-            Map<String, Object> tipoEntrada = eventClient.getTipoEntrada(request.getTipoEntradaId());
-            
-            Integer cantidadDisponible = ((Number) tipoEntrada.get("cantidadDisponible")).intValue();
-            Double precio = ((Number) tipoEntrada.get("precio")).doubleValue();
-            String tipoNombre = (String) tipoEntrada.get("nombre");
-            Long eventoId = ((Number) tipoEntrada.get("eventoId")).longValue();
-            
-            log.info("  ✓ Tipo: {}, Precio: ${}, Disponibles: {}", tipoNombre, precio, cantidadDisponible);
-
-            // PASO 2: Obtener información del evento
-            log.info("PASO 2: Obteniendo información del evento ID={}", eventoId);
-            Map<String, Object> evento = eventClient.getEvento(eventoId);
-            String eventoNombre = (String) evento.get("nombre");
-            String fechaEvento = (String) evento.get("fechaEvento");
-            log.info("  ✓ Evento: {}, Fecha: {}", eventoNombre, fechaEvento);
+            // PASO 1: Tipo de entrada (con la cache L1 suele no salir del proceso). Se
+            // valida ANTES de reservar: un tipo inexistente o inactivo no descuenta stock
+            log.info("PASO 1: Consultando tipo de entrada ID={}", tipoEntradaId);
+            TipoEntradaResumen tipoEntrada;
+            try {
+                tipoEntrada = eventClient.getTipoEntrada(tipoEntradaId);
+            } catch (Exception e) {
+                log.error("  ✗ Error obteniendo tipo de entrada: {}", e.getMessage());
+                throw new RuntimeException("No se pudo obtener la información del tipo de entrada: " + e.getMessage());
+            }
+            if (!tipoEntrada.activo()) {
+                log.error("  ✗ Tipo de entrada ID={} inactivo", tipoEntradaId);
+                throw new IllegalArgumentException("El tipo de entrada no está activo");
+            }
 
-            // PASO 3: CREAR RESERVA TEMPORAL (decrementa stock por 10 minutos)
-            log.info("PASO 3: CREANDO RESERVA TEMPORAL de {} entradas (expira en 10 min)", request.getCantidad());
+            // PASOS 2 y 3 en paralelo: el evento se consulta en el executor mientras
+            // este hilo crea la RESERVA TEMPORAL (decrementa stock por 10 minutos)
+            log.info("PASOS 2-3: Consultando evento ID={} y CREANDO RESERVA TEMPORAL de {} entradas",
+                    tipoEntrada.eventoId(), cantidad);
+            CompletableFuture<EventoResumen> eventoFuturo = CompletableFuture.supplyAsync(
+                    () -> eventClient.getEvento(tipoEntrada.eventoId()), executor);
             try {
-                Map<String, Object> reserva = ticketClient.crearReserva(tipoEntradaId, userId, cantidad);
-                reservaId = ((Number) reserva.get("id")).longValue();
-                Long segundosRestantes = ((Number) reserva.get("segundosRestantes")).longValue();
-                log.info("  ✓ Reserva ID={} creada exitosamente (expira en {} segundos)", reservaId, segundosRestantes);
+                ReservaResumen reserva = ticketClient.crearReserva(tipoEntradaId, userId, cantidad);
+                reservaId = reserva.id();
+                log.info("  ✓ Reserva ID={} creada exitosamente (expira en {} segundos)", reservaId, reserva.segundosRestantes());
                 log.info("  ✓ Stock DECREMENTADO temporalmente - Usuario tiene tiempo limitado para pagar");
             } catch (Exception e) {
                 log.error("  ✗ Error al crear reserva: {}", e.getMessage());
                 throw new RuntimeException("No se pudo crear la reserva: " + e.getMessage());
             }
 
+            EventoResumen evento;
+            try {
+                evento = eventoFuturo.join();
+            } catch (CompletionException e) {
+                Throwable causa = e.getCause() != null ? e.getCause() : e;
+                log.error("  ✗ Error obteniendo evento: {}", causa.getMessage());
+                liberarReservaCompensacion(reservaId);
+                throw new RuntimeException("No se pudo obtener la información del evento: " + causa.getMessage());
+            }
+            if (!evento.activo()) {
+                log.error("  ✗ Evento ID={} inactivo", evento.id());
+                liberarReservaCompensacion(reservaId);
+                throw new IllegalArgumentException("El evento no está disponible para la venta");
+            }
+
+            double precio = tipoEntrada.precio();
+            String tipoNombre = tipoEntrada.nombre();
+            // cantidadDisponible puede venir de la cache L1: referencial, el stock lo validó la reserva
+            log.info("  ✓ Tipo: {}, Precio: ${}, Disponibles (aprox.): {}", tipoNombre, precio, tipoEntrada.cantidadDisponible());
+
+            String eventoNombre = evento.nombre();
+            String fechaEvento = evento.fechaEvento();
+            log.info("  ✓ Evento: {}, Fecha: {}", eventoNombre, fechaEvento);
+
             // PASO 4: Procesar pago (operación crítica)
             Double montoTotal = precio * request.getCantidad();
             log.info("PASO 4: Procesando pago por ${} (CRÍTICO - puede fallar)", montoTotal);
             
-            Map<String, Object> paymentRequest = new HashMap<>();
-            paymentRequest.put("idempotencyKey", request.getIdempotencyKey()); // NEW: For idempotency
-            paymentRequest.put("monto", montoTotal);
-            paymentRequest.put("cardNumber", request.getPaymentMethod().getCardNumber());
-            paymentRequest.put("cvv", request.getPaymentMethod().getCvv());
-            paymentRequest.put("expiryDate", request.getPaymentMethod().getExpiryDate());
-            paymentRequest.put("cardHolder", request.getPaymentMethod().getCardHolder());
+            SolicitudPago paymentRequest = new SolicitudPago(
+                    request.getIdempotencyKey(), // For idempotency
+                    montoTotal,
+                    request.getPaymentMethod().getCardNumber(),
+                    request.getPaymentMethod().getCvv(),
+                    request.getPaymentMethod().getExpiryDate(),
+                    request.getPaymentMethod().getCardHolder());
             
-            Map<String, Object> paymentResponse;
-            String paymentStatus;
+            ResultadoPago paymentResponse;
             String paymentId;
             
             try {
                 paymentResponse = paymentClient.authorize(paymentRequest);
-                paymentStatus = (String) paymentResponse.get("status");
-                paymentId = (String) paymentResponse.get("paymentId");
+                paymentId = paymentResponse.paymentId();
                 
-                if (!"APPROVED".equals(paymentStatus)) {
-                    String mensaje = (String) paymentResponse.get("mensaje");
+                if (!paymentResponse.isAprobado()) {
+                    String mensaje = paymentResponse.mensaje();
                     log.error("  ✗ Pago rechazado: {}", mensaje);
                     
                     // COMPENSACIÓN: Liberar reserva
@@ -131,7 +178,7 @@ public class TicketPurchaseOrchestrator {
                     ticketClient.liberarReserva(reservaId);
                     log.info("  ✓ Reserva liberada - Stock restaurado automáticamente");
                     
-                    // Notificar pago rechazado
+                    // Notificar pago rechazado (outbox)
                     sendPaymentRejectedNotification(userEmail, eventoNombre, montoTotal, mensaje);
                     
                     throw new RuntimeException("Pago rechazado: " + mensaje);
@@ -160,7 +207,7 @@ public class TicketPurchaseOrchestrator {
 
             // PASO 5: CONFIRMAR RESERVA y crear ticket
             log.info("PASO 5: CONFIRMANDO RESERVA ID={} y creando ticket", reservaId);
-            Map<String, Object> ticket;
+            TicketEmitido ticket;
             try {
                 // Confirmar reserva (cambia estado a CONFIRMADA)
                 ticketClient.confirmarReserva(reservaId);
@@ -176,7 +223,7 @@ public class TicketPurchaseOrchestrator {
                     precio,
                     paymentId
                 );
-                log.info("  ✓ Ticket creado: {}", ticket.get("ticketId"));
+                log.info("  ✓ Ticket creado: {}", ticket.ticketId());
             } catch (Exception e) {
                 log.error("  ✗ Error crítico confirmando reserva/creando ticket: {}", e.getMessage());
                 
@@ -195,21 +242,19 @@ public class TicketPurchaseOrchestrator {
                 throw new RuntimeException("Error crítico: pago procesado pero ticket no creado. Payment ID: " + paymentId);
             }
 
-            // PASO 6: Enviar notificación de confirmación (no crítico)
-            log.info("PASO 6: Enviando notificación de confirmación");
-            try {
-                sendTicketPurchasedNotification(userEmail, ticket, eventoNombre, tipoNombre, fechaEvento);
-                log.info("  ✓ Notificación enviada");
-            } catch (Exception e) {
-                log.warn("  ⚠ Notificación falló (no crítico): {}", e.getMessage());
-                // No afecta la transacción principal
-            }
+            // PASO 6: Encolar notificación de confirmación en el outbox (inserción local;
+            // la entrega la hace el relay, así que no agrega la latencia de notification-service)
+            log.info("PASO 6: Encolando notificación de confirmación");
+            sendTicketPurchasedNotification(userEmail, ticket, eventoNombre, tipoNombre, fechaEvento);
+            // Venta para el organizador: notification-service la agrupa en un resumen periódico.
+            // Buscar su email puede ir a user-service, así que no se espera
+            CompletableFuture.runAsync(() -> sendSaleToOrganizerNotification(evento, ticket, tipoNombre), executor);
 
             log.info("═══════════════════════════════════════════════════════════");
             log.info("✓ ORQUESTACIÓN COMPLETADA EXITOSAMENTE");
             log.info("  Reserva ID: {} (CONFIRMADA)", reservaId);
-            log.info("  Ticket ID: {}", ticket.get("ticketId"));
-            log.info("  Total pagado: ${}", ticket.get("total"));
+            log.info("  Ticket ID: {}", ticket.ticketId());
+            log.info("  Total pagado: ${}", ticket.total());
             log.info("  Estado: VENTA CONFIRMADA");
             log.info("═══════════════════════════════════════════════════════════");
 
@@ -243,26 +288,65 @@ public class TicketPurchaseOrchestrator {
         }
     }
 
-    private void sendTicketPurchasedNotification(String email, Map<String, Object> ticket, String eventoNombre, 
+    /** Compensación de los pasos 2-3: la reserva se creó pero el evento no permite vender. */
+    private void liberarReservaCompensacion(Long reservaId) {
+        log.warn("⚠️ Iniciando COMPENSACIÓN - Liberando reserva ID={}", reservaId);
+        try {
+            ticketClient.liberarReserva(reservaId);
+            log.info("  ✓ Reserva liberada - Stock restaurado");
+        } catch (Exception compensationError) {
+            log.error("  ✗✗ ERROR EN COMPENSACIÓN: {}", compensationError.getMessage());
+        }
+    }
+
+    private void sendTicketPurchasedNotification(String email, TicketEmitido ticket, String eventoNombre, 
                                                  String tipoNombre, String fechaEvento) {
         Map<String, Object> notification = new HashMap<>();
         notification.put("tipo", "TICKET_COMPRADO");
         notification.put("destinatario", email);
         
         Map<String, Object> datos = new HashMap<>();
-        datos.put("ticketId", ticket.get("ticketId"));
+        datos.put("ticketId", ticket.ticketId());
         datos.put("eventoNombre", eventoNombre);
         datos.put("tipoEntrada", tipoNombre);
-        datos.put("cantidad", ticket.get("cantidad"));
-        datos.put("total", ticket.get("total"));
+        datos.put("cantidad", ticket.cantidad());
+        datos.put("total", ticket.total());
         datos.put("fechaEvento", fechaEvento);
         
         notification.put("datos", datos);
         
         try {
-            notificationClient.sendNotification(notification);
+            notificationClient.encolar(notification);
+        } catch (Exception e) {
+            log.error("No se pudo encolar notificación de compra (se pierde): {}", e.getMessage());
+        }
+    }
+
+    private void sendSaleToOrganizerNotification(EventoResumen evento, TicketEmitido ticket, String tipoNombre) {
+        if (evento.organizadorId() == null) {
+            return;
+        }
+        try {
+            String email = userClient.getEmail(evento.organizadorId());
+            if (email == null) {
+                return;
+            }
+            Map<String, Object> notification = new HashMap<>();
+            notification.put("tipo", "VENTA_ENTRADAS");
+            notification.put("destinatario", email);
+
+            Map<String, Object> datos = new HashMap<>();
+            datos.put("eventoId", evento.id());
+            datos.put("eventoNombre", evento.nombre());
+            datos.put("ticketId", ticket.ticketId());
+            datos.put("tipoEntrada", tipoNombre);
+            datos.put("cantidad", ticket.cantidad());
+            datos.put("total", ticket.total());
+
+            notification.put("datos", datos);
+            notificationClient.encolar(notification);
         } catch (Exception e) {
-            log.warn("No se pudo enviar notificación: {}", e.getMessage());
+            log.error("No se pudo encolar la venta para el organizador del evento {} (se pierde): {}", evento.id(), e.getMessage());
         }
     }
 
@@ -279,9 +363,9 @@ public class TicketPurchaseOrchestrator {
         notification.put("datos", datos);
         
         try {
-            notificationClient.sendNotification(notification);
+            notificationClient.encolar(notification);
         } catch (Exception e) {
-            log.warn("No se pudo enviar notificación de pago rechazado: {}", e.getMessage());
+            log.error("No se pudo encolar notificación de pago rechazado (se pierde): {}", e.getMessage());
         }
     }
 }
@@ -39,9 +39,9 @@ public class UserRegistrationOrchestrator {
             log.info("  ✓ Usuario registrado: {} ({})", nombre, email);
 
             // PASO 2: Enviar notificación de bienvenida
-            log.info("PASO 2: Enviando notificación de bienvenida");
+            log.info("PASO 2: Encolando notificación de bienvenida");
             sendWelcomeNotification(email, nombre);
-            log.info("  ✓ Notificación enviada");
+            log.info("  ✓ Notificación encolada");
 
             log.info("═══════════════════════════════════════════════════════════");
             log.info("✓ ORQUESTACIÓN DE REGISTRO COMPLETADA");
@@ -68,9 +68,9 @@ public class UserRegistrationOrchestrator {
         notification.put("datos", datos);
         
         try {
-            notificationClient.sendNotification(notification);
+            notificationClient.encolar(notification);
         } catch (Exception e) {
-            log.warn("No se pudo enviar notificación de bienvenida: {}", e.getMessage());
+            log.error("No se pudo encolar notificación de bienvenida (se pierde): {}", e.getMessage());
         }
     }
 }
@@ -0,0 +1,18 @@
+-- Outbox de notificaciones (common: OutboxNotificaciones / OutboxRelay).
+-- estado: PENDIENTE -> ENVIADO, o MUERTO al agotar los reintentos (dead-letter).
+CREATE TABLE IF NOT EXISTS notificaciones_outbox (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    tipo VARCHAR(50) NOT NULL,
+    destinatario VARCHAR(255) NOT NULL,
+    datos TEXT NOT NULL,
+    estado VARCHAR(20) NOT NULL,
+    intentos INT NOT NULL DEFAULT 0,
+    proximo_intento DATETIME(3) NOT NULL,
+    creado DATETIME(3) NOT NULL,
+    enviado DATETIME(3) NULL,
+    ultimo_error VARCHAR(500) NULL,
+    -- Ronda del relay: PENDIENTE vencidas en orden de proximo_intento
+    INDEX idx_outbox_estado_proximo (estado, proximo_intento),
+    -- Limpieza de las ENVIADO viejas
+    INDEX idx_outbox_estado_enviado (estado, enviado)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,7 @@
+-- Lease del relay del outbox (common: OutboxRelay): el lote se reclama y se
+-- hace commit antes de llamar a send-batch, así el envío no retiene locks.
+-- reclamo identifica la ronda dueña del lote; al vencer reclamado_hasta otra
+-- ronda puede volver a tomarlo.
+ALTER TABLE notificaciones_outbox
+    ADD COLUMN reclamo VARCHAR(36) NULL,
+    ADD COLUMN reclamado_hasta DATETIME(3) NULL;
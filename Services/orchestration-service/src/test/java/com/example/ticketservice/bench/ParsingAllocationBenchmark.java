@@ -0,0 +1,105 @@
+package com.example.ticketservice.bench;
+
+import com.example.common.contracts.EventoResumen;
+import com.example.common.contracts.ReservaResumen;
+import com.example.common.contracts.ResultadoPago;
+import com.example.common.contracts.TicketEmitido;
+import com.example.common.contracts.TipoEntradaResumen;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark JMH de asignación de memoria por compra: deserializar las 5
+ * respuestas de la saga a Map (como antes) vs a los contratos tipados con
+ * lectura streaming.
+ *
+ *   mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *       "-Dexec.args=-cp %classpath org.openjdk.jmh.Main ParsingAllocationBenchmark -prof gc"
+ *
+ * Con -prof gc, gc.alloc.rate.norm da los bytes asignados por compra.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParsingAllocationBenchmark {
+
+    private static final byte[] TIPO_ENTRADA = json("""
+            {"id":7,"eventoId":3,"nombre":"VIP","descripcion":"Acceso preferencial y zona exclusiva",
+             "precio":150.00,"cantidadTotal":500,"cantidadDisponible":321,"orden":1,"activo":true,
+             "fechaCreacion":"2025-01-10T12:00:00","fechaActualizacion":"2025-02-01T08:30:00"}""");
+    private static final byte[] EVENTO = json("""
+            {"id":3,"nombre":"Concierto Sinfónico","descripcion":"Temporada de verano con invitados",
+             "ubicacion":"Teatro Nacional","fechaEvento":"2025-07-15T20:00:00","capacidadTotal":1500,
+             "entradasDisponibles":980,"tiposEntrada":[
+               {"id":7,"eventoId":3,"nombre":"VIP","descripcion":"Zona exclusiva","precio":150.00,"cantidadTotal":500,
+                "cantidadDisponible":321,"orden":1,"activo":true,"fechaCreacion":"2025-01-10T12:00:00","fechaActualizacion":"2025-02-01T08:30:00"},
+               {"id":8,"eventoId":3,"nombre":"General","descripcion":"Platea","precio":60.00,"cantidadTotal":1000,
+                "cantidadDisponible":659,"orden":2,"activo":true,"fechaCreacion":"2025-01-10T12:00:00","fechaActualizacion":"2025-02-01T08:30:00"}],
+             "categoria":"Música","organizadorId":12,"organizador":"Productora Andes","imagenUrl":"/api/images/abc.jpg",
+             "activo":true,"estado":"PUBLICADO","fechaCreacion":"2025-01-10T12:00:00","fechaActualizacion":"2025-02-01T08:30:00"}""");
+    private static final byte[] RESERVA = json("""
+            {"id":991,"tipoEntradaId":7,"usuarioId":44,"cantidad":2,"fechaCreacion":"2025-02-01T08:30:00Z",
+             "fechaExpiracion":"2025-02-01T08:40:00Z","estado":"ACTIVA","segundosRestantes":600}""");
+    private static final byte[] PAGO = json("""
+            {"paymentId":"PAY-7f3a2c","status":"APPROVED","monto":300.0,"timestamp":"2025-02-01T08:30:05Z",
+             "mensaje":"Pago aprobado"}""");
+    private static final byte[] TICKET = json("""
+            {"ticketId":"TKT-1a2b3c","eventoNombre":"Concierto Sinfónico","tipoEntrada":"VIP","cantidad":2,
+             "precioUnitario":150.0,"total":300.0,"paymentId":"PAY-7f3a2c","estado":"ACTIVO",
+             "fechaCompra":"2025-02-01T08:30:06Z"}""");
+
+    // Misma configuración por defecto que el ObjectMapper de la aplicación
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    // Camino anterior: LinkedHashMap por respuesta + casts de Number/String
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public long compraConMap() throws IOException {
+        Map<String, Object> tipo = objectMapper.readValue(TIPO_ENTRADA, Map.class);
+        double precio = ((Number) tipo.get("precio")).doubleValue();
+        long eventoId = ((Number) tipo.get("eventoId")).longValue();
+        String tipoNombre = (String) tipo.get("nombre");
+        Map<String, Object> evento = objectMapper.readValue(EVENTO, Map.class);
+        String eventoNombre = (String) evento.get("nombre");
+        Map<String, Object> reserva = objectMapper.readValue(RESERVA, Map.class);
+        long reservaId = ((Number) reserva.get("id")).longValue();
+        Map<String, Object> pago = objectMapper.readValue(PAGO, Map.class);
+        String paymentId = (String) pago.get("paymentId");
+        Map<String, Object> ticket = objectMapper.readValue(TICKET, Map.class);
+        String ticketId = (String) ticket.get("ticketId");
+        return (long) precio + eventoId + reservaId + tipoNombre.length() + eventoNombre.length()
+                + paymentId.length() + ticketId.length();
+    }
+
+    @Benchmark
+    public long compraTipada() throws IOException {
+        TipoEntradaResumen tipo = objectMapper.readValue(TIPO_ENTRADA, TipoEntradaResumen.class);
+        EventoResumen evento = objectMapper.readValue(EVENTO, EventoResumen.class);
+        ReservaResumen reserva = objectMapper.readValue(RESERVA, ReservaResumen.class);
+        ResultadoPago pago = objectMapper.readValue(PAGO, ResultadoPago.class);
+        TicketEmitido ticket = objectMapper.readValue(TICKET, TicketEmitido.class);
+        return (long) tipo.precio() + tipo.eventoId() + reserva.id() + tipo.nombre().length()
+                + evento.nombre().length() + pago.paymentId().length() + ticket.ticketId().length();
+    }
+
+    private static byte[] json(String texto) {
+        return texto.getBytes(StandardCharsets.UTF_8);
+    }
+}
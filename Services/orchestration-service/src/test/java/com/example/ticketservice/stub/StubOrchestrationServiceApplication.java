@@ -0,0 +1,19 @@
+package com.example.ticketservice.stub;
+
+import com.example.ticketservice.OrchestrationServiceApplication;
+import org.springframework.boot.SpringApplication;
+
+/**
+ * Arranca el orquestador con el perfil "stub" y los servicios simulados de
+ * {@link StubServicesController}, que solo existen en el classpath de test:
+ *
+ *   mvn spring-boot:test-run -Dspring-boot.run.main-class=com.example.ticketservice.stub.StubOrchestrationServiceApplication
+ */
+public class StubOrchestrationServiceApplication {
+
+    public static void main(String[] args) {
+        SpringApplication app = new SpringApplication(OrchestrationServiceApplication.class);
+        app.setAdditionalProfiles("stub");
+        app.run(args);
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.ticketservice.stub;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Servicios simulados para medir la latencia del orquestador sin depender del resto
+ * del sistema. Está en las fuentes de test (no se empaqueta) y solo se activa con
+ * el perfil "stub" (ver application-stub.properties), que apunta las URLs de los
+ * servicios a este mismo proceso. Se arranca con StubOrchestrationServiceApplication.
+ *
+ * Cada endpoint responde con el mismo formato que el servicio real tras una
+ * latencia fija configurable (stub.latencia-ms).
+ */
+@RestController
+@RequestMapping("/stub")
+@Profile("stub")
+public class StubServicesController {
+
+    @Value("${stub.latencia-ms:50}")
+    private long latenciaMs;
+
+    private final AtomicLong secuencia = new AtomicLong();
+
+    @GetMapping("/event/api/tipos-entrada/{id}")
+    public Map<String, Object> getTipoEntrada(@PathVariable Long id) {
+        simularLatencia();
+        Map<String, Object> tipo = new HashMap<>();
+        tipo.put("id", id);
+        tipo.put("nombre", "General");
+        tipo.put("precio", 25.0);
+        tipo.put("cantidadDisponible", 1_000_000);
+        tipo.put("eventoId", 1L);
+        tipo.put("activo", true);
+        return tipo;
+    }
+
+    @GetMapping("/event/api/eventos/{id}")
+    public Map<String, Object> getEvento(@PathVariable Long id) {
+        simularLatencia();
+        Map<String, Object> evento = new HashMap<>();
+        evento.put("id", id);
+        evento.put("nombre", "Evento Stub");
+        evento.put("fechaEvento", LocalDateTime.now().plusMonths(1).toString());
+        evento.put("activo", true);
+        return evento;
+    }
+
+    @GetMapping("/event/api/catalogo/cambios")
+    public Map<String, Object> getCambiosCatalogo() {
+        Map<String, Object> cambios = new HashMap<>();
+        cambios.put("instancia", "stub");
+        cambios.put("secuencia", 0L);
+        cambios.put("completo", false);
+        cambios.put("eventos", List.of());
+        cambios.put("tiposEntrada", List.of());
+        return cambios;
+    }
+
+    @PostMapping("/ticket/api/reservas/crear")
+    public Map<String, Object> crearReserva(@RequestBody Map<String, Object> request) {
+        simularLatencia();
+        Map<String, Object> reserva = new HashMap<>(request);
+        reserva.put("id", secuencia.incrementAndGet());
+        reserva.put("estado", "ACTIVA");
+        reserva.put("segundosRestantes", 600L);
+        return reserva;
+    }
+
+    @PutMapping("/ticket/api/reservas/{id}/{accion}")
+    public Map<String, Object> actualizarReserva(@PathVariable Long id, @PathVariable String accion) {
+        simularLatencia();
+        return Map.of("id", id, "estado", "confirmar".equals(accion) ? "CONFIRMADA" : "LIBERADA");
+    }
+
+    @PostMapping("/ticket/api/tickets")
+    public Map<String, Object> crearTicket(@RequestBody Map<String, Object> request) {
+        simularLatencia();
+        Map<String, Object> ticket = new HashMap<>(request);
+        ticket.put("ticketId", "TKT-" + UUID.randomUUID());
+        ticket.put("total", ((Number) request.get("precioUnitario")).doubleValue()
+                * ((Number) request.get("cantidad")).intValue());
+        return ticket;
+    }
+
+    @PostMapping("/payment/api/payments/authorize")
+    public Map<String, Object> authorize(@RequestBody Map<String, Object> request) {
+        simularLatencia();
+        return Map.of("status", "APPROVED", "paymentId", "PAY-" + UUID.randomUUID());
+    }
+
+    @PostMapping("/notification/api/notifications/send")
+    public Map<String, Object> sendNotification(@RequestBody Map<String, Object> request) {
+        simularLatencia();
+        return Map.of("enviado", true);
+    }
+
+    private void simularLatencia() {
+        try {
+            Thread.sleep(latenciaMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+# ===============================================
+# Script: test-http-pool.ps1
+# Descripcion: Benchmark de llamadas/s orchestration-service -> ticket-service.
+# Cada GET /api/orchestration/my-tickets hace exactamente una llamada
+# RestTemplate al ticket-service, asi que las req/s medidas son las llamadas/s
+# entre ambos servicios. Requiere PowerShell 7+ y ambos servicios levantados.
+#
+# Comparar pool keep-alive vs conexion nueva por llamada:
+#   1) orchestration-service normal                      (http.client.pool-enabled=true)
+#   2) orchestration-service --http.client.pool-enabled=false
+# Sin pool cada llamada paga el handshake TCP y deja un socket en TIME_WAIT
+# (contar con: netstat -an | findstr 8086 | findstr TIME_WAIT).
+# ===============================================
+param(
+    [string]$Orchestration = "http://localhost:8083",
+    [long]$UsuarioId = 1,
+    [int]$Peticiones = 10000,
+    [int]$Paralelismo = 64
+)
+
+$ErrorActionPreference = "Stop"
+$headers = @{ "X-User-ID" = "$UsuarioId" }
+$url = "$Orchestration/api/orchestration/my-tickets"
+
+function Get-PoolMetric($nombre) {
+    try {
+        $m = Invoke-RestMethod -Uri "$Orchestration/actuator/metrics/http.client.pool.$nombre" -Method Get
+        return $m.measurements[0].value
+    } catch {
+        return "n/d"
+    }
+}
+
+Write-Host "`n========== BENCHMARK POOL HTTP ORCHESTRATION -> TICKET ==========" -ForegroundColor Cyan
+
+# PASO 1: Calentamiento
+Write-Host "`n[1/3] Calentamiento..." -ForegroundColor Yellow
+1..200 | ForEach-Object { Invoke-RestMethod -Uri $url -Headers $headers -Method Get | Out-Null }
+
+# PASO 2: Carga
+Write-Host "`n[2/3] Lanzando $Peticiones llamadas (paralelismo $Paralelismo)..." -ForegroundColor Yellow
+$inicio = Get-Date
+$resultados = 1..$Peticiones | ForEach-Object -ThrottleLimit $Paralelismo -Parallel {
+    try {
+        Invoke-WebRequest -Uri $using:url -Headers $using:headers -Method Get -SkipHttpErrorCheck |
+            Select-Object -ExpandProperty StatusCode
+    } catch {
+        -1
+    }
+}
+$duracion = ((Get-Date) - $inicio).TotalSeconds
+$ok = ($resultados | Where-Object { $_ -eq 200 }).Count
+Write-Host ("  Exitosas: {0} / {1} | {2:N0} llamadas/s" -f $ok, $Peticiones, ($Peticiones / $duracion)) -ForegroundColor Green
+
+# PASO 3: Estado del pool
+Write-Host "`n[3/3] Estado del pool (http.client.pool.*)..." -ForegroundColor Yellow
+Write-Host ("  leased: {0} | pending: {1} | available: {2} | max: {3}" -f `
+    (Get-PoolMetric "leased"), (Get-PoolMetric "pending"), (Get-PoolMetric "available"), (Get-PoolMetric "max"))
+
+if ($ok -ne $Peticiones) {
+    Write-Host "`n  FALLO - $($Peticiones - $ok) llamadas no exitosas" -ForegroundColor Red
+    exit 1
+}
+Write-Host "`n========== BENCHMARK COMPLETADO ==========" -ForegroundColor Green
+exit 0
@@ -0,0 +1,93 @@
+# ===============================================
+# Script: test-purchase-latency.ps1
+# Descripcion: Prueba de carga del orquestador de compras contra servicios
+# simulados. Mide p50/p95/p99 de POST /api/orchestration/purchase-ticket.
+# Requiere PowerShell 7+ (ForEach-Object -Parallel).
+#
+# Preparacion (orchestration-service con el perfil "stub"; los servicios
+# simulados viven en src/test y se levantan con el classpath de test):
+#   cd orchestration-service
+#   mvn spring-boot:test-run "-Dspring-boot.run.main-class=com.example.ticketservice.stub.StubOrchestrationServiceApplication"
+#
+# Con stub.latencia-ms=50 y la cache L1 apagada (--catalogo.cache.l1.ttl-ms=1)
+# la ruta critica es tipo, evento || reserva, pago, confirmacion y ticket: el
+# evento se consulta mientras se crea la reserva (p50 ~360 -> ~310 ms, p99
+# ~460 -> ~400 ms con -Paralelismo 10). Con la cache L1 el tipo y el evento no
+# salen del proceso y quedan reserva, pago, confirmacion y ticket (~230 ms).
+#
+# Hilos de plataforma vs hilos virtuales a 5k compras concurrentes:
+#   mvn -Pjava21 spring-boot:test-run "-Dspring-boot.run.main-class=com.example.ticketservice.stub.StubOrchestrationServiceApplication"
+#   ./test-purchase-latency.ps1 -Peticiones 20000 -Paralelismo 5000
+#   mvn -Pjava21 spring-boot:test-run "-Dspring-boot.run.main-class=com.example.ticketservice.stub.StubOrchestrationServiceApplication" "-Dspring-boot.run.arguments=--spring.threads.virtual.enabled=true"
+#   ./test-purchase-latency.ps1 -Peticiones 20000 -Paralelismo 5000
+# Con hilos de plataforma cada compra retiene un hilo de Tomcat (max 400) mientras
+# espera a los stubs, que a su vez consumen hilos del mismo pool; con hilos
+# virtuales la espera no retiene hilos y las compras/s escalan con la concurrencia.
+# Revisar en el log los avisos del monitor de pinning.
+# ===============================================
+param(
+    [string]$Orchestration = "http://localhost:8083",
+    [int]$Peticiones = 1000,
+    [int]$Paralelismo = 50,
+    [int]$Calentamiento = 50
+)
+
+$ErrorActionPreference = "Stop"
+
+Write-Host "`n========== TEST LATENCIA - COMPRA ORQUESTADA ==========" -ForegroundColor Cyan
+
+$body = @{
+    tipoEntradaId = 1
+    cantidad = 2
+    paymentMethod = @{
+        cardNumber = "4111111111111111"
+        cvv = "123"
+        expiryDate = "12/30"
+        cardHolder = "Carga Stub"
+    }
+} | ConvertTo-Json -Depth 3
+
+$headers = @{ "X-User-ID" = "1"; "X-User-Email" = "carga@test.com" }
+
+# PASO 1: Calentamiento (JIT, pools de conexiones e hilos)
+Write-Host "`n[1/2] Calentamiento ($Calentamiento peticiones)..." -ForegroundColor Yellow
+1..$Calentamiento | ForEach-Object {
+    Invoke-RestMethod -Uri "$Orchestration/api/orchestration/purchase-ticket" -Method Post -Body $body -Headers $headers -ContentType "application/json" | Out-Null
+}
+
+# PASO 2: Carga medida
+Write-Host "`n[2/2] Lanzando $Peticiones compras (paralelismo $Paralelismo)..." -ForegroundColor Yellow
+$inicio = Get-Date
+$muestras = 1..$Peticiones | ForEach-Object -ThrottleLimit $Paralelismo -Parallel {
+    $sw = [System.Diagnostics.Stopwatch]::StartNew()
+    try {
+        $status = Invoke-WebRequest -Uri "$($using:Orchestration)/api/orchestration/purchase-ticket" -Method Post `
+            -Body $using:body -Headers $using:headers -ContentType "application/json" -SkipHttpErrorCheck |
+            Select-Object -ExpandProperty StatusCode
+    } catch {
+        $status = -1
+    }
+    $sw.Stop()
+    [PSCustomObject]@{ Status = $status; Ms = $sw.Elapsed.TotalMilliseconds }
+}
+$duracion = ((Get-Date) - $inicio).TotalSeconds
+
+$ok = @($muestras | Where-Object { $_.Status -eq 200 })
+$latencias = $ok | ForEach-Object { $_.Ms } | Sort-Object
+
+function Percentil($valores, $p) {
+    if ($valores.Count -eq 0) { return 0 }
+    $idx = [Math]::Min($valores.Count - 1, [Math]::Ceiling($p / 100 * $valores.Count) - 1)
+    return $valores[$idx]
+}
+
+Write-Host ("  Exitosas: {0} / {1} | {2:N0} compras/s" -f $ok.Count, $Peticiones, ($Peticiones / $duracion))
+Write-Host ("  p50: {0:N1} ms | p95: {1:N1} ms | p99: {2:N1} ms | max: {3:N1} ms" -f `
+    (Percentil $latencias 50), (Percentil $latencias 95), (Percentil $latencias 99), (Percentil $latencias 100)) -ForegroundColor Green
+
+if ($ok.Count -ne $Peticiones) {
+    Write-Host "`n  FALLO - $($Peticiones - $ok.Count) compras no exitosas" -ForegroundColor Red
+    exit 1
+}
+Write-Host "`n========== PRUEBA COMPLETADA ==========" -ForegroundColor Green
+exit 0
@@ -0,0 +1,66 @@
+# ===============================================
+# Script: test-rate-limit.ps1
+# Descripcion: Simula una ráfaga de salida a la venta contra el Gateway y
+# cuenta cuántas peticiones pasan (200), cuántas corta el rate limiting (429)
+# y cuántas descarta el load shedding por concurrencia (503).
+# Requiere PowerShell 7+ (ForEach-Object -Parallel) y el sistema levantado.
+#
+# Store compartido entre réplicas del Gateway:
+#   docker-compose --profile redis up -d redis
+#   $env:RATE_LIMIT_STORE="redis"; mvn spring-boot:run   (en gateway/)
+# ===============================================
+param(
+    [string]$Gateway = "http://localhost:8080",
+    [string]$Email = "u20202269@utp.edu.pe",
+    [string]$Contrasena = "pass123456",
+    [int]$Peticiones = 2000,
+    [int]$Paralelismo = 200,
+    [long]$TipoEntradaId = 1
+)
+
+$ErrorActionPreference = "Stop"
+
+function Resumen($titulo, $resultados) {
+    $porEstado = $resultados | Group-Object Status | Sort-Object Name
+    Write-Host "  $titulo" -ForegroundColor Green
+    foreach ($g in $porEstado) {
+        Write-Host ("    HTTP {0}: {1}" -f $g.Name, $g.Count)
+    }
+    $retry = $resultados | Where-Object { $_.RetryAfter } | Select-Object -First 1
+    if ($retry) {
+        Write-Host "    Retry-After de ejemplo: $($retry.RetryAfter)s"
+    }
+}
+
+Write-Host "`n========== TEST RATE LIMIT / LOAD SHEDDING ==========" -ForegroundColor Cyan
+
+# PASO 1: Login
+Write-Host "`n[1/3] Login..." -ForegroundColor Yellow
+$loginBody = @{ email = $Email; contrasena = $Contrasena } | ConvertTo-Json
+$token = (Invoke-RestMethod -Uri "$Gateway/api/users/login" -Method Post -Body $loginBody -ContentType "application/json").token
+$headers = @{ "Authorization" = "Bearer $token" }
+
+# PASO 2: Listado de eventos (límite por IP)
+Write-Host "`n[2/3] $Peticiones GET /api/eventos (paralelismo $Paralelismo)..." -ForegroundColor Yellow
+$listado = 1..$Peticiones | ForEach-Object -ThrottleLimit $Paralelismo -Parallel {
+    $r = Invoke-WebRequest -Uri "$($using:Gateway)/api/eventos" -Method Get -SkipHttpErrorCheck
+    [PSCustomObject]@{ Status = $r.StatusCode; RetryAfter = $r.Headers["Retry-After"] }
+}
+Resumen "GET /api/eventos" $listado
+
+# PASO 3: Compras del mismo usuario (límite por usuario + por ruta + concurrencia)
+Write-Host "`n[3/3] $Peticiones POST /api/orchestration/purchase-ticket (paralelismo $Paralelismo)..." -ForegroundColor Yellow
+$body = @{
+    tipoEntradaId = $TipoEntradaId
+    cantidad = 1
+    paymentMethod = @{ cardNumber = "4111111111111111"; cvv = "123"; expiryDate = "12/30"; cardHolder = "Carga" }
+} | ConvertTo-Json -Depth 3
+$compras = 1..$Peticiones | ForEach-Object -ThrottleLimit $Paralelismo -Parallel {
+    $r = Invoke-WebRequest -Uri "$($using:Gateway)/api/orchestration/purchase-ticket" -Method Post `
+        -Body $using:body -Headers $using:headers -ContentType "application/json" -SkipHttpErrorCheck
+    [PSCustomObject]@{ Status = $r.StatusCode; RetryAfter = $r.Headers["Retry-After"] }
+}
+Resumen "POST /api/orchestration/purchase-ticket" $compras
+
+Write-Host "`nEsperado: la mayoría de compras del mismo usuario en 429 (ráfaga de 3, luego 1 cada 2s)," -ForegroundColor Cyan
+Write-Host "y 503 solo si el orquestador ya tiene 180 compras en curso." -ForegroundColor Cyan
@@ -0,0 +1,76 @@
+# ===============================================
+# Script: test-stock-concurrency.ps1
+# Descripcion: Prueba de estres del descuento de stock en event-service.
+# Lanza miles de PUT /api/tipos-entrada/{id}/disminuir en paralelo y
+# verifica que no haya sobreventa y que el stock final sea exacto.
+# Requiere PowerShell 7+ (ForEach-Object -Parallel) y event-service levantado.
+#
+# Benchmark JPA vs inventario caliente: ejecutar una vez con el modo por defecto
+# y otra con inventory.hot.enabled=true e inventory.hot.ticket-types=<id>, y
+# comparar las req/s reportadas. En modo caliente el stock sin vender vuelve a
+# la BD en la siguiente reconciliacion (-EsperaReconciliacion).
+# ===============================================
+param(
+    [string]$EventService = "http://localhost:8082",
+    [string]$GatewaySecret = "soa-gateway-secret-key-2024",
+    [int]$Stock = 1000,
+    [int]$Peticiones = 3000,
+    [int]$Paralelismo = 200,
+    [int]$EsperaReconciliacion = 2
+)
+
+$ErrorActionPreference = "Stop"
+$headers = @{ "X-Gateway-Secret" = $GatewaySecret }
+
+Write-Host "`n========== TEST CONCURRENCIA - STOCK ==========" -ForegroundColor Cyan
+
+# PASO 1: Crear evento con un unico tipo de entrada
+Write-Host "`n[1/3] Creando evento con stock $Stock..." -ForegroundColor Yellow
+$eventoBody = @{
+    nombre = "Stress Stock $(Get-Date -Format 'HHmmss')"
+    descripcion = "Evento para prueba de concurrencia"
+    ubicacion = "Estadio"
+    fechaEvento = (Get-Date).AddYears(1).ToString("yyyy-MM-ddTHH:mm:ss")
+    categoria = "Test"
+    organizadorId = 1
+    tiposEntrada = @(
+        @{ nombre = "General"; descripcion = "Entrada general"; precio = 10.00; cantidad = $Stock; orden = 1 }
+    )
+}
+$evento = Invoke-RestMethod -Uri "$EventService/api/eventos" -Method Post -Body ($eventoBody | ConvertTo-Json -Depth 3) -Headers $headers -ContentType "application/json"
+$tipoId = $evento.tiposEntrada[0].id
+Write-Host "  OK - Evento $($evento.id), tipo de entrada $tipoId" -ForegroundColor Green
+
+# PASO 2: Disparar decrementos concurrentes
+Write-Host "`n[2/3] Lanzando $Peticiones decrementos (paralelismo $Paralelismo)..." -ForegroundColor Yellow
+$inicio = Get-Date
+$resultados = 1..$Peticiones | ForEach-Object -ThrottleLimit $Paralelismo -Parallel {
+    try {
+        Invoke-WebRequest -Uri "$($using:EventService)/api/tipos-entrada/$($using:tipoId)/disminuir?cantidad=1" `
+            -Method Put -Headers $using:headers -SkipHttpErrorCheck | Select-Object -ExpandProperty StatusCode
+    } catch {
+        -1
+    }
+}
+$duracion = ((Get-Date) - $inicio).TotalSeconds
+
+$ok = ($resultados | Where-Object { $_ -eq 200 }).Count
+$rechazadas = ($resultados | Where-Object { $_ -eq 400 }).Count
+$errores = $Peticiones - $ok - $rechazadas
+Write-Host ("  Exitosas: {0} | Rechazadas (sin stock): {1} | Errores: {2} | {3:N0} req/s" -f $ok, $rechazadas, $errores, ($Peticiones / $duracion))
+
+# PASO 3: Verificar stock final
+Write-Host "`n[3/3] Verificando stock final..." -ForegroundColor Yellow
+Start-Sleep -Seconds $EsperaReconciliacion
+$tipo = Invoke-RestMethod -Uri "$EventService/api/tipos-entrada/$tipoId" -Method Get -Headers $headers
+$esperadoOk = [Math]::Min($Stock, $Peticiones)
+$esperadoDisponible = $Stock - $esperadoOk
+
+if ($errores -eq 0 -and $ok -eq $esperadoOk -and $tipo.cantidadDisponible -eq $esperadoDisponible) {
+    Write-Host "  OK - Disponibles: $($tipo.cantidadDisponible) (esperado $esperadoDisponible), sin sobreventa" -ForegroundColor Green
+    Write-Host "`n========== PRUEBA SUPERADA ==========" -ForegroundColor Green
+    exit 0
+}
+
+Write-Host "  FALLO - Disponibles: $($tipo.cantidadDisponible) (esperado $esperadoDisponible), exitosas $ok (esperado $esperadoOk)" -ForegroundColor Red
+exit 1
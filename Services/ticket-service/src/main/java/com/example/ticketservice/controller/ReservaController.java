@@ -1,5 +1,6 @@
 package com.example.ticketservice.controller;
 
+import com.example.ticketservice.dto.CreateCarritoRequest;
 import com.example.ticketservice.dto.CreateReservaRequest;
 import com.example.ticketservice.dto.ReservaDto;
 import com.example.ticketservice.service.ReservaService;
@@ -29,6 +30,13 @@ public class ReservaController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/carrito")
+    @Operation(summary = "Reservar carrito", description = "Reserva varios tipos de entrada a la vez; el stock se descuenta todo o nada")
+    public ResponseEntity<List<ReservaDto>> crearReservasCarrito(@Valid @RequestBody CreateCarritoRequest request) {
+        List<ReservaDto> response = reservaService.crearReservasCarrito(request);
+        return ResponseEntity.ok(response);
+    }
+
     @PutMapping("/{reservaId}/confirmar")
     @Operation(summary = "Confirmar reserva", description = "Confirma la reserva después de un pago exitoso")
     public ResponseEntity<ReservaDto> confirmarReserva(@PathVariable Long reservaId) {
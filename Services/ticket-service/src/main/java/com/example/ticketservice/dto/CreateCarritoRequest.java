@@ -0,0 +1,42 @@
+package com.example.ticketservice.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+
+import java.util.List;
+
+public class CreateCarritoRequest {
+    @NotNull(message = "El usuario es requerido")
+    private Long usuarioId;
+    
+    @NotEmpty(message = "El carrito debe tener al menos un ítem")
+    @Size(max = 10, message = "El carrito no puede tener más de 10 ítems")
+    @Valid
+    private List<ItemCarritoRequest> items;
+    
+    // Constructors
+    public CreateCarritoRequest() {
+    }
+    
+    public CreateCarritoRequest(Long usuarioId, List<ItemCarritoRequest> items) {
+        this.usuarioId = usuarioId;
+        this.items = items;
+    }
+    
+    // Getters and Setters
+    public Long getUsuarioId() {
+        return usuarioId;
+    }
+    
+    public void setUsuarioId(Long usuarioId) {
+        this.usuarioId = usuarioId;
+    }
+    
+    public List<ItemCarritoRequest> getItems() {
+        return items;
+    }
+    
+    public void setItems(List<ItemCarritoRequest> items) {
+        this.items = items;
+    }
+}
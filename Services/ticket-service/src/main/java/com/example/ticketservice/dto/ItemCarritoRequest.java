@@ -0,0 +1,39 @@
+package com.example.ticketservice.dto;
+
+import jakarta.validation.constraints.*;
+
+public class ItemCarritoRequest {
+    @NotNull(message = "El tipo de entrada es requerido")
+    private Long tipoEntradaId;
+    
+    @NotNull(message = "La cantidad es requerida")
+    @Min(value = 1, message = "La cantidad debe ser al menos 1")
+    @Max(value = 10, message = "No se pueden reservar más de 10 tickets")
+    private Integer cantidad;
+    
+    // Constructors
+    public ItemCarritoRequest() {
+    }
+    
+    public ItemCarritoRequest(Long tipoEntradaId, Integer cantidad) {
+        this.tipoEntradaId = tipoEntradaId;
+        this.cantidad = cantidad;
+    }
+    
+    // Getters and Setters
+    public Long getTipoEntradaId() {
+        return tipoEntradaId;
+    }
+    
+    public void setTipoEntradaId(Long tipoEntradaId) {
+        this.tipoEntradaId = tipoEntradaId;
+    }
+    
+    public Integer getCantidad() {
+        return cantidad;
+    }
+    
+    public void setCantidad(Integer cantidad) {
+        this.cantidad = cantidad;
+    }
+}
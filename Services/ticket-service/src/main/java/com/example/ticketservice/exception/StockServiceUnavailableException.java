@@ -0,0 +1,7 @@
+package com.example.ticketservice.exception;
+
+public class StockServiceUnavailableException extends RuntimeException {
+    public StockServiceUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.ticketservice.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import java.time.Instant;
 
 @Entity
@@ -26,13 +28,16 @@ public class Reserva {
     @Column(nullable = false)
     private Instant fechaExpiracion;
     
+    // VARCHAR como en V1 (no ENUM nativo de MySQL): ddl-auto=validate y nuevos estados sin ALTER
     @Enumerated(EnumType.STRING)
-    @Column(nullable = false)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(nullable = false, length = 20)
     private EstadoReserva estado;
     
     public enum EstadoReserva {
         ACTIVA,      // Reserva creada, stock decrementado, esperando pago
         CONFIRMADA,  // Pago exitoso, reserva confirmada
+        LIBERANDO,   // Pago fallido o tiempo expirado, stock pendiente de devolver a event-service
         LIBERADA,    // Pago fallido o tiempo expirado, stock restaurado
         CANCELADA    // Usuario canceló manualmente
     }
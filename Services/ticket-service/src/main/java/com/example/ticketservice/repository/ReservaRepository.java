@@ -2,7 +2,9 @@ package com.example.ticketservice.repository;
 
 import com.example.ticketservice.model.Reserva;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
@@ -17,4 +19,75 @@ public interface ReservaRepository extends JpaRepository<Reserva, Long> {
     List<Reserva> findReservasExpiradas(Instant now);
     
     List<Reserva> findByTipoEntradaIdAndEstado(Long tipoEntradaId, Reserva.EstadoReserva estado);
+    
+    @Query("SELECT MIN(r.fechaExpiracion) FROM Reserva r WHERE r.estado = 'ACTIVA' AND r.fechaExpiracion < :now")
+    Instant findFechaExpiracionMasAntigua(@Param("now") Instant now);
+    
+    /**
+     * Reclama una página de reservas expiradas para liberar.
+     * SKIP LOCKED permite que varias instancias de ticket-service barran en paralelo
+     * sin pisarse: cada una se lleva filas distintas.
+     */
+    @Query(value = "SELECT id, tipo_entrada_id AS tipoEntradaId, cantidad FROM reservas " +
+                   "WHERE estado = 'ACTIVA' AND fecha_expiracion < :now " +
+                   "ORDER BY fecha_expiracion LIMIT :limite FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<ReservaExpirada> reclamarReservasExpiradas(@Param("now") Instant now, @Param("limite") int limite);
+    
+    /**
+     * Reclama por id las reservas que el timing wheel reportó como vencidas.
+     */
+    @Query(value = "SELECT id, tipo_entrada_id AS tipoEntradaId, cantidad FROM reservas " +
+                   "WHERE id IN (:ids) AND estado = 'ACTIVA' AND fecha_expiracion <= :now " +
+                   "FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<ReservaExpirada> reclamarReservasVencidas(@Param("ids") List<Long> ids, @Param("now") Instant now);
+    
+    /**
+     * Reservas ya liberadas cuyo stock todavía no volvió a event-service.
+     * Sin lock: la devolución es idempotente (clave reserva-{id}), si dos
+     * instancias toman la misma fila el stock vuelve una sola vez.
+     */
+    @Query(value = "SELECT id, tipo_entrada_id AS tipoEntradaId, cantidad FROM reservas " +
+                   "WHERE estado = 'LIBERANDO' ORDER BY id LIMIT :limite",
+           nativeQuery = true)
+    List<ReservaExpirada> findPendientesDeDevolver(@Param("limite") int limite);
+    
+    List<ReservaVencimiento> findVencimientosByEstado(Reserva.EstadoReserva estado);
+    
+    /**
+     * Cambia el estado solo si sigue en {@code actual} y sin vencer. Para
+     * confirmar: compite con el ACTIVA → LIBERANDO del wheel y del barrido por
+     * la misma fila y solo uno la afecta. 0 si no existe, cambió de estado o venció.
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Reserva r SET r.estado = :nuevo " +
+           "WHERE r.id = :id AND r.estado = :actual AND r.fechaExpiracion > :ahora")
+    int actualizarEstadoSiVigente(@Param("id") Long id,
+                                  @Param("actual") Reserva.EstadoReserva actual,
+                                  @Param("nuevo") Reserva.EstadoReserva nuevo,
+                                  @Param("ahora") Instant ahora);
+    
+    @Modifying
+    @Query("UPDATE Reserva r SET r.estado = :nuevo WHERE r.id IN :ids AND r.estado = :actual")
+    int actualizarEstado(@Param("ids") List<Long> ids,
+                         @Param("actual") Reserva.EstadoReserva actual,
+                         @Param("nuevo") Reserva.EstadoReserva nuevo);
+    
+    /**
+     * Proyección mínima de una reserva expirada: solo lo necesario para devolver stock.
+     */
+    interface ReservaExpirada {
+        Long getId();
+        Long getTipoEntradaId();
+        Integer getCantidad();
+    }
+    
+    /**
+     * Proyección para reconstruir el timing wheel al arrancar.
+     */
+    interface ReservaVencimiento {
+        Long getId();
+        Instant getFechaExpiracion();
+    }
 }
@@ -0,0 +1,149 @@
+package com.example.ticketservice.service;
+
+import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Timing wheel jerárquico en memoria para vencimientos de reservas.
+ *
+ * Tres niveles de 64 slots: 1 s por slot (64 s), 64 s por slot (~68 min) y
+ * 4096 s por slot (~3 días). Una reserva de 10 minutos entra en el nivel 1 y
+ * baja en cascada al nivel 0 cuando se acerca su vencimiento; agregar, quitar
+ * y avanzar un tick cuestan O(1) amortizado, sin consultar la BD.
+ *
+ * Quitar es perezoso: se borra del índice y el id que queda en el slot se
+ * descarta cuando el slot se dispara.
+ */
+public final class HierarchicalTimingWheel {
+
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 3;
+
+    private final long tickMs;
+    private final ArrayDeque<Long>[][] wheels;
+    // id -> tick de vencimiento
+    private final Map<Long, Long> index = new HashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private long currentTick;
+
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(long tickMs, long nowMs) {
+        this.tickMs = tickMs;
+        this.currentTick = nowMs / tickMs;
+        this.wheels = new ArrayDeque[LEVELS][SLOTS];
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                wheels[level][slot] = new ArrayDeque<>();
+            }
+        }
+    }
+
+    /**
+     * Programa (o reprograma) el vencimiento de un id.
+     */
+    public void add(long id, long expiracionMs) {
+        // Redondeo hacia arriba: el slot nunca se dispara antes del vencimiento
+        long tick = (expiracionMs + tickMs - 1) / tickMs;
+        lock.lock();
+        try {
+            // Lo que ya venció sale en el próximo tick
+            tick = Math.max(tick, currentTick + 1);
+            index.put(id, tick);
+            place(id, tick);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.lock();
+        try {
+            index.remove(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return index.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Avanza el reloj hasta {@code nowMs} y devuelve los ids vencidos.
+     */
+    public List<Long> advance(long nowMs) {
+        long target = nowMs / tickMs;
+        List<Long> vencidos = new ArrayList<>();
+        lock.lock();
+        try {
+            while (currentTick < target) {
+                currentTick++;
+                if ((currentTick & MASK) == 0) {
+                    if (((currentTick >> BITS) & MASK) == 0) {
+                        cascade(2, (int) ((currentTick >> (2 * BITS)) & MASK));
+                    }
+                    cascade(1, (int) ((currentTick >> BITS) & MASK));
+                }
+                fire((int) (currentTick & MASK), vencidos);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return vencidos;
+    }
+
+    private void place(long id, long tick) {
+        if (tick - currentTick < SLOTS) {
+            wheels[0][(int) (tick & MASK)].add(id);
+        } else if ((tick >> BITS) - (currentTick >> BITS) < SLOTS) {
+            wheels[1][(int) ((tick >> BITS) & MASK)].add(id);
+        } else if ((tick >> (2 * BITS)) - (currentTick >> (2 * BITS)) < SLOTS) {
+            wheels[2][(int) ((tick >> (2 * BITS)) & MASK)].add(id);
+        } else {
+            // Más allá del horizonte: se estaciona en el último slot y se recoloca en la cascada
+            wheels[2][(int) (((currentTick >> (2 * BITS)) + SLOTS - 1) & MASK)].add(id);
+        }
+    }
+
+    private void cascade(int level, int slot) {
+        ArrayDeque<Long> bucket = wheels[level][slot];
+        int n = bucket.size();
+        for (int i = 0; i < n; i++) {
+            Long id = bucket.poll();
+            Long tick = index.get(id);
+            if (tick != null) {
+                place(id, tick);
+            }
+        }
+    }
+
+    private void fire(int slot, List<Long> vencidos) {
+        ArrayDeque<Long> bucket = wheels[0][slot];
+        int n = bucket.size();
+        for (int i = 0; i < n; i++) {
+            Long id = bucket.poll();
+            Long tick = index.get(id);
+            if (tick == null) {
+                continue;
+            }
+            if (tick <= currentTick) {
+                index.remove(id);
+                vencidos.add(id);
+            } else {
+                // Reprogramado después de colocarse en este slot
+                place(id, tick);
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.ticketservice.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Mantenimiento del particionado mensual de la tabla reservas
+ * (V3__Partition_reservas_by_fecha_creacion.sql).
+ *
+ * - Crea por adelantado las particiones de los próximos meses partiendo p_max,
+ *   para que las filas nuevas nunca caigan en la partición abierta.
+ * - Elimina con DROP PARTITION los meses fuera de la retención, siempre que
+ *   no quede ninguna reserva ACTIVA en ellos.
+ *
+ * Si la tabla no está particionada (migración no aplicada) no hace nada.
+ */
+@Service
+public class ReservaParticionService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservaParticionService.class);
+    private static final String PARTICION_ABIERTA = "p_max";
+    private static final DateTimeFormatter NOMBRE = DateTimeFormatter.ofPattern("'p_'yyyyMM");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${reservas.particiones.meses-adelanto:3}")
+    private int mesesAdelanto;
+
+    @Value("${reservas.particiones.meses-retencion:3}")
+    private int mesesRetencion;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void alArrancar() {
+        mantenerParticiones();
+    }
+
+    @Scheduled(cron = "0 15 3 * * *", zone = "UTC")
+    public void mantenerParticiones() {
+        try {
+            List<Particion> particiones = leerParticiones();
+            if (particiones.isEmpty()) {
+                log.debug("La tabla reservas no está particionada, se omite el mantenimiento");
+                return;
+            }
+            YearMonth actual = YearMonth.now(ZoneOffset.UTC);
+            crearParticionesFuturas(particiones, actual);
+            eliminarParticionesVencidas(particiones, actual);
+        } catch (RuntimeException e) {
+            log.error("Error en el mantenimiento de particiones de reservas: {}", e.getMessage());
+        }
+    }
+
+    private void crearParticionesFuturas(List<Particion> particiones, YearMonth actual) {
+        LocalDate ultimoLimite = particiones.stream()
+            .map(Particion::limite)
+            .filter(limite -> limite != null)
+            .max(LocalDate::compareTo)
+            .orElse(null);
+
+        for (int i = 0; i <= mesesAdelanto; i++) {
+            YearMonth mes = actual.plusMonths(i);
+            LocalDate limite = mes.plusMonths(1).atDay(1);
+            if (ultimoLimite != null && !limite.isAfter(ultimoLimite)) {
+                continue;
+            }
+            // Partir la partición abierta es barato mientras esté vacía (fechas futuras)
+            jdbcTemplate.execute("ALTER TABLE reservas REORGANIZE PARTITION " + PARTICION_ABIERTA + " INTO ("
+                + "PARTITION " + mes.format(NOMBRE) + " VALUES LESS THAN ('" + limite + "'), "
+                + "PARTITION " + PARTICION_ABIERTA + " VALUES LESS THAN (MAXVALUE))");
+            ultimoLimite = limite;
+            log.info("📅 Partición {} creada en reservas (hasta {})", mes.format(NOMBRE), limite);
+        }
+    }
+
+    private void eliminarParticionesVencidas(List<Particion> particiones, YearMonth actual) {
+        LocalDate corte = actual.minusMonths(mesesRetencion).atDay(1);
+        for (Particion particion : particiones) {
+            if (particion.limite() == null || particion.limite().isAfter(corte)) {
+                continue;
+            }
+            Integer activas = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM reservas PARTITION (" + particion.nombre() + ") WHERE estado = 'ACTIVA'",
+                Integer.class);
+            if (activas != null && activas > 0) {
+                log.warn("⚠️ La partición {} tiene {} reservas ACTIVAS, no se elimina", particion.nombre(), activas);
+                continue;
+            }
+            jdbcTemplate.execute("ALTER TABLE reservas DROP PARTITION " + particion.nombre());
+            log.info("🗑️ Partición {} eliminada de reservas", particion.nombre());
+        }
+    }
+
+    private List<Particion> leerParticiones() {
+        return jdbcTemplate.query(
+            "SELECT PARTITION_NAME, PARTITION_DESCRIPTION FROM information_schema.PARTITIONS " +
+            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'reservas' AND PARTITION_NAME IS NOT NULL " +
+            "ORDER BY PARTITION_ORDINAL_POSITION",
+            (rs, rowNum) -> new Particion(rs.getString(1), parsearLimite(rs.getString(2))));
+    }
+
+    // PARTITION_DESCRIPTION llega como 'YYYY-MM-DD' (o con hora) o MAXVALUE
+    private static LocalDate parsearLimite(String descripcion) {
+        if (descripcion == null || descripcion.equalsIgnoreCase("MAXVALUE")) {
+            return null;
+        }
+        String valor = descripcion.replace("'", "").trim();
+        return LocalDate.parse(valor.length() > 10 ? valor.substring(0, 10) : valor);
+    }
+
+    private record Particion(String nombre, LocalDate limite) {
+    }
+}
@@ -1,27 +1,42 @@
 package com.example.ticketservice.service;
 
+import com.example.ticketservice.dto.CreateCarritoRequest;
 import com.example.ticketservice.dto.CreateReservaRequest;
 import com.example.ticketservice.dto.ReservaDto;
 import com.example.ticketservice.exception.InsufficientStockException;
 import com.example.ticketservice.exception.ReservaExpiredException;
 import com.example.ticketservice.exception.ReservaNotFoundException;
+import com.example.ticketservice.exception.StockServiceUnavailableException;
 import com.example.ticketservice.model.Reserva;
 import com.example.ticketservice.repository.ReservaRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.http.*;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @Service
 public class ReservaService {
@@ -41,6 +56,48 @@ public class ReservaService {
     @Value("${gateway.secret}")
     private String gatewaySecret;
     
+    @Value("${reservas.expiracion.page-size:500}")
+    private int tamanoPagina;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    // Vencimientos en memoria: la reserva vuelve al stock ~1 s después de expirar
+    private final HierarchicalTimingWheel vencimientos = new HierarchicalTimingWheel(1000, System.currentTimeMillis());
+    
+    private TransactionTemplate transactionTemplate;
+    private Counter reservasLiberadasCounter;
+    private Timer barridoTimer;
+    private final AtomicLong barridoLagSegundos = new AtomicLong();
+    private final AtomicLong barridoFilasPorSegundo = new AtomicLong();
+    
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        reservasLiberadasCounter = Counter.builder("reservas.expiracion.liberadas")
+            .description("Reservas expiradas liberadas por el barrido")
+            .register(meterRegistry);
+        barridoTimer = Timer.builder("reservas.expiracion.barrido")
+            .description("Duración de cada barrido de reservas expiradas")
+            .register(meterRegistry);
+        meterRegistry.gauge("reservas.expiracion.lag.segundos", barridoLagSegundos);
+        meterRegistry.gauge("reservas.expiracion.filas.por.segundo", barridoFilasPorSegundo);
+        meterRegistry.gauge("reservas.expiracion.wheel.pendientes", vencimientos, HierarchicalTimingWheel::size);
+    }
+    
+    /**
+     * Reconstruye el timing wheel desde la tabla reservas al arrancar.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarVencimientos() {
+        List<ReservaRepository.ReservaVencimiento> activas = reservaRepository.findVencimientosByEstado(Reserva.EstadoReserva.ACTIVA);
+        activas.forEach(r -> vencimientos.add(r.getId(), r.getFechaExpiracion().toEpochMilli()));
+        log.info("Timing wheel de reservas cargado con {} reservas activas", activas.size());
+    }
+    
     /**
      * Crear una reserva temporal (decrementa el stock en event-service)
      */
@@ -81,6 +138,7 @@ public class ReservaService {
         );
         
         reserva = reservaRepository.save(reserva);
+        vencimientos.add(reserva.getId(), expiracion.toEpochMilli());
         
         log.info("║ Reserva ID:      {}", reserva.getId());
         log.info("║ Expira en:       {} minutos", EXPIRACION_MINUTOS);
@@ -90,6 +148,110 @@ public class ReservaService {
         return ReservaDto.fromEntity(reserva);
     }
     
+    /**
+     * Crear reservas para un carrito con varios tipos de entrada.
+     * El stock de todas las líneas se descuenta con UNA llamada a event-service,
+     * todo o nada: si una línea no tiene stock no se descuenta ninguna.
+     * 
+     * Cada línea lleva una clave de idempotencia (carrito-{uuid}-{n}). Si no se
+     * sabe cómo terminó el descuento (timeout, 5xx) o las reservas no se pueden
+     * guardar, el carrito se anula con incrementar-lote y las mismas claves:
+     * event-service devuelve el stock solo si el descuento se aplicó y, si
+     * todavía no llegó, lo rechaza cuando llegue. Las reservas se guardan en su
+     * propia transacción, sin tener una conexión tomada durante la llamada.
+     */
+    public List<ReservaDto> crearReservasCarrito(CreateCarritoRequest request) {
+        log.info("═══════════════════════════════════════════════════════════");
+        log.info("║ CREANDO RESERVAS DE CARRITO                             ║");
+        log.info("═══════════════════════════════════════════════════════════");
+        log.info("║ Usuario ID:      {}", request.getUsuarioId());
+        log.info("║ Ítems:           {}", request.getItems().size());
+        
+        String carrito = "carrito-" + UUID.randomUUID();
+        List<Map<String, Object>> lineas = IntStream.range(0, request.getItems().size())
+            .mapToObj(i -> Map.<String, Object>of(
+                "tipoEntradaId", request.getItems().get(i).getTipoEntradaId(),
+                "cantidad", request.getItems().get(i).getCantidad(),
+                "clave", carrito + "-" + i))
+            .collect(Collectors.toList());
+        
+        try {
+            // Decrementar stock de todas las líneas en una sola transacción de event-service
+            ajustarStockLote("/api/tipos-entrada/disminuir-lote", lineas);
+            log.info("║ Stock del carrito decrementado en event-service        ║");
+            
+        } catch (HttpClientErrorException e) {
+            // 4xx: event-service rechazó el lote entero (sin stock, tipo inactivo o inexistente)
+            log.error("║ RESULTADO:       ❌ ERROR - {}                  ║", e.getMessage());
+            log.info("═══════════════════════════════════════════════════════════");
+            throw new InsufficientStockException("No hay stock disponible para uno o más tipos de entrada del carrito");
+        } catch (Exception e) {
+            // Timeout, 5xx o sin conexión: no se sabe si el descuento se aplicó
+            log.error("║ RESULTADO:       ❌ ERROR - {}                  ║", e.getMessage());
+            log.info("═══════════════════════════════════════════════════════════");
+            anularCarrito(carrito, lineas);
+            throw new StockServiceUnavailableException("No se pudo reservar el carrito, intente nuevamente");
+        }
+        
+        Instant expiracion = Instant.now().plusSeconds(EXPIRACION_MINUTOS * 60);
+        List<Reserva> nuevas = request.getItems().stream()
+            .map(item -> new Reserva(
+                item.getTipoEntradaId(),
+                request.getUsuarioId(),
+                item.getCantidad(),
+                expiracion))
+            .collect(Collectors.toList());
+        
+        List<Reserva> reservas;
+        try {
+            reservas = transactionTemplate.execute(status -> reservaRepository.saveAll(nuevas));
+        } catch (RuntimeException e) {
+            log.error("║ ERROR guardando las reservas del carrito: {}", e.getMessage());
+            anularCarrito(carrito, lineas);
+            throw e;
+        }
+        reservas.forEach(r -> vencimientos.add(r.getId(), expiracion.toEpochMilli()));
+        
+        log.info("║ Reservas creadas: {}", reservas.size());
+        log.info("║ Expiran en:       {} minutos", EXPIRACION_MINUTOS);
+        log.info("║ RESULTADO:        ✅ CARRITO RESERVADO EXITOSAMENTE     ║");
+        log.info("═══════════════════════════════════════════════════════════");
+        
+        return reservas.stream()
+            .map(ReservaDto::fromEntity)
+            .collect(Collectors.toList());
+    }
+    
+    /**
+     * Anula el descuento de un carrito que no llegó a reservarse. Si event-service
+     * tampoco responde, el stock queda tomado hasta que alguien repita la
+     * anulación con las mismas claves (se loguean).
+     */
+    private void anularCarrito(String carrito, List<Map<String, Object>> lineas) {
+        List<Map<String, Object>> anulaciones = lineas.stream()
+            .map(linea -> {
+                Map<String, Object> anulacion = new HashMap<>(linea);
+                anulacion.put("anulaDescuento", true);
+                return anulacion;
+            })
+            .collect(Collectors.toList());
+        try {
+            ajustarStockLote("/api/tipos-entrada/incrementar-lote", anulaciones);
+            log.warn("║ Carrito {} anulado en event-service", carrito);
+        } catch (Exception e) {
+            log.error("║ ERROR anulando el carrito {} ({} líneas): {}", carrito, lineas.size(), e.getMessage());
+        }
+    }
+    
+    private void ajustarStockLote(String ruta, List<Map<String, Object>> lineas) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Gateway-Secret", gatewaySecret);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        
+        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(Map.of("lineas", lineas), headers);
+        restTemplate.exchange(eventServiceUrl + ruta, HttpMethod.PUT, entity, Void.class);
+    }
+    
     /**
      * Confirmar reserva (pago exitoso)
      */
@@ -100,24 +262,24 @@ public class ReservaService {
         log.info("═══════════════════════════════════════════════════════════");
         log.info("║ Reserva ID: {}", reservaId);
         
+        // UPDATE condicional: si el wheel o el barrido ya la pasaron a LIBERANDO
+        // (su stock está volviendo a event-service) no se puede confirmar
+        int confirmadas = reservaRepository.actualizarEstadoSiVigente(reservaId,
+            Reserva.EstadoReserva.ACTIVA, Reserva.EstadoReserva.CONFIRMADA, Instant.now());
         Reserva reserva = reservaRepository.findById(reservaId)
             .orElseThrow(() -> new ReservaNotFoundException("Reserva no encontrada con ID: " + reservaId));
         
-        if (reserva.getEstado() != Reserva.EstadoReserva.ACTIVA) {
-            log.error("║ RESULTADO: ❌ Reserva no está activa (estado: {})", reserva.getEstado());
-            log.info("═══════════════════════════════════════════════════════════");
-            throw new IllegalArgumentException("La reserva no está activa, estado actual: " + reserva.getEstado());
-        }
-        
-        // Verificar si no expiró
-        if (Instant.now().isAfter(reserva.getFechaExpiracion())) {
+        if (confirmadas == 0) {
+            if (reserva.getEstado() != Reserva.EstadoReserva.ACTIVA) {
+                log.error("║ RESULTADO: ❌ Reserva no está activa (estado: {})", reserva.getEstado());
+                log.info("═══════════════════════════════════════════════════════════");
+                throw new IllegalArgumentException("La reserva no está activa, estado actual: " + reserva.getEstado());
+            }
             log.error("║ RESULTADO: ❌ Reserva expirada");
             log.info("═══════════════════════════════════════════════════════════");
             throw new ReservaExpiredException("La reserva ha expirado el " + reserva.getFechaExpiracion());
         }
-        
-        reserva.setEstado(Reserva.EstadoReserva.CONFIRMADA);
-        reserva = reservaRepository.save(reserva);
+        vencimientos.remove(reservaId);
         
         log.info("║ RESULTADO: ✅ RESERVA CONFIRMADA - Stock ya decrementado");
         log.info("═══════════════════════════════════════════════════════════");
@@ -126,9 +288,12 @@ public class ReservaService {
     }
     
     /**
-     * Liberar reserva (pago fallido o cancelación manual)
+     * Liberar reserva (pago fallido o cancelación manual).
+     * 
+     * La reserva se marca LIBERANDO y se hace commit antes de devolver el stock:
+     * la llamada a event-service no corre con la fila bloqueada y, si falla, el
+     * barrido de respaldo la reintenta con la misma clave (idempotente).
      */
-    @Transactional
     public ReservaDto liberarReserva(Long reservaId) {
         log.info("═══════════════════════════════════════════════════════════");
         log.info("║ LIBERANDO RESERVA (Restaurando stock)                   ║");
@@ -144,27 +309,24 @@ public class ReservaService {
             return ReservaDto.fromEntity(reserva);
         }
         
-        try {
-            // Incrementar stock en event-service
-            String url = eventServiceUrl + "/api/tipos-entrada/" + reserva.getTipoEntradaId() + "/incrementar?cantidad=" + reserva.getCantidad();
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("X-Gateway-Secret", gatewaySecret);
-            
-            HttpEntity<Void> entity = new HttpEntity<>(headers);
-            
-            restTemplate.exchange(url, HttpMethod.PUT, entity, Map.class);
-            log.info("║ Stock restaurado en event-service (+{})", reserva.getCantidad());
-            
-        } catch (Exception e) {
-            log.error("║ ERROR restaurando stock: {}", e.getMessage());
-            throw new RuntimeException("Error al restaurar stock: " + e.getMessage());
+        Integer marcadas = transactionTemplate.execute(status -> reservaRepository.actualizarEstado(
+            List.of(reservaId), Reserva.EstadoReserva.ACTIVA, Reserva.EstadoReserva.LIBERANDO));
+        if (marcadas == null || marcadas == 0) {
+            // Otro hilo la confirmó o liberó entre la lectura y el UPDATE
+            reserva = reservaRepository.findById(reservaId).orElse(reserva);
+            log.warn("║ ADVERTENCIA: Reserva ya no está activa (estado: {})", reserva.getEstado());
+            log.info("═══════════════════════════════════════════════════════════");
+            return ReservaDto.fromEntity(reserva);
         }
+        vencimientos.remove(reservaId);
+        reserva.setEstado(Reserva.EstadoReserva.LIBERANDO);
         
-        reserva.setEstado(Reserva.EstadoReserva.LIBERADA);
-        reserva = reservaRepository.save(reserva);
-        
-        log.info("║ RESULTADO: ✅ RESERVA LIBERADA - Stock restaurado");
+        if (devolverStock(List.of(new ReservaLiberada(reservaId, reserva.getTipoEntradaId(), reserva.getCantidad())))) {
+            reserva.setEstado(Reserva.EstadoReserva.LIBERADA);
+            log.info("║ RESULTADO: ✅ RESERVA LIBERADA - Stock restaurado (+{})", reserva.getCantidad());
+        } else {
+            log.warn("║ RESULTADO: Reserva liberada, el stock se devolverá en el próximo barrido");
+        }
         log.info("═══════════════════════════════════════════════════════════");
         
         return ReservaDto.fromEntity(reserva);
@@ -181,26 +343,160 @@ public class ReservaService {
     }
     
     /**
-     * Job automático para liberar reservas expiradas
-     * Se ejecuta cada 30 segundos
+     * Avanza el timing wheel cada segundo y libera las reservas que vencieron,
+     * sin consultar la tabla completa.
      */
-    @Scheduled(fixedDelay = 30000) // 30 segundos
-    @Transactional
+    @Scheduled(fixedRate = 1000)
+    public void procesarVencimientos() {
+        List<Long> vencidas = vencimientos.advance(System.currentTimeMillis());
+        if (vencidas.isEmpty()) {
+            return;
+        }
+        
+        Instant ahora = Instant.now();
+        int total = 0;
+        for (int i = 0; i < vencidas.size(); i += tamanoPagina) {
+            List<Long> ids = vencidas.subList(i, Math.min(i + tamanoPagina, vencidas.size()));
+            List<ReservaLiberada> liberadas = transactionTemplate.execute(status ->
+                marcarLiberando(reservaRepository.reclamarReservasVencidas(ids, ahora)));
+            if (!liberadas.isEmpty() && devolverStock(liberadas)) {
+                total += liberadas.size();
+            }
+        }
+        // Las que quedaron LIBERANDO las reintenta el barrido de respaldo
+        log.info("║ WHEEL: {} de {} reservas vencidas liberadas", total, vencidas.size());
+    }
+    
+    /**
+     * Barrido de respaldo para reservas expiradas que el timing wheel no liberó
+     * (otra instancia caída) y para las liberadas cuyo stock no se pudo
+     * devolver. Cada 5 minutos por defecto.
+     * 
+     * Barre por páginas:
+     * 1. Reclama filas expiradas con FOR UPDATE SKIP LOCKED (varias instancias en
+     *    paralelo), las marca LIBERANDO y hace commit: los locks se sueltan antes
+     *    de llamar a event-service
+     * 2. Devuelve el stock de la página con UNA llamada a event-service, con la
+     *    clave reserva-{id} en cada línea: si la llamada se repite, event-service
+     *    ignora las líneas ya aplicadas
+     * 3. Marca como LIBERADA con un único UPDATE las reservas cuyo stock volvió
+     */
+    @Scheduled(fixedDelayString = "${reservas.expiracion.safety-net-ms:300000}")
     public void liberarReservasExpiradas() {
-        List<Reserva> expiradas = reservaRepository.findReservasExpiradas(Instant.now());
+        int reintentadas = devolverPendientes();
+        if (reintentadas > 0) {
+            log.info("║ JOB: stock de {} reservas liberadas devuelto en el reintento", reintentadas);
+        }
         
-        if (!expiradas.isEmpty()) {
-            log.info("═══════════════════════════════════════════════════════════");
-            log.info("║ JOB: Liberando {} reservas expiradas", expiradas.size());
-            log.info("═══════════════════════════════════════════════════════════");
-            
-            for (Reserva reserva : expiradas) {
-                try {
-                    liberarReserva(reserva.getId());
-                } catch (Exception e) {
-                    log.error("║ ERROR al liberar reserva {}: {}", reserva.getId(), e.getMessage());
-                }
+        Instant ahora = Instant.now();
+        Instant masAntigua = reservaRepository.findFechaExpiracionMasAntigua(ahora);
+        barridoLagSegundos.set(masAntigua != null ? Duration.between(masAntigua, ahora).getSeconds() : 0);
+        
+        if (masAntigua == null) {
+            barridoFilasPorSegundo.set(0);
+            return;
+        }
+        
+        long inicio = System.nanoTime();
+        int total = 0;
+        List<ReservaLiberada> liberadas;
+        boolean devueltas;
+        do {
+            liberadas = transactionTemplate.execute(status ->
+                marcarLiberando(reservaRepository.reclamarReservasExpiradas(ahora, tamanoPagina)));
+            devueltas = !liberadas.isEmpty() && devolverStock(liberadas);
+            if (devueltas) {
+                total += liberadas.size();
+            }
+            // Si la devolución falló, las filas quedan LIBERANDO: se reintentan en el próximo ciclo
+        } while (liberadas.size() == tamanoPagina && devueltas);
+        
+        long nanos = System.nanoTime() - inicio;
+        barridoTimer.record(Duration.ofNanos(nanos));
+        barridoFilasPorSegundo.set(nanos > 0 ? total * 1_000_000_000L / nanos : 0);
+        
+        log.info("═══════════════════════════════════════════════════════════");
+        log.info("║ JOB: {} reservas expiradas liberadas en {} ms (lag {} s)", 
+            total, nanos / 1_000_000, barridoLagSegundos.get());
+        log.info("═══════════════════════════════════════════════════════════");
+    }
+    
+    /**
+     * Marca LIBERANDO una página de reservas reclamadas (bloqueadas) en la transacción actual.
+     * El stock se devuelve después del commit, con {@link #devolverStock}.
+     */
+    private List<ReservaLiberada> marcarLiberando(List<ReservaRepository.ReservaExpirada> reclamadas) {
+        List<ReservaLiberada> liberadas = reclamadas.stream()
+            .map(r -> new ReservaLiberada(r.getId(), r.getTipoEntradaId(), r.getCantidad()))
+            .collect(Collectors.toList());
+        if (!liberadas.isEmpty()) {
+            List<Long> ids = liberadas.stream().map(ReservaLiberada::id).collect(Collectors.toList());
+            reservaRepository.actualizarEstado(ids, Reserva.EstadoReserva.ACTIVA, Reserva.EstadoReserva.LIBERANDO);
+            ids.forEach(vencimientos::remove);
+        }
+        return liberadas;
+    }
+    
+    /**
+     * Reintenta la devolución de las reservas que quedaron LIBERANDO.
+     */
+    private int devolverPendientes() {
+        int total = 0;
+        List<ReservaLiberada> pendientes;
+        boolean devueltas;
+        do {
+            pendientes = reservaRepository.findPendientesDeDevolver(tamanoPagina).stream()
+                .map(r -> new ReservaLiberada(r.getId(), r.getTipoEntradaId(), r.getCantidad()))
+                .collect(Collectors.toList());
+            devueltas = !pendientes.isEmpty() && devolverStock(pendientes);
+            if (devueltas) {
+                total += pendientes.size();
             }
+        } while (pendientes.size() == tamanoPagina && devueltas);
+        return total;
+    }
+    
+    /**
+     * Devuelve a event-service el stock de reservas ya marcadas LIBERANDO (sin
+     * transacción abierta) y las pasa a LIBERADA.
+     * 
+     * @return false si la devolución falló; las reservas quedan LIBERANDO
+     */
+    private boolean devolverStock(List<ReservaLiberada> reservas) {
+        List<Map<String, Object>> lineas = reservas.stream()
+            .map(r -> Map.<String, Object>of(
+                "tipoEntradaId", r.tipoEntradaId(),
+                "cantidad", r.cantidad(),
+                "clave", "reserva-" + r.id()))
+            .collect(Collectors.toList());
+        
+        try {
+            String url = eventServiceUrl + "/api/tipos-entrada/incrementar-lote";
+            
+            HttpHeaders headers = new HttpHeaders();
+            headers.set("X-Gateway-Secret", gatewaySecret);
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            
+            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(Map.of("lineas", lineas), headers);
+            restTemplate.exchange(url, HttpMethod.PUT, entity, Void.class);
+        } catch (Exception e) {
+            log.error("║ ERROR devolviendo el stock de {} reservas: {}", reservas.size(), e.getMessage());
+            return false;
         }
+        
+        List<Long> ids = reservas.stream().map(ReservaLiberada::id).collect(Collectors.toList());
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                reservaRepository.actualizarEstado(ids, Reserva.EstadoReserva.LIBERANDO, Reserva.EstadoReserva.LIBERADA));
+        } catch (RuntimeException e) {
+            // El stock ya volvió; el reintento con las mismas claves no lo repite
+            log.error("║ ERROR marcando LIBERADA {} reservas con stock devuelto: {}", ids.size(), e.getMessage());
+            return false;
+        }
+        reservasLiberadasCounter.increment(ids.size());
+        return true;
+    }
+    
+    private record ReservaLiberada(Long id, Long tipoEntradaId, int cantidad) {
     }
 }
@@ -0,0 +1,26 @@
+-- Esquema base de ticket-service (en BDs existentes las tablas ya las creó Hibernate)
+CREATE TABLE IF NOT EXISTS reservas (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    tipo_entrada_id BIGINT NOT NULL,
+    usuario_id BIGINT NOT NULL,
+    cantidad INT NOT NULL,
+    fecha_creacion DATETIME(6) NOT NULL,
+    fecha_expiracion DATETIME(6) NOT NULL,
+    estado VARCHAR(20) NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+CREATE TABLE IF NOT EXISTS tickets (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    ticket_id VARCHAR(50) NOT NULL,
+    usuario_id BIGINT NOT NULL,
+    tipo_entrada_id BIGINT NOT NULL,
+    evento_nombre VARCHAR(200) NOT NULL,
+    tipo_entrada_nombre VARCHAR(100) NOT NULL,
+    cantidad INT NOT NULL,
+    precio_unitario DOUBLE NOT NULL,
+    total_pagado DOUBLE NOT NULL,
+    payment_id VARCHAR(50) NOT NULL,
+    estado VARCHAR(20) NOT NULL,
+    fecha_compra DATETIME(6) NOT NULL,
+    UNIQUE KEY uk_ticket_id (ticket_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,13 @@
+-- Índices compuestos para las consultas de ReservaRepository y TicketRepository
+
+-- Barrido de expiración: estado + fecha_expiracion, cubriendo lo que se lee al liberar
+CREATE INDEX idx_reservas_estado_expiracion ON reservas (estado, fecha_expiracion, tipo_entrada_id, cantidad);
+
+-- Reservas activas de un usuario
+CREATE INDEX idx_reservas_usuario_estado ON reservas (usuario_id, estado);
+
+-- Reservas por tipo de entrada y estado
+CREATE INDEX idx_reservas_tipo_estado ON reservas (tipo_entrada_id, estado);
+
+-- Tickets de un usuario (el prefijo usuario_id sirve también a findByUsuarioId)
+CREATE INDEX idx_tickets_usuario_estado ON tickets (usuario_id, estado);
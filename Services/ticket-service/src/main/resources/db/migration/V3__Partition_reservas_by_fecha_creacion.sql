@@ -0,0 +1,22 @@
+-- Particionado mensual de reservas por fecha_creacion.
+-- Una reserva vive 10 minutos: las particiones viejas solo tienen filas terminadas
+-- y se eliminan con DROP PARTITION en lugar de DELETE masivos.
+-- ReservaParticionService crea las particiones futuras partiendo p_max y borra las vencidas.
+
+-- MySQL exige que la columna de particionado forme parte de la PK
+ALTER TABLE reservas MODIFY COLUMN fecha_creacion DATETIME(6) NOT NULL;
+ALTER TABLE reservas MODIFY COLUMN fecha_expiracion DATETIME(6) NOT NULL;
+ALTER TABLE reservas DROP PRIMARY KEY, ADD PRIMARY KEY (id, fecha_creacion);
+
+-- p_historico llega hasta el fin del mes en que corre la migración (UTC): así
+-- p_max queda vacía y ReservaParticionService la parte sin mover filas, corra
+-- la migración cuando corra. p_max (MAXVALUE) recibe cualquier fila si el job
+-- se atrasa.
+SET @limite_historico = DATE_FORMAT(LAST_DAY(UTC_DATE()) + INTERVAL 1 DAY, '%Y-%m-%d');
+SET @particionar = CONCAT(
+    'ALTER TABLE reservas PARTITION BY RANGE COLUMNS (fecha_creacion) (',
+    'PARTITION p_historico VALUES LESS THAN (''', @limite_historico, '''), ',
+    'PARTITION p_max VALUES LESS THAN (MAXVALUE))');
+PREPARE particionar FROM @particionar;
+EXECUTE particionar;
+DEALLOCATE PREPARE particionar;
@@ -0,0 +1,83 @@
+package com.example.ticketservice.bench;
+
+import com.example.ticketservice.service.HierarchicalTimingWheel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark JMH del timing wheel de vencimientos con {@code reservas} reservas
+ * vivas (100k por defecto), repartidas en los 10 minutos de expiración:
+ *
+ *   mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *       "-Dexec.args=-cp %classpath org.openjdk.jmh.Main TimingWheelBenchmark"
+ *
+ * - agregarYQuitar: una reserva nueva entra y otra se confirma (el tamaño no cambia).
+ * - tick:           avanza un segundo; vencen ~reservas/600 y se vuelven a agregar
+ *                   diez minutos más adelante, así la población se mantiene estable
+ *                   e incluye las cascadas del nivel 1 cada 64 ticks.
+ *
+ * El costo en BD de cada estrategia (barrido paginado vs. reclamo por id cada
+ * segundo) se compara con docker/bench-expiracion.sql.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TimingWheelBenchmark {
+
+    private static final long TICK_MS = 1000;
+    private static final long EXPIRACION_MS = 10 * 60 * 1000;
+
+    @Param({"100000"})
+    private int reservas;
+
+    private HierarchicalTimingWheel wheel;
+    private long ahora;
+    private long siguienteId;
+    private long primeraViva;
+
+    @Setup(Level.Iteration)
+    public void preparar() {
+        ahora = 0;
+        wheel = new HierarchicalTimingWheel(TICK_MS, ahora);
+        for (long id = 0; id < reservas; id++) {
+            // Como en producción: cada reserva vence diez minutos después de crearse
+            wheel.add(id, ahora + 1 + id * EXPIRACION_MS / reservas);
+        }
+        siguienteId = reservas;
+        primeraViva = 0;
+    }
+
+    @Benchmark
+    public int agregarYQuitar() {
+        wheel.add(siguienteId++, ahora + EXPIRACION_MS);
+        wheel.remove(primeraViva++);
+        return wheel.size();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int tick() {
+        ahora += TICK_MS;
+        List<Long> vencidas = wheel.advance(ahora);
+        for (Long id : vencidas) {
+            wheel.add(id, ahora + EXPIRACION_MS);
+        }
+        return vencidas.size();
+    }
+}
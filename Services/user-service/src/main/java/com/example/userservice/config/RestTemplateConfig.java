@@ -3,6 +3,7 @@ package com.example.userservice.config;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 import java.util.Collections;
@@ -10,6 +11,7 @@ import java.util.Collections;
 /**
  * Configuración de RestTemplate con interceptor para comunicación entre servicios.
  * Agrega automáticamente el header X-Gateway-Secret en todas las peticiones.
+ * Usa el pool keep-alive compartido de common (propiedades http.client.*).
  */
 @Configuration
 @RequiredArgsConstructor
@@ -18,8 +20,8 @@ public class RestTemplateConfig {
     private final GatewaySecretInterceptor gatewaySecretInterceptor;
     
     @Bean
-    public RestTemplate restTemplate() {
-        RestTemplate restTemplate = new RestTemplate();
+    public RestTemplate restTemplate(ClientHttpRequestFactory clientHttpRequestFactory) {
+        RestTemplate restTemplate = new RestTemplate(clientHttpRequestFactory);
         restTemplate.setInterceptors(Collections.singletonList(gatewaySecretInterceptor));
         return restTemplate;
     }
@@ -2,6 +2,7 @@ package com.example.userservice.config;
 
 import com.example.userservice.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -16,6 +17,7 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.AndRequestMatcher;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 
 @Configuration
@@ -26,6 +28,9 @@ public class SecurityConfig {
     private final UserService userService;
     private final JwtAuthenticationFilter jwtAuthFilter;
 
+    @Value("${gateway.secret}")
+    private String gatewaySecret;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
@@ -46,6 +51,11 @@ public class SecurityConfig {
                                 new AntPathRequestMatcher("/v3/api-docs/**"),
                                 new AntPathRequestMatcher("/h2-console/**")
                         ).permitAll()
+                        // Email por id: solo servicios internos (el gateway no expone esta ruta)
+                        .requestMatchers(new AndRequestMatcher(
+                                new AntPathRequestMatcher("/api/users/*/email", "GET"),
+                                request -> gatewaySecret.equals(request.getHeader("X-Gateway-Secret"))
+                        )).permitAll()
                         // Solo ADMIN puede gestionar usuarios
                         .requestMatchers(
                                 new AntPathRequestMatcher("/api/users", "GET"),
@@ -1,5 +1,6 @@
 package com.example.userservice.controller;
 
+import com.example.common.contracts.EmailUsuario;
 import com.example.userservice.dto.AuthResponse;
 import com.example.userservice.dto.ForgotPasswordRequest;
 import com.example.userservice.dto.LoginRequest;
@@ -106,6 +107,15 @@ public class UserController {
         return ResponseEntity.ok(user);
     }
 
+    @GetMapping("/{id}/email")
+    @Operation(
+            summary = "Obtener email de un usuario",
+            description = "Solo el email del usuario (uso interno, requiere X-Gateway-Secret)"
+    )
+    public ResponseEntity<EmailUsuario> getEmailById(@PathVariable Long id) {
+        return ResponseEntity.ok(new EmailUsuario(userService.getEmailById(id)));
+    }
+
     @GetMapping("/email/{email}")
     @Operation(
             summary = "Obtener usuario por email",
@@ -1,5 +1,6 @@
 package com.example.userservice.service;
 
+import com.example.common.outbox.OutboxNotificaciones;
 import com.example.userservice.exception.InvalidTokenException;
 import com.example.userservice.exception.TooManyRequestsException;
 import com.example.userservice.exception.UserNotFoundException;
@@ -13,10 +14,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
 import java.time.LocalDateTime;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 
@@ -28,11 +27,8 @@ public class PasswordResetService {
     private final PasswordResetTokenRepository tokenRepository;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
-    private final RestTemplate restTemplate;
     private final RateLimitService rateLimitService;
-    
-    @Value("${services.notification-service.url:http://localhost:8085}")
-    private String notificationServiceUrl;
+    private final OutboxNotificaciones outbox;
     
     @Value("${frontend.url:http://localhost:5173}")
     private String frontendUrl;
@@ -107,29 +103,15 @@ public class PasswordResetService {
         }
     }
     
+    /**
+     * Encola el email en el outbox dentro de la transacción del token: si se
+     * hace commit el email sale (aunque notification-service esté caído) y si
+     * hay rollback no se manda un link a un token que no existe.
+     */
     private void sendResetEmail(String email, String token, String nombre) {
-        try {
-            String resetLink = frontendUrl + "/reset-password?token=" + token;
-            
-            Map<String, Object> emailRequest = new HashMap<>();
-            emailRequest.put("tipo", "PASSWORD_RESET");
-            emailRequest.put("destinatario", email);
-            
-            Map<String, String> datos = new HashMap<>();
-            datos.put("nombre", nombre);
-            datos.put("resetLink", resetLink);
-            emailRequest.put("datos", datos);
-            
-            restTemplate.postForEntity(
-                notificationServiceUrl + "/api/notifications/send",
-                emailRequest,
-                String.class
-            );
-            log.info("Email de restablecimiento enviado a: {}", email);
-        } catch (Exception e) {
-            log.error("Error al enviar email de restablecimiento a {}: {}", email, e.getMessage());
-            // No lanzamos excepción para que el token se genere aunque falle el email
-        }
+        String resetLink = frontendUrl + "/reset-password?token=" + token;
+        outbox.encolar("PASSWORD_RESET", email, Map.of("nombre", nombre, "resetLink", resetLink));
+        log.info("Email de restablecimiento encolado para: {}", email);
     }
     
     @Transactional
@@ -106,6 +106,11 @@ public class UserService implements UserDetailsService {
         return UserDto.fromEntity(user);
     }
 
+    public String getEmailById(Long id) {
+        return userRepository.findEmailById(id)
+                .orElseThrow(() -> new UserNotFoundException(id));
+    }
+
     @Transactional
     public UserDto updateUser(Long id, UpdateUserRequest request) {
         User user = userRepository.findById(id)